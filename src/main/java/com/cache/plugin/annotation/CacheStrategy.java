@@ -35,7 +35,13 @@ public enum CacheStrategy {
     
     /**
      * 写回模式
-     * 先写本地缓存，异步写入远程缓存
+     * 先写本地缓存，远程写入进入写回队列，按键合并后批量异步刷新
      */
-    WRITE_BEHIND
+    WRITE_BEHIND,
+    
+    /**
+     * 自适应策略
+     * 按区域观测到的本地命中率、远程延迟和失效频率，在本地优先与远程优先之间自动切换
+     */
+    ADAPTIVE
 }
\ No newline at end of file
@@ -43,7 +43,12 @@ public @interface LocalCache {
     String cacheName() default "default";
     
     /**
-     * 是否同步加载
+     * 是否同步加载，开启后同一键的并发未命中只执行一次方法，其余调用等待其结果
      */
     boolean sync() default false;
+    
+    /**
+     * 键是否为数字ID，开启后区域使用以long为键的本地缓存，键表达式结果为整数时本地命中不构造键字符串
+     */
+    boolean longKeys() default false;
 }
\ No newline at end of file
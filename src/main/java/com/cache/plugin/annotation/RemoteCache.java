@@ -33,7 +33,7 @@ public @interface RemoteCache {
     String namespace() default "default";
     
     /**
-     * 是否同步操作
+     * 是否同步加载，开启后同一键的并发未命中只执行一次方法，其余调用等待其结果
      */
     boolean sync() default false;
     
@@ -46,4 +46,20 @@ public @interface TieredCache {
      * 缓存条件，支持SpEL表达式
      */
     String condition() default "";
+    
+    /**
+     * 软过期时间（秒），0表示不启用
+     * 超过后读取立即返回缓存值并在后台重新加载一次，直到远程TTL（硬过期）到期才会阻塞加载
+     */
+    int refreshAfter() default 0;
+    
+    /**
+     * 是否缓存null结果，开启后null以空值标记缓存，避免不存在的键反复穿透到数据源
+     */
+    boolean cacheNullValues() default false;
+    
+    /**
+     * 空值标记的过期时间（秒），0表示使用 tiered-cache.null-value.ttl
+     */
+    int nullValueTtl() default 0;
 }
\ No newline at end of file
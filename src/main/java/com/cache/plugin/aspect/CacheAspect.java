@@ -1,8 +1,12 @@
 package com.cache.plugin.aspect;
 
 import com.cache.plugin.annotation.*;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheKey;
+import com.cache.plugin.core.CacheLoadOptions;
 import com.cache.plugin.core.TieredCacheManager;
 import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.exception.CacheLoadException;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -28,8 +32,12 @@ public class CacheAspect {
     private final CacheConditionEvaluator conditionEvaluator;
     
     public CacheAspect(TieredCacheManager cacheManager) {
+        this(cacheManager, new CacheKeyGenerator());
+    }
+    
+    public CacheAspect(TieredCacheManager cacheManager, CacheKeyGenerator keyGenerator) {
         this.cacheManager = cacheManager;
-        this.keyGenerator = new CacheKeyGenerator();
+        this.keyGenerator = keyGenerator;
         this.conditionEvaluator = new CacheConditionEvaluator();
     }
     
@@ -42,7 +50,7 @@ public class CacheAspect {
         Object[] args = joinPoint.getArgs();
         
         // 生成缓存键
-        String key = generateCacheKey(twoLevelCache.key(), twoLevelCache.keyGenerator(), method, args);
+        Object key = generateReadKey(twoLevelCache.key(), twoLevelCache.keyGenerator(), method, args);
         
         // 评估缓存条件
         if (!evaluateCondition(twoLevelCache.condition(), method, args)) {
@@ -50,15 +58,18 @@ public class CacheAspect {
             return joinPoint.proceed();
         }
         
+        String region = resolveRegion(twoLevelCache.local(), twoLevelCache.remote());
+        
         // 根据缓存模式处理
         switch (twoLevelCache.mode()) {
             case READ_ONLY:
-                return handleReadOnlyCache(joinPoint, key, twoLevelCache.strategy(), method.getReturnType());
+                return handleReadOnlyCache(joinPoint, region, key, twoLevelCache.strategy(), method.getReturnType());
             case WRITE_ONLY:
-                return handleWriteOnlyCache(joinPoint, key, twoLevelCache.strategy(), getTtl(twoLevelCache));
+                return handleWriteOnlyCache(joinPoint, region, key.toString(), twoLevelCache.strategy(), getTtl(region, twoLevelCache));
             case READ_WRITE:
             default:
-                return handleReadWriteCache(joinPoint, key, twoLevelCache.strategy(), getTtl(twoLevelCache), method.getReturnType());
+                return handleReadWriteCache(joinPoint, region, key, twoLevelCache.strategy(), getLoadOptions(region, twoLevelCache),
+                        method.getReturnType(), isSyncLoad(twoLevelCache));
         }
     }
     
@@ -70,13 +81,14 @@ public class CacheAspect {
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
         Object[] args = joinPoint.getArgs();
         
-        String key = generateCacheKey(localCache.key(), "", method, args);
+        Object key = generateReadKey(localCache.key(), "", method, args);
         
         if (!evaluateCondition(localCache.condition(), method, args)) {
             return joinPoint.proceed();
         }
         
-        return handleReadWriteCache(joinPoint, key, CacheStrategy.LOCAL_ONLY, null, method.getReturnType());
+        String region = resolveRegion(localCache, null);
+        return handleReadWriteCache(joinPoint, region, key, CacheStrategy.LOCAL_ONLY, new CacheLoadOptions(), method.getReturnType(), localCache.sync());
     }
     
     /**
@@ -87,14 +99,16 @@ public class CacheAspect {
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
         Object[] args = joinPoint.getArgs();
         
-        String key = generateCacheKey(remoteCache.key(), "", method, args);
+        Object key = generateReadKey(remoteCache.key(), "", method, args);
         
         if (!evaluateCondition(remoteCache.condition(), method, args)) {
             return joinPoint.proceed();
         }
         
-        Duration ttl = Duration.ofSeconds(remoteCache.ttl());
-        return handleReadWriteCache(joinPoint, key, CacheStrategy.REMOTE_ONLY, ttl, method.getReturnType());
+        String region = resolveRegion(null, remoteCache);
+        // 命名区域的TTL由区域决定（注解值可被 tiered-cache.regions 覆盖）
+        Duration ttl = isDefaultRegion(region) ? Duration.ofSeconds(remoteCache.ttl()) : null;
+        return handleReadWriteCache(joinPoint, region, key, CacheStrategy.REMOTE_ONLY, new CacheLoadOptions(ttl), method.getReturnType(), remoteCache.sync());
     }
     
     /**
@@ -155,7 +169,7 @@ public class CacheAspect {
         Duration ttl = cachePut.ttl() > 0 ? Duration.ofSeconds(cachePut.ttl()) : null;
         
         try {
-            cacheManager.put(key, result, strategy, ttl);
+            cacheManager.put(cachePut.cacheName(), key, result, strategy, ttl);
             logger.debug("Updated cache for key: {} with strategy: {}", key, strategy);
         } catch (Exception e) {
             logger.error("Failed to update cache for key: {}", key, e);
@@ -168,8 +182,8 @@ public class CacheAspect {
     /**
      * 处理只读缓存
      */
-    private Object handleReadOnlyCache(ProceedingJoinPoint joinPoint, String key, CacheStrategy strategy, Class<?> returnType) throws Throwable {
-        Object cachedValue = cacheManager.get(key, returnType, strategy);
+    private Object handleReadOnlyCache(ProceedingJoinPoint joinPoint, String region, Object key, CacheStrategy strategy, Class<?> returnType) throws Throwable {
+        Object cachedValue = getCached(region, key, returnType, strategy);
         if (cachedValue != null) {
             logger.debug("Cache hit for key: {} with strategy: {}", key, strategy);
             return cachedValue;
@@ -182,11 +196,11 @@ public class CacheAspect {
     /**
      * 处理只写缓存
      */
-    private Object handleWriteOnlyCache(ProceedingJoinPoint joinPoint, String key, CacheStrategy strategy, Duration ttl) throws Throwable {
+    private Object handleWriteOnlyCache(ProceedingJoinPoint joinPoint, String region, String key, CacheStrategy strategy, Duration ttl) throws Throwable {
         Object result = joinPoint.proceed();
         
         try {
-            cacheManager.put(key, result, strategy, ttl);
+            cacheManager.put(region, key, result, strategy, ttl);
             logger.debug("Cached result for key: {} with strategy: {}", key, strategy);
         } catch (Exception e) {
             logger.error("Failed to cache result for key: {}", key, e);
@@ -199,9 +213,16 @@ public class CacheAspect {
     /**
      * 处理读写缓存
      */
-    private Object handleReadWriteCache(ProceedingJoinPoint joinPoint, String key, CacheStrategy strategy, Duration ttl, Class<?> returnType) throws Throwable {
+    private Object handleReadWriteCache(ProceedingJoinPoint joinPoint, String region, Object key, CacheStrategy strategy, CacheLoadOptions options,
+                                        Class<?> returnType, boolean sync) throws Throwable {
+        // 后台刷新和空值缓存依赖加载器，同样走同步加载路径
+        if (sync || options.isRefreshEnabled() || options.isCacheNullValues()) {
+            return handleSyncLoad(joinPoint, region, key, strategy, options, returnType);
+        }
+        
+        Duration ttl = options.getTtl();
         // 先尝试从缓存获取
-        Object cachedValue = cacheManager.get(key, returnType, strategy);
+        Object cachedValue = getCached(region, key, returnType, strategy);
         if (cachedValue != null) {
             logger.debug("Cache hit for key: {} with strategy: {}", key, strategy);
             return cachedValue;
@@ -214,7 +235,7 @@ public class CacheAspect {
         // 将结果存入缓存
         if (result != null) {
             try {
-                cacheManager.put(key, result, strategy, ttl);
+                cacheManager.put(region, key.toString(), result, strategy, ttl);
                 logger.debug("Cached result for key: {} with strategy: {}", key, strategy);
             } catch (Exception e) {
                 logger.error("Failed to cache result for key: {}", key, e);
@@ -225,6 +246,25 @@ public class CacheAspect {
         return result;
     }
     
+    /**
+     * 同步加载：同一键的并发未命中只执行一次目标方法
+     */
+    @SuppressWarnings("unchecked")
+    private Object handleSyncLoad(ProceedingJoinPoint joinPoint, String region, Object key, CacheStrategy strategy, CacheLoadOptions options, Class<?> returnType) throws Throwable {
+        try {
+            if (key instanceof Long) {
+                return cacheManager.get(region, ((Long) key).longValue(), (Class<Object>) returnType, strategy, options, joinPoint::proceed);
+            }
+            if (key instanceof CacheKey) {
+                return cacheManager.get(region, (CacheKey) key, (Class<Object>) returnType, strategy, options, joinPoint::proceed);
+            }
+            return cacheManager.get(region, key.toString(), (Class<Object>) returnType, strategy, options, joinPoint::proceed);
+        } catch (CacheLoadException e) {
+            // 还原目标方法抛出的原始异常
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+    
     /**
      * 执行缓存清除
      */
@@ -242,7 +282,7 @@ public class CacheAspect {
                 }
                 
                 CacheStrategy strategy = determineCacheStrategy(cacheEvict.level());
-                cacheManager.evict(key, strategy);
+                cacheManager.evict(cacheEvict.cacheName(), key, strategy);
                 logger.debug("Evicted cache for key: {} with strategy: {}", key, strategy);
             }
         } catch (Exception e) {
@@ -252,7 +292,27 @@ public class CacheAspect {
     }
     
     /**
-     * 生成缓存键
+     * 读取缓存，整数键使用long键的查找，紧凑键使用键对象的查找
+     */
+    private Object getCached(String region, Object key, Class<?> returnType, CacheStrategy strategy) {
+        if (key instanceof Long) {
+            return cacheManager.get(region, ((Long) key).longValue(), returnType, strategy);
+        }
+        if (key instanceof CacheKey) {
+            return cacheManager.get(region, (CacheKey) key, returnType, strategy);
+        }
+        return cacheManager.get(region, key.toString(), returnType, strategy);
+    }
+    
+    /**
+     * 生成读取用的缓存键，键表达式结果为整数时返回Long，启用紧凑键时默认键为CacheKey，否则返回字符串
+     */
+    private Object generateReadKey(String keyExpression, String keyGeneratorName, Method method, Object[] args) {
+        return keyGenerator.generateKey(keyExpression, keyGeneratorName, method, args, null);
+    }
+    
+    /**
+     * 生成缓存键，启用紧凑键时默认键为CacheKey的编码形式
      */
     private String generateCacheKey(String keyExpression, String keyGeneratorName, Method method, Object[] args) {
         return keyGenerator.generate(keyExpression, keyGeneratorName, method, args, null);
@@ -280,11 +340,92 @@ public class CacheAspect {
     }
     
     /**
-     * 获取TTL
+     * 确定缓存区域，本地缓存的cacheName优先，命名区域首次使用时以注解声明的限制创建
      */
-    private Duration getTtl(TieredCache twoLevelCache) {
+    private String resolveRegion(LocalCache localCache, RemoteCache remoteCache) {
+        String region = getRegionName(localCache, remoteCache);
+        if (!isDefaultRegion(region) && !cacheManager.hasRegion(region)) {
+            cacheManager.getRegion(region, getRegionDefaults(localCache, remoteCache));
+        }
+        return region;
+    }
+    
+    /**
+     * 注解对应的区域名，本地缓存的cacheName优先
+     */
+    static String getRegionName(LocalCache localCache, RemoteCache remoteCache) {
+        if (localCache != null && !isDefaultRegion(localCache.cacheName())) {
+            return localCache.cacheName();
+        }
+        if (remoteCache != null && !isDefaultRegion(remoteCache.cacheName())) {
+            return remoteCache.cacheName();
+        }
+        return TieredCacheManager.DEFAULT_REGION;
+    }
+    
+    /**
+     * 将注解上声明的限制转换为区域默认配置
+     */
+    static TieredCacheProperties.RegionProperties getRegionDefaults(LocalCache localCache, RemoteCache remoteCache) {
+        TieredCacheProperties.RegionProperties defaults = new TieredCacheProperties.RegionProperties();
+        if (localCache != null) {
+            defaults.setMaxSize(localCache.maxSize());
+            if (localCache.longKeys()) {
+                defaults.setLongKeys(true);
+            }
+            if (localCache.expireAfterWrite() > 0) {
+                defaults.setExpireAfterWrite(Duration.ofSeconds(localCache.expireAfterWrite()));
+            }
+            if (localCache.expireAfterAccess() > 0) {
+                defaults.setExpireAfterAccess(Duration.ofSeconds(localCache.expireAfterAccess()));
+            }
+        }
+        if (remoteCache != null) {
+            if (remoteCache.ttl() > 0) {
+                defaults.setTtl(Duration.ofSeconds(remoteCache.ttl()));
+            }
+            if (!isDefaultRegion(remoteCache.namespace())) {
+                defaults.setNamespace(remoteCache.namespace());
+            }
+        }
+        return defaults;
+    }
+    
+    /**
+     * 是否为默认区域
+     */
+    static boolean isDefaultRegion(String region) {
+        return region == null || region.isEmpty() || TieredCacheManager.DEFAULT_REGION.equals(region);
+    }
+    
+    /**
+     * 获取TTL，命名区域返回null以使用区域的TTL
+     */
+    private Duration getTtl(String region, TieredCache twoLevelCache) {
         int remoteTtl = twoLevelCache.remote().ttl();
-        return remoteTtl > 0 ? Duration.ofSeconds(remoteTtl) : null;
+        return remoteTtl > 0 && isDefaultRegion(region) ? Duration.ofSeconds(remoteTtl) : null;
+    }
+    
+    /**
+     * 获取加载选项
+     */
+    private CacheLoadOptions getLoadOptions(String region, TieredCache twoLevelCache) {
+        CacheLoadOptions options = new CacheLoadOptions(getTtl(region, twoLevelCache));
+        if (twoLevelCache.refreshAfter() > 0) {
+            options.setRefreshAfter(Duration.ofSeconds(twoLevelCache.refreshAfter()));
+        }
+        options.setCacheNullValues(twoLevelCache.cacheNullValues());
+        if (twoLevelCache.nullValueTtl() > 0) {
+            options.setNullValueTtl(Duration.ofSeconds(twoLevelCache.nullValueTtl()));
+        }
+        return options;
+    }
+    
+    /**
+     * 是否启用同步加载
+     */
+    private boolean isSyncLoad(TieredCache twoLevelCache) {
+        return twoLevelCache.local().sync() || twoLevelCache.remote().sync();
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.cache.plugin.aspect;
 
+import com.cache.plugin.core.CacheKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.EvaluationContext;
@@ -11,8 +12,8 @@ import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 缓存键生成器
@@ -22,6 +23,23 @@ public class CacheKeyGenerator {
     private static final Logger logger = LoggerFactory.getLogger(CacheKeyGenerator.class);
     
     private final ExpressionParser parser = new SpelExpressionParser();
+    // 解析后的键表达式
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    // 每个方法的键前缀和参数变量名
+    private final Map<Method, MethodMetadata> methods = new ConcurrentHashMap<>();
+    // 默认键是否使用紧凑键
+    private final boolean compactKeys;
+    
+    public CacheKeyGenerator() {
+        this(false);
+    }
+    
+    /**
+     * @param compactKeys 为true时默认键为 {@link CacheKey}，否则为字符串 类名.方法名(参数,...)
+     */
+    public CacheKeyGenerator(boolean compactKeys) {
+        this.compactKeys = compactKeys;
+    }
     
     /**
      * 生成缓存键
@@ -34,6 +52,21 @@ public class CacheKeyGenerator {
      * @return 缓存键
      */
     public String generate(String keyExpression, String keyGeneratorName, Method method, Object[] args, Object result) {
+        return generateKey(keyExpression, keyGeneratorName, method, args, result).toString();
+    }
+    
+    /**
+     * 生成缓存键，键表达式的结果为整数（Long、Integer、Short、Byte）时返回Long，启用紧凑键时默认策略返回
+     * {@link CacheKey}，其余情况返回字符串；toString() 均与 generate 的结果相同
+     * 
+     * @param keyExpression 键表达式
+     * @param keyGeneratorName 键生成器名称
+     * @param method 方法
+     * @param args 方法参数
+     * @param result 方法返回值
+     * @return Long、CacheKey或String形式的缓存键
+     */
+    public Object generateKey(String keyExpression, String keyGeneratorName, Method method, Object[] args, Object result) {
         try {
             // 如果指定了键表达式，使用SpEL解析
             if (StringUtils.hasText(keyExpression)) {
@@ -47,7 +80,7 @@ public class CacheKeyGenerator {
             
             // 默认键生成策略
             return generateDefaultKey(method, args);
-            
+        
         } catch (Exception e) {
             logger.error("Failed to generate cache key, using default strategy", e);
             return generateDefaultKey(method, args);
@@ -57,11 +90,17 @@ public class CacheKeyGenerator {
     /**
      * 使用SpEL表达式生成键
      */
-    private String evaluateKeyExpression(String keyExpression, Method method, Object[] args, Object result) {
+    private Object evaluateKeyExpression(String keyExpression, Method method, Object[] args, Object result) {
         try {
-            Expression expression = parser.parseExpression(keyExpression);
+            Expression expression = expressions.computeIfAbsent(keyExpression, parser::parseExpression);
             EvaluationContext context = createEvaluationContext(method, args, result);
             Object value = expression.getValue(context);
+            if (value instanceof Long) {
+                return value;
+            }
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return ((Number) value).longValue();
+            }
             return value != null ? value.toString() : generateDefaultKey(method, args);
         } catch (Exception e) {
             logger.error("Failed to evaluate key expression: {}", keyExpression, e);
@@ -76,13 +115,13 @@ public class CacheKeyGenerator {
         StandardEvaluationContext context = new StandardEvaluationContext();
         
         // 添加方法参数到上下文
-        Parameter[] parameters = method.getParameters();
-        for (int i = 0; i < parameters.length && i < args.length; i++) {
-            context.setVariable(parameters[i].getName(), args[i]);
+        MethodMetadata metadata = metadataOf(method);
+        for (int i = 0; i < metadata.parameterNames.length && i < args.length; i++) {
+            context.setVariable(metadata.parameterNames[i], args[i]);
             // 同时支持 #p0, #p1 这种形式
-            context.setVariable("p" + i, args[i]);
+            context.setVariable(metadata.indexedNames[i][0], args[i]);
             // 支持 #a0, #a1 这种形式
-            context.setVariable("a" + i, args[i]);
+            context.setVariable(metadata.indexedNames[i][1], args[i]);
         }
         
         // 添加方法返回值到上下文
@@ -93,7 +132,7 @@ public class CacheKeyGenerator {
         // 添加方法信息到上下文
         context.setVariable("method", method);
         context.setVariable("methodName", method.getName());
-        context.setVariable("className", method.getDeclaringClass().getSimpleName());
+        context.setVariable("className", metadata.className);
         
         return context;
     }
@@ -101,7 +140,7 @@ public class CacheKeyGenerator {
     /**
      * 使用自定义键生成器
      */
-    private String generateByCustomGenerator(String keyGeneratorName, Method method, Object[] args, Object result) {
+    private Object generateByCustomGenerator(String keyGeneratorName, Method method, Object[] args, Object result) {
         // 这里可以扩展支持自定义键生成器
         // 目前使用默认策略
         logger.warn("Custom key generator '{}' not implemented, using default strategy", keyGeneratorName);
@@ -109,60 +148,60 @@ public class CacheKeyGenerator {
     }
     
     /**
-     * 生成默认缓存键
+     * 生成默认缓存键：启用紧凑键时为 {@link CacheKey}，否则为 类名.方法名(参数,...)，按精确长度构造
      */
-    private String generateDefaultKey(Method method, Object[] args) {
-        StringBuilder keyBuilder = new StringBuilder();
-        
-        // 添加类名和方法名
-        keyBuilder.append(method.getDeclaringClass().getSimpleName())
-                  .append(".")
-                  .append(method.getName());
-        
-        // 添加参数
-        if (args != null && args.length > 0) {
-            String argsString = Arrays.stream(args)
-                    .map(this::convertArgToString)
-                    .collect(Collectors.joining(","));
-            keyBuilder.append("(").append(argsString).append(")");
-        } else {
-            keyBuilder.append("()");
+    private Object generateDefaultKey(Method method, Object[] args) {
+        MethodMetadata metadata = metadataOf(method);
+        if (compactKeys) {
+            return new CacheKey(metadata.target, args);
         }
-        
-        return keyBuilder.toString();
+        if (args == null || args.length == 0) {
+            return metadata.emptyKey;
+        }
+        String[] parts = new String[args.length];
+        int length = metadata.target.length() + 2 + args.length - 1;
+        for (int i = 0; i < args.length; i++) {
+            parts[i] = CacheKey.toText(args[i]);
+            length += parts[i].length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(metadata.target).append('(');
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(parts[i]);
+        }
+        return builder.append(')').toString();
+    }
+    
+    private MethodMetadata metadataOf(Method method) {
+        MethodMetadata metadata = methods.get(method);
+        return metadata != null ? metadata : methods.computeIfAbsent(method, MethodMetadata::new);
     }
     
     /**
-     * 将参数转换为字符串
+     * 方法的键前缀（类名.方法名）、无参数时的键和参数变量名，每个方法只计算一次
      */
-    private String convertArgToString(Object arg) {
-        if (arg == null) {
-            return "null";
-        }
-        
-        // 对于基本类型和字符串，直接转换
-        if (arg instanceof String || arg instanceof Number || arg instanceof Boolean) {
-            return arg.toString();
-        }
+    private static final class MethodMetadata {
+        private final String className;
+        private final String target;
+        private final String emptyKey;
+        private final String[] parameterNames;
+        // 每个参数的 p 和 a 形式的变量名
+        private final String[][] indexedNames;
         
-        // 对于数组，转换为字符串表示
-        if (arg.getClass().isArray()) {
-            if (arg instanceof Object[]) {
-                return Arrays.toString((Object[]) arg);
-            } else if (arg instanceof int[]) {
-                return Arrays.toString((int[]) arg);
-            } else if (arg instanceof long[]) {
-                return Arrays.toString((long[]) arg);
-            } else if (arg instanceof double[]) {
-                return Arrays.toString((double[]) arg);
-            } else if (arg instanceof boolean[]) {
-                return Arrays.toString((boolean[]) arg);
-            } else {
-                return arg.toString();
+        MethodMetadata(Method method) {
+            this.className = method.getDeclaringClass().getSimpleName();
+            this.target = className + "." + method.getName();
+            this.emptyKey = target + "()";
+            Parameter[] parameters = method.getParameters();
+            this.parameterNames = new String[parameters.length];
+            this.indexedNames = new String[parameters.length][];
+            for (int i = 0; i < parameters.length; i++) {
+                parameterNames[i] = parameters[i].getName();
+                indexedNames[i] = new String[]{"p" + i, "a" + i};
             }
         }
-        
-        // 对于其他对象，使用hashCode
-        return arg.getClass().getSimpleName() + "@" + arg.hashCode();
     }
-}
\ No newline at end of file
+}
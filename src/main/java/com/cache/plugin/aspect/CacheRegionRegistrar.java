@@ -0,0 +1,62 @@
+package com.cache.plugin.aspect;
+
+import com.cache.plugin.annotation.LocalCache;
+import com.cache.plugin.annotation.RemoteCache;
+import com.cache.plugin.annotation.TieredCache;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.TieredCacheManager;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 缓存区域登记器
+ * 
+ * 命名区域由首次访问它的调用创建，而 @CacheEvict、@CachePut 只声明区域名。Bean初始化时登记缓存注解上声明的
+ * 区域限制，无论读取、清除还是更新先访问区域，区域都以相同的命名空间和限制创建。
+ */
+public class CacheRegionRegistrar implements BeanPostProcessor {
+    
+    private final ObjectProvider<TieredCacheManager> cacheManager;
+    
+    public CacheRegionRegistrar(ObjectProvider<TieredCacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+        ReflectionUtils.doWithMethods(targetClass, this::declare);
+        return bean;
+    }
+    
+    /**
+     * 登记方法上的缓存注解声明的区域
+     */
+    private void declare(Method method) {
+        TieredCache tieredCache = method.getAnnotation(TieredCache.class);
+        if (tieredCache != null) {
+            declare(tieredCache.local(), tieredCache.remote());
+        }
+        LocalCache localCache = method.getAnnotation(LocalCache.class);
+        if (localCache != null) {
+            declare(localCache, null);
+        }
+        RemoteCache remoteCache = method.getAnnotation(RemoteCache.class);
+        if (remoteCache != null) {
+            declare(null, remoteCache);
+        }
+    }
+    
+    private void declare(LocalCache localCache, RemoteCache remoteCache) {
+        String region = CacheAspect.getRegionName(localCache, remoteCache);
+        if (!CacheAspect.isDefaultRegion(region)) {
+            TieredCacheProperties.RegionProperties defaults = CacheAspect.getRegionDefaults(localCache, remoteCache);
+            cacheManager.ifAvailable(manager -> manager.declareRegion(region, defaults));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 紧凑二进制编解码器
+ *
+ * 每个值以一个字节的标签开头：整数使用ZigZag变长编码，字符串和字节数组带变长长度前缀，
+ * ArrayList、HashSet/LinkedHashSet、HashMap/LinkedHashMap 以及JDK内部的不可变集合逐元素编码，
+ * 解码为ArrayList、LinkedHashSet、LinkedHashMap，自然排序的TreeSet/TreeMap同样逐元素编码。
+ * 其他对象以类名加JSON编码（不使用Java序列化，体积更小，也不会在解码时执行任意类的readObject），
+ * 类名只解析受信任的类型。格式自描述，解码不需要目标类型。
+ */
+public class BinaryCacheCodec implements CacheCodec {
+    
+    public static final byte ID = 2;
+    public static final String NAME = "binary";
+    
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int FLOAT = 6;
+    private static final int SHORT = 7;
+    private static final int BYTE = 8;
+    private static final int CHAR = 9;
+    private static final int STRING = 10;
+    private static final int BYTES = 11;
+    private static final int LIST = 12;
+    private static final int SET = 13;
+    private static final int MAP = 14;
+    private static final int BIG_DECIMAL = 15;
+    private static final int BIG_INTEGER = 16;
+    private static final int DATE = 17;
+    private static final int ENUM = 18;
+    // 19 保留，不再分配
+    private static final int JSON = 20;
+    private static final int SORTED_SET = 21;
+    private static final int SORTED_MAP = 22;
+    
+    private final ObjectMapper objectMapper;
+    private final ClassCache classes;
+    
+    public BinaryCacheCodec() {
+        this(JsonCacheCodec.defaultObjectMapper());
+    }
+    
+    /**
+     * @param objectMapper 编码不可序列化对象时使用
+     */
+    public BinaryCacheCodec(ObjectMapper objectMapper) {
+        this(objectMapper, new ClassCache(BinaryCacheCodec.class.getClassLoader()));
+    }
+    
+    /**
+     * @param classes 与注册表共享的类型缓存，决定哪些类名可以解析
+     */
+    BinaryCacheCodec(ObjectMapper objectMapper, ClassCache classes) {
+        this.objectMapper = objectMapper;
+        this.classes = classes;
+    }
+    
+    @Override
+    public byte id() {
+        return ID;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    public byte[] encode(Object value) {
+        ByteWriter out = new ByteWriter(64);
+        write(out, value);
+        return out.toByteArray();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] bytes, int offset, int length, Class<T> type) {
+        Object value = read(new ByteReader(bytes, offset, length));
+        if (value != null && !type.isInstance(value)) {
+            throw new CacheSerializationException("Decoded value of type " + value.getClass().getName()
+                    + " is not a " + type.getName());
+        }
+        return (T) value;
+    }
+    
+    private void write(ByteWriter out, Object value) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Long) {
+            out.write(LONG);
+            out.writeSignedVarint((Long) value);
+        } else if (value instanceof Integer) {
+            out.write(INT);
+            out.writeSignedVarint((Integer) value);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.write(FLOAT);
+            out.writeInt(Float.floatToIntBits((Float) value));
+        } else if (value instanceof Short) {
+            out.write(SHORT);
+            out.writeSignedVarint((Short) value);
+        } else if (value instanceof Byte) {
+            out.write(BYTE);
+            out.write((Byte) value);
+        } else if (value instanceof Character) {
+            out.write(CHAR);
+            out.writeVarint((Character) value);
+        } else if (value instanceof byte[]) {
+            out.write(BYTES);
+            out.writeBytes((byte[]) value);
+        } else if (value instanceof BigDecimal) {
+            out.write(BIG_DECIMAL);
+            out.writeBytes(value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof BigInteger) {
+            out.write(BIG_INTEGER);
+            out.writeBytes(((BigInteger) value).toByteArray());
+        } else if (value.getClass() == Date.class) {
+            out.write(DATE);
+            out.writeSignedVarint(((Date) value).getTime());
+        } else if (value instanceof Enum) {
+            out.write(ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (isPlain(value, List.class, ArrayList.class, ArrayList.class)) {
+            writeElements(out, LIST, (Collection<?>) value);
+        } else if (isPlain(value, Set.class, HashSet.class, LinkedHashSet.class)) {
+            writeElements(out, SET, (Collection<?>) value);
+        } else if (isPlain(value, Map.class, HashMap.class, LinkedHashMap.class)) {
+            writeEntries(out, MAP, (Map<?, ?>) value);
+        } else if (value.getClass() == TreeSet.class && ((TreeSet<?>) value).comparator() == null) {
+            writeElements(out, SORTED_SET, (Collection<?>) value);
+        } else if (value.getClass() == TreeMap.class && ((TreeMap<?, ?>) value).comparator() == null) {
+            writeEntries(out, SORTED_MAP, (Map<?, ?>) value);
+        } else {
+            out.write(JSON);
+            writeString(out, value.getClass().getName());
+            try {
+                out.writeBytes(objectMapper.writeValueAsBytes(value));
+            } catch (IOException e) {
+                throw new CacheSerializationException("Failed to encode value of type " + value.getClass().getName(), e);
+            }
+        }
+    }
+    
+    private Object read(ByteReader in) {
+        int tag = in.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) in.readSignedVarint();
+            case LONG:
+                return in.readSignedVarint();
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case SHORT:
+                return (short) in.readSignedVarint();
+            case BYTE:
+                return (byte) in.read();
+            case CHAR:
+                return (char) in.readVarint();
+            case STRING:
+                return readString(in);
+            case BYTES:
+                return in.readBytes();
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case BIG_INTEGER:
+                return new BigInteger(in.readBytes());
+            case DATE:
+                return new Date(in.readSignedVarint());
+            case ENUM:
+                return readEnum(in);
+            case LIST:
+                return readElements(in, new ArrayList<>());
+            case SET:
+                return readElements(in, new LinkedHashSet<>());
+            case MAP:
+                return readEntries(in, new LinkedHashMap<>());
+            case SORTED_SET:
+                return readElements(in, new TreeSet<>());
+            case SORTED_MAP:
+                return readEntries(in, new TreeMap<>());
+            case JSON:
+                return readJson(in);
+            default:
+                throw new CacheSerializationException("Unknown tag in binary cache value: " + tag);
+        }
+    }
+    
+    /**
+     * 可逐元素编码的集合：给定的公开实现类，或JDK内部（非公开）的实现（例如 List.of、Collections.unmodifiableList、Arrays.asList），
+     * 后者调用方只能以接口类型使用，解码为另一种实现不影响类型转换；有序集合保留原实现
+     */
+    private static boolean isPlain(Object value, Class<?> type, Class<?> first, Class<?> second) {
+        if (!type.isInstance(value) || value instanceof SortedSet || value instanceof SortedMap) {
+            return false;
+        }
+        Class<?> valueType = value.getClass();
+        if (valueType == first || valueType == second) {
+            return true;
+        }
+        return valueType.getName().startsWith("java.util.") && !Modifier.isPublic(valueType.getModifiers());
+    }
+    
+    private void writeElements(ByteWriter out, int tag, Collection<?> collection) {
+        out.write(tag);
+        out.writeVarint(collection.size());
+        for (Object element : collection) {
+            write(out, element);
+        }
+    }
+    
+    private Collection<Object> readElements(ByteReader in, Collection<Object> target) {
+        long size = in.readVarint();
+        for (long i = 0; i < size; i++) {
+            target.add(read(in));
+        }
+        return target;
+    }
+    
+    private void writeEntries(ByteWriter out, int tag, Map<?, ?> map) {
+        out.write(tag);
+        out.writeVarint(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            write(out, entry.getKey());
+            write(out, entry.getValue());
+        }
+    }
+    
+    private Map<Object, Object> readEntries(ByteReader in, Map<Object, Object> target) {
+        long size = in.readVarint();
+        for (long i = 0; i < size; i++) {
+            Object key = read(in);
+            target.put(key, read(in));
+        }
+        return target;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum(ByteReader in) {
+        Class type = classes.forName(readString(in));
+        if (!type.isEnum()) {
+            throw new CacheSerializationException("Not an enum type in cache value: " + type.getName());
+        }
+        String name = readString(in);
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new CacheSerializationException("Unknown constant " + name + " of " + type.getName(), e);
+        }
+    }
+    
+    private Object readJson(ByteReader in) {
+        Class<?> type = classes.forName(readString(in));
+        int length = in.readLength();
+        try {
+            Object value = objectMapper.readerFor(type).readValue(in.array(), in.position(), length);
+            in.skip(length);
+            return value;
+        } catch (IOException e) {
+            throw new CacheSerializationException("Failed to decode JSON value as " + type.getName(), e);
+        }
+    }
+    
+    private static void writeString(ByteWriter out, String value) {
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String readString(ByteReader in) {
+        int length = in.readLength();
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.skip(length);
+        return value;
+    }
+}
@@ -0,0 +1,102 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+
+/**
+ * 字节数组读取器，与 {@link ByteWriter} 的格式对应
+ */
+final class ByteReader {
+    
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+    
+    ByteReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+    
+    int read() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+    
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = read();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CacheSerializationException("Malformed varint in cache value");
+    }
+    
+    long readSignedVarint() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[position++] & 0xFF);
+        }
+        return value;
+    }
+    
+    int readInt() {
+        require(4);
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (bytes[position++] & 0xFF);
+        }
+        return value;
+    }
+    
+    /**
+     * 读取长度前缀，返回长度，数据从 position() 开始，调用方随后用 skip 跳过
+     */
+    int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new CacheSerializationException("Truncated cache value: length " + length + " exceeds remaining "
+                    + (limit - position) + " bytes");
+        }
+        return (int) length;
+    }
+    
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] result = new byte[length];
+        System.arraycopy(bytes, position, result, 0, length);
+        position += length;
+        return result;
+    }
+    
+    void skip(int length) {
+        require(length);
+        position += length;
+    }
+    
+    byte[] array() {
+        return bytes;
+    }
+    
+    int position() {
+        return position;
+    }
+    
+    int remaining() {
+        return limit - position;
+    }
+    
+    private void require(int count) {
+        if (limit - position < count) {
+            throw new CacheSerializationException("Truncated cache value");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cache.plugin.codec;
+
+import java.util.Arrays;
+
+/**
+ * 可增长的字节缓冲，支持变长整数
+ */
+final class ByteWriter {
+    
+    private byte[] buffer;
+    private int size;
+    
+    ByteWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+    
+    void write(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+    
+    void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+    
+    void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+    
+    /**
+     * 无符号变长整数（每字节7位，低位在前）
+     */
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+    
+    /**
+     * ZigZag编码的有符号变长整数，绝对值小的负数同样占用较少字节
+     */
+    void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+    
+    void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+    
+    void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+    
+    /**
+     * 写入长度前缀和字节
+     */
+    void writeBytes(byte[] bytes) {
+        writeVarint(bytes.length);
+        write(bytes);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+    
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cache.plugin.codec;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * 缓存值编解码器
+ *
+ * 编码结果不含头部，由 {@link CacheCodecRegistry} 加上编解码器ID和类型ID后写入远程缓存。
+ */
+public interface CacheCodec {
+    
+    /**
+     * 编解码器ID，写入头部用于解码时选择编解码器，取值1~127，同一注册表中唯一
+     */
+    byte id();
+    
+    /**
+     * 编解码器名称，用于配置
+     */
+    String name();
+    
+    /**
+     * 编码值
+     *
+     * @param value 非null的值
+     * @return 编码后的字节
+     */
+    byte[] encode(Object value);
+    
+    /**
+     * 解码值
+     *
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param type 目标类型，类型未知时为Object.class
+     * @return 解码后的值
+     */
+    <T> T decode(byte[] bytes, int offset, int length, Class<T> type);
+    
+    /**
+     * 编码值到ByteBuffer
+     */
+    default ByteBuffer encodeToBuffer(Object value) {
+        return ByteBuffer.wrap(encode(value));
+    }
+    
+    /**
+     * 从ByteBuffer的当前位置解码到limit，解码后position移动到limit
+     */
+    default <T> T decode(ByteBuffer buffer, Class<T> type) {
+        int length = buffer.remaining();
+        if (buffer.hasArray()) {
+            T value = decode(buffer.array(), buffer.arrayOffset() + buffer.position(), length, type);
+            ((Buffer) buffer).position(buffer.limit());
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return decode(bytes, 0, length, type);
+    }
+}
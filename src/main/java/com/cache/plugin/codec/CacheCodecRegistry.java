@@ -0,0 +1,380 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.exception.CacheSerializationException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编解码器注册表，远程缓存、同步频道和加密共享同一个实例
+ *
+ * 编码结果以头部开始：魔数(1) 编解码器ID(1) 类型ID(变长)，类型ID为0表示无类型（由编解码器自行描述），
+ * 为1表示随后是类名（JSON编码的集合和Map带元素类型参数，如 java.util.ArrayList&lt;com.example.Order&gt;），
+ * 2及以上是注册的类型。解码时按头部选择编解码器和目标类型，不依赖调用方提供类型。
+ * 编解码器按值的类型、远程键的命名空间、默认编解码器的顺序选择。空值标记只写入两字节的头部。
+ *
+ * 压缩的值在编解码器ID字节上置最高位，随后是压缩算法ID(1)、原始长度(变长)和压缩后的类型ID及数据，
+ * 解码时自动解压，压缩和未压缩的值可以混合存放。
+ *
+ * 值来自远程缓存，不能完全信任：类型头和二进制格式中的类名只解析受信任包中的类型和注册的类型，
+ * 解压后的长度不能超过 maxDecompressedSize。
+ */
+public class CacheCodecRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheCodecRegistry.class);
+    
+    static final byte MAGIC = (byte) 0xC5;
+    // 空值标记的编解码器ID
+    private static final byte NULL_VALUE = 0;
+    // 编解码器ID字节的压缩标记位
+    private static final int COMPRESSED = 0x80;
+    private static final int UNTYPED = 0;
+    private static final int NAMED = 1;
+    private static final int MIN_TYPE_ID = 2;
+    
+    private final TieredCacheProperties.CodecProperties properties;
+    private final JsonCacheCodec jsonCodec;
+    private final CacheCodec[] codecsById = new CacheCodec[128];
+    private final Map<String, CacheCodec> codecsByName = new ConcurrentHashMap<>();
+    private final CacheCompressor[] compressorsById = new CacheCompressor[256];
+    private final Map<String, CacheCompressor> compressorsByName = new ConcurrentHashMap<>();
+    private final Map<Class<?>, TypeRegistration> typeRegistrations = new ConcurrentHashMap<>();
+    private final Map<Integer, Class<?>> typesById = new ConcurrentHashMap<>();
+    // 命名空间 -> 编解码器
+    private final Map<String, CacheCodec> namespaceCodecs = new ConcurrentHashMap<>();
+    private final ClassCache classes;
+    // 带泛型参数的类型名 -> 解析后的类型
+    private final Map<String, JavaType> genericTypes = new ConcurrentHashMap<>();
+    private final long maxDecompressedBytes;
+    
+    private volatile CacheCodec defaultCodec;
+    
+    public CacheCodecRegistry() {
+        this(new TieredCacheProperties.CodecProperties());
+    }
+    
+    public CacheCodecRegistry(TieredCacheProperties.CodecProperties properties) {
+        this.properties = properties;
+        this.classes = new ClassCache(CacheCodecRegistry.class.getClassLoader(), properties.getTrustedPackages());
+        this.maxDecompressedBytes = properties.getMaxDecompressedSize() != null
+                ? properties.getMaxDecompressedSize().toBytes() : Integer.MAX_VALUE - 2;
+        this.jsonCodec = new JsonCacheCodec();
+        registerCodec(jsonCodec);
+        registerCodec(new BinaryCacheCodec(jsonCodec.getObjectMapper(), classes));
+        registerCompressor(new DeflateCompressor());
+        registerCompressor(new LzCompressor());
+        registerCompressor(new DictionaryCompressor());
+        this.defaultCodec = getCodec(properties.getDefaultCodec());
+        for (Map.Entry<String, String> entry : properties.getRegions().entrySet()) {
+            setNamespaceCodec(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, TieredCacheProperties.TypeCodecProperties> entry : properties.getTypes().entrySet()) {
+            registerType(classes.resolve(entry.getKey()), entry.getValue().getId(), entry.getValue().getCodec());
+        }
+        logger.info("Cache codec registry initialized with default codec: {}, namespaces: {}, types: {}, trusted packages: {}",
+                   defaultCodec.name(), properties.getRegions(), properties.getTypes().keySet(),
+                   properties.getTrustedPackages());
+    }
+    
+    /**
+     * 远程缓存的值是否使用编解码器编码
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    /**
+     * 注册编解码器，ID或名称相同的已有编解码器被替换
+     */
+    public void registerCodec(CacheCodec codec) {
+        int id = codec.id();
+        if (id < 1) {
+            throw new IllegalArgumentException("Codec id must be between 1 and 127: " + id);
+        }
+        codecsById[id] = codec;
+        codecsByName.put(codec.name(), codec);
+    }
+    
+    /**
+     * 按名称获取编解码器
+     */
+    public CacheCodec getCodec(String name) {
+        CacheCodec codec = codecsByName.get(name);
+        if (codec == null) {
+            throw new CacheSerializationException("Unknown cache codec: " + name);
+        }
+        return codec;
+    }
+    
+    /**
+     * 注册压缩算法，ID或名称相同的已有算法被替换
+     */
+    public void registerCompressor(CacheCompressor compressor) {
+        int id = compressor.id() & 0xFF;
+        if (id == 0) {
+            throw new IllegalArgumentException("Compressor id must be between 1 and 255");
+        }
+        compressorsById[id] = compressor;
+        compressorsByName.put(compressor.name(), compressor);
+    }
+    
+    /**
+     * 按名称获取压缩算法
+     */
+    public CacheCompressor getCompressor(String name) {
+        CacheCompressor compressor = compressorsByName.get(name);
+        if (compressor == null) {
+            throw new CacheSerializationException("Unknown cache compressor: " + name);
+        }
+        return compressor;
+    }
+    
+    public void setDefaultCodec(String name) {
+        this.defaultCodec = getCodec(name);
+    }
+    
+    public CacheCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+    
+    /**
+     * 为命名空间（远程键中第一个冒号之前的部分，默认与区域名相同）指定编解码器
+     */
+    public void setNamespaceCodec(String namespace, String codecName) {
+        namespaceCodecs.put(namespace, getCodec(codecName));
+    }
+    
+    /**
+     * 注册类型：该类型的值使用指定的编解码器，头部只写入类型ID而不是类名，注册的类型总是受信任
+     *
+     * @param type 类型（精确匹配，不包括子类）
+     * @param typeId 类型ID，2及以上，各节点必须一致
+     * @param codecName 编解码器名称
+     */
+    public void registerType(Class<?> type, int typeId, String codecName) {
+        if (typeId < MIN_TYPE_ID) {
+            throw new IllegalArgumentException("Type id must be at least " + MIN_TYPE_ID + ": " + typeId);
+        }
+        Class<?> existing = typesById.putIfAbsent(typeId, type);
+        if (existing != null && existing != type) {
+            throw new IllegalArgumentException("Type id " + typeId + " is already registered for " + existing.getName());
+        }
+        typeRegistrations.put(type, new TypeRegistration(typeId, getCodec(codecName)));
+        classes.trust(type);
+    }
+    
+    /**
+     * 使用类型或默认编解码器编码
+     */
+    public byte[] encode(Object value) {
+        return encode(null, value);
+    }
+    
+    /**
+     * 编码值，编解码器按类型注册、remoteKey的命名空间、默认编解码器的顺序选择
+     *
+     * @param remoteKey 远程键，可以为null
+     * @param value 非null的值
+     */
+    public byte[] encode(String remoteKey, Object value) {
+        if (value instanceof NullValue) {
+            return new byte[]{MAGIC, NULL_VALUE};
+        }
+        TypeRegistration registration = typeRegistrations.get(value.getClass());
+        CacheCodec codec = registration != null ? registration.codec : codecFor(remoteKey);
+        byte[] payload = codec.encode(value);
+        ByteWriter out;
+        if (registration != null) {
+            out = new ByteWriter(payload.length + 7);
+            writeHeader(out, codec, registration.typeId);
+        } else if (codec instanceof BinaryCacheCodec) {
+            // 二进制格式自描述，不写类型
+            out = new ByteWriter(payload.length + 3);
+            writeHeader(out, codec, UNTYPED);
+        } else {
+            String name = codec instanceof JsonCacheCodec ? TypeNames.describe(value) : value.getClass().getName();
+            byte[] typeName = name.getBytes(StandardCharsets.UTF_8);
+            out = new ByteWriter(payload.length + typeName.length + 8);
+            writeHeader(out, codec, NAMED);
+            out.writeBytes(typeName);
+        }
+        out.write(payload);
+        return out.toByteArray();
+    }
+    
+    /**
+     * 压缩编码后的值
+     *
+     * @param encoded {@link #encode} 的结果
+     * @param compressor 压缩算法
+     * @return 压缩后的值；空值标记、已压缩的值或压缩后没有变小时返回原数组
+     */
+    public byte[] compress(byte[] encoded, CacheCompressor compressor) {
+        if (!isEncoded(encoded) || encoded[1] == NULL_VALUE || (encoded[1] & COMPRESSED) != 0) {
+            return encoded;
+        }
+        int bodyLength = encoded.length - 2;
+        byte[] compressed = compressor.compress(encoded, 2, bodyLength);
+        if (compressed.length + 8 >= bodyLength) {
+            return encoded;
+        }
+        ByteWriter out = new ByteWriter(compressed.length + 8);
+        out.write(MAGIC);
+        out.write(encoded[1] | COMPRESSED);
+        out.write(compressor.id());
+        out.writeVarint(bodyLength);
+        out.write(compressed);
+        return out.toByteArray();
+    }
+    
+    /**
+     * 解压值，返回未压缩的编码结果；未压缩的值原样返回
+     */
+    public byte[] decompress(byte[] bytes) {
+        return isCompressed(bytes) ? decompress(bytes, 0, bytes.length) : bytes;
+    }
+    
+    private byte[] decompress(byte[] bytes, int offset, int length) {
+        ByteReader in = new ByteReader(bytes, offset + 1, length - 1);
+        int codecId = in.read() & ~COMPRESSED;
+        int compressorId = in.read();
+        CacheCompressor compressor = compressorsById[compressorId];
+        if (compressor == null) {
+            throw new CacheSerializationException("Unknown cache compressor id: " + compressorId);
+        }
+        long originalLength = in.readVarint();
+        if (originalLength < 0 || originalLength > maxDecompressedBytes || originalLength > Integer.MAX_VALUE - 2) {
+            throw new CacheSerializationException("Compressed cache value too large: " + originalLength
+                    + " bytes, limit is " + maxDecompressedBytes);
+        }
+        byte[] target = new byte[2 + (int) originalLength];
+        target[0] = MAGIC;
+        target[1] = (byte) codecId;
+        compressor.decompress(bytes, in.position(), in.remaining(), target, 2, (int) originalLength);
+        return target;
+    }
+    
+    /**
+     * 解码由本注册表编码的字节
+     */
+    public Object decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+    
+    public Object decode(byte[] bytes, int offset, int length) {
+        if (!isEncoded(bytes, offset, length)) {
+            throw new CacheSerializationException("Value is not in cache codec format");
+        }
+        if ((bytes[offset + 1] & COMPRESSED) != 0) {
+            byte[] decompressed = decompress(bytes, offset, length);
+            return decode(decompressed, 0, decompressed.length);
+        }
+        ByteReader in = new ByteReader(bytes, offset + 1, length - 1);
+        int codecId = in.read();
+        if (codecId == NULL_VALUE) {
+            return NullValue.INSTANCE;
+        }
+        CacheCodec codec = codecId < codecsById.length ? codecsById[codecId] : null;
+        if (codec == null) {
+            throw new CacheSerializationException("Unknown cache codec id: " + codecId);
+        }
+        long typeId = in.readVarint();
+        Class<?> type;
+        if (typeId == UNTYPED) {
+            type = Object.class;
+        } else if (typeId == NAMED) {
+            int nameLength = in.readLength();
+            String name = new String(bytes, in.position(), nameLength, StandardCharsets.UTF_8);
+            in.skip(nameLength);
+            if (TypeNames.isGeneric(name)) {
+                JavaType genericType = genericTypeOf(name);
+                if (codec instanceof JsonCacheCodec) {
+                    return ((JsonCacheCodec) codec).decode(bytes, in.position(), in.remaining(), genericType);
+                }
+                type = genericType.getRawClass();
+            } else {
+                type = classes.forName(name);
+            }
+        } else {
+            type = typesById.get((int) typeId);
+            if (type == null) {
+                throw new CacheSerializationException("Unknown cache type id: " + typeId);
+            }
+        }
+        return codec.decode(bytes, in.position(), in.remaining(), type);
+    }
+    
+    /**
+     * 字节是否以编解码器头部开始（用于区分启用编解码器之前写入的旧格式数据）
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && isEncoded(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * 字节是否是压缩后的编码值
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        return isEncoded(bytes) && (bytes[1] & COMPRESSED) != 0;
+    }
+    
+    private static boolean isEncoded(byte[] bytes, int offset, int length) {
+        return length >= 2 && bytes[offset] == MAGIC;
+    }
+    
+    /**
+     * 共享的ObjectMapper，同步频道等以JSON文本通信的组件使用
+     */
+    public ObjectMapper getObjectMapper() {
+        return jsonCodec.getObjectMapper();
+    }
+    
+    private JavaType genericTypeOf(String name) {
+        JavaType type = genericTypes.get(name);
+        if (type == null) {
+            type = TypeNames.parse(name, classes, jsonCodec.getObjectMapper().getTypeFactory());
+            genericTypes.put(name, type);
+        }
+        return type;
+    }
+    
+    private CacheCodec codecFor(String remoteKey) {
+        if (remoteKey == null || namespaceCodecs.isEmpty()) {
+            return defaultCodec;
+        }
+        int separator = remoteKey.indexOf(':');
+        if (separator < 0) {
+            return defaultCodec;
+        }
+        for (Map.Entry<String, CacheCodec> entry : namespaceCodecs.entrySet()) {
+            String namespace = entry.getKey();
+            if (namespace.length() == separator && remoteKey.startsWith(namespace)) {
+                return entry.getValue();
+            }
+        }
+        return defaultCodec;
+    }
+    
+    private static void writeHeader(ByteWriter out, CacheCodec codec, int typeId) {
+        out.write(MAGIC);
+        out.write(codec.id());
+        out.writeVarint(typeId);
+    }
+    
+    private static final class TypeRegistration {
+        private final int typeId;
+        private final CacheCodec codec;
+        
+        TypeRegistration(int typeId, CacheCodec codec) {
+            this.typeId = typeId;
+            this.codec = codec;
+        }
+    }
+}
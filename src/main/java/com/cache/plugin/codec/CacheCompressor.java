@@ -0,0 +1,42 @@
+package com.cache.plugin.codec;
+
+/**
+ * 值压缩算法
+ *
+ * 压缩作用于编解码器输出的字节（不含头部），压缩后的值在头部记录压缩算法ID和原始长度，
+ * 解码时由 {@link CacheCodecRegistry} 自动解压，未压缩和压缩的值可以混合存放。
+ */
+public interface CacheCompressor {
+    
+    /**
+     * 压缩算法ID，写入头部用于解压时选择算法，取值1~255，同一注册表中唯一
+     */
+    byte id();
+    
+    /**
+     * 压缩算法名称，用于配置
+     */
+    String name();
+    
+    /**
+     * 压缩
+     *
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 压缩后的字节
+     */
+    byte[] compress(byte[] bytes, int offset, int length);
+    
+    /**
+     * 解压到目标数组
+     *
+     * @param bytes 压缩后的字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param target 目标数组
+     * @param targetOffset 目标起始位置
+     * @param originalLength 原始长度，解压结果必须正好是这个长度
+     */
+    void decompress(byte[] bytes, int offset, int length, byte[] target, int targetOffset, int originalLength);
+}
@@ -0,0 +1,123 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按类名解析类型并缓存结果，解码时类型头中的类名不再重复查找
+ *
+ * 值中的类名来自远程缓存，能写入Redis的一方就能指定解码的目标类型，因此只解析受信任的类型：
+ * JDK的基础值类型所在的包、配置的受信任包（含子包）以及注册的类型。受信任包配置为 "*" 时不做检查。
+ */
+final class ClassCache {
+    
+    // 默认受信任的JDK包（不含子包）
+    private static final Set<String> JDK_PACKAGES = new HashSet<>(Arrays.asList(
+            "java.lang", "java.math", "java.time", "java.util", "java.util.concurrent"));
+    private static final String TRUST_ALL = "*";
+    
+    private final ClassLoader classLoader;
+    private final boolean trustAll;
+    private final List<String> trustedPackages;
+    private final Set<String> trustedTypes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+    
+    ClassCache(ClassLoader classLoader) {
+        this(classLoader, Collections.emptyList());
+    }
+    
+    ClassCache(ClassLoader classLoader, Collection<String> trustedPackages) {
+        this.classLoader = classLoader;
+        this.trustAll = trustedPackages.contains(TRUST_ALL);
+        this.trustedPackages = new ArrayList<>();
+        for (String trustedPackage : trustedPackages) {
+            String normalized = trustedPackage.trim();
+            if (normalized.endsWith(".*")) {
+                normalized = normalized.substring(0, normalized.length() - 2);
+            }
+            if (!normalized.isEmpty() && !TRUST_ALL.equals(normalized)) {
+                this.trustedPackages.add(normalized);
+            }
+        }
+    }
+    
+    /**
+     * 解析值中的类名，类型不受信任时抛出异常
+     */
+    Class<?> forName(String name) {
+        Class<?> type = classes.get(name);
+        if (type != null) {
+            return type;
+        }
+        if (!isTrusted(name)) {
+            throw new CacheSerializationException("Type in cache value is not trusted: " + name
+                    + ", add its package to tiered-cache.codec.trusted-packages");
+        }
+        return resolve(name);
+    }
+    
+    /**
+     * 解析配置中的类名，不检查是否受信任
+     */
+    Class<?> resolve(String name) {
+        Class<?> type = classes.get(name);
+        if (type != null) {
+            return type;
+        }
+        try {
+            type = ClassUtils.forName(name, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new CacheSerializationException("Unknown type in cache value: " + name, e);
+        }
+        classes.put(name, type);
+        return type;
+    }
+    
+    /**
+     * 信任指定类型，用于注册的类型
+     */
+    void trust(Class<?> type) {
+        trustedTypes.add(type.getName());
+    }
+    
+    private boolean isTrusted(String name) {
+        if (trustAll) {
+            return true;
+        }
+        // 数组按元素类型判断，基本类型数组总是受信任
+        String elementName = name;
+        while (elementName.startsWith("[")) {
+            elementName = elementName.substring(1);
+        }
+        if (elementName.length() != name.length()) {
+            if (!elementName.startsWith("L") || !elementName.endsWith(";")) {
+                return true;
+            }
+            elementName = elementName.substring(1, elementName.length() - 1);
+        }
+        if (trustedTypes.contains(elementName)) {
+            return true;
+        }
+        int separator = elementName.lastIndexOf('.');
+        String packageName = separator < 0 ? "" : elementName.substring(0, separator);
+        if (JDK_PACKAGES.contains(packageName)) {
+            return true;
+        }
+        for (String trustedPackage : trustedPackages) {
+            if (packageName.equals(trustedPackage) || packageName.startsWith(trustedPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
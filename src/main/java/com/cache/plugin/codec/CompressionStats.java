@@ -0,0 +1,79 @@
+package com.cache.plugin.codec;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压缩统计：尝试压缩的值的原始字节数和实际写入的字节数（压缩后未变小时按原始大小计），以及压缩、解压耗时
+ */
+public class CompressionStats {
+    
+    private final LongAdder compressions = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressions = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+    
+    /**
+     * 记录一次压缩尝试
+     *
+     * @param rawSize 压缩前的大小
+     * @param storedSize 写入的大小，压缩未变小时等于rawSize
+     * @param nanos 耗时
+     */
+    public void recordCompression(int rawSize, int storedSize, long nanos) {
+        compressions.increment();
+        rawBytes.add(rawSize);
+        storedBytes.add(storedSize);
+        compressNanos.add(nanos);
+        if (storedSize >= rawSize) {
+            skipped.increment();
+        }
+    }
+    
+    public void recordDecompression(long nanos) {
+        decompressions.increment();
+        decompressNanos.add(nanos);
+    }
+    
+    /**
+     * 压缩率：原始字节数除以写入字节数，未压缩过时为1
+     */
+    public double getRatio() {
+        long stored = storedBytes.sum();
+        return stored == 0 ? 1.0 : (double) rawBytes.sum() / stored;
+    }
+    
+    public long getCompressionCount() {
+        return compressions.sum();
+    }
+    
+    /**
+     * 压缩后没有变小、按原样写入的次数
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+    
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+    
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+    
+    public double getCompressTime(TimeUnit unit) {
+        return (double) compressNanos.sum() / unit.toNanos(1);
+    }
+    
+    public long getDecompressionCount() {
+        return decompressions.sum();
+    }
+    
+    public double getDecompressTime(TimeUnit unit) {
+        return (double) decompressNanos.sum() / unit.toNanos(1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate压缩（java.util.zip，不写zlib头尾）
+ *
+ * Deflater和Inflater持有本地内存，从有界池中借用而不是每次创建，池外的实例用完即释放。
+ */
+public class DeflateCompressor implements CacheCompressor {
+    
+    public static final byte ID = 1;
+    public static final String NAME = "deflate";
+    
+    private final int level;
+    private final ZipPool pool;
+    
+    public DeflateCompressor() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+    
+    /**
+     * @param level 压缩级别，1（最快）~ 9（最小），-1为默认级别
+     */
+    public DeflateCompressor(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        }
+        this.level = level;
+        this.pool = new ZipPool(level);
+    }
+    
+    @Override
+    public byte id() {
+        return ID;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    @Override
+    public byte[] compress(byte[] bytes, int offset, int length) {
+        Deflater deflater = pool.borrowDeflater();
+        try {
+            deflater.setInput(bytes, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[length + (length >> 6) + 16];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        } finally {
+            pool.release(deflater);
+        }
+    }
+    
+    @Override
+    public void decompress(byte[] bytes, int offset, int length, byte[] target, int targetOffset, int originalLength) {
+        Inflater inflater = pool.borrowInflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            int size = 0;
+            while (size < originalLength) {
+                int n = inflater.inflate(target, targetOffset + size, originalLength - size);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += n;
+            }
+            if (size != originalLength) {
+                throw new CacheSerializationException("Corrupted deflate value: expected " + originalLength
+                        + " bytes, got " + size);
+            }
+        } catch (DataFormatException e) {
+            throw new CacheSerializationException("Corrupted deflate value", e);
+        } finally {
+            pool.release(inflater);
+        }
+    }
+}
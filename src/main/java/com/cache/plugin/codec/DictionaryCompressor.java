@@ -0,0 +1,372 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.exception.CacheSerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 预置字典的Deflate压缩，用于字段名大量重复的小JSON值
+ *
+ * 每个命名空间从写入的值中采样，样本数达到配置后训练字典（{@link DictionaryTrainer}）；配置了重新训练间隔时，
+ * 压缩一定数量的值后重新采样并训练新版本。压缩结果以4字节字典ID开头（0表示没有字典），
+ * 字典ID是字典内容的CRC32，不同节点训练的字典不会冲突。新字典先保存到共享存储再使用，
+ * 解压时遇到本节点没有的字典从存储加载；旧版本字典在内存中保留到被淘汰，轮换期间旧值仍可解压。
+ * 训练和保存在设置的后台执行器上进行，不占用触发训练的写入线程；配置了保留时间时，
+ * 压缩和解压用到的字典定期（保留时间的1/10）在存储中续期，仍被值引用的字典不会过期。
+ */
+public class DictionaryCompressor implements CacheCompressor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryCompressor.class);
+    
+    public static final byte ID = 3;
+    public static final String NAME = "dictionary";
+    
+    private static final int NO_DICTIONARY = 0;
+    // Deflate的窗口为32KB，更大的字典不会被用到
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    // 单个样本的最大长度，较大的值只取开头
+    private static final int MAX_SAMPLE_LENGTH = 4096;
+    // 续期间隔占保留时间的比例
+    private static final int TOUCH_DIVISOR = 10;
+    
+    private final TieredCacheProperties.DictionaryProperties properties;
+    private final DictionaryStore store;
+    private final Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+    // 字典ID -> 字典，按访问顺序淘汰
+    private final Map<Integer, byte[]> dictionaries;
+    private final Map<String, CacheCompressor> views = new ConcurrentHashMap<>();
+    // 字典ID -> 上次续期的时间
+    private final Map<Integer, Long> touchedAt = new ConcurrentHashMap<>();
+    private final long touchIntervalMillis;
+    private final ZipPool pool = new ZipPool(Deflater.DEFAULT_COMPRESSION);
+    
+    private volatile Executor executor;
+    
+    public DictionaryCompressor() {
+        this(new TieredCacheProperties.DictionaryProperties(), null);
+    }
+    
+    /**
+     * @param properties 字典配置
+     * @param store 共享存储，为null时字典只在本节点可用
+     */
+    public DictionaryCompressor(TieredCacheProperties.DictionaryProperties properties, DictionaryStore store) {
+        this.properties = properties;
+        this.store = store;
+        this.touchIntervalMillis = properties.getTtl() != null && !properties.getTtl().isNegative()
+                ? properties.getTtl().toMillis() / TOUCH_DIVISOR : 0;
+        int retained = Math.max(1, properties.getRetained());
+        this.dictionaries = Collections.synchronizedMap(new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > retained;
+            }
+        });
+    }
+    
+    /**
+     * 设置训练、保存和续期字典的后台执行器，未设置时在调用线程上执行
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+    
+    @Override
+    public byte id() {
+        return ID;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    /**
+     * 使用默认命名空间的字典压缩
+     */
+    @Override
+    public byte[] compress(byte[] bytes, int offset, int length) {
+        return compress("", bytes, offset, length);
+    }
+    
+    /**
+     * 使用命名空间的字典压缩，同时采样用于训练
+     */
+    public byte[] compress(String namespace, byte[] bytes, int offset, int length) {
+        Namespace state = namespaces.computeIfAbsent(namespace, Namespace::new);
+        Dictionary dictionary = state.current;
+        state.sample(bytes, offset, length);
+        if (dictionary != null) {
+            touch(dictionary.id);
+        }
+        
+        Deflater deflater = pool.borrowDeflater();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary.bytes);
+            }
+            deflater.setInput(bytes, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[length + (length >> 6) + 20];
+            int id = dictionary != null ? dictionary.id : NO_DICTIONARY;
+            buffer[0] = (byte) (id >>> 24);
+            buffer[1] = (byte) (id >>> 16);
+            buffer[2] = (byte) (id >>> 8);
+            buffer[3] = (byte) id;
+            int size = 4;
+            while (!deflater.finished()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            return Arrays.copyOf(buffer, size);
+        } finally {
+            pool.release(deflater);
+        }
+    }
+    
+    /**
+     * 绑定命名空间的压缩视图，ID和名称与本压缩器相同，解压不区分命名空间
+     */
+    public CacheCompressor forNamespace(String namespace) {
+        return views.computeIfAbsent(namespace, NamespaceView::new);
+    }
+    
+    @Override
+    public void decompress(byte[] bytes, int offset, int length, byte[] target, int targetOffset, int originalLength) {
+        if (length < 4) {
+            throw new CacheSerializationException("Corrupted dictionary compressed value");
+        }
+        int id = (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+        Inflater inflater = pool.borrowInflater();
+        try {
+            if (id != NO_DICTIONARY) {
+                inflater.setDictionary(getDictionary(id));
+                touch(id);
+            }
+            inflater.setInput(bytes, offset + 4, length - 4);
+            int size = 0;
+            while (size < originalLength) {
+                int n = inflater.inflate(target, targetOffset + size, originalLength - size);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += n;
+            }
+            if (size != originalLength) {
+                throw new CacheSerializationException("Corrupted dictionary compressed value: expected " + originalLength
+                        + " bytes, got " + size);
+            }
+        } catch (DataFormatException e) {
+            throw new CacheSerializationException("Corrupted dictionary compressed value", e);
+        } finally {
+            pool.release(inflater);
+        }
+    }
+    
+    /**
+     * 命名空间当前使用的字典版本，尚未训练时返回0
+     */
+    public int getVersion(String namespace) {
+        Namespace state = namespaces.get(namespace);
+        Dictionary dictionary = state != null ? state.current : null;
+        return dictionary != null ? dictionary.version : 0;
+    }
+    
+    /**
+     * 命名空间当前使用的字典ID，尚未训练时返回0
+     */
+    public int getDictionaryId(String namespace) {
+        Namespace state = namespaces.get(namespace);
+        Dictionary dictionary = state != null ? state.current : null;
+        return dictionary != null ? dictionary.id : NO_DICTIONARY;
+    }
+    
+    private byte[] getDictionary(int id) {
+        byte[] dictionary = dictionaries.get(id);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        for (Namespace state : namespaces.values()) {
+            Dictionary current = state.current;
+            if (current != null && current.id == id) {
+                return current.bytes;
+            }
+        }
+        dictionary = store != null ? store.load(id) : null;
+        if (dictionary == null || dictionaryId(dictionary) != id) {
+            throw new CacheSerializationException("Unknown compression dictionary: " + Integer.toHexString(id));
+        }
+        dictionaries.put(id, dictionary);
+        return dictionary;
+    }
+    
+    /**
+     * 按间隔在存储中续期字典，值写入或读取时字典仍被引用
+     */
+    private void touch(int id) {
+        if (store == null || touchIntervalMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = touchedAt.get(id);
+        if (last != null && now - last < touchIntervalMillis) {
+            return;
+        }
+        if (last == null ? touchedAt.putIfAbsent(id, now) != null : !touchedAt.replace(id, last, now)) {
+            // 其他线程已经续期
+            return;
+        }
+        runInBackground(() -> store.touch(id));
+    }
+    
+    private void runInBackground(Runnable task) {
+        Executor current = executor;
+        if (current == null) {
+            task.run();
+            return;
+        }
+        current.execute(task);
+    }
+    
+    private static int dictionaryId(byte[] dictionary) {
+        CRC32 crc = new CRC32();
+        crc.update(dictionary, 0, dictionary.length);
+        int id = (int) crc.getValue();
+        return id != NO_DICTIONARY ? id : 1;
+    }
+    
+    /**
+     * 命名空间的采样和当前字典
+     */
+    private final class Namespace {
+        private final String name;
+        private final List<byte[]> samples = new ArrayList<>();
+        private final AtomicLong compressed = new AtomicLong();
+        // 后台训练可能与下一轮训练重叠，训练过程串行执行
+        private final Object trainLock = new Object();
+        private volatile Dictionary current;
+        private volatile boolean sampling = true;
+        private int version;
+        
+        Namespace(String name) {
+            this.name = name;
+        }
+        
+        void sample(byte[] bytes, int offset, int length) {
+            if (!sampling) {
+                long interval = properties.getRetrainInterval();
+                if (interval <= 0 || compressed.incrementAndGet() < interval) {
+                    return;
+                }
+                sampling = true;
+            }
+            List<byte[]> batch;
+            synchronized (this) {
+                if (!sampling) {
+                    return;
+                }
+                samples.add(Arrays.copyOfRange(bytes, offset, offset + Math.min(length, MAX_SAMPLE_LENGTH)));
+                if (samples.size() < properties.getSampleSize()) {
+                    return;
+                }
+                batch = new ArrayList<>(samples);
+                samples.clear();
+                sampling = false;
+                compressed.set(0);
+            }
+            runInBackground(() -> train(batch));
+        }
+        
+        private void train(List<byte[]> batch) {
+            synchronized (trainLock) {
+                doTrain(batch);
+            }
+        }
+        
+        private void doTrain(List<byte[]> batch) {
+            int maxSize = (int) Math.min(properties.getMaxSize().toBytes(), MAX_DICTIONARY_SIZE);
+            byte[] bytes = DictionaryTrainer.train(batch, maxSize);
+            if (bytes.length == 0) {
+                logger.debug("No common content in {} samples of namespace '{}', dictionary not trained", batch.size(), name);
+                return;
+            }
+            int id = dictionaryId(bytes);
+            if (store != null) {
+                try {
+                    store.save(id, bytes);
+                } catch (Exception e) {
+                    // 其他节点无法加载的字典不能使用
+                    logger.warn("Failed to save compression dictionary for namespace '{}', keeping the previous one", name, e);
+                    return;
+                }
+            }
+            Dictionary previous = current;
+            if (previous != null) {
+                dictionaries.put(previous.id, previous.bytes);
+            }
+            dictionaries.put(id, bytes);
+            touchedAt.put(id, System.currentTimeMillis());
+            current = new Dictionary(id, ++version, bytes);
+            logger.info("Trained compression dictionary {} version {} for namespace '{}' ({} bytes from {} samples)",
+                       Integer.toHexString(id), version, name, bytes.length, batch.size());
+        }
+    }
+    
+    private static final class Dictionary {
+        private final int id;
+        private final int version;
+        private final byte[] bytes;
+        
+        Dictionary(int id, int version, byte[] bytes) {
+            this.id = id;
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+    
+    private final class NamespaceView implements CacheCompressor {
+        private final String namespace;
+        
+        NamespaceView(String namespace) {
+            this.namespace = namespace;
+        }
+        
+        @Override
+        public byte id() {
+            return ID;
+        }
+        
+        @Override
+        public String name() {
+            return NAME;
+        }
+        
+        @Override
+        public byte[] compress(byte[] bytes, int offset, int length) {
+            return DictionaryCompressor.this.compress(namespace, bytes, offset, length);
+        }
+        
+        @Override
+        public void decompress(byte[] bytes, int offset, int length, byte[] target, int targetOffset, int originalLength) {
+            DictionaryCompressor.this.decompress(bytes, offset, length, target, targetOffset, originalLength);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.cache.plugin.codec;
+
+/**
+ * 压缩字典共享存储
+ *
+ * 各节点训练的字典保存到共享存储，其他节点读到未知字典ID的值时从存储加载。
+ */
+public interface DictionaryStore {
+    
+    /**
+     * 保存字典
+     *
+     * @param id 字典ID
+     * @param dictionary 字典内容
+     */
+    void save(int id, byte[] dictionary);
+    
+    /**
+     * 加载字典
+     *
+     * @param id 字典ID
+     * @return 字典内容，不存在时返回null
+     */
+    byte[] load(int id);
+    
+    /**
+     * 延长字典的保留时间，字典仍被值引用时调用；存储不过期时无需实现
+     *
+     * @param id 字典ID
+     */
+    default void touch(int id) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.cache.plugin.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从样本值构建预置字典
+ *
+ * 统计每个8字节片段出现在多少个样本中，样本里由高频片段连续覆盖的区间作为候选（例如JSON的字段名和常见取值），
+ * 按片段频率之和评分，取分数最高的候选直到字典大小上限。Deflate对近距离的匹配编码更短，分数最高的候选放在字典末尾。
+ */
+final class DictionaryTrainer {
+    
+    private static final int GRAM = 8;
+    
+    private DictionaryTrainer() {
+    }
+    
+    /**
+     * @param samples 样本
+     * @param maxSize 字典大小上限
+     * @return 字典，样本之间没有共同片段时返回空数组
+     */
+    static byte[] train(List<byte[]> samples, int maxSize) {
+        Map<Long, Integer> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i + GRAM <= sample.length; i++) {
+                seen.add(gram(sample, i));
+            }
+            for (Long gram : seen) {
+                frequencies.merge(gram, 1, Integer::sum);
+            }
+        }
+        int minFrequency = Math.max(2, samples.size() / 10);
+        
+        // 候选区间 -> 分数，ISO-8859-1按字节一一对应，字符串只用作去重的键
+        Map<String, Long> candidates = new HashMap<>();
+        for (byte[] sample : samples) {
+            int i = 0;
+            while (i + GRAM <= sample.length) {
+                int frequency = frequencies.get(gram(sample, i));
+                if (frequency < minFrequency) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                long score = 0;
+                while (i + GRAM <= sample.length && (frequency = frequencies.get(gram(sample, i))) >= minFrequency) {
+                    score += frequency;
+                    i++;
+                }
+                String candidate = new String(sample, start, i - start + GRAM - 1, StandardCharsets.ISO_8859_1);
+                candidates.merge(candidate, score, Math::max);
+                i += GRAM - 1;
+            }
+        }
+        
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        List<String> selected = new ArrayList<>();
+        int size = 0;
+        for (Map.Entry<String, Long> entry : ranked) {
+            int length = entry.getKey().length();
+            if (size + length <= maxSize) {
+                selected.add(entry.getKey());
+                size += length;
+            }
+        }
+        byte[] dictionary = new byte[size];
+        int position = size;
+        for (String candidate : selected) {
+            position -= candidate.length();
+            byte[] bytes = candidate.getBytes(StandardCharsets.ISO_8859_1);
+            System.arraycopy(bytes, 0, dictionary, position, bytes.length);
+        }
+        return dictionary;
+    }
+    
+    private static long gram(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < GRAM; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON编解码器
+ *
+ * 直接读写UTF-8字节，不经过中间字符串；每个目标类型的ObjectReader只创建一次。
+ * 值本身不携带类型信息，类型由注册表写入的类型头给出，集合和Map的类型头带元素类型参数。
+ */
+public class JsonCacheCodec implements CacheCodec {
+    
+    public static final byte ID = 1;
+    public static final String NAME = "json";
+    
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<JavaType, ObjectReader> genericReaders = new ConcurrentHashMap<>();
+    
+    public JsonCacheCodec() {
+        this(defaultObjectMapper());
+    }
+    
+    public JsonCacheCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * 缓存使用的ObjectMapper：支持java.time类型，忽略未知属性（新旧版本的类可以互相读取），允许无属性的对象
+     */
+    public static ObjectMapper defaultObjectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    }
+    
+    @Override
+    public byte id() {
+        return ID;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new CacheSerializationException("Failed to encode value of type " + value.getClass().getName() + " as JSON", e);
+        }
+    }
+    
+    @Override
+    public <T> T decode(byte[] bytes, int offset, int length, Class<T> type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, objectMapper::readerFor);
+        }
+        try {
+            return reader.readValue(bytes, offset, length);
+        } catch (IOException e) {
+            throw new CacheSerializationException("Failed to decode JSON value as " + type.getName(), e);
+        }
+    }
+    
+    /**
+     * 按带泛型参数的类型解码，集合和Map的元素还原为其原本的类型
+     */
+    public <T> T decode(byte[] bytes, int offset, int length, JavaType type) {
+        ObjectReader reader = genericReaders.get(type);
+        if (reader == null) {
+            reader = genericReaders.computeIfAbsent(type, objectMapper::readerFor);
+        }
+        try {
+            return reader.readValue(bytes, offset, length);
+        } catch (IOException e) {
+            throw new CacheSerializationException("Failed to decode JSON value as " + type.toCanonical(), e);
+        }
+    }
+    
+    /**
+     * 共享的ObjectMapper，同步频道等仍以JSON文本通信的组件使用
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,188 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+
+import java.util.Arrays;
+
+/**
+ * 快速LZ77压缩，速度优先，压缩率低于Deflate
+ *
+ * 序列编码参照LZ4块格式：令牌字节的高4位是字面量长度、低4位是匹配长度减4，长度达到15时后跟扩展字节，
+ * 匹配偏移为2字节小端。按4字节哈希查找最近一次出现的位置，不做熵编码；连续未命中时逐渐加大步长，
+ * 不可压缩的数据很快跳过。
+ */
+public class LzCompressor implements CacheCompressor {
+    
+    public static final byte ID = 2;
+    public static final String NAME = "lz";
+    
+    private static final int MIN_MATCH = 4;
+    // 最后5个字节总是字面量，最后一个匹配必须在末尾12个字节之前开始
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+    
+    private final ThreadLocal<int[]> hashTables = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+    
+    @Override
+    public byte id() {
+        return ID;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    public byte[] compress(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        byte[] out = new byte[length + length / 255 + 16];
+        int op = 0;
+        int anchor = offset;
+        if (length > MF_LIMIT) {
+            int[] table = hashTables.get();
+            Arrays.fill(table, -1);
+            int matchLimit = end - MF_LIMIT;
+            int matchEndLimit = end - LAST_LITERALS;
+            int ip = offset;
+            while (ip < matchLimit) {
+                int sequence = readInt(bytes, ip);
+                int slot = hash(sequence);
+                int ref = table[slot];
+                table[slot] = ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(bytes, ref) != sequence) {
+                    ip += 1 + ((ip - anchor) >>> SKIP_STRENGTH);
+                    continue;
+                }
+                int matchEnd = ip + MIN_MATCH;
+                int refEnd = ref + MIN_MATCH;
+                while (matchEnd < matchEndLimit && bytes[matchEnd] == bytes[refEnd]) {
+                    matchEnd++;
+                    refEnd++;
+                }
+                op = writeSequence(out, op, bytes, anchor, ip - anchor, ip - ref, matchEnd - ip);
+                ip = matchEnd;
+                anchor = ip;
+            }
+        }
+        int literals = end - anchor;
+        out[op++] = (byte) (Math.min(literals, 15) << 4);
+        if (literals >= 15) {
+            op = writeLength(out, op, literals - 15);
+        }
+        System.arraycopy(bytes, anchor, out, op, literals);
+        op += literals;
+        return Arrays.copyOf(out, op);
+    }
+    
+    @Override
+    public void decompress(byte[] bytes, int offset, int length, byte[] target, int targetOffset, int originalLength) {
+        int ip = offset;
+        int end = offset + length;
+        int op = targetOffset;
+        int targetEnd = targetOffset + originalLength;
+        while (true) {
+            if (ip >= end) {
+                throw corrupted();
+            }
+            int token = bytes[ip++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw corrupted();
+                    }
+                    b = bytes[ip++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            if (literals < 0 || literals > end - ip || literals > targetEnd - op) {
+                throw corrupted();
+            }
+            System.arraycopy(bytes, ip, target, op, literals);
+            ip += literals;
+            op += literals;
+            if (ip == end) {
+                break;
+            }
+            if (end - ip < 2) {
+                throw corrupted();
+            }
+            int matchOffset = (bytes[ip] & 0xFF) | (bytes[ip + 1] & 0xFF) << 8;
+            ip += 2;
+            int ref = op - matchOffset;
+            if (matchOffset == 0 || ref < targetOffset) {
+                throw corrupted();
+            }
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw corrupted();
+                    }
+                    b = bytes[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength < 0 || matchLength > targetEnd - op) {
+                throw corrupted();
+            }
+            if (matchOffset >= matchLength) {
+                System.arraycopy(target, ref, target, op, matchLength);
+            } else {
+                // 重叠匹配逐字节复制
+                for (int i = 0; i < matchLength; i++) {
+                    target[op + i] = target[ref + i];
+                }
+            }
+            op += matchLength;
+        }
+        if (op != targetEnd) {
+            throw corrupted();
+        }
+    }
+    
+    private static int writeSequence(byte[] out, int op, byte[] bytes, int literalStart, int literals,
+                                     int matchOffset, int matchLength) {
+        int extraMatch = matchLength - MIN_MATCH;
+        out[op++] = (byte) (Math.min(literals, 15) << 4 | Math.min(extraMatch, 15));
+        if (literals >= 15) {
+            op = writeLength(out, op, literals - 15);
+        }
+        System.arraycopy(bytes, literalStart, out, op, literals);
+        op += literals;
+        out[op++] = (byte) matchOffset;
+        out[op++] = (byte) (matchOffset >>> 8);
+        if (extraMatch >= 15) {
+            op = writeLength(out, op, extraMatch - 15);
+        }
+        return op;
+    }
+    
+    private static int writeLength(byte[] out, int op, int length) {
+        while (length >= 255) {
+            out[op++] = (byte) 255;
+            length -= 255;
+        }
+        out[op++] = (byte) length;
+        return op;
+    }
+    
+    private static int readInt(byte[] bytes, int i) {
+        return (bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24;
+    }
+    
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+    
+    private static CacheSerializationException corrupted() {
+        return new CacheSerializationException("Corrupted lz compressed value");
+    }
+}
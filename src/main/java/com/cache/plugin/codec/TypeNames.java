@@ -0,0 +1,154 @@
+package com.cache.plugin.codec;
+
+import com.cache.plugin.exception.CacheSerializationException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 带泛型参数的类型名，JSON编码的值在类型头中使用
+ *
+ * JSON不携带元素类型，只写原始类名时 List&lt;Order&gt; 会解码为 List&lt;LinkedHashMap&gt;。编码时按值推断：
+ * 集合的非null元素属于同一个类时写为 java.util.ArrayList&lt;com.example.Order&gt;，Map的值同理，
+ * 嵌套的集合和Map递归推断；元素类型不一致、集合为空或类型参数个数不符时只写原始类名。
+ * 解析时每个类名同样只解析受信任的类型。
+ */
+final class TypeNames {
+    
+    // 解析时允许的最大嵌套层数
+    private static final int MAX_DEPTH = 16;
+    
+    private TypeNames() {
+    }
+    
+    /**
+     * 值的类型名，能推断出元素类型时带泛型参数
+     */
+    static String describe(Object value) {
+        Class<?> type = value.getClass();
+        if (value instanceof Collection && type.getTypeParameters().length == 1) {
+            String element = commonType((Collection<?>) value);
+            if (element != null) {
+                return type.getName() + '<' + element + '>';
+            }
+        } else if (value instanceof Map && type.getTypeParameters().length == 2) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            String element = commonType(map.values());
+            if (element != null) {
+                Class<?> key = commonClass(map.keySet());
+                // 不能由JSON属性名还原的键仍按字符串读取
+                return type.getName() + '<' + (isSimpleKey(key) ? key : Object.class).getName() + ',' + element + '>';
+            }
+        }
+        return type.getName();
+    }
+    
+    /**
+     * 类型名是否带泛型参数
+     */
+    static boolean isGeneric(String name) {
+        return name.indexOf('<') >= 0;
+    }
+    
+    /**
+     * 解析带泛型参数的类型名
+     */
+    static JavaType parse(String name, ClassCache classes, TypeFactory typeFactory) {
+        Parser parser = new Parser(name, classes, typeFactory);
+        JavaType type = parser.type(0);
+        if (parser.position != name.length()) {
+            throw new CacheSerializationException("Invalid type name in cache value: " + name);
+        }
+        return type;
+    }
+    
+    /**
+     * 非null元素的共同类型名，没有元素或类型不一致时返回null
+     */
+    private static String commonType(Collection<?> values) {
+        Class<?> type = null;
+        String name = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (type == null) {
+                type = value.getClass();
+                name = describe(value);
+            } else if (value.getClass() != type
+                    || ((value instanceof Collection || value instanceof Map) && !name.equals(describe(value)))) {
+                return null;
+            }
+        }
+        return name;
+    }
+    
+    /**
+     * 非null元素的共同类，没有元素或类不一致时返回null
+     */
+    private static Class<?> commonClass(Collection<?> values) {
+        Class<?> type = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (type == null) {
+                type = value.getClass();
+            } else if (value.getClass() != type) {
+                return null;
+            }
+        }
+        return type;
+    }
+    
+    private static boolean isSimpleKey(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class || type == Short.class
+                || type == Byte.class || type == Boolean.class || type == UUID.class || (type != null && type.isEnum());
+    }
+    
+    private static final class Parser {
+        private final String name;
+        private final ClassCache classes;
+        private final TypeFactory typeFactory;
+        private int position;
+        
+        Parser(String name, ClassCache classes, TypeFactory typeFactory) {
+            this.name = name;
+            this.classes = classes;
+            this.typeFactory = typeFactory;
+        }
+        
+        JavaType type(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new CacheSerializationException("Type name in cache value is nested too deeply: " + name);
+            }
+            int start = position;
+            while (position < name.length() && "<,>".indexOf(name.charAt(position)) < 0) {
+                position++;
+            }
+            Class<?> raw = classes.forName(name.substring(start, position));
+            if (position == name.length() || name.charAt(position) != '<') {
+                return typeFactory.constructType(raw);
+            }
+            List<JavaType> parameters = new ArrayList<>(2);
+            do {
+                position++;
+                parameters.add(type(depth + 1));
+            } while (position < name.length() && name.charAt(position) == ',');
+            if (position == name.length() || name.charAt(position) != '>') {
+                throw new CacheSerializationException("Invalid type name in cache value: " + name);
+            }
+            position++;
+            try {
+                return typeFactory.constructParametricType(raw, parameters.toArray(new JavaType[0]));
+            } catch (IllegalArgumentException e) {
+                throw new CacheSerializationException("Invalid type name in cache value: " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.cache.plugin.codec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflater和Inflater的有界池（不写zlib头尾）
+ *
+ * 两者持有本地内存，只有end()或被回收后才释放。按线程缓存时每个线程都长期持有一份，线程池越大占用越多；
+ * 池中最多保留固定数量的实例，并发超出时临时创建，归还时池已满则立即end()。
+ */
+final class ZipPool {
+    
+    private static final int DEFAULT_CAPACITY = Math.max(2, Runtime.getRuntime().availableProcessors());
+    
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+    
+    ZipPool(int level) {
+        this(level, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param level 压缩级别
+     * @param capacity 每种实例最多保留的数量
+     */
+    ZipPool(int level, int capacity) {
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<>(capacity);
+        this.inflaters = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    Deflater borrowDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+    
+    /**
+     * 归还前重置，池已满时释放本地内存
+     */
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+    
+    Inflater borrowInflater() {
+        Inflater inflater = inflaters.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+    
+    /**
+     * 归还前重置，池已满时释放本地内存
+     */
+    void release(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.cache.plugin.config;
 
+import com.cache.plugin.codec.CacheCodecRegistry;
 import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.core.WarmRestartManager;
+import com.cache.plugin.disk.DiskCache;
+import com.cache.plugin.disk.impl.LogStructuredDiskCache;
 import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.local.LocalCacheFactory;
+import com.cache.plugin.local.ValueSizeEstimator;
 import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.local.impl.HybridLocalCache;
+import com.cache.plugin.local.impl.OffHeapLocalCache;
+import com.cache.plugin.remote.BloomFilterStore;
 import com.cache.plugin.remote.RemoteCache;
+import com.cache.plugin.remote.impl.RedisBloomFilterStore;
 import com.cache.plugin.remote.impl.RedisRemoteCache;
 import com.cache.plugin.aspect.CacheAspect;
+import com.cache.plugin.aspect.CacheKeyGenerator;
+import com.cache.plugin.aspect.CacheRegionRegistrar;
 import com.cache.plugin.metrics.CacheMetrics;
+import com.cache.plugin.metrics.TieredCacheEndpoint;
 import com.cache.plugin.sync.CacheSyncManager;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -15,10 +29,14 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import io.micrometer.core.instrument.MeterRegistry;
 
+import java.util.ArrayList;
+
 /**
  * 分层缓存自动配置类
  */
@@ -38,11 +56,91 @@ public class TieredCacheAutoConfiguration {
         
         @Bean
         @ConditionalOnMissingBean
-        public LocalCache<String, Object> localCache(TieredCacheProperties properties) {
-            return new CaffeineLocalCache(properties.getLocal());
+        public LocalCache<String, Object> localCache(TieredCacheProperties properties,
+                                                     ObjectProvider<ValueSizeEstimator> sizeEstimator) {
+            return new CaffeineLocalCache("caffeine-local-cache", properties.getLocal(), sizeEstimator.getIfAvailable());
+        }
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public LocalCacheFactory localCacheFactory(ObjectProvider<ValueSizeEstimator> sizeEstimator) {
+            return (name, localProperties) -> new CaffeineLocalCache(name, localProperties, sizeEstimator.getIfAvailable());
         }
     }
     
+    /**
+     * 堆外本地缓存配置
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "tiered-cache.local", name = "provider", havingValue = "off-heap")
+    static class OffHeapLocalCacheConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public LocalCache<String, Object> localCache(TieredCacheProperties properties, CacheCodecRegistry codecs) {
+            return new OffHeapLocalCache("off-heap-local-cache", properties.getLocal(), codecs);
+        }
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public LocalCacheFactory localCacheFactory(CacheCodecRegistry codecs) {
+            return (name, localProperties) -> new OffHeapLocalCache(name, localProperties, codecs);
+        }
+    }
+    
+    /**
+     * Caffeine与堆外组合的本地缓存配置
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "tiered-cache.local", name = "provider", havingValue = "hybrid")
+    @ConditionalOnClass(name = "com.github.benmanes.caffeine.cache.Caffeine")
+    static class HybridLocalCacheConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public LocalCache<String, Object> localCache(TieredCacheProperties properties,
+                                                     ObjectProvider<ValueSizeEstimator> sizeEstimator,
+                                                     CacheCodecRegistry codecs) {
+            return new HybridLocalCache("hybrid-local-cache", properties.getLocal(), sizeEstimator.getIfAvailable(), codecs);
+        }
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public LocalCacheFactory localCacheFactory(ObjectProvider<ValueSizeEstimator> sizeEstimator,
+                                                   CacheCodecRegistry codecs) {
+            return (name, localProperties) -> new HybridLocalCache(name, localProperties, sizeEstimator.getIfAvailable(), codecs);
+        }
+    }
+    
+    /**
+     * 磁盘缓存配置
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "tiered-cache.disk", name = "enabled", havingValue = "true")
+    static class DiskCacheConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public DiskCache<String, Object> diskCache(TieredCacheProperties properties, CacheCodecRegistry codecs) {
+            return new LogStructuredDiskCache(properties.getDisk(), codecs);
+        }
+    }
+    
+    /**
+     * 值编解码器配置，远程缓存和同步管理器共享
+     *
+     * 未配置受信任包时信任应用的自动配置包（@SpringBootApplication 所在的包）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheCodecRegistry cacheCodecRegistry(TieredCacheProperties properties, BeanFactory beanFactory) {
+        TieredCacheProperties.CodecProperties codec = properties.getCodec();
+        if (codec.getTrustedPackages().isEmpty() && AutoConfigurationPackages.has(beanFactory)) {
+            codec.setTrustedPackages(new ArrayList<>(AutoConfigurationPackages.get(beanFactory)));
+        }
+        return new CacheCodecRegistry(codec);
+    }
+    
     /**
      * 远程缓存配置
      */
@@ -54,8 +152,15 @@ public class TieredCacheAutoConfiguration {
         @Bean
         @ConditionalOnMissingBean
         public RemoteCache<String, Object> remoteCache(TieredCacheProperties properties,
-                                                       RedisTemplate<String, Object> redisTemplate) {
-            return new RedisRemoteCache(properties.getRemote(), redisTemplate);
+                                                       RedisTemplate<String, Object> redisTemplate,
+                                                       CacheCodecRegistry codecs) {
+            return new RedisRemoteCache(properties.getRemote(), redisTemplate, codecs);
+        }
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public BloomFilterStore bloomFilterStore(RedisTemplate<String, Object> redisTemplate) {
+            return new RedisBloomFilterStore(redisTemplate);
         }
     }
     
@@ -67,8 +172,11 @@ public class TieredCacheAutoConfiguration {
     public TieredCacheManager twoLevelCacheManager(
             LocalCache<String, Object> localCache,
             @Autowired(required = false) RemoteCache<String, Object> remoteCache,
-            TieredCacheProperties properties) {
-        return new TieredCacheManager(localCache, remoteCache, properties);
+            @Autowired(required = false) LocalCacheFactory localCacheFactory,
+            TieredCacheProperties properties,
+            CacheCodecRegistry codecs) {
+        return new TieredCacheManager(localCache, remoteCache, properties,
+                localCacheFactory != null ? localCacheFactory : CaffeineLocalCache::new, codecs);
     }
     
     /**
@@ -76,8 +184,17 @@ public class TieredCacheAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public CacheAspect cacheAspect(TieredCacheManager cacheManager) {
-        return new CacheAspect(cacheManager);
+    public CacheAspect cacheAspect(TieredCacheManager cacheManager, TieredCacheProperties properties) {
+        return new CacheAspect(cacheManager, new CacheKeyGenerator(properties.getKey().isCompact()));
+    }
+    
+    /**
+     * 缓存区域登记配置，启动时登记注解声明的区域限制
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public static CacheRegionRegistrar cacheRegionRegistrar(ObjectProvider<TieredCacheManager> cacheManager) {
+        return new CacheRegionRegistrar(cacheManager);
     }
     
     /**
@@ -91,6 +208,31 @@ public class TieredCacheAutoConfiguration {
         return new CacheMetrics(meterRegistry);
     }
     
+    /**
+     * 预热快照配置
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "tiered-cache.warm-restart", name = "enabled", havingValue = "true")
+    public WarmRestartManager warmRestartManager(TieredCacheManager cacheManager, TieredCacheProperties properties,
+                                                 CacheCodecRegistry codecs) {
+        return new WarmRestartManager(cacheManager, properties.getWarmRestart(), codecs);
+    }
+    
+    /**
+     * 缓存管理端点配置
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class EndpointConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean
+        public TieredCacheEndpoint tieredCacheEndpoint(TieredCacheManager cacheManager) {
+            return new TieredCacheEndpoint(cacheManager);
+        }
+    }
+    
     /**
      * 缓存同步管理器配置
      */
@@ -100,7 +242,11 @@ public class TieredCacheAutoConfiguration {
     public CacheSyncManager cacheSyncManager(
             LocalCache<String, Object> localCache,
             RemoteCache<String, Object> remoteCache,
-            TieredCacheProperties properties) {
-        return new CacheSyncManager(localCache, remoteCache, properties.getSync());
+            TieredCacheProperties properties,
+            ObjectProvider<TieredCacheManager> cacheManager,
+            CacheCodecRegistry codecs) {
+        CacheSyncManager syncManager = new CacheSyncManager(localCache, remoteCache, properties.getSync(), codecs);
+        syncManager.setCacheManager(cacheManager.getIfAvailable());
+        return syncManager;
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.cache.plugin.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,21 +25,56 @@ public class TieredCacheProperties {
      */
     private LocalCacheProperties local = new LocalCacheProperties();
     
+    /**
+     * 磁盘缓存配置
+     */
+    private DiskCacheProperties disk = new DiskCacheProperties();
+    
+    /**
+     * 预热快照配置
+     */
+    private WarmRestartProperties warmRestart = new WarmRestartProperties();
+    
     /**
      * 远程缓存配置
      */
     private RemoteCacheProperties remote = new RemoteCacheProperties();
     
+    /**
+     * 值编解码配置
+     */
+    private CodecProperties codec = new CodecProperties();
+    
+    /**
+     * 缓存键配置
+     */
+    private KeyProperties key = new KeyProperties();
+    
     /**
      * 策略配置
      */
     private StrategyProperties strategy = new StrategyProperties();
     
+    /**
+     * 空值缓存配置
+     */
+    private NullValueProperties nullValue = new NullValueProperties();
+    
+    /**
+     * 缓存区域配置，键为区域名称，优先于注解上声明的限制
+     */
+    private Map<String, RegionProperties> regions = new HashMap<>();
+    
     /**
      * 同步配置
      */
     private SyncProperties sync = new SyncProperties();
     
+    /**
+     * 异步任务配置
+     */
+    private AsyncProperties async = new AsyncProperties();
+    
     /**
      * 安全配置
      */
@@ -64,6 +102,22 @@ public class TieredCacheProperties {
         this.local = local;
     }
     
+    public DiskCacheProperties getDisk() {
+        return disk;
+    }
+    
+    public void setDisk(DiskCacheProperties disk) {
+        this.disk = disk;
+    }
+    
+    public WarmRestartProperties getWarmRestart() {
+        return warmRestart;
+    }
+    
+    public void setWarmRestart(WarmRestartProperties warmRestart) {
+        this.warmRestart = warmRestart;
+    }
+    
     public RemoteCacheProperties getRemote() {
         return remote;
     }
@@ -72,6 +126,22 @@ public class TieredCacheProperties {
         this.remote = remote;
     }
     
+    public CodecProperties getCodec() {
+        return codec;
+    }
+    
+    public void setCodec(CodecProperties codec) {
+        this.codec = codec;
+    }
+    
+    public KeyProperties getKey() {
+        return key;
+    }
+    
+    public void setKey(KeyProperties key) {
+        this.key = key;
+    }
+    
     public StrategyProperties getStrategy() {
         return strategy;
     }
@@ -80,6 +150,22 @@ public class TieredCacheProperties {
         this.strategy = strategy;
     }
     
+    public NullValueProperties getNullValue() {
+        return nullValue;
+    }
+    
+    public void setNullValue(NullValueProperties nullValue) {
+        this.nullValue = nullValue;
+    }
+    
+    public Map<String, RegionProperties> getRegions() {
+        return regions;
+    }
+    
+    public void setRegions(Map<String, RegionProperties> regions) {
+        this.regions = regions;
+    }
+    
     public SyncProperties getSync() {
         return sync;
     }
@@ -88,6 +174,14 @@ public class TieredCacheProperties {
         this.sync = sync;
     }
     
+    public AsyncProperties getAsync() {
+        return async;
+    }
+    
+    public void setAsync(AsyncProperties async) {
+        this.async = async;
+    }
+    
     public SecurityProperties getSecurity() {
         return security;
     }
@@ -114,6 +208,13 @@ public class TieredCacheProperties {
         private Duration expireAfterAccess = Duration.ofMinutes(10);
         private int initialCapacity = 100;
         private boolean recordStats = true;
+        private boolean scheduledExpiry = false;
+        // 设置后按估算的字节数驱逐（maxSize不再生效）
+        private DataSize maxWeight;
+        // 值大小估算方式：reflective 或 serialized
+        private String weigher = "reflective";
+        // provider为 off-heap 或 hybrid 时的堆外存储配置
+        private OffHeapProperties offHeap = new OffHeapProperties();
         
         // Getters and Setters
         public String getProvider() {
@@ -163,6 +264,246 @@ public class TieredCacheProperties {
         public void setRecordStats(boolean recordStats) {
             this.recordStats = recordStats;
         }
+        
+        public boolean isScheduledExpiry() {
+            return scheduledExpiry;
+        }
+        
+        public void setScheduledExpiry(boolean scheduledExpiry) {
+            this.scheduledExpiry = scheduledExpiry;
+        }
+        
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+        
+        public void setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+        
+        public String getWeigher() {
+            return weigher;
+        }
+        
+        public void setWeigher(String weigher) {
+            this.weigher = weigher;
+        }
+        
+        public OffHeapProperties getOffHeap() {
+            return offHeap;
+        }
+        
+        public void setOffHeap(OffHeapProperties offHeap) {
+            this.offHeap = offHeap;
+        }
+    }
+    
+    /**
+     * 堆外本地缓存配置
+     */
+    public static class OffHeapProperties {
+        // 每个区域的直接内存预算（off-heap时区域的max-weight优先），总量不能超过 -XX:MaxDirectMemorySize
+        private DataSize maxMemory = DataSize.ofMegabytes(256);
+        // slab大小，也是单个条目（键、值与40字节头）的上限
+        private DataSize slabSize = DataSize.ofMegabytes(1);
+        // 分段数，各分段独立加锁
+        private int segments = 16;
+        
+        // Getters and Setters
+        public DataSize getMaxMemory() {
+            return maxMemory;
+        }
+        
+        public void setMaxMemory(DataSize maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+        
+        public DataSize getSlabSize() {
+            return slabSize;
+        }
+        
+        public void setSlabSize(DataSize slabSize) {
+            this.slabSize = slabSize;
+        }
+        
+        public int getSegments() {
+            return segments;
+        }
+        
+        public void setSegments(int segments) {
+            this.segments = segments;
+        }
+    }
+    
+    /**
+     * 磁盘缓存配置
+     */
+    public static class DiskCacheProperties {
+        private boolean enabled = false;
+        // 段文件所在目录
+        private String path = System.getProperty("java.io.tmpdir") + "/tiered-cache";
+        // 段文件总大小上限，超出时丢弃最早的段
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+        // 单个段文件的大小，写满后滚动到新段
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        // 未指定TTL的条目的过期时间，null表示不过期
+        private Duration defaultTtl = Duration.ofHours(1);
+        private Duration compactionInterval = Duration.ofMinutes(1);
+        // 段中存活字节占比低于该值时压缩
+        private double compactionThreshold = 0.5;
+        // 每次写入后强制刷盘（fsync），关闭时依赖操作系统回写，崩溃时可能丢失最近的写入
+        private boolean syncWrites = false;
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path;
+        }
+        
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+        
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+        
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+        
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+        
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+        
+        public Duration getCompactionInterval() {
+            return compactionInterval;
+        }
+        
+        public void setCompactionInterval(Duration compactionInterval) {
+            this.compactionInterval = compactionInterval;
+        }
+        
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+        
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+        
+        public boolean isSyncWrites() {
+            return syncWrites;
+        }
+        
+        public void setSyncWrites(boolean syncWrites) {
+            this.syncWrites = syncWrites;
+        }
+    }
+    
+    /**
+     * 预热快照配置
+     */
+    public static class WarmRestartProperties {
+        private boolean enabled = false;
+        // 快照文件路径
+        private String path = System.getProperty("java.io.tmpdir") + "/tiered-cache/warm-restart.snapshot";
+        // file：从快照文件恢复值；remote：快照只保存键，启动时从远程缓存批量读取
+        private String source = "file";
+        // 每个区域保存的最热条目数
+        private int maxEntries = 10000;
+        // 定时保存间隔，null表示只在关闭时保存
+        private Duration interval = Duration.ofMinutes(5);
+        // 超过该时长的快照不再加载
+        private Duration maxAge = Duration.ofHours(1);
+        // 启动时并行加载的线程数
+        private int loadThreads = 4;
+        // 启动加载的最长等待时间，超时后其余条目在后台继续加载
+        private Duration loadTimeout = Duration.ofSeconds(30);
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path;
+        }
+        
+        public String getSource() {
+            return source;
+        }
+        
+        public void setSource(String source) {
+            this.source = source;
+        }
+        
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        public Duration getInterval() {
+            return interval;
+        }
+        
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+        
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+        
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+        
+        public int getLoadThreads() {
+            return loadThreads;
+        }
+        
+        public void setLoadThreads(int loadThreads) {
+            this.loadThreads = loadThreads;
+        }
+        
+        public Duration getLoadTimeout() {
+            return loadTimeout;
+        }
+        
+        public void setLoadTimeout(Duration loadTimeout) {
+            this.loadTimeout = loadTimeout;
+        }
     }
     
     /**
@@ -176,6 +517,9 @@ public class TieredCacheProperties {
         private int database = 0;
         private Duration timeout = Duration.ofSeconds(5);
         private PoolProperties pool = new PoolProperties();
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+        private ClientTrackingProperties clientTracking = new ClientTrackingProperties();
+        private CompressionProperties compression = new CompressionProperties();
         
         // Getters and Setters
         public String getProvider() {
@@ -233,122 +577,808 @@ public class TieredCacheProperties {
         public void setPool(PoolProperties pool) {
             this.pool = pool;
         }
-    }
-    
-    /**
-     * 连接池配置
-     */
-    public static class PoolProperties {
-        private int maxActive = 8;
-        private int maxIdle = 8;
-        private int minIdle = 0;
-        private Duration maxWait = Duration.ofMillis(-1);
-        
-        // Getters and Setters
-        public int getMaxActive() {
-            return maxActive;
-        }
-        
-        public void setMaxActive(int maxActive) {
-            this.maxActive = maxActive;
-        }
         
-        public int getMaxIdle() {
-            return maxIdle;
+        public CircuitBreakerProperties getCircuitBreaker() {
+            return circuitBreaker;
         }
         
-        public void setMaxIdle(int maxIdle) {
-            this.maxIdle = maxIdle;
+        public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
         }
         
-        public int getMinIdle() {
-            return minIdle;
+        public ClientTrackingProperties getClientTracking() {
+            return clientTracking;
         }
         
-        public void setMinIdle(int minIdle) {
-            this.minIdle = minIdle;
+        public void setClientTracking(ClientTrackingProperties clientTracking) {
+            this.clientTracking = clientTracking;
         }
         
-        public Duration getMaxWait() {
-            return maxWait;
+        public CompressionProperties getCompression() {
+            return compression;
         }
         
-        public void setMaxWait(Duration maxWait) {
-            this.maxWait = maxWait;
+        public void setCompression(CompressionProperties compression) {
+            this.compression = compression;
         }
     }
     
     /**
-     * 策略配置
+     * 远程缓存值压缩配置
+     *
+     * 编码后达到阈值的值被压缩，头部标记压缩算法，压缩和未压缩的值可以混合读取。
+     * 启用后值以编解码器格式写入（见 {@link CodecProperties}）。
      */
-    public static class StrategyProperties {
-        private String defaultStrategy = "local-first";
-        private String writeMode = "write-through";
-        private String readMode = "read-through";
-        private String consistency = "eventual";
+    public static class CompressionProperties {
+        private boolean enabled = false;
+        // 压缩算法：deflate（压缩率高）、lz（速度快）或 dictionary（预置字典，适合小JSON值）
+        private String algorithm = "deflate";
+        // 编码后达到该大小才压缩
+        private DataSize threshold = DataSize.ofKilobytes(1);
+        // 命名空间 -> 区域配置，未设置的项使用上面的默认值
+        private Map<String, RegionCompressionProperties> regions = new HashMap<>();
+        private DictionaryProperties dictionary = new DictionaryProperties();
         
         // Getters and Setters
-        public String getDefaultStrategy() {
-            return defaultStrategy;
+        public boolean isEnabled() {
+            return enabled;
         }
         
-        public void setDefaultStrategy(String defaultStrategy) {
-            this.defaultStrategy = defaultStrategy;
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
         }
         
-        public String getWriteMode() {
-            return writeMode;
+        public String getAlgorithm() {
+            return algorithm;
         }
         
-        public void setWriteMode(String writeMode) {
-            this.writeMode = writeMode;
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
         }
         
-        public String getReadMode() {
-            return readMode;
+        public DataSize getThreshold() {
+            return threshold;
         }
         
-        public void setReadMode(String readMode) {
-            this.readMode = readMode;
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
         }
         
-        public String getConsistency() {
-            return consistency;
+        public Map<String, RegionCompressionProperties> getRegions() {
+            return regions;
         }
         
-        public void setConsistency(String consistency) {
-            this.consistency = consistency;
+        public void setRegions(Map<String, RegionCompressionProperties> regions) {
+            this.regions = regions;
+        }
+        
+        public DictionaryProperties getDictionary() {
+            return dictionary;
+        }
+        
+        public void setDictionary(DictionaryProperties dictionary) {
+            this.dictionary = dictionary;
         }
     }
     
     /**
-     * 同步配置
+     * 预置字典压缩配置
      */
-    public static class SyncProperties {
-        private boolean enabled = true;
-        private String channel = "cache-sync";
-        private int batchSize = 100;
-        private Duration flushInterval = Duration.ofSeconds(1);
+    public static class DictionaryProperties {
+        // 每个命名空间采样多少个值后训练字典
+        private int sampleSize = 100;
+        // 字典大小上限，超过32KB的部分不会被Deflate用到
+        private DataSize maxSize = DataSize.ofKilobytes(16);
+        // 压缩多少个值后重新采样训练新版本，0表示不重新训练
+        private long retrainInterval = 0;
+        // 内存中保留的字典数（包括旧版本和其他节点的字典）
+        private int retained = 32;
+        // 字典在共享存储中最后一次使用后的保留时间，应长于值的TTL；null表示不过期
+        private Duration ttl;
         
         // Getters and Setters
-        public boolean isEnabled() {
-            return enabled;
+        public int getSampleSize() {
+            return sampleSize;
         }
         
-        public void setEnabled(boolean enabled) {
-            this.enabled = enabled;
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
         }
         
-        public String getChannel() {
-            return channel;
+        public DataSize getMaxSize() {
+            return maxSize;
         }
         
-        public void setChannel(String channel) {
-            this.channel = channel;
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
         }
         
-        public int getBatchSize() {
-            return batchSize;
+        public long getRetrainInterval() {
+            return retrainInterval;
+        }
+        
+        public void setRetrainInterval(long retrainInterval) {
+            this.retrainInterval = retrainInterval;
+        }
+        
+        public int getRetained() {
+            return retained;
+        }
+        
+        public void setRetained(int retained) {
+            this.retained = retained;
+        }
+        
+        public Duration getTtl() {
+            return ttl;
+        }
+        
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+    
+    /**
+     * 区域压缩配置，null表示使用默认值
+     */
+    public static class RegionCompressionProperties {
+        private Boolean enabled;
+        private String algorithm;
+        private DataSize threshold;
+        
+        // Getters and Setters
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getAlgorithm() {
+            return algorithm;
+        }
+        
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+        
+        public DataSize getThreshold() {
+            return threshold;
+        }
+        
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+    }
+    
+    /**
+     * 值编解码配置
+     *
+     * 启用后远程缓存的值由编解码器编码为带类型头的字节，不再使用RedisTemplate的值序列化器；
+     * 启用前写入的旧格式值仍可读取。
+     */
+    public static class CodecProperties {
+        private boolean enabled = false;
+        // 默认编解码器：binary 或 json
+        private String defaultCodec = "binary";
+        // 命名空间 -> 编解码器
+        private Map<String, String> regions = new HashMap<>();
+        // 类名 -> 类型注册
+        private Map<String, TypeCodecProperties> types = new HashMap<>();
+        // 值中的类名只解析这些包（含子包）和JDK基础类型的包，为空时使用应用的自动配置包，"*" 表示不检查
+        private List<String> trustedPackages = new ArrayList<>();
+        // 解压后的最大字节数，超过时按损坏的值处理
+        private DataSize maxDecompressedSize = DataSize.ofMegabytes(64);
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getDefaultCodec() {
+            return defaultCodec;
+        }
+        
+        public void setDefaultCodec(String defaultCodec) {
+            this.defaultCodec = defaultCodec;
+        }
+        
+        public Map<String, String> getRegions() {
+            return regions;
+        }
+        
+        public void setRegions(Map<String, String> regions) {
+            this.regions = regions;
+        }
+        
+        public Map<String, TypeCodecProperties> getTypes() {
+            return types;
+        }
+        
+        public void setTypes(Map<String, TypeCodecProperties> types) {
+            this.types = types;
+        }
+        
+        public List<String> getTrustedPackages() {
+            return trustedPackages;
+        }
+        
+        public void setTrustedPackages(List<String> trustedPackages) {
+            this.trustedPackages = trustedPackages;
+        }
+        
+        public DataSize getMaxDecompressedSize() {
+            return maxDecompressedSize;
+        }
+        
+        public void setMaxDecompressedSize(DataSize maxDecompressedSize) {
+            this.maxDecompressedSize = maxDecompressedSize;
+        }
+    }
+    
+    /**
+     * 缓存键配置
+     *
+     * 启用紧凑键后，注解未指定key时默认键为 {@link com.cache.plugin.core.CacheKey}：本地缓存按键对象直接命中，
+     * 远程键使用紧凑编码。远程键格式随之改变，所有节点都升级后再启用，否则新旧节点的默认键互不失效。
+     */
+    public static class KeyProperties {
+        private boolean compact = false;
+        
+        // Getters and Setters
+        public boolean isCompact() {
+            return compact;
+        }
+        
+        public void setCompact(boolean compact) {
+            this.compact = compact;
+        }
+    }
+    
+    /**
+     * 类型编解码注册
+     */
+    public static class TypeCodecProperties {
+        // 类型ID，2及以上，所有节点必须一致
+        private int id;
+        private String codec = "json";
+        
+        // Getters and Setters
+        public int getId() {
+            return id;
+        }
+        
+        public void setId(int id) {
+            this.id = id;
+        }
+        
+        public String getCodec() {
+            return codec;
+        }
+        
+        public void setCodec(String codec) {
+            this.codec = codec;
+        }
+    }
+    
+    /**
+     * Redis客户端缓存（服务端辅助失效）配置
+     *
+     * 启用后由Redis在键被修改时通过RESP3推送失效通知，本地缓存据此清除对应条目，
+     * 不再依赖应用层的同步频道广播每次写入。需要Redis 6+和Lettuce客户端，仅支持单机连接。
+     */
+    public static class ClientTrackingProperties {
+        private boolean enabled = false;
+        private TrackingMode mode = TrackingMode.BCAST;
+        // BCAST模式下订阅的键前缀，为空时订阅所有键
+        private List<String> prefixes = new ArrayList<>();
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public TrackingMode getMode() {
+            return mode;
+        }
+        
+        public void setMode(TrackingMode mode) {
+            this.mode = mode;
+        }
+        
+        public List<String> getPrefixes() {
+            return prefixes;
+        }
+        
+        public void setPrefixes(List<String> prefixes) {
+            this.prefixes = prefixes;
+        }
+    }
+    
+    /**
+     * 远程缓存熔断配置
+     */
+    public static class CircuitBreakerProperties {
+        private boolean enabled = true;
+        // 失败调用比例达到该值时熔断
+        private double failureRateThreshold = 0.5;
+        // 慢调用比例达到该值时熔断
+        private double slowCallRateThreshold = 0.5;
+        // 超过该耗时的调用视为慢调用
+        private Duration slowCallDuration = Duration.ofMillis(500);
+        // 统计最近多少次调用
+        private int slidingWindowSize = 100;
+        // 窗口内至少多少次调用才计算比例
+        private int minimumCalls = 20;
+        // 熔断后多久进入半开状态
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        // 半开状态允许的探测调用数
+        private int permittedCallsInHalfOpenState = 5;
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+        
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+        
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+        
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+        
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+        
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+        
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+        
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+        
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+        
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+        
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+        
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+        
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+        
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+    
+    /**
+     * 连接池配置
+     */
+    public static class PoolProperties {
+        private int maxActive = 8;
+        private int maxIdle = 8;
+        private int minIdle = 0;
+        private Duration maxWait = Duration.ofMillis(-1);
+        
+        // Getters and Setters
+        public int getMaxActive() {
+            return maxActive;
+        }
+        
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+        
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+        
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+        
+        public int getMinIdle() {
+            return minIdle;
+        }
+        
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+        
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+        
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+    
+    /**
+     * 策略配置
+     */
+    public static class StrategyProperties {
+        private String defaultStrategy = "local-first";
+        private String writeMode = "write-through";
+        private String readMode = "read-through";
+        private String consistency = "eventual";
+        private AdaptiveProperties adaptive = new AdaptiveProperties();
+        
+        // Getters and Setters
+        public String getDefaultStrategy() {
+            return defaultStrategy;
+        }
+        
+        public void setDefaultStrategy(String defaultStrategy) {
+            this.defaultStrategy = defaultStrategy;
+        }
+        
+        public String getWriteMode() {
+            return writeMode;
+        }
+        
+        public void setWriteMode(String writeMode) {
+            this.writeMode = writeMode;
+        }
+        
+        public String getReadMode() {
+            return readMode;
+        }
+        
+        public void setReadMode(String readMode) {
+            this.readMode = readMode;
+        }
+        
+        public String getConsistency() {
+            return consistency;
+        }
+        
+        public void setConsistency(String consistency) {
+            this.consistency = consistency;
+        }
+        
+        public AdaptiveProperties getAdaptive() {
+            return adaptive;
+        }
+        
+        public void setAdaptive(AdaptiveProperties adaptive) {
+            this.adaptive = adaptive;
+        }
+    }
+    
+    /**
+     * 自适应策略配置
+     * 
+     * 每个 evaluationInterval 根据区域的读取统计在 LOCAL_FIRST 与 REMOTE_FIRST 之间选择：
+     * 本地条目寿命超过 maxStaleness 且失效比例超过 maxInvalidationRatio 时改为远程优先；
+     * 本地命中率低于 minLocalHitRatio 且远程延迟不超过 fastRemoteLatency 时也改为远程优先（回写本地缓存得不偿失）。
+     */
+    public static class AdaptiveProperties {
+        private Duration evaluationInterval = Duration.ofSeconds(10);
+        private long minSamples = 100;
+        private Duration maxStaleness = Duration.ofSeconds(5);
+        private double maxInvalidationRatio = 0.05;
+        private double minLocalHitRatio = 0.1;
+        private Duration fastRemoteLatency = Duration.ofMillis(1);
+        
+        // Getters and Setters
+        public Duration getEvaluationInterval() {
+            return evaluationInterval;
+        }
+        
+        public void setEvaluationInterval(Duration evaluationInterval) {
+            this.evaluationInterval = evaluationInterval;
+        }
+        
+        public long getMinSamples() {
+            return minSamples;
+        }
+        
+        public void setMinSamples(long minSamples) {
+            this.minSamples = minSamples;
+        }
+        
+        public Duration getMaxStaleness() {
+            return maxStaleness;
+        }
+        
+        public void setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+        
+        public double getMaxInvalidationRatio() {
+            return maxInvalidationRatio;
+        }
+        
+        public void setMaxInvalidationRatio(double maxInvalidationRatio) {
+            this.maxInvalidationRatio = maxInvalidationRatio;
+        }
+        
+        public double getMinLocalHitRatio() {
+            return minLocalHitRatio;
+        }
+        
+        public void setMinLocalHitRatio(double minLocalHitRatio) {
+            this.minLocalHitRatio = minLocalHitRatio;
+        }
+        
+        public Duration getFastRemoteLatency() {
+            return fastRemoteLatency;
+        }
+        
+        public void setFastRemoteLatency(Duration fastRemoteLatency) {
+            this.fastRemoteLatency = fastRemoteLatency;
+        }
+    }
+    
+    /**
+     * 空值缓存配置
+     */
+    public static class NullValueProperties {
+        private Duration ttl = Duration.ofSeconds(60);
+        
+        // Getters and Setters
+        public Duration getTtl() {
+            return ttl;
+        }
+        
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+    
+    /**
+     * 缓存区域配置，未设置的项继承注解声明或全局配置
+     */
+    public static class RegionProperties {
+        private Long maxSize;
+        private DataSize maxWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Duration ttl;
+        private String namespace;
+        // 键为数字ID时使用以long为键的本地缓存
+        private Boolean longKeys;
+        private BloomFilterProperties bloomFilter = new BloomFilterProperties();
+        private ExpirationProperties expiration = new ExpirationProperties();
+        
+        // Getters and Setters
+        public Long getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(Long maxSize) {
+            this.maxSize = maxSize;
+        }
+        
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+        
+        public void setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+        
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+        
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+        
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+        
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+        
+        public Duration getTtl() {
+            return ttl;
+        }
+        
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+        
+        public String getNamespace() {
+            return namespace;
+        }
+        
+        public void setNamespace(String namespace) {
+            this.namespace = namespace;
+        }
+        
+        public Boolean getLongKeys() {
+            return longKeys;
+        }
+        
+        public void setLongKeys(Boolean longKeys) {
+            this.longKeys = longKeys;
+        }
+        
+        public BloomFilterProperties getBloomFilter() {
+            return bloomFilter;
+        }
+        
+        public void setBloomFilter(BloomFilterProperties bloomFilter) {
+            this.bloomFilter = bloomFilter;
+        }
+        
+        public ExpirationProperties getExpiration() {
+            return expiration;
+        }
+        
+        public void setExpiration(ExpirationProperties expiration) {
+            this.expiration = expiration;
+        }
+    }
+    
+    /**
+     * 区域过期配置
+     *
+     * 同时写入的键（例如批量预热）会同时过期，导致数据源在同一时刻承受大量未命中。
+     * ttlJitter 将每次写入的本地和远程TTL随机缩短至多该比例，使过期时间分散；
+     * earlyRefresh 在加载型读取命中时按 XFetch 算法以随过期临近而增大的概率提前在后台刷新，
+     * 加载越慢（以实测加载耗时计）、earlyRefreshBeta 越大，刷新越早开始。
+     */
+    public static class ExpirationProperties {
+        private double ttlJitter = 0.0;
+        private boolean earlyRefresh = false;
+        private double earlyRefreshBeta = 1.0;
+        
+        // Getters and Setters
+        public double getTtlJitter() {
+            return ttlJitter;
+        }
+        
+        public void setTtlJitter(double ttlJitter) {
+            this.ttlJitter = ttlJitter;
+        }
+        
+        public boolean isEarlyRefresh() {
+            return earlyRefresh;
+        }
+        
+        public void setEarlyRefresh(boolean earlyRefresh) {
+            this.earlyRefresh = earlyRefresh;
+        }
+        
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+        
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+    }
+    
+    /**
+     * 区域布隆过滤器配置
+     * 
+     * 启用后远程查询前先检查过滤器，确定不存在的键直接视为未命中而不访问远程缓存。
+     * 过滤器以Redis位图的形式在节点间共享，各节点的容量与误判率配置必须一致。
+     */
+    public static class BloomFilterProperties {
+        private boolean enabled = false;
+        private long expectedInsertions = 1_000_000;
+        private double fpp = 0.01;
+        private Duration syncInterval = Duration.ofSeconds(30);
+        private String key;
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+        
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+        
+        public double getFpp() {
+            return fpp;
+        }
+        
+        public void setFpp(double fpp) {
+            this.fpp = fpp;
+        }
+        
+        public Duration getSyncInterval() {
+            return syncInterval;
+        }
+        
+        public void setSyncInterval(Duration syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public void setKey(String key) {
+            this.key = key;
+        }
+    }
+    
+    /**
+     * 同步配置
+     */
+    public static class SyncProperties {
+        private boolean enabled = true;
+        private String channel = "cache-sync";
+        private int batchSize = 100;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private WriteBehindProperties writeBehind = new WriteBehindProperties();
+        private HotKeyProperties hotKey = new HotKeyProperties();
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getChannel() {
+            return channel;
+        }
+        
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+        
+        public int getBatchSize() {
+            return batchSize;
         }
         
         public void setBatchSize(int batchSize) {
@@ -362,6 +1392,247 @@ public class TieredCacheProperties {
         public void setFlushInterval(Duration flushInterval) {
             this.flushInterval = flushInterval;
         }
+        
+        public WriteBehindProperties getWriteBehind() {
+            return writeBehind;
+        }
+        
+        public void setWriteBehind(WriteBehindProperties writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+        
+        public HotKeyProperties getHotKey() {
+            return hotKey;
+        }
+        
+        public void setHotKey(HotKeyProperties hotKey) {
+            this.hotKey = hotKey;
+        }
+    }
+    
+    /**
+     * 热点键复制配置
+     * 
+     * 读取频率（按 decayInterval 衰减）达到 threshold 的键被判定为热点，
+     * 通过同步频道通知所有节点将其固定在本地缓存中，热度降到阈值一半以下后取消固定。
+     */
+    public static class HotKeyProperties {
+        private boolean enabled = false;
+        private int threshold = 1000;
+        private int maxKeys = 100;
+        private Duration decayInterval = Duration.ofSeconds(10);
+        private int sketchWidth = 16384;
+        private String channel;
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getThreshold() {
+            return threshold;
+        }
+        
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+        
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+        
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+        
+        public Duration getDecayInterval() {
+            return decayInterval;
+        }
+        
+        public void setDecayInterval(Duration decayInterval) {
+            this.decayInterval = decayInterval;
+        }
+        
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+        
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+        
+        public String getChannel() {
+            return channel;
+        }
+        
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+    
+    /**
+     * 写回队列配置
+     */
+    public static class WriteBehindProperties {
+        private int capacity = 10000;
+        private Duration maxBlockTime = Duration.ofMillis(100);
+        private int maxRetries = 3;
+        private Duration retryBackoff = Duration.ofMillis(200);
+        
+        // Getters and Setters
+        public int getCapacity() {
+            return capacity;
+        }
+        
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        public Duration getMaxBlockTime() {
+            return maxBlockTime;
+        }
+        
+        public void setMaxBlockTime(Duration maxBlockTime) {
+            this.maxBlockTime = maxBlockTime;
+        }
+        
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+        
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+        
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+        
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+    
+    /**
+     * 异步任务配置
+     *
+     * 本地回写、后台刷新等可丢弃的任务与异步远程写入分别在两个有界通道中执行，
+     * 过载时回写先被丢弃，远程写入默认由调用线程执行以形成背压。
+     */
+    public static class AsyncProperties {
+        // JDK 21+ 上使用虚拟线程执行，通道容量改为限制同时执行的任务数
+        private boolean virtualThreads = false;
+        private LaneProperties backfill = new LaneProperties(1000, RejectionPolicy.DISCARD);
+        private LaneProperties write = new LaneProperties(10000, RejectionPolicy.CALLER_RUNS);
+        
+        // Getters and Setters
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+        
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+        
+        public LaneProperties getBackfill() {
+            return backfill;
+        }
+        
+        public void setBackfill(LaneProperties backfill) {
+            this.backfill = backfill;
+        }
+        
+        public LaneProperties getWrite() {
+            return write;
+        }
+        
+        public void setWrite(LaneProperties write) {
+            this.write = write;
+        }
+    }
+    
+    /**
+     * 异步任务通道配置
+     */
+    public static class LaneProperties {
+        // 线程数，0表示使用CPU核数
+        private int threads = 0;
+        private int queueCapacity;
+        private RejectionPolicy rejectionPolicy;
+        
+        public LaneProperties() {
+            this(1000, RejectionPolicy.DISCARD);
+        }
+        
+        public LaneProperties(int queueCapacity, RejectionPolicy rejectionPolicy) {
+            this.queueCapacity = queueCapacity;
+            this.rejectionPolicy = rejectionPolicy;
+        }
+        
+        // Getters and Setters
+        public int getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+        
+        public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+    }
+    
+    /**
+     * 异步任务通道已满时的处理方式
+     */
+    public enum RejectionPolicy {
+        /**
+         * 抛出RejectedExecutionException，由调用方记录后放弃
+         */
+        ABORT,
+        /**
+         * 由提交任务的线程直接执行
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃新任务
+         */
+        DISCARD,
+        /**
+         * 丢弃队列中最早的任务后重新提交
+         */
+        DISCARD_OLDEST
+    }
+    
+    /**
+     * Redis客户端缓存的失效通知方式
+     */
+    public enum TrackingMode {
+        /**
+         * 广播模式：匹配前缀的任何键被修改时都会收到通知，服务端不记录各节点读取过的键
+         */
+        BCAST,
+        /**
+         * 默认模式：远程读取经由跟踪连接执行，只收到本节点读取过的键的通知
+         */
+        DEFAULT
     }
     
     /**
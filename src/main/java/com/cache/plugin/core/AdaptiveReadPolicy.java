@@ -0,0 +1,182 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.config.TieredCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 区域的自适应读取策略
+ *
+ * 统计区域的读取数、本地命中数（远程优先时按本地是否已有该键计算）、失效数（写入与清除）和远程读取延迟，
+ * 每个评估周期在读取线程上顺带重新选择 LOCAL_FIRST 或 REMOTE_FIRST：
+ * <ul>
+ *   <li>本地条目寿命可能超过 maxStaleness，且失效比例超过 maxInvalidationRatio 时远程优先，保证读取不超出陈旧上限；
+ *       已处于远程优先时，失效比例降到阈值一半以下才切回</li>
+ *   <li>本地命中率低于 minLocalHitRatio 且远程延迟不超过 fastRemoteLatency 时远程优先，避免无效的本地回写</li>
+ *   <li>其余情况本地优先</li>
+ * </ul>
+ * 样本数不足 minSamples 时保持当前选择。
+ */
+public class AdaptiveReadPolicy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveReadPolicy.class);
+    
+    private final CacheRegion region;
+    private final TieredCacheProperties.AdaptiveProperties properties;
+    
+    // 当前评估周期的统计
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder remoteReads = new LongAdder();
+    private final LongAdder remoteNanos = new LongAdder();
+    
+    private final AtomicLong nextEvaluation;
+    private final AtomicLong switchCount = new AtomicLong(0);
+    private volatile CacheStrategy strategy = CacheStrategy.LOCAL_FIRST;
+    
+    // 最近一次评估的结果
+    private volatile double localHitRatio;
+    private volatile double invalidationRatio;
+    private volatile double remoteLatencyNanos;
+    
+    public AdaptiveReadPolicy(CacheRegion region, TieredCacheProperties.AdaptiveProperties properties) {
+        this.region = region;
+        this.properties = properties;
+        this.nextEvaluation = new AtomicLong(System.nanoTime() + properties.getEvaluationInterval().toNanos());
+    }
+    
+    /**
+     * 当前选择的读取策略，评估周期已到时先重新评估
+     */
+    public CacheStrategy currentStrategy() {
+        long now = System.nanoTime();
+        long next = nextEvaluation.get();
+        if (now - next >= 0 && nextEvaluation.compareAndSet(next, now + properties.getEvaluationInterval().toNanos())) {
+            evaluate();
+        }
+        return strategy;
+    }
+    
+    /**
+     * 记录读取
+     * 
+     * @param count 读取的键数
+     * @param hits 其中本地缓存已有的键数
+     */
+    public void recordReads(long count, long hits) {
+        reads.add(count);
+        localHits.add(hits);
+    }
+    
+    /**
+     * 记录一次远程读取的耗时
+     */
+    public void recordRemoteRead(long nanos) {
+        remoteReads.increment();
+        remoteNanos.add(nanos);
+    }
+    
+    /**
+     * 记录覆盖已有值的写入或清除，本节点的失效频率近似反映其他节点本地副本变旧的速度
+     */
+    public void recordInvalidation(long count) {
+        invalidations.add(count);
+    }
+    
+    /**
+     * 按当前周期的统计重新选择策略
+     */
+    public void evaluate() {
+        long sampled = reads.sum();
+        if (sampled < Math.max(1, properties.getMinSamples())) {
+            return;
+        }
+        sampled = reads.sumThenReset();
+        localHitRatio = (double) localHits.sumThenReset() / sampled;
+        invalidationRatio = (double) invalidations.sumThenReset() / sampled;
+        long remoteCount = remoteReads.sumThenReset();
+        long remoteTotal = remoteNanos.sumThenReset();
+        if (remoteCount > 0) {
+            double latency = (double) remoteTotal / remoteCount;
+            remoteLatencyNanos = remoteLatencyNanos == 0 ? latency : (remoteLatencyNanos + latency) / 2;
+        }
+        
+        CacheStrategy previous = strategy;
+        CacheStrategy selected = select(previous);
+        if (selected != previous) {
+            strategy = selected;
+            switchCount.incrementAndGet();
+            logger.info("Adaptive strategy of cache region {} switched from {} to {} (localHitRatio: {}, invalidationRatio: {}, remoteLatency: {}us)",
+                       region.getName(), previous, selected, String.format("%.3f", localHitRatio),
+                       String.format("%.3f", invalidationRatio), Math.round(remoteLatencyNanos / 1000));
+        }
+    }
+    
+    private CacheStrategy select(CacheStrategy current) {
+        double maxInvalidationRatio = properties.getMaxInvalidationRatio();
+        if (current == CacheStrategy.REMOTE_FIRST) {
+            maxInvalidationRatio /= 2;
+        }
+        if (mayExceedStaleness() && invalidationRatio > maxInvalidationRatio) {
+            return CacheStrategy.REMOTE_FIRST;
+        }
+        if (localHitRatio < properties.getMinLocalHitRatio()
+                && remoteLatencyNanos <= properties.getFastRemoteLatency().toNanos()) {
+            return CacheStrategy.REMOTE_FIRST;
+        }
+        return CacheStrategy.LOCAL_FIRST;
+    }
+    
+    /**
+     * 本地条目的寿命是否可能超过陈旧上限
+     */
+    private boolean mayExceedStaleness() {
+        Duration maxStaleness = properties.getMaxStaleness();
+        if (maxStaleness == null) {
+            return false;
+        }
+        Duration lifetime = region.getLocalCache().getExpireAfterWrite();
+        return lifetime == null || lifetime.compareTo(maxStaleness) > 0;
+    }
+    
+    /**
+     * 当前选择的读取策略（不触发评估）
+     */
+    public CacheStrategy getStrategy() {
+        return strategy;
+    }
+    
+    /**
+     * 策略切换次数
+     */
+    public long getSwitchCount() {
+        return switchCount.get();
+    }
+    
+    /**
+     * 最近一次评估的本地命中率
+     */
+    public double getLocalHitRatio() {
+        return localHitRatio;
+    }
+    
+    /**
+     * 最近一次评估的失效比例（失效数/读取数）
+     */
+    public double getInvalidationRatio() {
+        return invalidationRatio;
+    }
+    
+    /**
+     * 远程读取延迟的平滑值（纳秒）
+     */
+    public double getRemoteLatencyNanos() {
+        return remoteLatencyNanos;
+    }
+}
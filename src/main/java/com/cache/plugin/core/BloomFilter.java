@@ -0,0 +1,181 @@
+package com.cache.plugin.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ *
+ * 位编号与Redis位图一致（第0位为第0个字节的最高位），可直接与远程位图互相合并，
+ * 因此各节点在相同的容量与误判率配置下对同一个键计算出相同的位。
+ * 布隆过滤器不支持删除，被清除的键只会造成误判（多一次远程查询），需要时可整体重建。
+ */
+public class BloomFilter {
+    
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this(optimalBitSize(expectedInsertions, falsePositiveRate),
+             optimalHashCount(expectedInsertions, optimalBitSize(expectedInsertions, falsePositiveRate)));
+    }
+    
+    BloomFilter(long bitSize, int hashCount) {
+        // 按8字节对齐，保证与Redis位图的字节数一致
+        this.bitSize = Math.max(64, (bitSize + 63) / 64 * 64);
+        this.hashCount = hashCount;
+        this.bits = new AtomicLongArray((int) (this.bitSize / 64));
+    }
+    
+    /**
+     * 记录键
+     * 
+     * @return 是否有位由0变为1，返回false时键此前已被记录（或发生误判）
+     */
+    public boolean put(String key) {
+        boolean changed = false;
+        for (long index : bitIndexes(key)) {
+            changed |= orWord((int) (index >>> 6), mask(index));
+        }
+        return changed;
+    }
+    
+    /**
+     * 键是否可能存在，返回false时键一定不存在
+     */
+    public boolean mightContain(String key) {
+        for (long index : bitIndexes(key)) {
+            if ((bits.get((int) (index >>> 6)) & mask(index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 计算键对应的位（双重哈希）
+     */
+    public long[] bitIndexes(String key) {
+        long hash = hash64(key);
+        long h1 = hash;
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L);
+        long[] indexes = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            long combined = h1 + i * h2;
+            indexes[i] = (combined & Long.MAX_VALUE) % bitSize;
+        }
+        return indexes;
+    }
+    
+    /**
+     * 合并Redis位图（按位或）
+     */
+    public void merge(byte[] bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        int words = Math.min(bits.length(), (bitmap.length + 7) / 8);
+        for (int word = 0; word < words; word++) {
+            long value = 0;
+            for (int b = 0; b < 8; b++) {
+                int offset = word * 8 + b;
+                if (offset < bitmap.length) {
+                    value |= (bitmap[offset] & 0xFFL) << (56 - b * 8);
+                }
+            }
+            if (value != 0) {
+                orWord(word, value);
+            }
+        }
+    }
+    
+    /**
+     * 导出为Redis位图格式
+     */
+    public byte[] toByteArray() {
+        byte[] bitmap = new byte[(int) (bitSize / 8)];
+        for (int word = 0; word < bits.length(); word++) {
+            long value = bits.get(word);
+            for (int b = 0; b < 8; b++) {
+                bitmap[word * 8 + b] = (byte) (value >>> (56 - b * 8));
+            }
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 已置位的比例，接近0.5以上时误判率明显升高，应扩容重建
+     */
+    public double getFillRatio() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return (double) set / bitSize;
+    }
+    
+    /**
+     * 位数
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+    
+    /**
+     * 哈希函数个数
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+    
+    private boolean orWord(int word, long value) {
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current | value) == current) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | value));
+        return true;
+    }
+    
+    /**
+     * 位在所属long中的掩码，第0位对应最高位
+     */
+    private static long mask(long index) {
+        return 1L << (63 - (index & 63));
+    }
+    
+    /**
+     * 键的64位哈希（FNV-1a + MurmurHash3 finalizer），与JVM无关
+     */
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return fmix64(hash);
+    }
+    
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private static long optimalBitSize(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        return (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+    
+    private static int optimalHashCount(long expectedInsertions, long bitSize) {
+        long n = Math.max(1, expectedInsertions);
+        return Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+}
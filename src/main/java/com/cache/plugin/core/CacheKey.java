@@ -0,0 +1,332 @@
+package com.cache.plugin.core;
+
+import java.util.Arrays;
+
+/**
+ * 默认策略生成的紧凑缓存键：方法标识与参数的不可变组合
+ *
+ * 64位哈希在创建时计算一次，支持按键对象查找的本地缓存直接以键对象命中，不构造键字符串。
+ * 字符串形式是紧凑编码：以 {@link #MARKER} 开头，方法标识和字符串参数带长度前缀，整数参数为变长编码，
+ * 框架字符均为ASCII，按UTF-8写入Redis时即为键的字节。编码与键一一对应，可由 {@link #parse(String)} 还原，
+ * 因此以字符串形式传递的键（远程失效通知、同步事件、预热快照）与键对象对应同一个本地条目。
+ */
+public final class CacheKey {
+    
+    /**
+     * 编码的首字符
+     */
+    public static final char MARKER = '\u001F';
+    
+    private static final char NULL = 'n';
+    private static final char TRUE = 't';
+    private static final char FALSE = 'f';
+    private static final char INTEGER = 'i';
+    private static final char STRING = 's';
+    // 其他类型的参数按文本形式参与比较
+    private static final char TEXT = 'o';
+    
+    // 变长编码每个字符5位，非末位字符为 0x20-0x3F，末位字符为 0x40-0x5F
+    private static final int GROUP_BITS = 5;
+    private static final int GROUP_MASK = (1 << GROUP_BITS) - 1;
+    private static final char MORE = 0x20;
+    private static final char LAST = 0x40;
+    
+    private final String method;
+    private final char[] types;
+    // 整数参数为Long，字符串和文本参数为String，其余为null
+    private final Object[] values;
+    private final long hash;
+    // 编码形式，与String.hashCode相同的无锁惰性初始化
+    private String encoded;
+    
+    /**
+     * @param method 方法标识（类名.方法名）
+     * @param args 方法参数，整数（Long、Integer、Short、Byte）、字符串、布尔和null按值编码，其余按文本形式
+     */
+    public CacheKey(String method, Object[] args) {
+        int count = args != null ? args.length : 0;
+        this.method = method;
+        this.types = new char[count];
+        this.values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            Object arg = args[i];
+            if (arg == null) {
+                types[i] = NULL;
+            } else if (arg instanceof Boolean) {
+                types[i] = (Boolean) arg ? TRUE : FALSE;
+            } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+                types[i] = INTEGER;
+                values[i] = ((Number) arg).longValue();
+            } else if (arg instanceof String) {
+                types[i] = STRING;
+                values[i] = arg;
+            } else {
+                types[i] = TEXT;
+                values[i] = toText(arg);
+            }
+        }
+        this.hash = hash(method, types, values);
+    }
+    
+    private CacheKey(String method, char[] types, Object[] values, String encoded) {
+        this.method = method;
+        this.types = types;
+        this.values = values;
+        this.hash = hash(method, types, values);
+        this.encoded = encoded;
+    }
+    
+    /**
+     * 64位哈希
+     */
+    public long hash64() {
+        return hash;
+    }
+    
+    /**
+     * 方法标识
+     */
+    public String getMethod() {
+        return method;
+    }
+    
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey key = (CacheKey) other;
+        return hash == key.hash && method.equals(key.method)
+                && Arrays.equals(types, key.types) && Arrays.equals(values, key.values);
+    }
+    
+    /**
+     * 编码形式，即各缓存层使用的键字符串
+     */
+    @Override
+    public String toString() {
+        String result = encoded;
+        if (result == null) {
+            result = encode();
+            encoded = result;
+        }
+        return result;
+    }
+    
+    /**
+     * 字符串是否可能是编码形式，只检查首字符
+     */
+    public static boolean isEncoded(String key) {
+        return key != null && !key.isEmpty() && key.charAt(0) == MARKER;
+    }
+    
+    /**
+     * 还原编码形式的键
+     *
+     * @param key 键字符串
+     * @return 键，不是有效的编码形式时返回null
+     */
+    public static CacheKey parse(String key) {
+        if (!isEncoded(key)) {
+            return null;
+        }
+        Reader reader = new Reader(key);
+        String method = reader.readString();
+        if (!reader.isValid()) {
+            return null;
+        }
+        int count = 0;
+        char[] types = new char[4];
+        Object[] values = new Object[4];
+        while (reader.hasMore()) {
+            if (count == types.length) {
+                types = Arrays.copyOf(types, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            char type = reader.next();
+            switch (type) {
+                case NULL:
+                case TRUE:
+                case FALSE:
+                    break;
+                case INTEGER:
+                    values[count] = zigZagDecode(reader.readVarLong());
+                    break;
+                case STRING:
+                case TEXT:
+                    values[count] = reader.readString();
+                    break;
+                default:
+                    return null;
+            }
+            if (!reader.isValid()) {
+                return null;
+            }
+            types[count++] = type;
+        }
+        return new CacheKey(method, Arrays.copyOf(types, count), Arrays.copyOf(values, count), key);
+    }
+    
+    /**
+     * 参数的文本形式，与默认键字符串格式中的参数一致
+     */
+    public static String toText(Object arg) {
+        if (arg == null) {
+            return "null";
+        }
+        
+        // 对于基本类型和字符串，直接转换
+        if (arg instanceof String || arg instanceof Number || arg instanceof Boolean) {
+            return arg.toString();
+        }
+        
+        // 对于数组，转换为字符串表示
+        if (arg.getClass().isArray()) {
+            if (arg instanceof Object[]) {
+                return Arrays.toString((Object[]) arg);
+            } else if (arg instanceof int[]) {
+                return Arrays.toString((int[]) arg);
+            } else if (arg instanceof long[]) {
+                return Arrays.toString((long[]) arg);
+            } else if (arg instanceof double[]) {
+                return Arrays.toString((double[]) arg);
+            } else if (arg instanceof boolean[]) {
+                return Arrays.toString((boolean[]) arg);
+            } else {
+                return arg.toString();
+            }
+        }
+        
+        // 对于其他对象，使用hashCode
+        return arg.getClass().getSimpleName() + "@" + arg.hashCode();
+    }
+    
+    private String encode() {
+        int length = 1 + 7 + method.length();
+        for (int i = 0; i < types.length; i++) {
+            length += 1 + (values[i] instanceof String ? 7 + ((String) values[i]).length() : 13);
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(MARKER);
+        writeString(builder, method);
+        for (int i = 0; i < types.length; i++) {
+            builder.append(types[i]);
+            if (types[i] == INTEGER) {
+                writeVarLong(builder, zigZagEncode((Long) values[i]));
+            } else if (types[i] == STRING || types[i] == TEXT) {
+                writeString(builder, (String) values[i]);
+            }
+        }
+        return builder.toString();
+    }
+    
+    private static void writeString(StringBuilder builder, String value) {
+        writeVarLong(builder, value.length());
+        builder.append(value);
+    }
+    
+    private static void writeVarLong(StringBuilder builder, long value) {
+        while ((value & ~GROUP_MASK) != 0) {
+            builder.append((char) (MORE + (value & GROUP_MASK)));
+            value >>>= GROUP_BITS;
+        }
+        builder.append((char) (LAST + value));
+    }
+    
+    private static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static long hash(String method, char[] types, Object[] values) {
+        long h = method.hashCode();
+        for (int i = 0; i < types.length; i++) {
+            long valueHash;
+            if (values[i] instanceof Long) {
+                valueHash = (Long) values[i];
+            } else if (values[i] != null) {
+                valueHash = values[i].hashCode();
+            } else {
+                valueHash = 0;
+            }
+            h = (h ^ ((long) types[i] << 56) ^ valueHash) * 0x9E3779B97F4A7C15L;
+        }
+        // murmur3 的 fmix64，使低位也受所有参数影响
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    /**
+     * 编码形式的读取器，只接受规范编码（变长整数没有多余的高位组），保证编码与键一一对应
+     */
+    private static final class Reader {
+        private final String key;
+        private int position = 1;
+        private boolean valid = true;
+        
+        Reader(String key) {
+            this.key = key;
+        }
+        
+        boolean hasMore() {
+            return position < key.length();
+        }
+        
+        boolean isValid() {
+            return valid;
+        }
+        
+        char next() {
+            return key.charAt(position++);
+        }
+        
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (position < key.length()) {
+                char c = key.charAt(position++);
+                if (c >= LAST && c <= LAST + GROUP_MASK) {
+                    long group = c - LAST;
+                    // 多组时末组为0不是规范编码；第13组只能容纳剩余的4位
+                    if ((shift > 0 && group == 0) || (shift == 60 && group > 0xF)) {
+                        break;
+                    }
+                    return value | (group << shift);
+                }
+                if (c < MORE || c > MORE + GROUP_MASK || shift == 60) {
+                    break;
+                }
+                value |= (long) (c - MORE) << shift;
+                shift += GROUP_BITS;
+            }
+            valid = false;
+            return 0;
+        }
+        
+        String readString() {
+            long length = readVarLong();
+            if (!valid || length < 0 || length > key.length() - position) {
+                valid = false;
+                return null;
+            }
+            String value = key.substring(position, position + (int) length);
+            position += (int) length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cache.plugin.core;
+
+import java.time.Duration;
+
+/**
+ * 加载型读取的缓存选项
+ */
+public class CacheLoadOptions {
+    
+    /**
+     * 远程缓存过期时间（硬过期），为null时使用远程缓存默认TTL
+     */
+    private Duration ttl;
+    
+    /**
+     * 软过期时间，超过后读取仍返回缓存值并在后台刷新，为null表示不刷新
+     */
+    private Duration refreshAfter;
+    
+    /**
+     * 是否以空值标记缓存null加载结果
+     */
+    private boolean cacheNullValues;
+    
+    /**
+     * 空值标记的过期时间，为null时使用 tiered-cache.null-value.ttl
+     */
+    private Duration nullValueTtl;
+    
+    public CacheLoadOptions() {
+    }
+    
+    public CacheLoadOptions(Duration ttl) {
+        this.ttl = ttl;
+    }
+    
+    public CacheLoadOptions(Duration ttl, Duration refreshAfter) {
+        this.ttl = ttl;
+        this.refreshAfter = refreshAfter;
+    }
+    
+    public Duration getTtl() {
+        return ttl;
+    }
+    
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+    
+    public Duration getRefreshAfter() {
+        return refreshAfter;
+    }
+    
+    public void setRefreshAfter(Duration refreshAfter) {
+        this.refreshAfter = refreshAfter;
+    }
+    
+    public boolean isCacheNullValues() {
+        return cacheNullValues;
+    }
+    
+    public void setCacheNullValues(boolean cacheNullValues) {
+        this.cacheNullValues = cacheNullValues;
+    }
+    
+    public Duration getNullValueTtl() {
+        return nullValueTtl;
+    }
+    
+    public void setNullValueTtl(Duration nullValueTtl) {
+        this.nullValueTtl = nullValueTtl;
+    }
+    
+    /**
+     * 是否启用后台刷新
+     */
+    public boolean isRefreshEnabled() {
+        return refreshAfter != null && !refreshAfter.isZero() && !refreshAfter.isNegative();
+    }
+}
@@ -0,0 +1,289 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.local.LocalCache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存区域
+ *
+ * 每个区域拥有独立的本地缓存实例（容量与过期策略互不影响）、远程键命名空间、默认TTL和命中统计。
+ * 默认区域的远程键不加前缀，与未引入区域前的键保持一致。
+ */
+public class CacheRegion {
+    
+    private final String name;
+    private final LocalCache<String, Object> localCache;
+    private final String namespace;
+    private final Duration ttl;
+    
+    // 布隆过滤器（按远程键记录），未启用时为null；重建时整体替换
+    private volatile BloomFilter bloomFilter;
+    private volatile String bloomFilterKey;
+    // 与远程位图同步之前不拦截查询
+    private volatile boolean bloomFilterActive;
+    private volatile BloomFilter rebuildingBloomFilter;
+    
+    // 自适应读取策略，首次以ADAPTIVE策略访问时创建
+    private volatile AdaptiveReadPolicy adaptivePolicy;
+    
+    // 写入TTL的随机缩短比例，0表示不抖动
+    private volatile double ttlJitter;
+    // 提前刷新（XFetch）的beta系数，0表示不提前刷新
+    private volatile double earlyRefreshBeta;
+    // 区域加载耗时的指数移动平均（纳秒），估算未在本节点加载过的键的刷新代价
+    private volatile double averageLoadNanos;
+    
+    // 统计信息
+    private final AtomicLong localHits = new AtomicLong(0);
+    private final AtomicLong remoteHits = new AtomicLong(0);
+    private final AtomicLong diskHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong bloomFilterRejects = new AtomicLong(0);
+    private final AtomicLong coalescedLoads = new AtomicLong(0);
+    
+    public CacheRegion(String name, LocalCache<String, Object> localCache, String namespace, Duration ttl) {
+        this.name = name;
+        this.localCache = localCache;
+        this.namespace = namespace;
+        this.ttl = ttl;
+    }
+    
+    /**
+     * 将业务键转换为远程缓存中的键
+     */
+    public String remoteKey(String key) {
+        return namespace != null ? namespace + ":" + key : key;
+    }
+    
+    /**
+     * 区域名称
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 区域的本地缓存
+     */
+    public LocalCache<String, Object> getLocalCache() {
+        return localCache;
+    }
+    
+    /**
+     * 远程键命名空间，默认区域为null
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+    
+    /**
+     * 区域默认TTL，为null时使用远程缓存的默认TTL
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+    
+    /**
+     * 对TTL施加随机抖动，结果在 [ttl * (1 - ttlJitter), ttl] 之间，未启用抖动或ttl为null时原样返回
+     */
+    public Duration jitter(Duration ttl) {
+        double jitter = ttlJitter;
+        if (jitter <= 0 || ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return ttl;
+        }
+        double factor = 1.0 - Math.min(jitter, 1.0) * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofMillis(Math.max(1, (long) (ttl.toMillis() * factor)));
+    }
+    
+    /**
+     * 是否启用TTL抖动
+     */
+    public boolean isTtlJitterEnabled() {
+        return ttlJitter > 0;
+    }
+    
+    /**
+     * 提前刷新的beta系数，0表示不提前刷新
+     */
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+    
+    /**
+     * 记录一次加载耗时
+     */
+    public void recordLoadTime(long nanos) {
+        double average = averageLoadNanos;
+        // 并发更新可能丢失个别样本，对估算无影响
+        averageLoadNanos = average == 0 ? nanos : average * 0.9 + nanos * 0.1;
+    }
+    
+    /**
+     * 平均加载耗时（纳秒），尚未加载过时为0
+     */
+    public double getAverageLoadNanos() {
+        return averageLoadNanos;
+    }
+    
+    void configureExpiration(double ttlJitter, double earlyRefreshBeta) {
+        this.ttlJitter = ttlJitter;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+    
+    /**
+     * 远程键是否可能存在，未启用布隆过滤器时总是返回true
+     */
+    public boolean mightContain(String remoteKey) {
+        BloomFilter filter = bloomFilter;
+        return filter == null || !bloomFilterActive || filter.mightContain(remoteKey);
+    }
+    
+    /**
+     * 区域的布隆过滤器，未启用时为null
+     */
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+    
+    /**
+     * 布隆过滤器在远程缓存中的位图键
+     */
+    public String getBloomFilterKey() {
+        return bloomFilterKey;
+    }
+    
+    /**
+     * 布隆过滤器是否已开始拦截查询
+     */
+    public boolean isBloomFilterActive() {
+        return bloomFilter != null && bloomFilterActive;
+    }
+    
+    void setBloomFilter(BloomFilter bloomFilter, String bloomFilterKey) {
+        this.bloomFilterKey = bloomFilterKey;
+        this.bloomFilter = bloomFilter;
+    }
+    
+    void activateBloomFilter() {
+        this.bloomFilterActive = true;
+    }
+    
+    BloomFilter getRebuildingBloomFilter() {
+        return rebuildingBloomFilter;
+    }
+    
+    void startBloomFilterRebuild(BloomFilter rebuilding) {
+        this.rebuildingBloomFilter = rebuilding;
+    }
+    
+    void finishBloomFilterRebuild() {
+        this.rebuildingBloomFilter = null;
+    }
+    
+    /**
+     * 自适应读取策略，未以ADAPTIVE策略访问过时为null
+     */
+    public AdaptiveReadPolicy getAdaptivePolicy() {
+        return adaptivePolicy;
+    }
+    
+    void setAdaptivePolicy(AdaptiveReadPolicy adaptivePolicy) {
+        this.adaptivePolicy = adaptivePolicy;
+    }
+    
+    /**
+     * 本地缓存统计
+     */
+    public CacheStats getLocalStats() {
+        return localCache.getStats();
+    }
+    
+    /**
+     * 本地命中数
+     */
+    public long getLocalHits() {
+        return localHits.get();
+    }
+    
+    /**
+     * 远程命中数
+     */
+    public long getRemoteHits() {
+        return remoteHits.get();
+    }
+    
+    /**
+     * 磁盘缓存命中数
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+    
+    /**
+     * 未命中数
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    /**
+     * 被布隆过滤器拦截的远程查询数
+     */
+    public long getBloomFilterRejects() {
+        return bloomFilterRejects.get();
+    }
+    
+    /**
+     * 等待同一键进行中的加载而没有自行加载的未命中数
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.get();
+    }
+    
+    /**
+     * 命中率
+     */
+    public double getHitRate() {
+        long hits = localHits.get() + remoteHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    void recordLocalHits(long count) {
+        localHits.addAndGet(count);
+    }
+    
+    void recordRemoteHits(long count) {
+        remoteHits.addAndGet(count);
+    }
+    
+    void recordDiskHits(long count) {
+        diskHits.addAndGet(count);
+    }
+    
+    void recordMisses(long count) {
+        misses.addAndGet(count);
+    }
+    
+    void recordBloomFilterRejects(long count) {
+        bloomFilterRejects.addAndGet(count);
+    }
+    
+    void recordCoalescedLoad() {
+        coalescedLoads.incrementAndGet();
+    }
+    
+    @Override
+    public String toString() {
+        return "CacheRegion{" +
+                "name='" + name + '\'' +
+                ", namespace='" + namespace + '\'' +
+                ", maxSize=" + localCache.getMaxSize() +
+                ", ttl=" + ttl +
+                ", hitRate=" + String.format("%.2f%%", getHitRate() * 100) +
+                '}';
+    }
+}
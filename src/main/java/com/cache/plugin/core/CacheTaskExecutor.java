@@ -0,0 +1,279 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存异步任务执行器
+ *
+ * 按任务类型分为两个有界通道，各自有独立的线程（cache-backfill-N、cache-write-N）、队列容量和拒绝策略：
+ * <ul>
+ *   <li>BACKFILL：本地回写、后台刷新、热点键预取，丢弃只会导致多一次远程读取，默认队列满时丢弃</li>
+ *   <li>WRITE：异步远程写入与布隆过滤器更新，默认队列满时由调用线程执行</li>
+ * </ul>
+ * 启用虚拟线程且运行在 JDK 21+ 上时，每个任务使用一个虚拟线程，通道以信号量限制同时执行的任务数（线程数 + 队列容量）。
+ */
+public class CacheTaskExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheTaskExecutor.class);
+    
+    /**
+     * 任务通道
+     */
+    public enum Lane {
+        BACKFILL,
+        WRITE
+    }
+    
+    private final Map<Lane, LaneExecutor> lanes = new EnumMap<>(Lane.class);
+    
+    public CacheTaskExecutor(TieredCacheProperties.AsyncProperties properties) {
+        boolean virtualThreads = properties.isVirtualThreads();
+        if (virtualThreads && !isVirtualThreadSupported()) {
+            logger.warn("Virtual threads require JDK 21+, falling back to platform thread pools");
+            virtualThreads = false;
+        }
+        lanes.put(Lane.BACKFILL, new LaneExecutor("cache-backfill-", properties.getBackfill(), virtualThreads));
+        lanes.put(Lane.WRITE, new LaneExecutor("cache-write-", properties.getWrite(), virtualThreads));
+        logger.info("Cache task executor initialized with {} threads", virtualThreads ? "virtual" : "platform");
+    }
+    
+    /**
+     * 获取通道的执行器，任务被拒绝时按通道的拒绝策略处理（ABORT时抛出RejectedExecutionException）
+     */
+    public Executor lane(Lane lane) {
+        return lanes.get(lane);
+    }
+    
+    /**
+     * 在通道中执行任务
+     * 
+     * @param onRejected 任务确定不会执行时（被丢弃、被拒绝或执行器已关闭）在调用线程上回调
+     */
+    public void execute(Lane lane, Runnable task, Runnable onRejected) {
+        lanes.get(lane).execute(new RejectableTask(task, onRejected));
+    }
+    
+    /**
+     * 通道中等待执行的任务数（虚拟线程模式下为正在执行的任务数）
+     */
+    public int getQueueDepth(Lane lane) {
+        return lanes.get(lane).getQueueDepth();
+    }
+    
+    /**
+     * 通道累计拒绝的任务数
+     */
+    public long getRejectedCount(Lane lane) {
+        return lanes.get(lane).rejectedCount.get();
+    }
+    
+    /**
+     * 是否使用虚拟线程
+     */
+    public boolean isVirtualThreads() {
+        return lanes.get(Lane.BACKFILL).permits != null;
+    }
+    
+    /**
+     * 关闭所有通道，已提交的任务继续执行
+     */
+    public void shutdown() {
+        for (LaneExecutor executor : lanes.values()) {
+            executor.delegate.shutdown();
+        }
+    }
+    
+    /**
+     * 关闭所有通道并等待已提交的任务完成
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (LaneExecutor executor : lanes.values()) {
+            long remaining = deadline - System.nanoTime();
+            if (!executor.delegate.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 创建每个任务一个虚拟线程的执行器（源码兼容Java 8，通过反射调用）
+     */
+    private static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+    
+    /**
+     * 单个有界通道
+     */
+    private static final class LaneExecutor implements Executor {
+        
+        private final TieredCacheProperties.RejectionPolicy rejectionPolicy;
+        private final ExecutorService delegate;
+        // 虚拟线程模式下限制同时执行的任务数，平台线程模式下为null
+        private final Semaphore permits;
+        private final int maxConcurrency;
+        private final AtomicLong rejectedCount = new AtomicLong(0);
+        
+        LaneExecutor(String namePrefix, TieredCacheProperties.LaneProperties properties, boolean virtualThreads) {
+            int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+            int queueCapacity = Math.max(1, properties.getQueueCapacity());
+            this.rejectionPolicy = properties.getRejectionPolicy() != null
+                    ? properties.getRejectionPolicy() : TieredCacheProperties.RejectionPolicy.DISCARD;
+            if (virtualThreads) {
+                this.maxConcurrency = threads + queueCapacity;
+                this.permits = new Semaphore(maxConcurrency);
+                this.delegate = newVirtualThreadExecutor(namePrefix);
+            } else {
+                this.maxConcurrency = 0;
+                this.permits = null;
+                AtomicInteger counter = new AtomicInteger(1);
+                this.delegate = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        r -> {
+                            Thread t = new Thread(r, namePrefix + counter.getAndIncrement());
+                            t.setDaemon(true);
+                            return t;
+                        },
+                        (r, pool) -> reject(r, pool));
+            }
+        }
+        
+        @Override
+        public void execute(Runnable task) {
+            if (permits == null) {
+                delegate.execute(task);
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                reject(task, null);
+                return;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                abandon(task, e.getMessage());
+            }
+        }
+        
+        private void reject(Runnable task, ThreadPoolExecutor pool) {
+            if (delegate.isShutdown()) {
+                abandon(task, "Cache task executor has been shut down");
+                return;
+            }
+            rejectedCount.incrementAndGet();
+            switch (rejectionPolicy) {
+                case CALLER_RUNS:
+                    task.run();
+                    break;
+                case ABORT:
+                    abandon(task, "Cache task lane is full");
+                    break;
+                case DISCARD_OLDEST:
+                    // 虚拟线程模式没有等待队列，等同于DISCARD
+                    if (pool != null) {
+                        Runnable oldest = pool.getQueue().poll();
+                        if (oldest instanceof RejectableTask) {
+                            ((RejectableTask) oldest).rejected();
+                        }
+                        pool.execute(task);
+                    } else if (task instanceof RejectableTask) {
+                        ((RejectableTask) task).rejected();
+                    }
+                    break;
+                case DISCARD:
+                default:
+                    if (task instanceof RejectableTask) {
+                        ((RejectableTask) task).rejected();
+                    }
+                    break;
+            }
+        }
+        
+        /**
+         * 放弃任务：带回调的任务通知调用方，其他任务抛出RejectedExecutionException
+         */
+        private void abandon(Runnable task, String reason) {
+            if (task instanceof RejectableTask) {
+                ((RejectableTask) task).rejected();
+                return;
+            }
+            throw new RejectedExecutionException(reason);
+        }
+        
+        int getQueueDepth() {
+            if (permits != null) {
+                return maxConcurrency - permits.availablePermits();
+            }
+            return ((ThreadPoolExecutor) delegate).getQueue().size();
+        }
+    }
+    
+    /**
+     * 带拒绝回调的任务
+     */
+    private static final class RejectableTask implements Runnable {
+        
+        private final Runnable task;
+        private final Runnable onRejected;
+        
+        RejectableTask(Runnable task, Runnable onRejected) {
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+        
+        @Override
+        public void run() {
+            task.run();
+        }
+        
+        void rejected() {
+            if (onRejected != null) {
+                onRejected.run();
+            }
+        }
+    }
+}
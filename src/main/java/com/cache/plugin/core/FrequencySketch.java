@@ -0,0 +1,83 @@
+package com.cache.plugin.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 计数最小草图（Count-Min Sketch），用固定内存估算键的访问频率
+ *
+ * 估算值只会偏高不会偏低；定期减半所有计数器使热度随时间衰减。
+ * 并发递增与减半之间不加锁，少量计数丢失不影响热点判断。
+ */
+final class FrequencySketch {
+    
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    
+    private final AtomicIntegerArray table;
+    private final int widthMask;
+    
+    FrequencySketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.widthMask = size - 1;
+        this.table = new AtomicIntegerArray(size * DEPTH);
+    }
+    
+    /**
+     * 记录一次访问，返回记录后的估算频率
+     */
+    int increment(String key) {
+        int hash = hash(key);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            int count = table.get(index);
+            if (count != Integer.MAX_VALUE) {
+                count = table.incrementAndGet(index);
+            }
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+    
+    /**
+     * 估算键的访问频率
+     */
+    int estimate(String key) {
+        int hash = hash(key);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table.get(indexOf(hash, row)));
+        }
+        return min;
+    }
+    
+    /**
+     * 所有计数器减半
+     */
+    void halve() {
+        for (int i = 0; i < table.length(); i++) {
+            int count = table.get(i);
+            if (count != 0) {
+                table.set(i, count >>> 1);
+            }
+        }
+    }
+    
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        h ^= h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+    
+    private static int hash(String key) {
+        int h = 0x811c9dc5;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,305 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.remote.RemoteCache;
+import com.cache.plugin.sync.CacheSyncEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 热点键复制
+ *
+ * 用频率草图统计读取流，读取频率达到阈值的键被判定为热点：在本节点的本地缓存中固定，
+ * 并通过同步频道通知其他节点固定该键、从远程缓存预取一次值。
+ * 每隔 decayInterval 热度减半，仍为热点的键重新广播并从远程缓存刷新一次值（限制固定条目的陈旧时间），
+ * 本节点热度低于阈值一半且没有其他节点续约的键取消固定。
+ */
+public class HotKeyReplicator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyReplicator.class);
+    
+    private final RemoteCache<String, Object> remoteCache;
+    private final Function<String, CacheRegion> regions;
+    private final Executor asyncExecutor;
+    private final KeyGenerations generations;
+    private final FrequencySketch sketch;
+    private final int threshold;
+    private final int maxKeys;
+    private final Duration decayInterval;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService decayExecutor;
+    
+    // 当前的热点键（按远程键区分区域）
+    private final ConcurrentMap<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+    
+    public HotKeyReplicator(RemoteCache<String, Object> remoteCache,
+                            TieredCacheProperties.SyncProperties syncProperties,
+                            Function<String, CacheRegion> regions,
+                            Executor asyncExecutor,
+                            KeyGenerations generations,
+                            CacheCodecRegistry codecs) {
+        TieredCacheProperties.HotKeyProperties hotKey = syncProperties.getHotKey();
+        this.remoteCache = remoteCache;
+        this.objectMapper = codecs.getObjectMapper();
+        this.regions = regions;
+        this.asyncExecutor = asyncExecutor;
+        this.generations = generations;
+        this.sketch = new FrequencySketch(hotKey.getSketchWidth());
+        this.threshold = Math.max(1, hotKey.getThreshold());
+        this.maxKeys = hotKey.getMaxKeys();
+        this.decayInterval = hotKey.getDecayInterval();
+        this.channel = hotKey.getChannel() != null ? hotKey.getChannel() : syncProperties.getChannel() + ":hot-keys";
+        this.decayExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-hot-key");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = Math.max(1, decayInterval.toMillis());
+        this.decayExecutor.scheduleWithFixedDelay(this::decaySafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        subscribe();
+        
+        logger.info("Hot key replication initialized with threshold: {}, maxKeys: {}, decayInterval: {}, channel: {}",
+                   threshold, maxKeys, decayInterval, channel);
+    }
+    
+    /**
+     * 记录一次读取，频率达到阈值时提升为热点
+     */
+    public void recordRead(CacheRegion region, String key) {
+        String remoteKey = region.remoteKey(key);
+        if (sketch.increment(remoteKey) >= threshold && !hotKeys.containsKey(remoteKey)) {
+            HotKey hotKey = promote(region, key, remoteKey);
+            if (hotKey != null) {
+                logger.info("Detected hot key: {}", remoteKey);
+                announce(hotKey);
+            }
+        }
+    }
+    
+    /**
+     * 当前热点键（远程键）
+     */
+    public Set<String> getHotKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(hotKeys.keySet()));
+    }
+    
+    /**
+     * 热度衰减：减半所有计数，取消已冷却的热点，刷新并重新广播仍为热点的键
+     */
+    public void decay() {
+        Map<CacheRegion, List<HotKey>> refresh = new HashMap<>();
+        for (HotKey hotKey : hotKeys.values()) {
+            int frequency = sketch.estimate(hotKey.remoteKey);
+            boolean leased = hotKey.takeLease();
+            if (frequency < threshold / 2 && !leased) {
+                demote(hotKey);
+                continue;
+            }
+            if (frequency >= threshold) {
+                announce(hotKey);
+            }
+            refresh.computeIfAbsent(hotKey.region, r -> new ArrayList<>()).add(hotKey);
+        }
+        sketch.halve();
+        for (Map.Entry<CacheRegion, List<HotKey>> entry : refresh.entrySet()) {
+            refreshFromRemote(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * 停止热度衰减任务，取消所有固定
+     */
+    public void shutdown() {
+        decayExecutor.shutdownNow();
+        for (HotKey hotKey : hotKeys.values()) {
+            demote(hotKey);
+        }
+    }
+    
+    private void decaySafely() {
+        try {
+            decay();
+        } catch (Exception e) {
+            logger.error("Failed to decay hot keys", e);
+        }
+    }
+    
+    /**
+     * 登记热点并在本地缓存中固定，超过数量上限时忽略
+     */
+    private HotKey promote(CacheRegion region, String key, String remoteKey) {
+        if (hotKeys.size() >= maxKeys) {
+            return null;
+        }
+        HotKey hotKey = new HotKey(region, key, remoteKey);
+        if (hotKeys.putIfAbsent(remoteKey, hotKey) != null) {
+            return null;
+        }
+        region.getLocalCache().pin(key);
+        return hotKey;
+    }
+    
+    /**
+     * 取消热点
+     */
+    private void demote(HotKey hotKey) {
+        if (hotKeys.remove(hotKey.remoteKey, hotKey)) {
+            hotKey.region.getLocalCache().unpin(hotKey.key);
+            logger.info("Hot key cooled down: {}", hotKey.remoteKey);
+        }
+    }
+    
+    /**
+     * 通过同步频道通知其他节点
+     */
+    private void announce(HotKey hotKey) {
+        try {
+            CacheSyncEvent event = new CacheSyncEvent(CacheSyncEvent.Type.HOT, hotKey.key, null,
+                    System.currentTimeMillis(), nodeId, hotKey.region.getName());
+            remoteCache.publish(channel, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            logger.warn("Failed to announce hot key: {}", hotKey.remoteKey, e);
+        }
+    }
+    
+    /**
+     * 订阅其他节点的热点通知
+     */
+    private void subscribe() {
+        try {
+            remoteCache.subscribe(channel, (ch, message) -> {
+                try {
+                    if (message instanceof CacheSyncEvent) {
+                        onAnnouncement((CacheSyncEvent) message);
+                    } else {
+                        onAnnouncement(objectMapper.readValue(String.valueOf(message), CacheSyncEvent.class));
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to handle hot key message from channel: {}", ch, e);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Failed to subscribe to hot key channel: {}", channel, e);
+        }
+    }
+    
+    /**
+     * 处理其他节点的热点通知：固定该键并续约到下一次衰减，本地缺失时从远程缓存预取
+     */
+    void onAnnouncement(CacheSyncEvent event) {
+        if (event.getType() != CacheSyncEvent.Type.HOT || nodeId.equals(event.getNodeId())) {
+            return;
+        }
+        CacheRegion region = regions.apply(event.getRegion());
+        String remoteKey = region.remoteKey(event.getKey());
+        HotKey hotKey = hotKeys.get(remoteKey);
+        if (hotKey == null) {
+            hotKey = promote(region, event.getKey(), remoteKey);
+            if (hotKey == null) {
+                return;
+            }
+            logger.debug("Pinned hot key announced by node {}: {}", event.getNodeId(), remoteKey);
+        }
+        hotKey.renewLease();
+        if (region.getLocalCache().get(event.getKey()) == null) {
+            refreshFromRemote(region, Collections.singletonList(hotKey));
+        }
+    }
+    
+    /**
+     * 从远程缓存批量读取热点键的值写入本地缓存（写入的值随键的固定状态被固定），
+     * 远程缓存中已不存在的键从本地缓存移除，避免固定的条目一直返回旧值。
+     * 读取后被写入或清除过的键不回写，避免用旧值覆盖
+     */
+    private void refreshFromRemote(CacheRegion region, List<HotKey> keys) {
+        Map<String, String> remoteKeys = new HashMap<>();
+        for (HotKey hotKey : keys) {
+            remoteKeys.put(hotKey.remoteKey, hotKey.key);
+        }
+        try {
+            asyncExecutor.execute(() -> {
+                try {
+                    Map<String, Long> keyGenerations = generations.current(remoteKeys.keySet(), Function.identity());
+                    Map<String, Object> values = remoteCache.multiGet(remoteKeys.keySet());
+                    Map<String, Object> local = new HashMap<>();
+                    Set<String> missing = new HashSet<>();
+                    for (Map.Entry<String, String> entry : remoteKeys.entrySet()) {
+                        if (!generations.isCurrent(entry.getKey(), keyGenerations.get(entry.getKey()))) {
+                            continue;
+                        }
+                        Object value = values != null ? values.get(entry.getKey()) : null;
+                        if (value != null) {
+                            local.put(entry.getValue(), value);
+                        } else {
+                            missing.add(entry.getValue());
+                        }
+                    }
+                    if (!local.isEmpty()) {
+                        region.getLocalCache().multiPut(local);
+                        for (Map.Entry<String, String> entry : remoteKeys.entrySet()) {
+                            if (local.containsKey(entry.getValue())
+                                    && !generations.isCurrent(entry.getKey(), keyGenerations.get(entry.getKey()))) {
+                                region.getLocalCache().evict(entry.getValue());
+                            }
+                        }
+                    }
+                    if (!missing.isEmpty()) {
+                        region.getLocalCache().multiEvict(missing);
+                    }
+                } catch (Exception e) {
+                    logger.warn("Failed to refresh {} hot keys of region: {}", keys.size(), region.getName(), e);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Refresh of {} hot keys rejected by executor", keys.size());
+        }
+    }
+    
+    /**
+     * 热点键
+     */
+    private static final class HotKey {
+        private final CacheRegion region;
+        private final String key;
+        private final String remoteKey;
+        // 自上次衰减以来是否收到其他节点的通知
+        private volatile boolean leased;
+        
+        HotKey(CacheRegion region, String key, String remoteKey) {
+            this.region = region;
+            this.key = key;
+            this.remoteKey = remoteKey;
+        }
+        
+        void renewLease() {
+            leased = true;
+        }
+        
+        boolean takeLease() {
+            boolean renewed = leased;
+            leased = false;
+            return renewed;
+        }
+    }
+}
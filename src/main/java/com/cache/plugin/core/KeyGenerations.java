@@ -0,0 +1,113 @@
+package com.cache.plugin.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * 按远程键分段的代数（generation）
+ *
+ * 每次写入、清除或收到失效通知时推进键所在分段的代数，并记录推进时间。异步回写在读取远程值之前记录代数，
+ * 写入本地前后代数发生变化说明期间有更新的写入或清除，回写被放弃，旧值不会被写回本地缓存并保留到TTL。
+ * 多个键共享一个分段只会多放弃一些回写，不会漏判。
+ *
+ * 推进时间按键记录，用于比较其他节点发来的事件，同一分段中其他键的写入不会使事件被丢弃。
+ * 记录数有上限，被淘汰的记录计入所在分段的推进时间，未记录的键按分段判断，只会多丢弃一些事件，不会漏判。
+ */
+public class KeyGenerations {
+    
+    private final AtomicLongArray generations;
+    // 各键最近一次推进的时间（System.currentTimeMillis），用于比较其他节点发来的事件
+    private final Cache<String, Long> advancedAt;
+    // 各分段中被淘汰的记录和清空操作最晚的推进时间，未记录的键按所在分段判断
+    private final AtomicLongArray forgottenAt;
+    private final int mask;
+    
+    /**
+     * @param stripes 代数的分段数
+     * @param maxTrackedKeys 按键记录推进时间的最大键数
+     */
+    public KeyGenerations(int stripes, long maxTrackedKeys) {
+        int size = Integer.highestOneBit(Math.max(2, stripes - 1) << 1);
+        this.mask = size - 1;
+        this.generations = new AtomicLongArray(size);
+        this.forgottenAt = new AtomicLongArray(size);
+        this.advancedAt = Caffeine.newBuilder()
+            .maximumSize(maxTrackedKeys)
+            // 在淘汰线程上同步回调，记录被淘汰后立即计入所在分段
+            .executor(Runnable::run)
+            .removalListener((String key, Long advanced, RemovalCause cause) -> {
+                if (cause.wasEvicted() && key != null && advanced != null) {
+                    forgottenAt.accumulateAndGet(stripe(key), advanced, Math::max);
+                }
+            })
+            .build();
+    }
+    
+    /**
+     * 键当前的代数
+     */
+    public long current(String remoteKey) {
+        return generations.get(stripe(remoteKey));
+    }
+    
+    /**
+     * 记录一批键当前的代数
+     *
+     * @param toRemoteKey 将键转换为远程键
+     */
+    public Map<String, Long> current(Set<String> keys, Function<String, String> toRemoteKey) {
+        Map<String, Long> snapshot = new HashMap<>(keys.size() * 2);
+        for (String key : keys) {
+            snapshot.put(key, current(toRemoteKey.apply(key)));
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 键的代数是否仍为读取时记录的代数
+     */
+    public boolean isCurrent(String remoteKey, long generation) {
+        return current(remoteKey) == generation;
+    }
+    
+    /**
+     * 推进键的代数，之前记录的代数随之失效
+     */
+    public void advance(String remoteKey) {
+        advancedAt.asMap().merge(remoteKey, System.currentTimeMillis(), Math::max);
+        generations.incrementAndGet(stripe(remoteKey));
+    }
+    
+    /**
+     * 推进所有键的代数（清空缓存时）
+     */
+    public void advanceAll() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i <= mask; i++) {
+            forgottenAt.accumulateAndGet(i, now, Math::max);
+            generations.incrementAndGet(i);
+        }
+        advancedAt.invalidateAll();
+    }
+    
+    /**
+     * 键在指定时间之后（含）是否被推进过，用于判断其他节点在该时间发出的写入是否已过时
+     */
+    public boolean isAdvancedSince(String remoteKey, long timestampMillis) {
+        Long advanced = advancedAt.getIfPresent(remoteKey);
+        return (advanced != null && advanced >= timestampMillis)
+                || forgottenAt.get(stripe(remoteKey)) >= timestampMillis;
+    }
+    
+    private int stripe(String remoteKey) {
+        int h = remoteKey.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
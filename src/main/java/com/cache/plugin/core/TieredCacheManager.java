@@ -1,328 +1,2040 @@
 package com.cache.plugin.core;
 
 import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.codec.CacheCodecRegistry;
 import com.cache.plugin.config.TieredCacheProperties;
 import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.exception.CacheLoadException;
+import com.cache.plugin.local.HotEntry;
 import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.local.LocalCacheFactory;
+import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.local.impl.LongKeyLocalCache;
+import com.cache.plugin.disk.DiskCache;
+import com.cache.plugin.remote.BloomFilterStore;
+import com.cache.plugin.remote.CircuitBreaker;
 import com.cache.plugin.remote.RemoteCache;
 import com.cache.plugin.metrics.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.support.NullValue;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 分层缓存管理器
+ *
+ * 缓存按区域隔离，每个区域拥有独立的本地缓存、远程命名空间和统计，未指定区域的操作使用默认区域。
  */
 public class TieredCacheManager {
     
     private static final Logger logger = LoggerFactory.getLogger(TieredCacheManager.class);
     
+    private static final long REFRESH_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    // 启用TTL抖动时批量写入远程缓存的分组数
+    private static final int JITTER_BUCKETS = 8;
+    
+    // 键代数的分段数
+    private static final int GENERATION_STRIPES = 4096;
+    // 按键记录推进时间的最大键数，超出后被淘汰的键按分段判断
+    private static final long GENERATION_TRACKED_KEYS = 16L * GENERATION_STRIPES;
+    
+    /**
+     * 默认区域名称，与注解中cacheName的默认值一致
+     */
+    public static final String DEFAULT_REGION = "default";
+    
+    /**
+     * 布隆过滤器位图键的默认前缀，后接区域名称
+     */
+    public static final String BLOOM_FILTER_KEY_PREFIX = "tiered-cache:bloom:";
+    
     private final LocalCache<String, Object> localCache;
     private final RemoteCache<String, Object> remoteCache;
     private final TieredCacheProperties properties;
-    private final ExecutorService asyncExecutor;
+    private final LocalCacheFactory localCacheFactory;
+    // 与远程缓存共享的编解码器注册表
+    private final CacheCodecRegistry codecs;
+    private final CacheRegion defaultRegion;
+    private final ConcurrentMap<String, CacheRegion> regions = new ConcurrentHashMap<>();
+    // 注解声明的区域限制，创建区域和重新加载配置时使用
+    private final ConcurrentMap<String, TieredCacheProperties.RegionProperties> regionDefaults = new ConcurrentHashMap<>();
+    private final CacheTaskExecutor taskExecutor;
+    private final WriteBehindQueue writeBehindQueue;
+    private final HotKeyReplicator hotKeyReplicator;
+    
+    // 预热快照中尚未创建的区域的条目，区域首次创建时写入其本地缓存
+    private final ConcurrentMap<String, PendingWarmup> pendingWarmups = new ConcurrentHashMap<>();
+    
+    // 正在加载中的键（按远程键区分区域），同一JVM内每个键只有一个加载器在执行
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    
+    // 软过期与提前刷新的时间判断使用的计时器
+    private volatile Ticker ticker = Ticker.systemTicker();
+    // 启用软过期的键的下次刷新时间（ticker）
+    private final Cache<String, Long> refreshDeadlines;
+    // 启用提前刷新的区域中键的过期时间与加载耗时估算
+    private final Cache<String, ExpiryEstimate> expiryEstimates;
+    
+    // 布隆过滤器的共享存储与定时同步，启用过滤器的区域创建时才启动同步线程
+    private volatile BloomFilterStore bloomFilterStore;
+    private ScheduledExecutorService bloomFilterSyncExecutor;
+    
+    private CacheMetrics metrics;
+    
+    // 本地与远程之间的磁盘缓存，以远程键存放所有区域的条目，未配置时为null
+    private volatile DiskCache<String, Object> diskCache;
+    
+    // 远程缓存的熔断器，熔断期间读写只使用本地缓存
+    private final CircuitBreaker circuitBreaker;
+    
+    // 是否由Redis推送失效通知（客户端缓存跟踪）
+    private final boolean clientTracking;
+    // 键的代数，写入、清除和失效通知时推进，异步回写携带的代数已过时则放弃回写
+    private final KeyGenerations generations;
+    
+    public TieredCacheManager(LocalCache<String, Object> localCache,
+                               RemoteCache<String, Object> remoteCache,
+                               TieredCacheProperties properties) {
+        this(localCache, remoteCache, properties, CaffeineLocalCache::new);
+    }
+    
+    public TieredCacheManager(LocalCache<String, Object> localCache,
+                               RemoteCache<String, Object> remoteCache,
+                               TieredCacheProperties properties,
+                               LocalCacheFactory localCacheFactory) {
+        this(localCache, remoteCache, properties, localCacheFactory, new CacheCodecRegistry(properties.getCodec()));
+    }
+    
+    public TieredCacheManager(LocalCache<String, Object> localCache,
+                               RemoteCache<String, Object> remoteCache,
+                               TieredCacheProperties properties,
+                               LocalCacheFactory localCacheFactory,
+                               CacheCodecRegistry codecs) {
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.properties = properties;
+        this.localCacheFactory = localCacheFactory;
+        this.codecs = codecs;
+        this.circuitBreaker = remoteCache != null ? remoteCache.getCircuitBreaker() : null;
+        this.taskExecutor = new CacheTaskExecutor(properties.getAsync());
+        this.generations = new KeyGenerations(GENERATION_STRIPES, GENERATION_TRACKED_KEYS);
+        if (remoteCache != null) {
+            // 后台通道已满或已关闭时在调用线程上执行，字典训练不会丢失
+            remoteCache.setBackgroundExecutor(task -> taskExecutor.execute(CacheTaskExecutor.Lane.BACKFILL, task, task));
+        }
+        this.writeBehindQueue = remoteCache != null ? new WriteBehindQueue(remoteCache, properties.getSync()) : null;
+        this.refreshDeadlines = Caffeine.newBuilder()
+            .maximumSize(properties.getLocal().getMaxSize())
+            .expireAfterWrite(properties.getRemote().getTtl().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        this.expiryEstimates = Caffeine.newBuilder()
+            .maximumSize(properties.getLocal().getMaxSize())
+            .expireAfterWrite(properties.getRemote().getTtl().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        
+        // 默认区域沿用注入的本地缓存，配置中声明的区域预先创建
+        this.defaultRegion = new CacheRegion(DEFAULT_REGION, localCache, null, null);
+        this.regions.put(DEFAULT_REGION, defaultRegion);
+        initBloomFilter(defaultRegion, properties.getRegions().get(DEFAULT_REGION));
+        startBloomFilterSync(defaultRegion, properties.getRegions().get(DEFAULT_REGION));
+        initExpiration(defaultRegion, properties.getRegions().get(DEFAULT_REGION));
+        for (String name : properties.getRegions().keySet()) {
+            getRegion(name);
+        }
+        this.hotKeyReplicator = remoteCache != null && properties.getSync().getHotKey().isEnabled()
+                ? new HotKeyReplicator(remoteCache, properties.getSync(), this::getRegion,
+                        taskExecutor.lane(CacheTaskExecutor.Lane.BACKFILL), generations, codecs) : null;
+        this.clientTracking = remoteCache != null && remoteCache.addInvalidationListener(this::invalidateLocal);
+    }
+    
+    @Autowired(required = false)
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.registerTaskExecutor(taskExecutor);
+            if (circuitBreaker != null) {
+                metrics.registerCircuitBreaker(circuitBreaker);
+                metrics.registerDeferredEvicts(remoteCache);
+            }
+            if (remoteCache != null && remoteCache.getCompressionStats() != null) {
+                metrics.registerCompression(remoteCache.getCompressionStats());
+            }
+            if (diskCache != null) {
+                metrics.registerDiskCache(diskCache);
+            }
+        }
+    }
+    
+    /**
+     * 设置软过期与提前刷新判断使用的计时器，默认为系统计时器，应与本地缓存的计时器一致
+     */
+    public void setTicker(Ticker ticker) {
+        this.ticker = ticker != null ? ticker : Ticker.systemTicker();
+    }
+    
+    /**
+     * 设置磁盘缓存，本地缓存未命中时在访问远程缓存之前查询
+     */
+    @Autowired(required = false)
+    public void setDiskCache(DiskCache<String, Object> diskCache) {
+        this.diskCache = diskCache;
+        if (diskCache != null && metrics != null) {
+            metrics.registerDiskCache(diskCache);
+        }
+    }
+    
+    /**
+     * 获取缓存区域，不存在时按配置创建
+     */
+    public CacheRegion getRegion(String name) {
+        return getRegion(name, null);
+    }
+    
+    /**
+     * 获取缓存区域，不存在时创建
+     * 
+     * 区域的各项限制依次取 tiered-cache.regions 中的配置、默认配置和全局配置，区域创建后不再变化。
+     * 已通过 {@link #declareRegion} 登记的默认配置优先于参数 defaults（通常来自注解），
+     * 区域因此与首次访问它的调用无关。
+     */
+    public CacheRegion getRegion(String name, TieredCacheProperties.RegionProperties defaults) {
+        if (name == null || name.isEmpty()) {
+            return defaultRegion;
+        }
+        CacheRegion region = regions.get(name);
+        if (region != null) {
+            return region;
+        }
+        TieredCacheProperties.RegionProperties declared = regionDefaults.get(name);
+        if (declared != null) {
+            defaults = declared;
+        }
+        // 在compute之外创建，同步布隆过滤器等远程调用不会阻塞映射中的其他键；并发创建时只保留先放入的区域
+        CacheRegion created = createRegion(name, defaults);
+        region = regions.putIfAbsent(name, created);
+        if (region != null) {
+            // 并发创建中落选的区域不会被使用，释放其本地缓存占用的堆外内存等资源
+            closeQuietly(created.getLocalCache());
+            return region;
+        }
+        region = created;
+        if (defaults != null) {
+            regionDefaults.putIfAbsent(name, defaults);
+        }
+        startBloomFilterSync(region, properties.getRegions().get(name));
+        PendingWarmup pending = pendingWarmups.remove(name);
+        if (pending != null) {
+            restoreLocal(region, pending.remaining(), pending.since);
+        }
+        return region;
+    }
+    
+    /**
+     * 登记区域的默认配置（通常来自启动时扫描到的注解），区域创建时使用；只登记不创建，同一区域先登记的生效
+     */
+    public void declareRegion(String name, TieredCacheProperties.RegionProperties defaults) {
+        if (name == null || name.isEmpty() || defaults == null) {
+            return;
+        }
+        if (regionDefaults.putIfAbsent(name, defaults) == null && regions.containsKey(name)) {
+            logger.warn("Cache region {} was created before its declared defaults were registered", name);
+        }
+    }
+    
+    private void closeQuietly(LocalCache<String, Object> localCache) {
+        try {
+            localCache.close();
+        } catch (Exception e) {
+            logger.warn("Failed to close local cache: {}", localCache.getName(), e);
+        }
+    }
+    
+    /**
+     * 区域是否已创建
+     */
+    public boolean hasRegion(String name) {
+        return regions.containsKey(name);
+    }
+    
+    /**
+     * 获取所有已创建的区域
+     */
+    public Collection<CacheRegion> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+    
+    /**
+     * 创建区域的本地缓存、命名空间和布隆过滤器，不访问远程缓存
+     */
+    private CacheRegion createRegion(String name, TieredCacheProperties.RegionProperties defaults) {
+        TieredCacheProperties.RegionProperties configured = properties.getRegions().get(name);
+        TieredCacheProperties.LocalCacheProperties local = resolveLocalProperties(configured, defaults);
+        
+        Duration ttl = resolve(configured, defaults, TieredCacheProperties.RegionProperties::getTtl, null);
+        String namespace = resolve(configured, defaults, TieredCacheProperties.RegionProperties::getNamespace, name);
+        boolean longKeys = resolve(configured, defaults, TieredCacheProperties.RegionProperties::getLongKeys, false);
+        
+        logger.info("Creating cache region: {} with maxSize: {}, namespace: {}, ttl: {}, longKeys: {}",
+                   name, local.getMaxSize(), namespace, ttl, longKeys);
+        LocalCache<String, Object> localCache = longKeys
+                ? new LongKeyLocalCache(name, local) : localCacheFactory.create(name, local);
+        CacheRegion region = new CacheRegion(name, localCache, namespace, ttl);
+        initBloomFilter(region, configured);
+        initExpiration(region, configured);
+        return region;
+    }
+    
+    /**
+     * 为配置中启用了布隆过滤器的区域创建过滤器
+     * 
+     * 过滤器在首次与远程位图同步前只记录写入、不拦截查询，避免新启动的节点把其他节点写入的键误判为不存在。
+     */
+    private void initBloomFilter(CacheRegion region, TieredCacheProperties.RegionProperties configured) {
+        if (configured == null || !configured.getBloomFilter().isEnabled()) {
+            return;
+        }
+        TieredCacheProperties.BloomFilterProperties bloom = configured.getBloomFilter();
+        String key = bloom.getKey() != null ? bloom.getKey() : BLOOM_FILTER_KEY_PREFIX + region.getName();
+        region.setBloomFilter(new BloomFilter(bloom.getExpectedInsertions(), bloom.getFpp()), key);
+        logger.info("Bloom filter enabled for cache region: {} with expectedInsertions: {}, fpp: {}, key: {}",
+                   region.getName(), bloom.getExpectedInsertions(), bloom.getFpp(), key);
+    }
+    
+    /**
+     * 与远程位图同步一次，并定时合并，只对已放入映射的区域调用
+     */
+    private void startBloomFilterSync(CacheRegion region, TieredCacheProperties.RegionProperties configured) {
+        if (region.getBloomFilter() == null) {
+            return;
+        }
+        if (bloomFilterStore != null) {
+            syncBloomFilter(region);
+        }
+        long intervalMillis = Math.max(1, configured.getBloomFilter().getSyncInterval().toMillis());
+        getBloomFilterSyncExecutor().scheduleWithFixedDelay(() -> syncBloomFilter(region),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 应用区域的TTL抖动与提前刷新配置，默认区域使用 regions.default 中的配置
+     */
+    private void initExpiration(CacheRegion region, TieredCacheProperties.RegionProperties configured) {
+        if (configured == null) {
+            region.configureExpiration(0, 0);
+            return;
+        }
+        TieredCacheProperties.ExpirationProperties expiration = configured.getExpiration();
+        region.configureExpiration(Math.max(0, expiration.getTtlJitter()),
+                expiration.isEarlyRefresh() ? Math.max(0, expiration.getEarlyRefreshBeta()) : 0);
+    }
+    
+    private synchronized ScheduledExecutorService getBloomFilterSyncExecutor() {
+        if (bloomFilterSyncExecutor == null) {
+            bloomFilterSyncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cache-bloom-sync");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return bloomFilterSyncExecutor;
+    }
+    
+    /**
+     * 设置布隆过滤器的共享存储，并立即与远程位图同步一次
+     */
+    @Autowired(required = false)
+    public void setBloomFilterStore(BloomFilterStore bloomFilterStore) {
+        this.bloomFilterStore = bloomFilterStore;
+        for (CacheRegion region : regions.values()) {
+            if (region.getBloomFilter() != null) {
+                syncBloomFilter(region);
+            }
+        }
+    }
+    
+    /**
+     * 将远程位图合并到本地过滤器，首次成功后过滤器开始拦截查询
+     * 
+     * 未配置共享存储时过滤器只在本节点内生效，首次同步即开始拦截。
+     */
+    private void syncBloomFilter(CacheRegion region) {
+        BloomFilter filter = region.getBloomFilter();
+        if (filter == null) {
+            return;
+        }
+        try {
+            BloomFilterStore store = bloomFilterStore;
+            if (store != null) {
+                filter.merge(store.getBits(region.getBloomFilterKey()));
+            }
+            region.activateBloomFilter();
+        } catch (Exception e) {
+            logger.warn("Failed to sync Bloom filter of cache region: {}", region.getName(), e);
+        }
+    }
+    
+    /**
+     * 通过扫描远程缓存重建区域的布隆过滤器，并替换共享位图
+     * 
+     * 过滤器不支持删除，键被清除或过期后其位仍然保留，误判率会随时间升高，需要定期重建。
+     * 重建期间的写入同时记录到新旧过滤器中；其他节点在重建期间写入的键可能从共享位图中丢失，
+     * 只会导致这些键多一次加载。
+     * 
+     * @return 重建后过滤器中的键数
+     */
+    public long rebuildBloomFilter(String name) {
+        CacheRegion region = regions.get(name);
+        if (region == null || region.getBloomFilter() == null) {
+            throw new CacheException("Bloom filter not enabled for cache region: " + name);
+        }
+        TieredCacheProperties.RegionProperties configured = properties.getRegions().get(name);
+        TieredCacheProperties.BloomFilterProperties bloom = configured != null
+                ? configured.getBloomFilter() : new TieredCacheProperties.BloomFilterProperties();
+        BloomFilter rebuilt = new BloomFilter(bloom.getExpectedInsertions(), bloom.getFpp());
+        String pattern = region.getNamespace() != null ? region.getNamespace() + ":*" : "*";
+        long[] count = new long[1];
+        
+        region.startBloomFilterRebuild(rebuilt);
+        try {
+            BloomFilterStore store = bloomFilterStore;
+            if (store != null) {
+                store.scan(pattern, remoteKey -> {
+                    if (!remoteKey.startsWith(BLOOM_FILTER_KEY_PREFIX) && !remoteKey.equals(region.getBloomFilterKey())) {
+                        rebuilt.put(remoteKey);
+                        count[0]++;
+                    }
+                });
+                store.replace(region.getBloomFilterKey(), rebuilt.toByteArray());
+            }
+            region.setBloomFilter(rebuilt, region.getBloomFilterKey());
+            region.activateBloomFilter();
+        } finally {
+            region.finishBloomFilterRebuild();
+        }
+        logger.info("Rebuilt Bloom filter of cache region: {} with {} keys", name, count[0]);
+        return count[0];
+    }
+    
+    /**
+     * 计算区域的本地缓存配置
+     */
+    private TieredCacheProperties.LocalCacheProperties resolveLocalProperties(TieredCacheProperties.RegionProperties configured,
+                                                                              TieredCacheProperties.RegionProperties defaults) {
+        TieredCacheProperties.LocalCacheProperties global = properties.getLocal();
+        TieredCacheProperties.LocalCacheProperties local = new TieredCacheProperties.LocalCacheProperties();
+        local.setProvider(global.getProvider());
+        local.setInitialCapacity(global.getInitialCapacity());
+        local.setRecordStats(global.isRecordStats());
+        local.setScheduledExpiry(global.isScheduledExpiry());
+        local.setWeigher(global.getWeigher());
+        local.setOffHeap(global.getOffHeap());
+        local.setMaxSize(resolve(configured, defaults, TieredCacheProperties.RegionProperties::getMaxSize, global.getMaxSize()));
+        local.setMaxWeight(resolve(configured, defaults, TieredCacheProperties.RegionProperties::getMaxWeight, global.getMaxWeight()));
+        local.setExpireAfterWrite(resolve(configured, defaults,
+                TieredCacheProperties.RegionProperties::getExpireAfterWrite, global.getExpireAfterWrite()));
+        local.setExpireAfterAccess(resolve(configured, defaults,
+                TieredCacheProperties.RegionProperties::getExpireAfterAccess, global.getExpireAfterAccess()));
+        return local;
+    }
+    
+    /**
+     * 在运行时调整区域本地缓存的容量和过期时间，参数为null的项保持不变
+     */
+    public void reconfigureRegion(String name, Long maxSize, Duration expireAfterWrite, Duration expireAfterAccess) {
+        CacheRegion region = regions.get(name);
+        if (region == null) {
+            throw new CacheException("Unknown cache region: " + name);
+        }
+        LocalCache<String, Object> local = region.getLocalCache();
+        if (maxSize != null) {
+            local.setMaxSize(maxSize);
+        }
+        if (expireAfterWrite != null) {
+            local.setExpireAfterWrite(expireAfterWrite);
+        }
+        if (expireAfterAccess != null) {
+            local.setExpireAfterAccess(expireAfterAccess);
+        }
+    }
+    
+    /**
+     * 配置刷新钩子：按当前绑定的配置重新应用所有区域本地缓存的容量和过期时间
+     * 
+     * 配置属性重新绑定后（例如配置中心推送变更）调用，已创建的区域保留其注解声明的限制，
+     * 配置中新增的区域会被创建。
+     */
+    public void reloadLocalSettings() {
+        for (String name : properties.getRegions().keySet()) {
+            getRegion(name);
+        }
+        for (CacheRegion region : regions.values()) {
+            TieredCacheProperties.LocalCacheProperties local = region == defaultRegion
+                    ? properties.getLocal()
+                    : resolveLocalProperties(properties.getRegions().get(region.getName()), regionDefaults.get(region.getName()));
+            try {
+                initExpiration(region, properties.getRegions().get(region.getName()));
+                LocalCache<String, Object> cache = region.getLocalCache();
+                long capacity = local.getMaxWeight() != null ? local.getMaxWeight().toBytes() : local.getMaxSize();
+                if (cache.getMaxSize() != capacity) {
+                    cache.setMaxSize(capacity);
+                }
+                if (!Objects.equals(cache.getExpireAfterWrite(), local.getExpireAfterWrite())) {
+                    cache.setExpireAfterWrite(local.getExpireAfterWrite());
+                }
+                if (!Objects.equals(cache.getExpireAfterAccess(), local.getExpireAfterAccess())) {
+                    cache.setExpireAfterAccess(local.getExpireAfterAccess());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to reload local settings of cache region: {}", region.getName(), e);
+            }
+        }
+    }
+    
+    /**
+     * 按配置、默认值、全局值的顺序取第一个非null的值
+     */
+    private static <V> V resolve(TieredCacheProperties.RegionProperties configured,
+                                 TieredCacheProperties.RegionProperties defaults,
+                                 Function<TieredCacheProperties.RegionProperties, V> getter, V fallback) {
+        V value = configured != null ? getter.apply(configured) : null;
+        if (value == null && defaults != null) {
+            value = getter.apply(defaults);
+        }
+        return value != null ? value : fallback;
+    }
+    
+    /**
+     * 根据策略获取缓存值，缓存的空值标记返回null
+     */
+    public <T> T get(String key, Class<T> type, CacheStrategy strategy) {
+        return get(DEFAULT_REGION, key, type, strategy);
+    }
+    
+    /**
+     * 根据策略从指定区域获取缓存值，缓存的空值标记返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, String key, Class<T> type, CacheStrategy strategy) {
+        return (T) fromStoreValue(lookup(getRegion(region), key, strategy));
+    }
+    
+    /**
+     * 根据策略从指定区域按long键获取缓存值，缓存的空值标记返回null
+     * 
+     * 区域使用long键本地缓存时，本地命中直接按原始long查找，不构造键字符串；其余情况与字符串键 Long.toString(key) 等价。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, long key, Class<T> type, CacheStrategy strategy) {
+        CacheRegion cacheRegion = getRegion(region);
+        Object storeValue = lookupLocal(cacheRegion, key, strategy);
+        if (storeValue == null) {
+            storeValue = lookup(cacheRegion, Long.toString(key), strategy);
+        }
+        return (T) fromStoreValue(storeValue);
+    }
+    
+    /**
+     * 根据策略从指定区域按紧凑键获取缓存值，缓存的空值标记返回null
+     * 
+     * 本地缓存支持按键对象查找时，本地命中不构造键字符串；其余情况与字符串键 key.toString() 等价。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, CacheKey key, Class<T> type, CacheStrategy strategy) {
+        CacheRegion cacheRegion = getRegion(region);
+        Object storeValue = lookupLocal(cacheRegion, key, strategy);
+        if (storeValue == null) {
+            storeValue = lookup(cacheRegion, key.toString(), strategy);
+        }
+        return (T) fromStoreValue(storeValue);
+    }
+    
+    /**
+     * long键的本地快速路径：仅在本地优先或仅本地读取、且未启用热点键统计时按原始long查找本地缓存，
+     * 未命中或不适用时返回null，由调用方按字符串键走常规路径
+     */
+    private Object lookupLocal(CacheRegion region, long key, CacheStrategy strategy) {
+        LocalCache<String, Object> local = region.getLocalCache();
+        if (!(local instanceof LongKeyLocalCache)) {
+            return null;
+        }
+        CacheStrategy resolved = resolveLocalFastPath(region, strategy);
+        return resolved != null ? recordLocalFastHit(region, resolved, ((LongKeyLocalCache) local).getIfPresent(key)) : null;
+    }
+    
+    /**
+     * 紧凑键的本地快速路径，适用条件与long键相同，本地缓存不支持按键对象查找时返回null
+     */
+    private Object lookupLocal(CacheRegion region, CacheKey key, CacheStrategy strategy) {
+        CacheStrategy resolved = resolveLocalFastPath(region, strategy);
+        return resolved != null ? recordLocalFastHit(region, resolved, region.getLocalCache().getIfPresent(key)) : null;
+    }
+    
+    /**
+     * 本地快速路径适用时返回解析后的读取策略，否则返回null
+     */
+    private CacheStrategy resolveLocalFastPath(CacheRegion region, CacheStrategy strategy) {
+        if (hotKeyReplicator != null) {
+            return null;
+        }
+        CacheStrategy resolved = degrade(resolveStrategy(region, strategy));
+        return resolved == CacheStrategy.LOCAL_FIRST || resolved == CacheStrategy.LOCAL_ONLY ? resolved : null;
+    }
+    
+    private Object recordLocalFastHit(CacheRegion region, CacheStrategy resolved, Object value) {
+        if (value != null) {
+            if (resolved == CacheStrategy.LOCAL_FIRST) {
+                recordAdaptiveRead(region, true);
+            }
+            recordLocalHits(region, 1);
+        }
+        return value;
+    }
+    
+    /**
+     * 根据策略查找缓存中存储的原始值（可能是空值标记）
+     */
+    private Object lookup(CacheRegion region, String key, CacheStrategy strategy) {
+        if (hotKeyReplicator != null) {
+            hotKeyReplicator.recordRead(region, key);
+        }
+        try {
+            switch (degrade(resolveStrategy(region, strategy))) {
+                case LOCAL_FIRST:
+                    return getWithLocalFirst(region, key);
+                case REMOTE_FIRST:
+                    return getWithRemoteFirst(region, key);
+                case LOCAL_ONLY:
+                    return getFromLocal(region, key);
+                case REMOTE_ONLY:
+                    return getFromRemote(region, key);
+                default:
+                    return getWithLocalFirst(region, key);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to get cache value for key: {}", key, e);
+            recordMisses(region, 1);
+            return null;
+        }
+    }
+    
+    /**
+     * 将ADAPTIVE解析为区域当前选择的读取策略，其他策略原样返回
+     */
+    private CacheStrategy resolveStrategy(CacheRegion region, CacheStrategy strategy) {
+        if (strategy != CacheStrategy.ADAPTIVE) {
+            return strategy;
+        }
+        return getAdaptivePolicy(region).currentStrategy();
+    }
+    
+    /**
+     * 远程缓存熔断期间降级为仅本地缓存，不再等待远程超时；仅远程的操作保持不变，由远程缓存直接拒绝
+     */
+    private CacheStrategy degrade(CacheStrategy strategy) {
+        if (circuitBreaker == null || strategy == CacheStrategy.REMOTE_ONLY || !circuitBreaker.isOpen()) {
+            return strategy;
+        }
+        return CacheStrategy.LOCAL_ONLY;
+    }
+    
+    /**
+     * 获取区域的自适应读取策略，不存在时创建并注册指标
+     */
+    private AdaptiveReadPolicy getAdaptivePolicy(CacheRegion region) {
+        AdaptiveReadPolicy policy = region.getAdaptivePolicy();
+        if (policy != null) {
+            return policy;
+        }
+        synchronized (region) {
+            policy = region.getAdaptivePolicy();
+            if (policy == null) {
+                policy = new AdaptiveReadPolicy(region, properties.getStrategy().getAdaptive());
+                region.setAdaptivePolicy(policy);
+                if (metrics != null) {
+                    metrics.registerAdaptivePolicy(region.getName(), policy);
+                }
+            }
+            return policy;
+        }
+    }
+    
+    /**
+     * 根据策略获取缓存值，未命中时通过加载器加载并写入缓存
+     */
+    public <T> T get(String key, Class<T> type, CacheStrategy strategy, ValueLoader<T> loader) {
+        return get(key, type, strategy, new CacheLoadOptions(), loader);
+    }
+    
+    /**
+     * 根据策略获取缓存值，未命中时通过加载器加载并按指定TTL写入缓存
+     */
+    public <T> T get(String key, Class<T> type, CacheStrategy strategy, Duration ttl, ValueLoader<T> loader) {
+        return get(key, type, strategy, new CacheLoadOptions(ttl), loader);
+    }
+    
+    /**
+     * 根据策略获取缓存值，未命中时通过加载器加载并写入缓存
+     * 
+     * 同一键的并发未命中会合并为一次加载，其余调用方等待该次加载的结果。
+     * 加载器抛出的异常会包装为 {@link CacheLoadException} 传递给所有等待的调用方。
+     * 启用软过期（refreshAfter）时，超过软过期的命中立即返回旧值，并在后台执行一次刷新。
+     * 启用空值缓存时，加载结果为null会以空值标记缓存，命中标记时直接返回null而不再加载。
+     */
+    public <T> T get(String key, Class<T> type, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<T> loader) {
+        return get(DEFAULT_REGION, key, type, strategy, options, loader);
+    }
+    
+    /**
+     * 根据策略从指定区域获取缓存值，未命中时通过加载器加载并写入缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, String key, Class<T> type, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<T> loader) {
+        CacheRegion cacheRegion = getRegion(region);
+        Object storeValue = lookup(cacheRegion, key, strategy);
+        if (storeValue != null) {
+            if ((options.isRefreshEnabled() && isRefreshDue(cacheRegion, key, options))
+                    || isEarlyRefreshDue(cacheRegion, key)) {
+                refreshAsync(cacheRegion, key, strategy, options, loader);
+            }
+            return (T) fromStoreValue(storeValue);
+        }
+        return (T) loadSingleFlight(cacheRegion, key, strategy, options, loader);
+    }
+    
+    /**
+     * 根据策略从指定区域按long键获取缓存值，未命中时通过加载器加载并写入缓存
+     * 
+     * 软过期和提前刷新按字符串键记录，启用时直接走字符串键的路径。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, long key, Class<T> type, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<T> loader) {
+        CacheRegion cacheRegion = getRegion(region);
+        if (!options.isRefreshEnabled() && cacheRegion.getEarlyRefreshBeta() <= 0) {
+            Object storeValue = lookupLocal(cacheRegion, key, strategy);
+            if (storeValue != null) {
+                return (T) fromStoreValue(storeValue);
+            }
+        }
+        return get(region, Long.toString(key), type, strategy, options, loader);
+    }
+    
+    /**
+     * 根据策略从指定区域按紧凑键获取缓存值，未命中时通过加载器加载并写入缓存
+     * 
+     * 软过期和提前刷新按字符串键记录，启用时直接走字符串键的路径。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, CacheKey key, Class<T> type, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<T> loader) {
+        CacheRegion cacheRegion = getRegion(region);
+        if (!options.isRefreshEnabled() && cacheRegion.getEarlyRefreshBeta() <= 0) {
+            Object storeValue = lookupLocal(cacheRegion, key, strategy);
+            if (storeValue != null) {
+                return (T) fromStoreValue(storeValue);
+            }
+        }
+        return get(region, key.toString(), type, strategy, options, loader);
+    }
+    
+    /**
+     * 合并同一键的并发加载
+     */
+    private Object loadSingleFlight(CacheRegion region, String key, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<?> loader) {
+        String loadKey = region.remoteKey(key);
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(loadKey, promise);
+        while (inFlight != null) {
+            logger.debug("Waiting for in-flight load of key: {}", loadKey);
+            region.recordCoalescedLoad();
+            try {
+                return awaitLoad(loadKey, inFlight);
+            } catch (AbandonedLoadException e) {
+                // 等待的后台刷新未被执行，由本调用方重新发起加载
+                inFlight = inFlightLoads.putIfAbsent(loadKey, promise);
+            }
+        }
+        
+        try {
+            // 上一轮加载可能刚刚完成，再检查一次本地缓存
+            Object storeValue = strategy != CacheStrategy.REMOTE_ONLY ? region.getLocalCache().get(key) : null;
+            Object value;
+            if (storeValue != null) {
+                value = fromStoreValue(storeValue);
+            } else {
+                long start = System.nanoTime();
+                value = loader.load();
+                putLoadedValue(region, key, value, strategy, options, System.nanoTime() - start);
+            }
+            promise.complete(value);
+            return value;
+        } catch (Throwable t) {
+            promise.completeExceptionally(t);
+            throw new CacheLoadException("Failed to load cache value for key: " + loadKey, t);
+        } finally {
+            inFlightLoads.remove(loadKey, promise);
+        }
+    }
+    
+    /**
+     * 后台刷新已超过软过期的键，同一键同时只有一次加载
+     */
+    private void refreshAsync(CacheRegion region, String key, CacheStrategy strategy, CacheLoadOptions options, ValueLoader<?> loader) {
+        String loadKey = region.remoteKey(key);
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(loadKey, promise) != null) {
+            return;
+        }
+        
+        // 提前刷新时可能未设置软过期
+        long retryNanos = options.isRefreshEnabled()
+                ? Math.min(options.getRefreshAfter().toNanos(), REFRESH_RETRY_NANOS) : REFRESH_RETRY_NANOS;
+        long retryAt = ticker.read() + retryNanos;
+        taskExecutor.execute(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            try {
+                long start = System.nanoTime();
+                Object value = loader.load();
+                if (value != null || options.isCacheNullValues()) {
+                    putLoadedValue(region, key, value, strategy, options, System.nanoTime() - start);
+                } else {
+                    evict(region, key, strategy);
+                }
+                promise.complete(value);
+                logger.debug("Refreshed stale cache entry for key: {}", loadKey);
+            } catch (Throwable t) {
+                logger.warn("Failed to refresh cache entry for key: {}, serving stale value", loadKey, t);
+                // 失败后短暂退避，避免每次读取都触发刷新
+                refreshDeadlines.put(loadKey, ticker.read() + retryNanos);
+                promise.completeExceptionally(t);
+            } finally {
+                inFlightLoads.remove(loadKey, promise);
+            }
+        }, () -> {
+            // 回写通道过载时放弃本次刷新，继续返回旧值并短暂退避
+            refreshDeadlines.put(loadKey, retryAt);
+            inFlightLoads.remove(loadKey, promise);
+            // 等待该次加载的调用方不能得到null，改为各自加载
+            promise.completeExceptionally(new AbandonedLoadException());
+            logger.debug("Refresh of key: {} rejected by executor", loadKey);
+        });
+    }
+    
+    /**
+     * 判断键是否已超过软过期
+     * 
+     * 未记录软过期时间的条目（例如由其他节点写入后回填到本地）根据本地条目的写入时间推算，
+     * 本地没有条目时从当前时间开始计算软过期。
+     */
+    private boolean isRefreshDue(CacheRegion region, String key, CacheLoadOptions options) {
+        String remoteKey = region.remoteKey(key);
+        long now = ticker.read();
+        Long refreshAt = refreshDeadlines.getIfPresent(remoteKey);
+        if (refreshAt == null) {
+            Duration age = region.getLocalCache().getAge(key);
+            refreshAt = now + options.getRefreshAfter().toNanos() - (age != null ? age.toNanos() : 0);
+            refreshDeadlines.put(remoteKey, refreshAt);
+        }
+        return refreshAt - now <= 0;
+    }
+    
+    /**
+     * 判断命中的键是否应提前刷新（XFetch）
+     * 
+     * 当 now + loadTime * beta * (-ln(random)) >= expiry 时刷新：离过期越近、加载越慢，刷新概率越高，
+     * 同一批写入的键因此在过期前被分散地重新加载。过期时间与加载耗时在本节点加载时记录；
+     * 其他节点或批量写入的键按本地条目的剩余寿命推算过期时间，加载耗时取区域的平均值。
+     * 区域还没有加载耗时或本地没有条目时不记录估算，之后的命中重新推算。
+     */
+    private boolean isEarlyRefreshDue(CacheRegion region, String key) {
+        double beta = region.getEarlyRefreshBeta();
+        if (beta <= 0) {
+            return false;
+        }
+        String remoteKey = region.remoteKey(key);
+        long now = ticker.read();
+        ExpiryEstimate estimate = expiryEstimates.getIfPresent(remoteKey);
+        if (estimate == null) {
+            long loadNanos = (long) region.getAverageLoadNanos();
+            if (loadNanos <= 0) {
+                return false;
+            }
+            Duration remaining = region.getLocalCache().getRemainingTtl(key);
+            if (remaining == null) {
+                return false;
+            }
+            estimate = new ExpiryEstimate(now + remaining.toNanos(), loadNanos);
+            expiryEstimates.put(remoteKey, estimate);
+        }
+        double gap = estimate.loadNanos * beta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + (long) gap - estimate.expiresAt >= 0;
+    }
+    
+    /**
+     * 等待其他线程的加载结果，该次加载被放弃时抛出 AbandonedLoadException
+     */
+    private Object awaitLoad(String key, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AbandonedLoadException) {
+                throw (AbandonedLoadException) e.getCause();
+            }
+            throw new CacheLoadException("Failed to load cache value for key: " + key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted while waiting for cache load of key: " + key, e);
+        }
+    }
+    
+    /**
+     * 写入加载得到的值，写入失败不影响加载结果
+     */
+    private void putLoadedValue(CacheRegion region, String key, Object value, CacheStrategy strategy,
+                                CacheLoadOptions options, long loadNanos) {
+        region.recordLoadTime(loadNanos);
+        try {
+            if (value == null) {
+                if (!options.isCacheNullValues()) {
+                    return;
+                }
+                Duration nullTtl = options.getNullValueTtl() != null ? options.getNullValueTtl() : properties.getNullValue().getTtl();
+                put(region, key, NullValue.INSTANCE, strategy, nullTtl);
+                recordNullPut();
+            } else {
+                Duration expiresIn = put(region, key, value, strategy, options.getTtl());
+                if (region.getEarlyRefreshBeta() > 0 && expiresIn != null) {
+                    expiryEstimates.put(region.remoteKey(key),
+                            new ExpiryEstimate(ticker.read() + expiresIn.toNanos(), loadNanos));
+                }
+            }
+            if (options.isRefreshEnabled()) {
+                refreshDeadlines.put(region.remoteKey(key), ticker.read() + options.getRefreshAfter().toNanos());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to cache loaded value for key: {}", key, e);
+        }
+    }
+    
+    /**
+     * 本地优先获取策略
+     */
+    private Object getWithLocalFirst(CacheRegion region, String key) {
+        // 1. 先查本地缓存
+        Object value = region.getLocalCache().get(key);
+        recordAdaptiveRead(region, value != null);
+        if (value != null) {
+            recordLocalHits(region, 1);
+            return value;
+        }
+        
+        // 2. 查磁盘缓存
+        String remoteKey = region.remoteKey(key);
+        long generation = generations.current(remoteKey);
+        value = getFromDisk(region, key, generation);
+        if (value != null) {
+            return value;
+        }
+        
+        // 3. 布隆过滤器判定不存在时跳过远程缓存
+        if (!region.mightContain(remoteKey)) {
+            recordBloomFilterRejects(region, 1);
+            recordMisses(region, 1);
+            return null;
+        }
+        
+        // 4. 查远程缓存
+        value = getFromRemoteCache(region, remoteKey);
+        if (value != null) {
+            // 异步回写到本地缓存和磁盘缓存
+            asyncPutToLocal(region, key, value, generation);
+            asyncPutToDisk(remoteKey, value, generation);
+            recordRemoteHits(region, 1);
+            return value;
+        }
+        
+        recordMisses(region, 1);
+        return null;
+    }
+    
+    /**
+     * 远程优先获取策略
+     */
+    private Object getWithRemoteFirst(CacheRegion region, String key) {
+        // 1. 先查远程缓存，布隆过滤器判定不存在时跳过
+        String remoteKey = region.remoteKey(key);
+        long generation = generations.current(remoteKey);
+        Object value = null;
+        if (region.mightContain(remoteKey)) {
+            value = getFromRemoteCache(region, remoteKey);
+        } else {
+            recordBloomFilterRejects(region, 1);
+        }
+        if (value != null) {
+            // 按本地是否已有该键统计本地优先时的命中率
+            if (region.getAdaptivePolicy() != null) {
+                recordAdaptiveRead(region, region.getLocalCache().containsKey(key));
+            }
+            // 异步回写到本地缓存和磁盘缓存
+            asyncPutToLocal(region, key, value, generation);
+            asyncPutToDisk(remoteKey, value, generation);
+            recordRemoteHits(region, 1);
+            return value;
+        }
+        
+        // 2. 查本地缓存
+        value = region.getLocalCache().get(key);
+        recordAdaptiveRead(region, value != null);
+        if (value != null) {
+            recordLocalHits(region, 1);
+            return value;
+        }
+        
+        // 3. 查磁盘缓存
+        value = getFromDisk(region, key, generation);
+        if (value != null) {
+            return value;
+        }
+        
+        recordMisses(region, 1);
+        return null;
+    }
+    
+    /**
+     * 仅从本地获取（本地缓存，其次磁盘缓存）
+     */
+    private Object getFromLocal(CacheRegion region, String key) {
+        Object value = region.getLocalCache().get(key);
+        if (value != null) {
+            recordLocalHits(region, 1);
+            return value;
+        }
+        value = getFromDisk(region, key, generations.current(region.remoteKey(key)));
+        if (value != null) {
+            return value;
+        }
+        recordMisses(region, 1);
+        return null;
+    }
+    
+    /**
+     * 查询磁盘缓存，命中时异步回写到本地缓存
+     * 
+     * @param generation 读取前键的代数
+     */
+    private Object getFromDisk(CacheRegion region, String key, long generation) {
+        DiskCache<String, Object> disk = diskCache;
+        if (disk == null) {
+            return null;
+        }
+        Object value = disk.get(region.remoteKey(key));
+        if (value != null) {
+            asyncPutToLocal(region, key, value, generation);
+            recordDiskHits(region, 1);
+        }
+        return value;
+    }
+    
+    /**
+     * 仅从远程缓存获取
+     */
+    private Object getFromRemote(CacheRegion region, String key) {
+        String remoteKey = region.remoteKey(key);
+        if (!region.mightContain(remoteKey)) {
+            recordBloomFilterRejects(region, 1);
+            recordMisses(region, 1);
+            return null;
+        }
+        Object value = getFromRemoteCache(region, remoteKey);
+        if (value != null) {
+            recordRemoteHits(region, 1);
+            return value;
+        }
+        recordMisses(region, 1);
+        return null;
+    }
+    
+    /**
+     * 读取远程缓存，区域启用自适应策略时记录耗时
+     */
+    private Object getFromRemoteCache(CacheRegion region, String remoteKey) {
+        AdaptiveReadPolicy policy = region.getAdaptivePolicy();
+        if (policy == null) {
+            return remoteCache.get(remoteKey);
+        }
+        long start = System.nanoTime();
+        try {
+            return remoteCache.get(remoteKey);
+        } finally {
+            policy.recordRemoteRead(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 记录自适应策略的读取样本
+     */
+    private void recordAdaptiveRead(CacheRegion region, boolean localHit) {
+        recordAdaptiveReads(region, 1, localHit ? 1 : 0);
+    }
+    
+    /**
+     * 批量记录自适应策略的读取样本
+     */
+    private void recordAdaptiveReads(CacheRegion region, long reads, long localHits) {
+        AdaptiveReadPolicy policy = region.getAdaptivePolicy();
+        if (policy != null) {
+            policy.recordReads(reads, localHits);
+        }
+    }
+    
+    /**
+     * 记录自适应策略的失效样本
+     */
+    private void recordAdaptiveInvalidation(CacheRegion region, long count) {
+        AdaptiveReadPolicy policy = region.getAdaptivePolicy();
+        if (policy != null) {
+            policy.recordInvalidation(count);
+        }
+    }
+    
+    /**
+     * 记录写入引起的失效：只有覆盖本地已有的值才计入，未命中后的回填不是失效
+     */
+    private void recordAdaptiveOverwrites(CacheRegion region, Collection<String> keys) {
+        AdaptiveReadPolicy policy = region.getAdaptivePolicy();
+        if (policy == null) {
+            return;
+        }
+        LocalCache<String, Object> local = region.getLocalCache();
+        long overwrites = 0;
+        for (String key : keys) {
+            if (local.containsKey(key)) {
+                overwrites++;
+            }
+        }
+        if (overwrites > 0) {
+            policy.recordInvalidation(overwrites);
+        }
+    }
+    
+    /**
+     * 根据策略存储缓存值
+     */
+    public void put(String key, Object value, CacheStrategy strategy, Duration ttl) {
+        put(DEFAULT_REGION, key, value, strategy, ttl);
+    }
+    
+    /**
+     * 根据策略存储缓存值到指定区域，ttl为null时使用区域的默认TTL
+     */
+    public void put(String region, String key, Object value, CacheStrategy strategy, Duration ttl) {
+        CacheRegion cacheRegion = getRegion(region);
+        recordAdaptiveOverwrites(cacheRegion, Collections.singleton(key));
+        put(cacheRegion, key, value, strategy, ttl);
+    }
+    
+    /**
+     * 根据策略存储缓存值到指定区域
+     * 
+     * @return 条目在其所在的最终层（仅本地时为本地缓存，否则为远程缓存）的过期时间，未知时返回null
+     */
+    private Duration put(CacheRegion region, String key, Object value, CacheStrategy strategy, Duration ttl) {
+        try {
+            String remoteKey = region.remoteKey(key);
+            Duration remoteTtl = resolveTtl(region, ttl);
+            // 值已被替换，软过期时间需重新计算，之前读取的值不再回写本地
+            refreshDeadlines.invalidate(remoteKey);
+            expiryEstimates.invalidate(remoteKey);
+            generations.advance(remoteKey);
+            // 空值标记在本地层同样使用其专门的短TTL
+            Duration localTtl = isNullValue(value) ? ttl : null;
+            LocalCache<String, Object> local = region.getLocalCache();
+            if (region.isTtlJitterEnabled() && !isNullValue(value)) {
+                remoteTtl = region.jitter(remoteTtl != null ? remoteTtl : defaultRemoteTtl());
+                localTtl = jitteredLocalTtl(region);
+            }
+            strategy = degrade(resolveStrategy(region, strategy));
+            if (strategy != CacheStrategy.LOCAL_ONLY) {
+                recordInBloomFilter(region, remoteKey);
+            }
+            switch (strategy) {
+                case LOCAL_FIRST:
+                case LOCAL_ONLY:
+                    putToLocal(local, key, value, localTtl);
+                    if (strategy == CacheStrategy.LOCAL_FIRST) {
+                        asyncPutToRemote(remoteKey, value, remoteTtl);
+                    }
+                    break;
+                case REMOTE_FIRST:
+                case REMOTE_ONLY:
+                    putToRemote(remoteKey, value, remoteTtl);
+                    if (strategy == CacheStrategy.REMOTE_FIRST) {
+                        asyncPutToLocal(region, key, value, localTtl, generations.current(remoteKey));
+                    }
+                    break;
+                case WRITE_THROUGH:
+                    putToLocal(local, key, value, localTtl);
+                    putToRemote(remoteKey, value, remoteTtl);
+                    break;
+                case WRITE_BEHIND:
+                    putToLocal(local, key, value, localTtl);
+                    enqueueWriteBehind(remoteKey, value, remoteTtl);
+                    break;
+            }
+            if (strategy != CacheStrategy.REMOTE_ONLY) {
+                putToDisk(remoteKey, value, remoteTtl);
+            }
+            if (strategy == CacheStrategy.LOCAL_ONLY) {
+                return localTtl != null ? localTtl : local.getExpireAfterWrite();
+            }
+            return remoteTtl != null ? remoteTtl : defaultRemoteTtl();
+        } catch (Exception e) {
+            logger.error("Failed to put cache value for key: {}", key, e);
+            throw new CacheException("Failed to put cache value", e);
+        }
+    }
+    
+    /**
+     * 根据策略删除缓存
+     */
+    public void evict(String key, CacheStrategy strategy) {
+        evict(DEFAULT_REGION, key, strategy);
+    }
+    
+    /**
+     * 根据策略删除指定区域的缓存
+     */
+    public void evict(String region, String key, CacheStrategy strategy) {
+        evict(getRegion(region), key, strategy);
+    }
+    
+    /**
+     * 根据策略删除指定区域的缓存
+     */
+    private void evict(CacheRegion region, String key, CacheStrategy strategy) {
+        try {
+            recordAdaptiveInvalidation(region, 1);
+            String remoteKey = region.remoteKey(key);
+            refreshDeadlines.invalidate(remoteKey);
+            expiryEstimates.invalidate(remoteKey);
+            // 清除前已读取的远程值不再回写本地
+            generations.advance(remoteKey);
+            switch (strategy) {
+                case LOCAL_ONLY:
+                    region.getLocalCache().evict(key);
+                    evictFromDisk(remoteKey);
+                    break;
+                case REMOTE_ONLY:
+                    cancelWriteBehind(remoteKey);
+                    remoteCache.evict(remoteKey);
+                    break;
+                default:
+                    region.getLocalCache().evict(key);
+                    evictFromDisk(remoteKey);
+                    cancelWriteBehind(remoteKey);
+                    remoteCache.evict(remoteKey);
+                    break;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to evict cache for key: {}", key, e);
+            throw new CacheException("Failed to evict cache", e);
+        }
+    }
+    
+    /**
+     * 清空所有区域的缓存
+     */
+    public void clear() {
+        try {
+            generations.advanceAll();
+            for (CacheRegion region : regions.values()) {
+                region.getLocalCache().clear();
+            }
+            pendingWarmups.clear();
+            refreshDeadlines.invalidateAll();
+            expiryEstimates.invalidateAll();
+            if (diskCache != null) {
+                diskCache.clear();
+            }
+            if (writeBehindQueue != null) {
+                writeBehindQueue.clear();
+            }
+            remoteCache.clear();
+        } catch (Exception e) {
+            logger.error("Failed to clear cache", e);
+            throw new CacheException("Failed to clear cache", e);
+        }
+    }
+    
+    /**
+     * 批量获取
+     * 
+     * 按策略逐层探测：先在首选层批量查找，仅对未命中的键访问下一层（远程层为一次MGET），
+     * 远程命中的条目批量回写到本地缓存。
+     */
+    public Map<String, Object> multiGet(Set<String> keys, CacheStrategy strategy) {
+        return multiGet(DEFAULT_REGION, keys, strategy);
+    }
+    
+    /**
+     * 从指定区域批量获取
+     */
+    public Map<String, Object> multiGet(String region, Set<String> keys, CacheStrategy strategy) {
+        Map<String, Object> result = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+        
+        CacheRegion cacheRegion = getRegion(region);
+        if (hotKeyReplicator != null) {
+            for (String key : keys) {
+                hotKeyReplicator.recordRead(cacheRegion, key);
+            }
+        }
+        try {
+            switch (degrade(resolveStrategy(cacheRegion, strategy))) {
+                case LOCAL_ONLY:
+                    result.putAll(multiGetFromLocal(cacheRegion, keys));
+                    result.putAll(multiGetFromDisk(cacheRegion, missingKeys(keys, result)));
+                    break;
+                case REMOTE_ONLY:
+                    result.putAll(multiGetFromRemote(cacheRegion, keys));
+                    break;
+                case REMOTE_FIRST:
+                    Map<String, Long> remoteGenerations = generations.current(keys, cacheRegion::remoteKey);
+                    Map<String, Object> remoteHits = multiGetFromRemote(cacheRegion, keys);
+                    result.putAll(remoteHits);
+                    if (cacheRegion.getAdaptivePolicy() != null) {
+                        // 按本地是否已有这些键统计本地优先时的命中率
+                        recordAdaptiveReads(cacheRegion, remoteHits.size(),
+                                cacheRegion.getLocalCache().multiGet(remoteHits.keySet()).size());
+                    }
+                    asyncMultiPutToLocal(cacheRegion, remoteHits, remoteGenerations);
+                    asyncMultiPutToDisk(cacheRegion, remoteHits, remoteGenerations);
+                    Set<String> remoteMisses = missingKeys(keys, result);
+                    if (!remoteMisses.isEmpty()) {
+                        Map<String, Object> localHits = multiGetFromLocal(cacheRegion, remoteMisses);
+                        result.putAll(localHits);
+                        recordAdaptiveReads(cacheRegion, remoteMisses.size(), localHits.size());
+                        result.putAll(multiGetFromDisk(cacheRegion, missingKeys(remoteMisses, localHits)));
+                    }
+                    break;
+                default:
+                    result.putAll(multiGetFromLocal(cacheRegion, keys));
+                    recordAdaptiveReads(cacheRegion, keys.size(), result.size());
+                    result.putAll(multiGetFromDisk(cacheRegion, missingKeys(keys, result)));
+                    Set<String> localMisses = missingKeys(keys, result);
+                    if (!localMisses.isEmpty()) {
+                        Map<String, Long> missGenerations = generations.current(localMisses, cacheRegion::remoteKey);
+                        Map<String, Object> backfill = multiGetFromRemote(cacheRegion, localMisses);
+                        result.putAll(backfill);
+                        asyncMultiPutToLocal(cacheRegion, backfill, missGenerations);
+                        asyncMultiPutToDisk(cacheRegion, backfill, missGenerations);
+                    }
+                    break;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to multi get cache values", e);
+        }
+        
+        recordMisses(cacheRegion, keys.size() - result.size());
+        // 空值标记不出现在批量结果中
+        result.values().removeIf(value -> fromStoreValue(value) == null);
+        return result;
+    }
+    
+    /**
+     * 从本地缓存批量获取
+     */
+    private Map<String, Object> multiGetFromLocal(CacheRegion region, Set<String> keys) {
+        Map<String, Object> values = region.getLocalCache().multiGet(keys);
+        recordLocalHits(region, values.size());
+        return values;
+    }
+    
+    /**
+     * 从磁盘缓存批量获取，命中的条目异步回写到本地缓存
+     */
+    private Map<String, Object> multiGetFromDisk(CacheRegion region, Set<String> keys) {
+        DiskCache<String, Object> disk = diskCache;
+        Map<String, Object> result = new HashMap<>();
+        if (disk == null || keys.isEmpty()) {
+            return result;
+        }
+        Map<String, Long> keyGenerations = generations.current(keys, region::remoteKey);
+        for (String key : keys) {
+            Object value = disk.get(region.remoteKey(key));
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        asyncMultiPutToLocal(region, result, keyGenerations);
+        recordDiskHits(region, result.size());
+        return result;
+    }
+    
+    /**
+     * 从远程缓存批量获取（单次往返），返回以业务键为键的结果
+     */
+    private Map<String, Object> multiGetFromRemote(CacheRegion region, Set<String> keys) {
+        Map<String, String> remoteKeys = toRemoteKeys(region, keys);
+        int rejected = remoteKeys.size();
+        remoteKeys.keySet().removeIf(remoteKey -> !region.mightContain(remoteKey));
+        recordBloomFilterRejects(region, rejected - remoteKeys.size());
+        Map<String, Object> result = new HashMap<>();
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+        Map<String, Object> values = remoteCache.multiGet(remoteKeys.keySet());
+        if (values == null) {
+            return result;
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            result.put(remoteKeys.get(entry.getKey()), entry.getValue());
+        }
+        recordRemoteHits(region, result.size());
+        return result;
+    }
+    
+    /**
+     * 远程键到业务键的映射
+     */
+    private Map<String, String> toRemoteKeys(CacheRegion region, Set<String> keys) {
+        Map<String, String> remoteKeys = new HashMap<>();
+        for (String key : keys) {
+            remoteKeys.put(region.remoteKey(key), key);
+        }
+        return remoteKeys;
+    }
+    
+    /**
+     * 计算未命中的键
+     */
+    private Set<String> missingKeys(Set<String> keys, Map<String, Object> found) {
+        Set<String> missing = new HashSet<>();
+        for (String key : keys) {
+            if (!found.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+    
+    /**
+     * 批量存储
+     */
+    public void multiPut(Map<String, Object> keyValues, CacheStrategy strategy, Duration ttl) {
+        multiPut(DEFAULT_REGION, keyValues, strategy, ttl);
+    }
+    
+    /**
+     * 批量存储到指定区域
+     */
+    public void multiPut(String region, Map<String, Object> keyValues, CacheStrategy strategy, Duration ttl) {
+        CacheRegion cacheRegion = getRegion(region);
+        recordAdaptiveOverwrites(cacheRegion, keyValues.keySet());
+        for (String key : keyValues.keySet()) {
+            generations.advance(cacheRegion.remoteKey(key));
+        }
+        try {
+            switch (degrade(resolveStrategy(cacheRegion, strategy))) {
+                case LOCAL_ONLY:
+                    multiPutToLocal(cacheRegion, keyValues);
+                    multiPutToDisk(cacheRegion, keyValues, ttl);
+                    break;
+                case REMOTE_ONLY:
+                    multiPutToRemote(cacheRegion, keyValues, ttl);
+                    break;
+                default:
+                    multiPutToLocal(cacheRegion, keyValues);
+                    multiPutToDisk(cacheRegion, keyValues, ttl);
+                    multiPutToRemote(cacheRegion, keyValues, ttl);
+                    break;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to multi put cache values", e);
+            throw new CacheException("Failed to multi put cache values", e);
+        }
+    }
+    
+    /**
+     * 批量存储到本地缓存，区域启用TTL抖动时逐个写入以使用各自的过期时间
+     */
+    private void multiPutToLocal(CacheRegion region, Map<String, Object> keyValues) {
+        if (!region.isTtlJitterEnabled()) {
+            region.getLocalCache().multiPut(keyValues);
+            return;
+        }
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            putToLocal(region.getLocalCache(), entry.getKey(), entry.getValue(), jitteredLocalTtl(region));
+        }
+    }
+    
+    /**
+     * 批量存储到磁盘缓存，使用区域的远程键
+     */
+    private void multiPutToDisk(CacheRegion region, Map<String, Object> keyValues, Duration ttl) {
+        if (diskCache == null) {
+            return;
+        }
+        Duration diskTtl = resolveTtl(region, ttl);
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            putToDisk(region.remoteKey(entry.getKey()), entry.getValue(), diskTtl);
+        }
+    }
+    
+    /**
+     * 批量存储到远程缓存，使用区域的命名空间
+     * 
+     * 区域启用TTL抖动时，键被随机分到 JITTER_BUCKETS 组，每组以一个抖动后的TTL管道写入，
+     * 同一批写入的键分散在多个时间点过期。
+     */
+    private void multiPutToRemote(CacheRegion region, Map<String, Object> keyValues, Duration ttl) {
+        for (String key : keyValues.keySet()) {
+            recordInBloomFilter(region, region.remoteKey(key));
+        }
+        Map<String, Object> remoteValues = keyValues;
+        if (region.getNamespace() != null) {
+            remoteValues = new HashMap<>();
+            for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+                remoteValues.put(region.remoteKey(entry.getKey()), entry.getValue());
+            }
+        }
+        Duration baseTtl = resolveTtl(region, ttl);
+        if (baseTtl == null) {
+            baseTtl = defaultRemoteTtl();
+        }
+        if (!region.isTtlJitterEnabled() || baseTtl == null) {
+            remoteCache.multiPut(remoteValues);
+            return;
+        }
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        for (int i = 0; i < JITTER_BUCKETS; i++) {
+            buckets.add(new HashMap<>());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Map.Entry<String, Object> entry : remoteValues.entrySet()) {
+            buckets.get(random.nextInt(JITTER_BUCKETS)).put(entry.getKey(), entry.getValue());
+        }
+        for (Map<String, Object> bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                remoteCache.multiPut(bucket, region.jitter(baseTtl));
+            }
+        }
+    }
+    
+    /**
+     * 在区域的布隆过滤器中记录远程键，有新置位时异步写入共享位图
+     */
+    private void recordInBloomFilter(CacheRegion region, String remoteKey) {
+        BloomFilter rebuilding = region.getRebuildingBloomFilter();
+        if (rebuilding != null) {
+            rebuilding.put(remoteKey);
+        }
+        BloomFilter filter = region.getBloomFilter();
+        if (filter == null || !filter.put(remoteKey)) {
+            return;
+        }
+        BloomFilterStore store = bloomFilterStore;
+        if (store == null) {
+            return;
+        }
+        String bitmapKey = region.getBloomFilterKey();
+        long[] offsets = filter.bitIndexes(remoteKey);
+        runAsync(CacheTaskExecutor.Lane.WRITE, () -> store.setBits(bitmapKey, offsets),
+                 "update shared Bloom filter", remoteKey);
+    }
+    
+    /**
+     * 取调用方指定的TTL，未指定时使用区域的默认TTL
+     */
+    private Duration resolveTtl(CacheRegion region, Duration ttl) {
+        return ttl != null ? ttl : region.getTtl();
+    }
+    
+    /**
+     * 远程缓存的默认TTL，未配置远程缓存时返回null
+     */
+    private Duration defaultRemoteTtl() {
+        return remoteCache != null ? remoteCache.getDefaultTtl() : null;
+    }
     
-    @Autowired(required = false)
-    private CacheMetrics metrics;
+    /**
+     * 区域启用TTL抖动时，本地条目使用抖动后的写入过期时间，否则返回null（使用本地缓存的默认过期策略）
+     */
+    private Duration jitteredLocalTtl(CacheRegion region) {
+        return region.isTtlJitterEnabled() ? region.jitter(region.getLocalCache().getExpireAfterWrite()) : null;
+    }
     
-    public TieredCacheManager(LocalCache<String, Object> localCache,
-                               RemoteCache<String, Object> remoteCache,
-                               TieredCacheProperties properties) {
-        this.localCache = localCache;
-        this.remoteCache = remoteCache;
-        this.properties = properties;
-        this.asyncExecutor = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors(),
-            r -> {
-                Thread t = new Thread(r, "cache-async-");
-                t.setDaemon(true);
-                return t;
+    /**
+     * 存储到本地缓存，ttl为null时使用本地缓存的默认过期策略
+     */
+    private void putToLocal(LocalCache<String, Object> local, String key, Object value, Duration ttl) {
+        if (ttl != null) {
+            local.put(key, value, ttl);
+        } else {
+            local.put(key, value);
+        }
+    }
+    
+    /**
+     * 存储到远程缓存
+     */
+    private void putToRemote(String key, Object value, Duration ttl) {
+        if (ttl != null) {
+            remoteCache.put(key, value, ttl);
+        } else {
+            remoteCache.put(key, value);
+        }
+    }
+    
+    /**
+     * 将远程读取到的值异步回写到本地缓存，空值标记使用默认的空值TTL
+     */
+    private void asyncPutToLocal(CacheRegion region, String key, Object value, long generation) {
+        asyncPutToLocal(region, key, value,
+                isNullValue(value) ? properties.getNullValue().getTtl() : jitteredLocalTtl(region), generation);
+    }
+    
+    /**
+     * 异步存储到本地缓存
+     * 
+     * @param generation 读取或写入时键的代数，执行前后键被写入、清除或通知失效时放弃回写
+     */
+    private void asyncPutToLocal(CacheRegion region, String key, Object value, Duration ttl, long generation) {
+        LocalCache<String, Object> local = region.getLocalCache();
+        String remoteKey = region.remoteKey(key);
+        runAsync(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            if (!generations.isCurrent(remoteKey, generation)) {
+                return;
             }
-        );
+            putToLocal(local, key, value, ttl);
+            // 检查与写入同时发生的清除
+            if (!generations.isCurrent(remoteKey, generation)) {
+                local.evict(key);
+            }
+        }, "async put to local cache", key);
     }
     
     /**
-     * 根据策略获取缓存值
+     * 存储到磁盘缓存，ttl为null时使用磁盘缓存的默认过期时间；磁盘写入失败只记录日志，不影响其他层
      */
-    @SuppressWarnings("unchecked")
-    public <T> T get(String key, Class<T> type, CacheStrategy strategy) {
+    private void putToDisk(String remoteKey, Object value, Duration ttl) {
+        DiskCache<String, Object> disk = diskCache;
+        if (disk == null) {
+            return;
+        }
         try {
-            switch (strategy) {
-                case LOCAL_FIRST:
-                    return getWithLocalFirst(key, type);
-                case REMOTE_FIRST:
-                    return getWithRemoteFirst(key, type);
-                case LOCAL_ONLY:
-                    return getFromLocal(key, type);
-                case REMOTE_ONLY:
-                    return getFromRemote(key, type);
-                default:
-                    return getWithLocalFirst(key, type);
+            if (ttl != null) {
+                disk.put(remoteKey, value, ttl);
+            } else {
+                disk.put(remoteKey, value);
             }
         } catch (Exception e) {
-            logger.error("Failed to get cache value for key: {}", key, e);
-            recordMiss();
-            return null;
+            logger.warn("Failed to put value to disk cache for key: {}", remoteKey, e);
         }
     }
     
     /**
-     * 本地优先获取策略
+     * 从磁盘缓存删除
      */
-    @SuppressWarnings("unchecked")
-    private <T> T getWithLocalFirst(String key, Class<T> type) {
-        // 1. 先查本地缓存
-        Object value = localCache.get(key);
-        if (value != null) {
-            recordLocalHit();
-            return (T) value;
+    private void evictFromDisk(String remoteKey) {
+        DiskCache<String, Object> disk = diskCache;
+        if (disk != null) {
+            disk.evict(remoteKey);
         }
-        
-        // 2. 查远程缓存
-        value = remoteCache.get(key);
-        if (value != null) {
-            // 异步回写到本地缓存
-            asyncPutToLocal(key, value);
-            recordRemoteHit();
-            return (T) value;
+    }
+    
+    /**
+     * 将远程读取到的值异步回写到磁盘缓存，空值标记使用默认的空值TTL
+     * 
+     * @param generation 读取前键的代数，执行前后键被写入、清除或通知失效时放弃回写
+     */
+    private void asyncPutToDisk(String remoteKey, Object value, long generation) {
+        DiskCache<String, Object> disk = diskCache;
+        if (disk == null) {
+            return;
         }
-        
-        recordMiss();
-        return null;
+        Duration ttl = isNullValue(value) ? properties.getNullValue().getTtl() : null;
+        runAsync(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            if (!generations.isCurrent(remoteKey, generation)) {
+                return;
+            }
+            putToDisk(remoteKey, value, ttl);
+            if (!generations.isCurrent(remoteKey, generation)) {
+                disk.evict(remoteKey);
+            }
+        }, "async put to disk cache", remoteKey);
     }
     
     /**
-     * 远程优先获取策略
+     * 将远程批量读取到的值异步回写到磁盘缓存
      */
-    @SuppressWarnings("unchecked")
-    private <T> T getWithRemoteFirst(String key, Class<T> type) {
-        // 1. 先查远程缓存
-        Object value = remoteCache.get(key);
-        if (value != null) {
-            // 异步回写到本地缓存
-            asyncPutToLocal(key, value);
-            recordRemoteHit();
-            return (T) value;
+    private void asyncMultiPutToDisk(CacheRegion region, Map<String, Object> keyValues, Map<String, Long> keyGenerations) {
+        DiskCache<String, Object> disk = diskCache;
+        if (disk == null || keyValues.isEmpty()) {
+            return;
         }
-        
-        // 2. 查本地缓存
-        value = localCache.get(key);
-        if (value != null) {
-            recordLocalHit();
-            return (T) value;
+        Map<String, Object> backfill = new HashMap<>(keyValues);
+        backfill.values().removeIf(TieredCacheManager::isNullValue);
+        runAsync(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            for (Map.Entry<String, Object> entry : backfill.entrySet()) {
+                if (isStale(region, entry.getKey(), keyGenerations)) {
+                    continue;
+                }
+                String remoteKey = region.remoteKey(entry.getKey());
+                putToDisk(remoteKey, entry.getValue(), null);
+                if (isStale(region, entry.getKey(), keyGenerations)) {
+                    disk.evict(remoteKey);
+                }
+            }
+        }, "async multi put to disk cache", backfill.keySet());
+    }
+    
+    /**
+     * 写回模式下将远程写入交给写回队列，未配置远程缓存时忽略
+     */
+    private void enqueueWriteBehind(String key, Object value, Duration ttl) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.enqueue(key, value, ttl);
         }
-        
-        recordMiss();
-        return null;
     }
     
     /**
-     * 仅从本地缓存获取
+     * 取消键尚未刷新的写回，避免清除后被旧值覆盖
      */
-    @SuppressWarnings("unchecked")
-    private <T> T getFromLocal(String key, Class<T> type) {
-        Object value = localCache.get(key);
-        if (value != null) {
-            recordLocalHit();
-            return (T) value;
+    private void cancelWriteBehind(String key) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.remove(key);
         }
-        recordMiss();
-        return null;
     }
     
     /**
-     * 仅从远程缓存获取
+     * 异步存储到远程缓存
      */
-    @SuppressWarnings("unchecked")
-    private <T> T getFromRemote(String key, Class<T> type) {
-        Object value = remoteCache.get(key);
-        if (value != null) {
-            recordRemoteHit();
-            return (T) value;
+    private void asyncPutToRemote(String key, Object value, Duration ttl) {
+        runAsync(CacheTaskExecutor.Lane.WRITE, () -> putToRemote(key, value, ttl),
+                 "async put to remote cache", key);
+    }
+    
+    /**
+     * 异步批量回写到本地缓存
+     * 
+     * @param keyGenerations 远程读取前各键的代数，执行前后代数变化的键不回写
+     */
+    private void asyncMultiPutToLocal(CacheRegion region, Map<String, Object> keyValues, Map<String, Long> keyGenerations) {
+        Map<String, Object> backfill = new HashMap<>(keyValues);
+        backfill.values().removeIf(TieredCacheManager::isNullValue);
+        if (backfill.isEmpty()) {
+            return;
         }
-        recordMiss();
-        return null;
+        runAsync(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            backfill.keySet().removeIf(key -> isStale(region, key, keyGenerations));
+            multiPutToLocal(region, backfill);
+            for (String key : backfill.keySet()) {
+                if (isStale(region, key, keyGenerations)) {
+                    region.getLocalCache().evict(key);
+                }
+            }
+        }, "async multi put to local cache", backfill.keySet());
+    }
+    
+    private boolean isStale(CacheRegion region, String key, Map<String, Long> keyGenerations) {
+        Long generation = keyGenerations.get(key);
+        return generation == null || !generations.isCurrent(region.remoteKey(key), generation);
     }
     
     /**
-     * 根据策略存储缓存值
+     * 清除远程键在本地缓存中的副本，用于处理Redis推送的失效通知
+     * 
+     * 按命名空间找到远程键所属的区域，无匹配命名空间的键属于默认区域。
+     * 
+     * @param remoteKeys 失效的远程键，为null时清空所有区域的本地缓存
      */
-    public void put(String key, Object value, CacheStrategy strategy, Duration ttl) {
-        try {
-            switch (strategy) {
-                case LOCAL_FIRST:
-                case LOCAL_ONLY:
-                    putToLocal(key, value);
-                    if (strategy == CacheStrategy.LOCAL_FIRST) {
-                        asyncPutToRemote(key, value, ttl);
-                    }
-                    break;
-                case REMOTE_FIRST:
-                case REMOTE_ONLY:
-                    putToRemote(key, value, ttl);
-                    if (strategy == CacheStrategy.REMOTE_FIRST) {
-                        asyncPutToLocal(key, value);
-                    }
-                    break;
-                case WRITE_THROUGH:
-                    putToLocal(key, value);
-                    putToRemote(key, value, ttl);
-                    break;
-                case WRITE_BEHIND:
-                    putToLocal(key, value);
-                    asyncPutToRemote(key, value, ttl);
-                    break;
+    public void invalidateLocal(Collection<String> remoteKeys) {
+        if (remoteKeys == null) {
+            generations.advanceAll();
+            for (CacheRegion region : regions.values()) {
+                region.getLocalCache().clear();
             }
-        } catch (Exception e) {
-            logger.error("Failed to put cache value for key: {}", key, e);
-            throw new CacheException("Failed to put cache value", e);
+            if (diskCache != null) {
+                diskCache.clear();
+            }
+            refreshDeadlines.invalidateAll();
+            expiryEstimates.invalidateAll();
+            return;
+        }
+        for (String remoteKey : remoteKeys) {
+            generations.advance(remoteKey);
+            CacheRegion region = findRegionByRemoteKey(remoteKey);
+            String key = region.getNamespace() != null
+                    ? remoteKey.substring(region.getNamespace().length() + 1) : remoteKey;
+            region.getLocalCache().evict(key);
+            evictFromDisk(remoteKey);
+            refreshDeadlines.invalidate(remoteKey);
+            expiryEstimates.invalidate(remoteKey);
         }
+        logger.debug("Invalidated {} local entries on remote notification", remoteKeys.size());
     }
     
     /**
-     * 根据策略删除缓存
+     * 收集各区域本地缓存中最热的条目，用于保存预热快照，空值标记不包含在内
+     * 
+     * @param limit 每个区域的最大条目数
+     * @return 区域名称到按热度排序的条目
      */
-    public void evict(String key, CacheStrategy strategy) {
-        try {
-            switch (strategy) {
-                case LOCAL_ONLY:
-                    localCache.evict(key);
-                    break;
-                case REMOTE_ONLY:
-                    remoteCache.evict(key);
-                    break;
-                default:
-                    localCache.evict(key);
-                    remoteCache.evict(key);
-                    break;
+    public Map<String, List<HotEntry<String, Object>>> hottestLocalEntries(int limit) {
+        Map<String, List<HotEntry<String, Object>>> result = new LinkedHashMap<>();
+        for (CacheRegion region : regions.values()) {
+            List<HotEntry<String, Object>> entries = new ArrayList<>(region.getLocalCache().hottest(limit));
+            entries.removeIf(entry -> isNullValue(entry.getValue()));
+            if (!entries.isEmpty()) {
+                result.put(region.getName(), entries);
             }
-        } catch (Exception e) {
-            logger.error("Failed to evict cache for key: {}", key, e);
-            throw new CacheException("Failed to evict cache", e);
         }
+        return result;
     }
     
     /**
-     * 清空所有缓存
+     * 将预热快照中的条目写入区域的本地缓存
+     * 
+     * 区域尚未创建时（例如只由注解声明的区域）暂存条目，在区域首次创建时写入，使区域仍按注解中的限制创建。
+     * since之后被写入、删除或通知失效的键不会被快照中的旧值覆盖，本地缓存中已有的键保持不变。
+     * 
+     * @param name 区域名称
+     * @param entries 条目，剩余寿命从调用时起算
+     * @param since 开始加载快照的时间（毫秒）
+     * @return 写入的条目数，暂存时为0
      */
-    public void clear() {
-        try {
-            localCache.clear();
-            remoteCache.clear();
-        } catch (Exception e) {
-            logger.error("Failed to clear cache", e);
-            throw new CacheException("Failed to clear cache", e);
+    public int restoreLocal(String name, List<HotEntry<String, Object>> entries, long since) {
+        if (name == null || name.isEmpty() || regions.containsKey(name)) {
+            return restoreLocal(getRegion(name), entries, since);
+        }
+        pendingWarmups.merge(name, new PendingWarmup(entries, since), PendingWarmup::merge);
+        // 暂存期间区域可能已被创建
+        CacheRegion region = regions.get(name);
+        PendingWarmup pending = region != null ? pendingWarmups.remove(name) : null;
+        return pending != null ? restoreLocal(region, pending.remaining(), pending.since) : 0;
+    }
+    
+    private int restoreLocal(CacheRegion region, List<HotEntry<String, Object>> entries, long since) {
+        LocalCache<String, Object> local = region.getLocalCache();
+        int restored = 0;
+        for (HotEntry<String, Object> entry : entries) {
+            String key = entry.getKey();
+            String remoteKey = region.remoteKey(key);
+            if (entry.getValue() == null || generations.isAdvancedSince(remoteKey, since) || local.containsKey(key)) {
+                continue;
+            }
+            try {
+                putToLocal(local, key, entry.getValue(), entry.getRemainingTtl());
+            } catch (Exception e) {
+                logger.warn("Failed to restore warm restart entry for key: {}", remoteKey, e);
+                continue;
+            }
+            if (generations.isAdvancedSince(remoteKey, since)) {
+                local.evict(key);
+                continue;
+            }
+            restored++;
         }
+        return restored;
     }
     
     /**
-     * 批量获取
+     * 应用其他节点通过同步频道发来的写入（默认区域），本节点在该写入发出之后写入或清除过该键时丢弃
+     * 
+     * 按键比较推进时间，其他键的写入不影响该事件。时间来自源节点的时钟，节点间的时钟偏差只影响同一键上
+     * 相隔小于偏差的并发写入。
+     * 
+     * @param timestamp 写入在源节点发生的时间（System.currentTimeMillis）
+     * @return 是否写入了本地缓存
      */
-    public Map<String, Object> multiGet(Set<String> keys, CacheStrategy strategy) {
-        // 实现批量获取逻辑
-        // 这里简化实现，实际应该根据策略优化
-        return localCache.multiGet(keys);
+    public boolean applySyncPut(String key, Object value, long timestamp) {
+        String remoteKey = defaultRegion.remoteKey(key);
+        long generation = generations.current(remoteKey);
+        if (generations.isAdvancedSince(remoteKey, timestamp)) {
+            logger.debug("Dropped outdated sync put for key: {}", key);
+            return false;
+        }
+        putToLocal(localCache, key, value, null);
+        // 磁盘中的旧值不再有效
+        evictFromDisk(remoteKey);
+        if (!generations.isCurrent(remoteKey, generation)) {
+            localCache.evict(key);
+            return false;
+        }
+        return true;
     }
     
     /**
-     * 批量存储
+     * 按命名空间查找远程键所属的区域，多个命名空间匹配时取最长的
      */
-    public void multiPut(Map<String, Object> keyValues, CacheStrategy strategy, Duration ttl) {
-        try {
-            switch (strategy) {
-                case LOCAL_ONLY:
-                    localCache.multiPut(keyValues);
-                    break;
-                case REMOTE_ONLY:
-                    remoteCache.multiPut(keyValues);
-                    break;
-                default:
-                    localCache.multiPut(keyValues);
-                    remoteCache.multiPut(keyValues);
-                    break;
+    private CacheRegion findRegionByRemoteKey(String remoteKey) {
+        CacheRegion match = defaultRegion;
+        int matchLength = -1;
+        for (CacheRegion region : regions.values()) {
+            String namespace = region.getNamespace();
+            if (namespace != null && namespace.length() > matchLength
+                    && remoteKey.length() > namespace.length()
+                    && remoteKey.startsWith(namespace) && remoteKey.charAt(namespace.length()) == ':') {
+                match = region;
+                matchLength = namespace.length();
             }
-        } catch (Exception e) {
-            logger.error("Failed to multi put cache values", e);
-            throw new CacheException("Failed to multi put cache values", e);
         }
+        return match;
     }
     
     /**
-     * 存储到本地缓存
+     * 在指定通道异步执行任务，通道拒绝时任务被放弃，不影响调用方
      */
-    private void putToLocal(String key, Object value) {
-        localCache.put(key, value);
+    private void runAsync(CacheTaskExecutor.Lane lane, Runnable task, String action, Object key) {
+        taskExecutor.execute(lane, () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.warn("Failed to {} for key: {}", action, key, e);
+            }
+        }, () -> logger.debug("Rejected task to {} for key: {}", action, key));
     }
     
     /**
-     * 存储到远程缓存
+     * 是否为空值标记
      */
-    private void putToRemote(String key, Object value, Duration ttl) {
-        if (ttl != null) {
-            remoteCache.put(key, value, ttl);
-        } else {
-            remoteCache.put(key, value);
+    private static boolean isNullValue(Object storeValue) {
+        return storeValue instanceof NullValue;
+    }
+    
+    /**
+     * 将缓存中存储的值还原为业务值，空值标记还原为null
+     */
+    private Object fromStoreValue(Object storeValue) {
+        if (isNullValue(storeValue)) {
+            recordNullHit();
+            return null;
         }
+        return storeValue;
     }
     
     /**
-     * 异步存储到本地缓存
+     * 记录空值标记命中
      */
-    private void asyncPutToLocal(String key, Object value) {
-        CompletableFuture.runAsync(() -> putToLocal(key, value), asyncExecutor)
-            .exceptionally(throwable -> {
-                logger.warn("Failed to async put to local cache for key: {}", key, throwable);
-                return null;
-            });
+    private void recordNullHit() {
+        if (metrics != null) {
+            metrics.recordNullHit();
+        }
     }
     
     /**
-     * 异步存储到远程缓存
+     * 记录空值标记写入
      */
-    private void asyncPutToRemote(String key, Object value, Duration ttl) {
-        CompletableFuture.runAsync(() -> putToRemote(key, value, ttl), asyncExecutor)
-            .exceptionally(throwable -> {
-                logger.warn("Failed to async put to remote cache for key: {}", key, throwable);
-                return null;
-            });
+    private void recordNullPut() {
+        if (metrics != null) {
+            metrics.recordNullPut();
+        }
+    }
+    
+    /**
+     * 记录被布隆过滤器拦截的远程查询
+     */
+    private void recordBloomFilterRejects(CacheRegion region, long count) {
+        if (count <= 0) {
+            return;
+        }
+        region.recordBloomFilterRejects(count);
+        if (metrics != null) {
+            metrics.recordBloomFilterRejects(count);
+        }
     }
     
     /**
      * 记录本地缓存命中
      */
-    private void recordLocalHit() {
+    private void recordLocalHits(CacheRegion region, long count) {
+        if (count <= 0) {
+            return;
+        }
+        region.recordLocalHits(count);
         if (metrics != null) {
-            metrics.recordLocalHit();
+            if (count == 1) {
+                metrics.recordLocalHit();
+            } else {
+                metrics.recordLocalHits(count);
+            }
         }
     }
     
     /**
      * 记录远程缓存命中
      */
-    private void recordRemoteHit() {
+    private void recordRemoteHits(CacheRegion region, long count) {
+        if (count <= 0) {
+            return;
+        }
+        region.recordRemoteHits(count);
+        if (metrics != null) {
+            if (count == 1) {
+                metrics.recordRemoteHit();
+            } else {
+                metrics.recordRemoteHits(count);
+            }
+        }
+    }
+    
+    /**
+     * 记录磁盘缓存命中
+     */
+    private void recordDiskHits(CacheRegion region, long count) {
+        if (count <= 0) {
+            return;
+        }
+        region.recordDiskHits(count);
         if (metrics != null) {
-            metrics.recordRemoteHit();
+            metrics.recordDiskHits(count);
         }
     }
     
     /**
      * 记录缓存未命中
      */
-    private void recordMiss() {
+    private void recordMisses(CacheRegion region, long count) {
+        if (count <= 0) {
+            return;
+        }
+        region.recordMisses(count);
         if (metrics != null) {
-            metrics.recordMiss();
+            if (count == 1) {
+                metrics.recordMiss();
+            } else {
+                metrics.recordMisses(count);
+            }
         }
     }
     
     /**
-     * 获取本地缓存
+     * 获取默认区域的本地缓存
      */
     public LocalCache<String, Object> getLocalCache() {
         return localCache;
@@ -335,17 +2047,142 @@ public class TieredCacheManager {
         return remoteCache;
     }
     
+    /**
+     * 获取磁盘缓存，未启用时返回null
+     */
+    public DiskCache<String, Object> getDiskCache() {
+        return diskCache;
+    }
+    
+    /**
+     * 获取写回队列，未配置远程缓存时返回null
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+    
+    /**
+     * 获取热点键复制，未启用时返回null
+     */
+    public HotKeyReplicator getHotKeyReplicator() {
+        return hotKeyReplicator;
+    }
+    
+    /**
+     * 获取远程缓存的熔断器，未启用时返回null
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * 获取异步任务执行器
+     */
+    public CacheTaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+    
+    /**
+     * 进行中的加载数（含后台刷新），同一键的并发加载只计一次
+     */
+    public int getInFlightLoadCount() {
+        return inFlightLoads.size();
+    }
+    
+    /**
+     * 是否由Redis推送失效通知维护本地缓存一致性
+     */
+    public boolean isClientTrackingEnabled() {
+        return clientTracking;
+    }
+    
     /**
      * 关闭缓存管理器
      */
     public void shutdown() {
         try {
-            asyncExecutor.shutdown();
+            if (hotKeyReplicator != null) {
+                hotKeyReplicator.shutdown();
+            }
+            taskExecutor.shutdown();
+            synchronized (this) {
+                if (bloomFilterSyncExecutor != null) {
+                    bloomFilterSyncExecutor.shutdown();
+                }
+            }
+            if (writeBehindQueue != null) {
+                writeBehindQueue.shutdown();
+            }
             if (remoteCache != null) {
                 remoteCache.close();
             }
+            if (diskCache != null) {
+                diskCache.close();
+            }
         } catch (Exception e) {
             logger.error("Failed to shutdown cache manager", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 等待区域创建的预热条目
+     */
+    private static final class PendingWarmup {
+        
+        final List<HotEntry<String, Object>> entries;
+        final long since;
+        final long receivedAt = System.nanoTime();
+        
+        PendingWarmup(List<HotEntry<String, Object>> entries, long since) {
+            this.entries = entries;
+            this.since = since;
+        }
+        
+        /**
+         * 扣除暂存时长后仍未过期的条目
+         */
+        List<HotEntry<String, Object>> remaining() {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - receivedAt);
+            List<HotEntry<String, Object>> result = new ArrayList<>(entries.size());
+            for (HotEntry<String, Object> entry : entries) {
+                Duration ttl = entry.getRemainingTtl();
+                if (ttl == null) {
+                    result.add(entry);
+                } else if (ttl.compareTo(elapsed) > 0) {
+                    result.add(new HotEntry<>(entry.getKey(), entry.getValue(), ttl.minus(elapsed)));
+                }
+            }
+            return result;
+        }
+        
+        PendingWarmup merge(PendingWarmup other) {
+            List<HotEntry<String, Object>> merged = remaining();
+            merged.addAll(other.remaining());
+            return new PendingWarmup(merged, Math.min(since, other.since));
+        }
+    }
+    
+    /**
+     * 键的过期时间与加载耗时估算
+     */
+    private static final class ExpiryEstimate {
+        
+        final long expiresAt;
+        final long loadNanos;
+        
+        ExpiryEstimate(long expiresAt, long loadNanos) {
+            this.expiresAt = expiresAt;
+            this.loadNanos = loadNanos;
+        }
+    }
+    
+    /**
+     * 进行中的加载被放弃（后台刷新被执行器拒绝），等待它的调用方应自行加载
+     */
+    private static final class AbandonedLoadException extends RuntimeException {
+        
+        AbandonedLoadException() {
+            super("In-flight load abandoned", null, false, false);
+        }
+    }
+}
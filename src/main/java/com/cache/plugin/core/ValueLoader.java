@@ -0,0 +1,18 @@
+package com.cache.plugin.core;
+
+/**
+ * 缓存值加载器
+ * 
+ * @param <T> 值类型
+ */
+@FunctionalInterface
+public interface ValueLoader<T> {
+    
+    /**
+     * 加载缓存值
+     * 
+     * @return 加载得到的值，可以为null
+     * @throws Throwable 加载过程中的任何异常
+     */
+    T load() throws Throwable;
+}
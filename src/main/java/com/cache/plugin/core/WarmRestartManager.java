@@ -0,0 +1,416 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.remote.RemoteCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预热快照
+ *
+ * 定时和关闭时把各区域本地缓存中最热的条目（按Caffeine的频率与最近访问顺序）保存到本地文件，
+ * 启动时在应用就绪之前并行加载回本地缓存，避免每次发布后由远程缓存和数据库承担全部读流量。
+ * source为remote时快照只保存键，启动时从远程缓存批量读取值，快照更小，恢复的值也不会比远程缓存旧。
+ * 条目按保存时的剩余寿命扣除快照年龄后恢复，超过maxAge的快照被忽略。
+ * 文件模式下值经共享的编解码器（CacheCodecRegistry）编码，无法编码或解码的值跳过。
+ */
+public class WarmRestartManager implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WarmRestartManager.class);
+    
+    // 文件头魔数（"TCWR"）与格式版本，版本2起值使用编解码器编码
+    private static final int MAGIC = 0x54435752;
+    private static final int VERSION = 2;
+    // 剩余寿命未知，恢复时使用本地缓存的默认过期时间
+    private static final long DEFAULT_TTL = -1;
+    // 每个加载任务处理的条目数，也是远程模式下单次批量读取的键数
+    private static final int LOAD_BATCH_SIZE = 500;
+    // 读取长度字段声明的字节时每次分配的上限，损坏的长度不会一次分配大数组
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    
+    private final TieredCacheManager cacheManager;
+    private final TieredCacheProperties.WarmRestartProperties properties;
+    private final CacheCodecRegistry codecs;
+    private final Clock clock;
+    private final Path path;
+    private final boolean remoteSource;
+    
+    private ScheduledExecutorService saveExecutor;
+    private volatile boolean running;
+    
+    public WarmRestartManager(TieredCacheManager cacheManager, TieredCacheProperties.WarmRestartProperties properties) {
+        this(cacheManager, properties, new CacheCodecRegistry());
+    }
+    
+    /**
+     * @param codecs 文件模式下值的编解码器，与远程缓存共享
+     */
+    public WarmRestartManager(TieredCacheManager cacheManager, TieredCacheProperties.WarmRestartProperties properties,
+                              CacheCodecRegistry codecs) {
+        this(cacheManager, properties, codecs, Clock.systemUTC());
+    }
+    
+    /**
+     * @param codecs 文件模式下值的编解码器，与远程缓存共享
+     * @param clock 记录快照时间和计算快照年龄的时钟
+     */
+    public WarmRestartManager(TieredCacheManager cacheManager, TieredCacheProperties.WarmRestartProperties properties,
+                              CacheCodecRegistry codecs, Clock clock) {
+        this.cacheManager = cacheManager;
+        this.clock = clock;
+        this.properties = properties;
+        this.codecs = codecs;
+        this.path = Paths.get(properties.getPath());
+        this.remoteSource = "remote".equalsIgnoreCase(properties.getSource());
+    }
+    
+    /**
+     * 加载快照并启动定时保存，在应用就绪之前执行
+     */
+    @Override
+    public void start() {
+        load();
+        Duration interval = properties.getInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            saveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cache-warm-restart");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalMillis = interval.toMillis();
+            saveExecutor.scheduleWithFixedDelay(this::saveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+        logger.info("Warm restart enabled with snapshot: {}, source: {}, interval: {}", path, properties.getSource(), interval);
+    }
+    
+    /**
+     * 停止定时保存并保存最后一次快照，在缓存管理器关闭之前执行
+     */
+    @Override
+    public void stop() {
+        if (saveExecutor != null) {
+            saveExecutor.shutdown();
+        }
+        saveQuietly();
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * 保存各区域最热的条目，先写临时文件再替换，读取方不会看到写了一半的快照
+     *
+     * @return 保存的条目数
+     */
+    public synchronized int save() throws IOException {
+        Map<String, List<HotEntry<String, Object>>> hottest = cacheManager.hottestLocalEntries(properties.getMaxEntries());
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int saved = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(clock.millis());
+            out.writeBoolean(remoteSource);
+            out.writeInt(hottest.size());
+            for (Map.Entry<String, List<HotEntry<String, Object>>> region : hottest.entrySet()) {
+                List<SnapshotEntry> entries = toSnapshotEntries(region.getKey(), region.getValue());
+                writeBytes(out, region.getKey().getBytes(StandardCharsets.UTF_8));
+                out.writeInt(entries.size());
+                for (SnapshotEntry entry : entries) {
+                    writeBytes(out, entry.key.getBytes(StandardCharsets.UTF_8));
+                    out.writeLong(entry.ttlMillis);
+                    if (remoteSource) {
+                        writeBytes(out, entry.remoteKey.getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        writeBytes(out, entry.value);
+                    }
+                }
+                saved += entries.size();
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.debug("Saved {} entries of {} regions to warm restart snapshot {}", saved, hottest.size(), path);
+        return saved;
+    }
+    
+    /**
+     * 加载快照，按区域分批并行写入本地缓存，最多等待loadTimeout，其余批次在后台继续加载
+     *
+     * @return 等待期间写入本地缓存的条目数
+     */
+    public int load() {
+        if (!Files.isRegularFile(path)) {
+            logger.info("No warm restart snapshot found at {}", path);
+            return 0;
+        }
+        // 与键代数的推进时间比较，使用系统时钟
+        long since = System.currentTimeMillis();
+        Snapshot snapshot;
+        try {
+            snapshot = read();
+        } catch (IOException | RuntimeException e) {
+            // 损坏的快照跳过，不影响启动
+            logger.warn("Failed to read warm restart snapshot {}", path, e);
+            return 0;
+        }
+        long age = clock.millis() - snapshot.createdAt;
+        if (properties.getMaxAge() != null && age > properties.getMaxAge().toMillis()) {
+            logger.info("Ignoring warm restart snapshot {} saved {}s ago", path, age / 1000);
+            return 0;
+        }
+        
+        ExecutorService loadExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getLoadThreads()), r -> {
+            Thread t = new Thread(r, "cache-warm-restart-load");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (Map.Entry<String, List<SnapshotEntry>> region : snapshot.regions.entrySet()) {
+            List<SnapshotEntry> entries = region.getValue();
+            // 按热度顺序分批提交，最热的条目最先加载
+            for (int from = 0; from < entries.size(); from += LOAD_BATCH_SIZE) {
+                List<SnapshotEntry> batch = entries.subList(from, Math.min(entries.size(), from + LOAD_BATCH_SIZE));
+                futures.add(loadExecutor.submit(() -> loadBatch(region.getKey(), batch, snapshot.withKeysOnly, age, since)));
+            }
+        }
+        loadExecutor.shutdown();
+        
+        int restored = 0;
+        long deadline = System.nanoTime() + properties.getLoadTimeout().toNanos();
+        for (Future<Integer> future : futures) {
+            try {
+                restored += future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Warm restart did not finish within {}, continuing in background", properties.getLoadTimeout());
+                break;
+            } catch (ExecutionException e) {
+                logger.warn("Failed to load warm restart batch", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("Warm restart restored {} entries from snapshot {} saved {}s ago", restored, path, age / 1000);
+        return restored;
+    }
+    
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (Exception e) {
+            logger.warn("Failed to save warm restart snapshot {}", path, e);
+        }
+    }
+    
+    /**
+     * 编码条目并换算剩余寿命，无法编码的值跳过
+     */
+    private List<SnapshotEntry> toSnapshotEntries(String regionName, List<HotEntry<String, Object>> hottest) {
+        CacheRegion region = remoteSource ? cacheManager.getRegion(regionName) : null;
+        List<SnapshotEntry> entries = new ArrayList<>(hottest.size());
+        for (HotEntry<String, Object> entry : hottest) {
+            long ttlMillis = entry.getRemainingTtl() != null ? entry.getRemainingTtl().toMillis() : DEFAULT_TTL;
+            if (remoteSource) {
+                entries.add(new SnapshotEntry(entry.getKey(), ttlMillis, region.remoteKey(entry.getKey()), null));
+                continue;
+            }
+            try {
+                entries.add(new SnapshotEntry(entry.getKey(), ttlMillis, null, codecs.encode(entry.getValue())));
+            } catch (RuntimeException e) {
+                logger.debug("Skipping unencodable value in warm restart snapshot for key: {}", entry.getKey(), e);
+            }
+        }
+        return entries;
+    }
+    
+    private Snapshot read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unrecognized warm restart snapshot format");
+            }
+            long createdAt = in.readLong();
+            boolean withKeysOnly = in.readBoolean();
+            int regionCount = readCount(in);
+            Map<String, List<SnapshotEntry>> regions = new LinkedHashMap<>();
+            for (int i = 0; i < regionCount; i++) {
+                String name = new String(readBytes(in), StandardCharsets.UTF_8);
+                int count = readCount(in);
+                List<SnapshotEntry> entries = new ArrayList<>(Math.min(count, LOAD_BATCH_SIZE));
+                for (int j = 0; j < count; j++) {
+                    String key = new String(readBytes(in), StandardCharsets.UTF_8);
+                    long ttlMillis = in.readLong();
+                    if (withKeysOnly) {
+                        entries.add(new SnapshotEntry(key, ttlMillis, new String(readBytes(in), StandardCharsets.UTF_8), null));
+                    } else {
+                        entries.add(new SnapshotEntry(key, ttlMillis, null, readBytes(in)));
+                    }
+                }
+                regions.put(name, entries);
+            }
+            return new Snapshot(createdAt, withKeysOnly, regions);
+        }
+    }
+    
+    /**
+     * 恢复一批条目：解码或从远程缓存批量读取值，扣除快照年龄后写入本地缓存
+     */
+    private int loadBatch(String regionName, List<SnapshotEntry> batch, boolean withKeysOnly, long age, long since) {
+        Map<String, Object> remoteValues = withKeysOnly ? readRemote(batch) : null;
+        if (remoteValues != null && remoteValues.isEmpty()) {
+            return 0;
+        }
+        List<HotEntry<String, Object>> entries = new ArrayList<>(batch.size());
+        for (SnapshotEntry entry : batch) {
+            Duration ttl = null;
+            if (entry.ttlMillis != DEFAULT_TTL) {
+                if (entry.ttlMillis <= age) {
+                    continue;
+                }
+                ttl = Duration.ofMillis(entry.ttlMillis - age);
+            }
+            Object value;
+            try {
+                value = withKeysOnly ? remoteValues.get(entry.remoteKey) : codecs.decode(entry.value);
+            } catch (RuntimeException e) {
+                logger.debug("Skipping undecodable value in warm restart snapshot for key: {}", entry.key, e);
+                continue;
+            }
+            if (value != null && !(value instanceof NullValue)) {
+                entries.add(new HotEntry<>(entry.key, value, ttl));
+            }
+        }
+        return cacheManager.restoreLocal(regionName, entries, since);
+    }
+    
+    /**
+     * 从远程缓存批量读取一批键的值，远程缓存不可用时返回空映射
+     */
+    private Map<String, Object> readRemote(List<SnapshotEntry> batch) {
+        RemoteCache<String, Object> remoteCache = cacheManager.getRemoteCache();
+        if (remoteCache == null) {
+            return new LinkedHashMap<>();
+        }
+        Set<String> remoteKeys = new HashSet<>();
+        for (SnapshotEntry entry : batch) {
+            remoteKeys.add(entry.remoteKey);
+        }
+        try {
+            Map<String, Object> values = remoteCache.multiGet(remoteKeys);
+            return values != null ? values : new LinkedHashMap<>();
+        } catch (Exception e) {
+            logger.warn("Failed to read {} warm restart keys from remote cache", remoteKeys.size(), e);
+            return new LinkedHashMap<>();
+        }
+    }
+    
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt warm restart snapshot: negative count " + count);
+        }
+        return count;
+    }
+    
+    /**
+     * 读取带长度前缀的字节；快照经过压缩，无法用文件大小约束长度，因此按块读取，
+     * 损坏的长度在数据读完时以EOFException结束，而不是预先分配超大数组
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt warm restart snapshot: negative length " + length);
+        }
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, (long) bytes.length * 2));
+            }
+            in.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+        }
+        return bytes;
+    }
+    
+    /**
+     * 快照中的条目，文件模式保存编码后的值，远程模式保存远程键
+     */
+    private static final class SnapshotEntry {
+        final String key;
+        final long ttlMillis;
+        final String remoteKey;
+        final byte[] value;
+        
+        SnapshotEntry(String key, long ttlMillis, String remoteKey, byte[] value) {
+            this.key = key;
+            this.ttlMillis = ttlMillis;
+            this.remoteKey = remoteKey;
+            this.value = value;
+        }
+    }
+    
+    private static final class Snapshot {
+        final long createdAt;
+        final boolean withKeysOnly;
+        final Map<String, List<SnapshotEntry>> regions;
+        
+        Snapshot(long createdAt, boolean withKeysOnly, Map<String, List<SnapshotEntry>> regions) {
+            this.createdAt = createdAt;
+            this.withKeysOnly = withKeysOnly;
+            this.regions = regions;
+        }
+    }
+}
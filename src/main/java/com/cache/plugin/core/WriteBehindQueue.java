@@ -0,0 +1,407 @@
+package com.cache.plugin.core;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.remote.RemoteCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 写回队列
+ *
+ * 按键合并待写入远程缓存的值（后写覆盖先写），按 batchSize 分批、每隔 flushInterval
+ * 以管道方式批量写入远程缓存。队列满时调用方最多阻塞 maxBlockTime，仍无空间则直接同步写入远程缓存；
+ * 写入失败的条目按指数退避重试，超过 maxRetries 后丢弃。
+ *
+ * 移除键时，已取出正在写入的同一键的条目被标记为作废：移除等待该次写入结束后返回，调用方随后的远程清除
+ * 因此排在旧值写入之后；作废的条目写入失败时也不再重新入队。
+ */
+public class WriteBehindQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    
+    private final RemoteCache<String, Object> remoteCache;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int capacity;
+    private final long maxBlockNanos;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    
+    // 按首次入队顺序保存的待写入条目，由lock保护
+    private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // 已取出、正在写入远程缓存的键，以及其中被移除而作废的键，由lock保护
+    private final Set<String> writing = new HashSet<>();
+    private final Set<String> superseded = new HashSet<>();
+    private final Condition written = lock.newCondition();
+    private final ScheduledExecutorService flushExecutor;
+    
+    // 统计信息
+    private final AtomicLong enqueuedCount = new AtomicLong(0);
+    private final AtomicLong coalescedCount = new AtomicLong(0);
+    private final AtomicLong flushedCount = new AtomicLong(0);
+    private final AtomicLong retriedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong directWriteCount = new AtomicLong(0);
+    
+    public WriteBehindQueue(RemoteCache<String, Object> remoteCache, TieredCacheProperties.SyncProperties syncProperties) {
+        TieredCacheProperties.WriteBehindProperties writeBehind = syncProperties.getWriteBehind();
+        this.remoteCache = remoteCache;
+        this.batchSize = Math.max(1, syncProperties.getBatchSize());
+        this.flushInterval = syncProperties.getFlushInterval();
+        this.capacity = Math.max(1, writeBehind.getCapacity());
+        this.maxBlockNanos = writeBehind.getMaxBlockTime().toNanos();
+        this.maxRetries = writeBehind.getMaxRetries();
+        this.retryBackoffNanos = writeBehind.getRetryBackoff().toNanos();
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        this.flushExecutor.scheduleWithFixedDelay(this::flushReady, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        
+        logger.info("Write-behind queue initialized with capacity: {}, batchSize: {}, flushInterval: {}",
+                   capacity, batchSize, flushInterval);
+    }
+    
+    /**
+     * 入队一次写入，同一键的未刷新写入会被覆盖
+     */
+    public void enqueue(String key, Object value, Duration ttl) {
+        lock.lock();
+        try {
+            PendingWrite existing = pending.get(key);
+            if (existing != null) {
+                pending.put(key, new PendingWrite(value, ttl));
+                coalescedCount.incrementAndGet();
+                return;
+            }
+            
+            long remaining = maxBlockNanos;
+            while (pending.size() >= capacity && remaining > 0) {
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (pending.size() < capacity) {
+                pending.put(key, new PendingWrite(value, ttl));
+                enqueuedCount.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        
+        // 队列已满（或等待被中断），退化为同步写入以形成背压
+        directWriteCount.incrementAndGet();
+        logger.debug("Write-behind queue full, writing key synchronously: {}", key);
+        writeDirect(key, value, ttl);
+    }
+    
+    /**
+     * 移除键的待写入条目，在清除缓存时调用以免旧值被写回；该键正在写入时等待写入结束
+     */
+    public void remove(String key) {
+        lock.lock();
+        try {
+            if (pending.remove(key) != null) {
+                notFull.signalAll();
+            }
+            if (writing.contains(key)) {
+                superseded.add(key);
+                while (writing.contains(key)) {
+                    written.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 丢弃所有待写入条目，并等待正在写入的条目写入结束
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            pending.clear();
+            notFull.signalAll();
+            superseded.addAll(writing);
+            while (!writing.isEmpty()) {
+                written.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 立即刷新所有待写入条目（忽略重试退避）
+     */
+    public void flush() {
+        drain(true);
+    }
+    
+    /**
+     * 停止定时刷新并写出剩余条目
+     */
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(flushInterval.toMillis() + 5000, TimeUnit.MILLISECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        int remaining = getPendingCount();
+        if (remaining > 0) {
+            logger.warn("Write-behind queue shut down with {} unflushed entries", remaining);
+        }
+        logger.info("Write-behind queue shut down, flushed: {}, coalesced: {}, dropped: {}",
+                   flushedCount.get(), coalescedCount.get(), droppedCount.get());
+    }
+    
+    /**
+     * 定时刷新到期的条目
+     */
+    private void flushReady() {
+        try {
+            drain(false);
+        } catch (Exception e) {
+            logger.error("Failed to flush write-behind queue", e);
+        }
+    }
+    
+    /**
+     * 分批取出条目并写入远程缓存
+     */
+    private void drain(boolean force) {
+        // 只处理本轮开始时已存在的条目，失败重新入队的条目留给下一轮
+        int remaining = getPendingCount();
+        while (remaining > 0) {
+            List<Map.Entry<String, PendingWrite>> batch = takeBatch(force);
+            if (batch.isEmpty()) {
+                break;
+            }
+            remaining -= batch.size();
+            try {
+                writeBatch(batch);
+            } finally {
+                finishBatch(batch);
+            }
+        }
+    }
+    
+    /**
+     * 取出一批可写入的条目
+     */
+    private List<Map.Entry<String, PendingWrite>> takeBatch(boolean force) {
+        List<Map.Entry<String, PendingWrite>> batch = new ArrayList<>(batchSize);
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, PendingWrite>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, PendingWrite> entry = iterator.next();
+                // 同一键同时只有一次写入，新值等上一次写入结束后再写，保持写入顺序
+                if ((force || entry.getValue().notBefore - now <= 0) && !writing.contains(entry.getKey())) {
+                    batch.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                    writing.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+    
+    /**
+     * 一批条目写入结束，唤醒等待其中的键的移除
+     */
+    private void finishBatch(List<Map.Entry<String, PendingWrite>> batch) {
+        lock.lock();
+        try {
+            for (Map.Entry<String, PendingWrite> entry : batch) {
+                writing.remove(entry.getKey());
+                superseded.remove(entry.getKey());
+            }
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 按TTL分组，以管道方式写入一批条目
+     */
+    private void writeBatch(List<Map.Entry<String, PendingWrite>> batch) {
+        Map<Duration, Map<String, Object>> byTtl = new HashMap<>();
+        for (Map.Entry<String, PendingWrite> entry : batch) {
+            PendingWrite write = entry.getValue();
+            byTtl.computeIfAbsent(write.ttl != null ? write.ttl : Duration.ZERO, ttl -> new HashMap<>())
+                 .put(entry.getKey(), write.value);
+        }
+        
+        for (Map.Entry<Duration, Map<String, Object>> group : byTtl.entrySet()) {
+            Map<String, Object> keyValues = group.getValue();
+            try {
+                if (group.getKey().isZero()) {
+                    remoteCache.multiPut(keyValues, remoteCache.getDefaultTtl());
+                } else {
+                    remoteCache.multiPut(keyValues, group.getKey());
+                }
+                flushedCount.addAndGet(keyValues.size());
+            } catch (Exception e) {
+                logger.warn("Failed to flush {} write-behind entries, scheduling retry", keyValues.size(), e);
+                requeue(batch, keyValues);
+            }
+        }
+    }
+    
+    /**
+     * 重新入队失败的条目，已被新写入覆盖或已被移除的键不再重试
+     */
+    private void requeue(List<Map.Entry<String, PendingWrite>> batch, Map<String, Object> failed) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            for (Map.Entry<String, PendingWrite> entry : batch) {
+                if (!failed.containsKey(entry.getKey()) || pending.containsKey(entry.getKey())
+                        || superseded.contains(entry.getKey())) {
+                    continue;
+                }
+                PendingWrite write = entry.getValue();
+                if (write.attempts >= maxRetries) {
+                    droppedCount.incrementAndGet();
+                    logger.error("Dropping write-behind entry after {} attempts for key: {}", write.attempts + 1, entry.getKey());
+                    continue;
+                }
+                long backoff = retryBackoffNanos << Math.min(write.attempts, 16);
+                pending.put(entry.getKey(), write.retry(now + backoff));
+                retriedCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 同步写入远程缓存
+     */
+    private void writeDirect(String key, Object value, Duration ttl) {
+        if (ttl != null) {
+            remoteCache.put(key, value, ttl);
+        } else {
+            remoteCache.put(key, value);
+        }
+    }
+    
+    /**
+     * 待写入的条目数
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 入队的条目数（不含合并）
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+    
+    /**
+     * 被后续写入覆盖而合并的写入数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+    
+    /**
+     * 已写入远程缓存的条目数
+     */
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+    
+    /**
+     * 重试的条目数
+     */
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+    
+    /**
+     * 重试耗尽后丢弃的条目数
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * 因队列已满而同步写入的次数
+     */
+    public long getDirectWriteCount() {
+        return directWriteCount.get();
+    }
+    
+    /**
+     * 待写入条目
+     */
+    private static final class PendingWrite {
+        private final Object value;
+        private final Duration ttl;
+        private final int attempts;
+        private final long notBefore;
+        
+        PendingWrite(Object value, Duration ttl) {
+            this(value, ttl, 0, System.nanoTime());
+        }
+        
+        private PendingWrite(Object value, Duration ttl, int attempts, long notBefore) {
+            this.value = value;
+            this.ttl = ttl;
+            this.attempts = attempts;
+            this.notBefore = notBefore;
+        }
+        
+        PendingWrite retry(long notBefore) {
+            return new PendingWrite(value, ttl, attempts + 1, notBefore);
+        }
+    }
+}
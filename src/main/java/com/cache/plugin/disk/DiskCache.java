@@ -0,0 +1,28 @@
+package com.cache.plugin.disk;
+
+import com.cache.plugin.core.TieredCache;
+
+/**
+ * 磁盘缓存接口
+ *
+ * 位于本地缓存与远程缓存之间的持久化层，以远程键（命名空间:键）存放所有区域的条目，进程重启后仍然可用。
+ */
+public interface DiskCache<K, V> extends TieredCache<K, V> {
+    
+    /**
+     * 压缩：重写存活条目占比过低的段文件，回收被覆盖、删除和过期条目占用的空间
+     *
+     * @return 回收的字节数
+     */
+    long compact();
+    
+    /**
+     * 段文件占用的磁盘空间（字节）
+     */
+    long getDiskUsage();
+    
+    /**
+     * 关闭磁盘缓存，刷新并关闭所有文件
+     */
+    void close();
+}
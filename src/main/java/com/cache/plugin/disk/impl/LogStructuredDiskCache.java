@@ -0,0 +1,645 @@
+package com.cache.plugin.disk.impl;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheStats;
+import com.cache.plugin.disk.DiskCache;
+import com.cache.plugin.exception.CacheException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 日志结构的磁盘缓存实现
+ *
+ * 写入以记录的形式追加到当前段文件，段写满后封存并以只读方式映射到内存（mmap），读取直接访问映射区；
+ * 堆上的索引记录每个键最新记录的位置。删除追加删除标记，启动时按段的顺序重放记录重建索引，
+ * 校验和不匹配的尾部（崩溃时写了一半的记录）被截断。
+ * 后台定期清除索引中的过期条目，并重写存活字节占比低于阈值的段；总大小超过上限时丢弃最早的段。
+ * 值经共享的编解码器（CacheCodecRegistry）编码，无法编码的值不写入磁盘；无法解码的记录（如旧版本写入的）按未命中处理并从索引中移除。
+ */
+public class LogStructuredDiskCache implements DiskCache<String, Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredDiskCache.class);
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    // 记录头：CRC32(4) 键长度(4) 值长度(4，删除标记为-1) 过期时间(8，0表示不过期)，随后是键和值的字节
+    private static final int HEADER_SIZE = 20;
+    private static final int TOMBSTONE = -1;
+    private static final long NO_EXPIRY = 0;
+    
+    private final TieredCacheProperties.DiskCacheProperties properties;
+    private final Path directory;
+    private final CacheCodecRegistry codecs;
+    private final long segmentSize;
+    private final ConcurrentMap<String, IndexEntry> index = new ConcurrentHashMap<>();
+    // 按序号排列的段，最后一个为当前写入的段
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // 追加、滚动和丢弃段由该锁串行化，读取不加锁
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService compactionExecutor;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    private Segment active;
+    private volatile boolean closed;
+    
+    public LogStructuredDiskCache(TieredCacheProperties.DiskCacheProperties properties) {
+        this(properties, new CacheCodecRegistry());
+    }
+    
+    /**
+     * @param codecs 值的编解码器，与远程缓存共享
+     */
+    public LogStructuredDiskCache(TieredCacheProperties.DiskCacheProperties properties, CacheCodecRegistry codecs) {
+        this.properties = properties;
+        this.codecs = codecs;
+        this.directory = Paths.get(properties.getPath());
+        this.segmentSize = Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+        try {
+            Files.createDirectories(directory);
+            recover();
+            synchronized (writeLock) {
+                active = openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+            }
+        } catch (IOException e) {
+            throw new CacheException("Failed to open disk cache at " + directory, e);
+        }
+        this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-disk-compaction");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = Math.max(1, properties.getCompactionInterval().toMillis());
+        compactionExecutor.scheduleWithFixedDelay(this::compactQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Disk cache opened at {} with {} entries in {} segments, maxSize: {}, segmentSize: {}",
+                   directory, index.size(), segments.size(), properties.getMaxSize(), properties.getSegmentSize());
+    }
+    
+    @Override
+    public Object get(String key) {
+        IndexEntry entry = key != null ? index.get(key) : null;
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (index.remove(key, entry)) {
+                entry.release();
+            }
+            missCount.incrementAndGet();
+            return null;
+        }
+        byte[] value = new byte[entry.valueLength];
+        try {
+            entry.segment.read(entry.valuePosition(), value);
+        } catch (Exception e) {
+            // 段在读取期间被压缩或丢弃
+            logger.debug("Failed to read key from disk cache: {}", key, e);
+            missCount.incrementAndGet();
+            return null;
+        }
+        try {
+            Object result = codecs.decode(value);
+            hitCount.incrementAndGet();
+            return result;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to decode value from disk cache for key: {}: {}", key, e.toString());
+            if (index.remove(key, entry)) {
+                entry.release();
+            }
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+    
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, properties.getDefaultTtl());
+    }
+    
+    /**
+     * 写入值；无法编码或超过段大小的值不写入磁盘，并移除该键的旧值
+     */
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        if (key == null || value == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = encode(key, value);
+        if (valueBytes == null || HEADER_SIZE + keyBytes.length + valueBytes.length > segmentSize) {
+            evict(key);
+            return;
+        }
+        long expireAt = ttl != null ? System.currentTimeMillis() + Math.max(0, ttl.toMillis()) : NO_EXPIRY;
+        synchronized (writeLock) {
+            IndexEntry entry = append(keyBytes, valueBytes, expireAt);
+            IndexEntry previous = index.put(key, entry);
+            if (previous != null) {
+                previous.release();
+            }
+            evictOldestSegments();
+        }
+        logger.debug("Put value to disk cache for key: {}, ttl: {}", key, ttl);
+    }
+    
+    @Override
+    public void evict(String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            IndexEntry previous = index.remove(key);
+            if (previous != null) {
+                previous.release();
+                // 删除标记使重启后不会从更早的记录中恢复该键
+                append(key.getBytes(StandardCharsets.UTF_8), null, NO_EXPIRY);
+            }
+        }
+    }
+    
+    /**
+     * 删除所有段文件并从空段重新开始
+     */
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            ensureOpen();
+            index.clear();
+            for (Segment segment : segments.values()) {
+                segment.delete();
+            }
+            long next = segments.lastKey() + 1;
+            segments.clear();
+            try {
+                active = openSegment(next);
+            } catch (IOException e) {
+                closed = true;
+                throw new CacheException("Failed to reset disk cache at " + directory, e);
+            }
+        }
+        logger.info("Cleared all entries from disk cache at {}", directory);
+    }
+    
+    @Override
+    public boolean containsKey(String key) {
+        IndexEntry entry = key != null ? index.get(key) : null;
+        return entry != null && !entry.isExpired(System.currentTimeMillis());
+    }
+    
+    @Override
+    public long size() {
+        return index.size();
+    }
+    
+    @Override
+    public Map<String, Object> multiGet(Set<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (String key : keys) {
+            Object value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public void multiPut(Map<String, Object> keyValues) {
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    @Override
+    public void multiEvict(Set<String> keys) {
+        for (String key : keys) {
+            evict(key);
+        }
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.get(), missCount.get(), 0, evictionCount.get(), 0.0);
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return !closed;
+    }
+    
+    /**
+     * 清除索引中的过期条目，再重写存活字节占比低于 compactionThreshold 的已封存段
+     *
+     * 存活条目被追加到当前段，段中的删除标记和已过期、已删除的记录在还有更早的段时转为删除标记保留，
+     * 避免重启时从更早的段中恢复已删除的键。
+     */
+    @Override
+    public long compact() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            if (entry.getValue().isExpired(now) && index.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().release();
+            }
+        }
+        long reclaimed = 0;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment == active || !segment.sealed) {
+                continue;
+            }
+            double liveRatio = segment.size == 0 ? 0 : (double) segment.liveBytes.get() / segment.size;
+            if (liveRatio < properties.getCompactionThreshold()) {
+                reclaimed += compactSegment(segment);
+            }
+        }
+        if (reclaimed > 0) {
+            logger.info("Compacted disk cache at {}, reclaimed {} bytes", directory, reclaimed);
+        }
+        return reclaimed;
+    }
+    
+    @Override
+    public long getDiskUsage() {
+        long usage = 0;
+        for (Segment segment : segments.values()) {
+            usage += segment.size;
+        }
+        return usage;
+    }
+    
+    @Override
+    public void close() {
+        compactionExecutor.shutdown();
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+        logger.info("Closed disk cache at {}", directory);
+    }
+    
+    /**
+     * 磁盘缓存所在目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.warn("Failed to compact disk cache at {}", directory, e);
+        }
+    }
+    
+    private long compactSegment(Segment segment) {
+        long copied = 0;
+        try {
+            ByteBuffer buffer = segment.mapped.duplicate();
+            long position = 0;
+            while (position < segment.size) {
+                ((Buffer) buffer).position((int) position + 4);
+                int keyLength = buffer.getInt();
+                int valueLength = buffer.getInt();
+                long expireAt = buffer.getLong();
+                byte[] keyBytes = new byte[keyLength];
+                buffer.get(keyBytes);
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                int recordSize = HEADER_SIZE + keyLength + Math.max(0, valueLength);
+                synchronized (writeLock) {
+                    if (closed || !segments.containsKey(segment.id)) {
+                        return 0;
+                    }
+                    IndexEntry entry = index.get(key);
+                    if (entry != null && entry.segment == segment && entry.position == position) {
+                        byte[] valueBytes = new byte[valueLength];
+                        buffer.get(valueBytes);
+                        IndexEntry moved = append(keyBytes, valueBytes, expireAt);
+                        index.put(key, moved);
+                        entry.release();
+                        copied += recordSize;
+                    } else if (entry == null && segments.firstKey() < segment.id) {
+                        append(keyBytes, null, NO_EXPIRY);
+                        copied += HEADER_SIZE + keyLength;
+                    }
+                }
+                position += recordSize;
+            }
+            synchronized (writeLock) {
+                if (segments.remove(segment.id, segment)) {
+                    segment.delete();
+                }
+                evictOldestSegments();
+            }
+            return Math.max(0, segment.size - copied);
+        } catch (Exception e) {
+            logger.warn("Failed to compact disk cache segment {}", segment.path, e);
+            return 0;
+        }
+    }
+    
+    /**
+     * 追加一条记录（value为null时为删除标记），当前段写满时先滚动到新段
+     */
+    private IndexEntry append(byte[] keyBytes, byte[] valueBytes, long expireAt) {
+        ensureOpen();
+        int recordSize = HEADER_SIZE + keyBytes.length + (valueBytes != null ? valueBytes.length : 0);
+        try {
+            if (active.size > 0 && active.size + recordSize > segmentSize) {
+                roll();
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            record.putInt(0);
+            record.putInt(keyBytes.length);
+            record.putInt(valueBytes != null ? valueBytes.length : TOMBSTONE);
+            record.putLong(expireAt);
+            record.put(keyBytes);
+            if (valueBytes != null) {
+                record.put(valueBytes);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 4, recordSize - 4);
+            record.putInt(0, (int) crc.getValue());
+            ((Buffer) record).flip();
+            long position = active.size;
+            while (record.hasRemaining()) {
+                active.channel.write(record, position + record.position());
+            }
+            if (properties.isSyncWrites()) {
+                active.channel.force(false);
+            }
+            active.size += recordSize;
+            if (valueBytes == null) {
+                return null;
+            }
+            active.liveBytes.addAndGet(recordSize);
+            return new IndexEntry(active, position, keyBytes.length, valueBytes.length, expireAt);
+        } catch (IOException e) {
+            throw new CacheException("Failed to append to disk cache segment " + active.path, e);
+        }
+    }
+    
+    /**
+     * 封存当前段并映射到内存，打开下一个段
+     */
+    private void roll() throws IOException {
+        active.seal();
+        active = openSegment(active.id + 1);
+    }
+    
+    /**
+     * 总大小超过上限时丢弃最早的已封存段，其中的条目从索引中移除
+     */
+    private void evictOldestSegments() {
+        long maxSize = properties.getMaxSize().toBytes();
+        while (segments.size() > 1 && getDiskUsage() > maxSize) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                if (entry.getValue().segment == oldest && index.remove(entry.getKey(), entry.getValue())) {
+                    evictionCount.incrementAndGet();
+                }
+            }
+            oldest.delete();
+            logger.debug("Dropped oldest disk cache segment {}", oldest.path);
+        }
+    }
+    
+    private Segment openSegment(long id) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, path, FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segments.put(id, segment);
+        return segment;
+    }
+    
+    /**
+     * 按序号重放所有段重建索引：后写入的记录覆盖先写入的，删除标记移除键，最后移除已过期的条目
+     */
+    private void recover() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in disk cache directory: {}", path);
+                }
+            }
+        }
+        ids.sort(null);
+        for (long id : ids) {
+            Segment segment = openSegment(id);
+            replay(segment);
+            if (segment.size == 0) {
+                segments.remove(id);
+                segment.delete();
+            } else {
+                segment.seal();
+            }
+        }
+        long now = System.currentTimeMillis();
+        index.entrySet().removeIf(entry -> {
+            if (entry.getValue().isExpired(now)) {
+                entry.getValue().release();
+                return true;
+            }
+            return false;
+        });
+    }
+    
+    private void replay(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        while (position + HEADER_SIZE <= fileSize) {
+            ((Buffer) header).clear();
+            readFully(segment.channel, header, position);
+            int checksum = header.getInt(0);
+            int keyLength = header.getInt(4);
+            int valueLength = header.getInt(8);
+            long expireAt = header.getLong(12);
+            long recordSize = HEADER_SIZE + (long) keyLength + Math.max(0, valueLength);
+            if (keyLength < 0 || valueLength < TOMBSTONE || position + recordSize > fileSize) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate((int) recordSize - HEADER_SIZE);
+            readFully(segment.channel, body, position + HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 4, HEADER_SIZE - 4);
+            crc.update(body.array(), 0, body.capacity());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            IndexEntry previous;
+            if (valueLength == TOMBSTONE) {
+                previous = index.remove(key);
+            } else {
+                segment.liveBytes.addAndGet(recordSize);
+                previous = index.put(key, new IndexEntry(segment, position, keyLength, valueLength, expireAt));
+            }
+            if (previous != null) {
+                previous.release();
+            }
+            position += recordSize;
+        }
+        if (position < fileSize) {
+            logger.warn("Truncating disk cache segment {} at {} of {} bytes (incomplete or corrupt record)",
+                       segment.path, position, fileSize);
+            segment.channel.truncate(position);
+        }
+        segment.size = position;
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+    
+    private byte[] encode(String key, Object value) {
+        try {
+            return codecs.encode(value);
+        } catch (RuntimeException e) {
+            logger.debug("Value of type {} for key: {} cannot be stored in disk cache", value.getClass().getName(), key, e);
+            return null;
+        }
+    }
+    
+    private void ensureOpen() {
+        if (closed) {
+            throw new CacheException("Disk cache at " + directory + " is closed");
+        }
+    }
+    
+    /**
+     * 段文件
+     */
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        // 存活记录的字节数，记录被覆盖、删除或过期时减少
+        final AtomicLong liveBytes = new AtomicLong();
+        // 已写入的字节数，由写锁保护
+        volatile long size;
+        // 封存后的只读映射
+        volatile MappedByteBuffer mapped;
+        volatile boolean sealed;
+        
+        Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+        
+        void read(long position, byte[] target) throws IOException {
+            MappedByteBuffer buffer = mapped;
+            if (buffer != null) {
+                ByteBuffer view = buffer.duplicate();
+                ((Buffer) view).position((int) position);
+                view.get(target);
+            } else {
+                readFully(channel, ByteBuffer.wrap(target), position);
+            }
+        }
+        
+        void seal() throws IOException {
+            channel.force(false);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            sealed = true;
+        }
+        
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close disk cache segment {}", path, e);
+            }
+        }
+        
+        /**
+         * 关闭并删除段文件，已建立的映射在被回收前仍可读取
+         */
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete disk cache segment {}", path, e);
+            }
+        }
+    }
+    
+    /**
+     * 索引条目：键最新记录的位置与过期时间
+     */
+    private static final class IndexEntry {
+        final Segment segment;
+        final long position;
+        final int keyLength;
+        final int valueLength;
+        final long expireAt;
+        
+        IndexEntry(Segment segment, long position, int keyLength, int valueLength, long expireAt) {
+            this.segment = segment;
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+            this.expireAt = expireAt;
+        }
+        
+        long valuePosition() {
+            return position + HEADER_SIZE + keyLength;
+        }
+        
+        boolean isExpired(long now) {
+            return expireAt != NO_EXPIRY && now >= expireAt;
+        }
+        
+        /**
+         * 记录不再是键的最新值，从所在段的存活字节中扣除
+         */
+        void release() {
+            segment.liveBytes.addAndGet(-(HEADER_SIZE + keyLength + valueLength));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cache.plugin.exception;
+
+/**
+ * 缓存值加载异常，cause为加载器抛出的原始异常
+ */
+public class CacheLoadException extends CacheException {
+    
+    public CacheLoadException() {
+        super("Cache value load failed");
+    }
+    
+    public CacheLoadException(String message) {
+        super(message);
+    }
+    
+    public CacheLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
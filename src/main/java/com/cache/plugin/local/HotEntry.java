@@ -0,0 +1,35 @@
+package com.cache.plugin.local;
+
+import java.time.Duration;
+
+/**
+ * 本地缓存中的热点条目及其剩余写入寿命，用于保存和恢复预热快照
+ * 
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class HotEntry<K, V> {
+    
+    private final K key;
+    private final V value;
+    // 剩余写入寿命，null表示沿用本地缓存的默认过期时间
+    private final Duration remainingTtl;
+    
+    public HotEntry(K key, V value, Duration remainingTtl) {
+        this.key = key;
+        this.value = value;
+        this.remainingTtl = remainingTtl;
+    }
+    
+    public K getKey() {
+        return key;
+    }
+    
+    public V getValue() {
+        return value;
+    }
+    
+    public Duration getRemainingTtl() {
+        return remainingTtl;
+    }
+}
@@ -1,8 +1,10 @@
 package com.cache.plugin.local;
 
+import com.cache.plugin.core.CacheKey;
 import com.cache.plugin.core.TieredCache;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * 本地缓存接口
@@ -33,6 +35,20 @@ public interface LocalCache<K, V> extends TieredCache<K, V> {
      */
     void setExpireAfterAccess(Duration duration);
     
+    /**
+     * 获取写入后过期时间
+     * 
+     * @return 过期时间，null表示不过期
+     */
+    Duration getExpireAfterWrite();
+    
+    /**
+     * 获取访问后过期时间
+     * 
+     * @return 过期时间，null表示不过期
+     */
+    Duration getExpireAfterAccess();
+    
     /**
      * 获取当前缓存大小
      * 
@@ -52,6 +68,74 @@ public interface LocalCache<K, V> extends TieredCache<K, V> {
      */
     void cleanUp();
     
+    /**
+     * 固定键，使其不被容量驱逐、不因过期而移除，之后写入的值同样被固定，直到取消固定；
+     * 显式清除仍会移除条目
+     * 
+     * @param key 缓存键
+     */
+    void pin(K key);
+    
+    /**
+     * 取消固定键，条目恢复原有的驱逐与过期策略
+     * 
+     * @param key 缓存键
+     */
+    void unpin(K key);
+    
+    /**
+     * 键是否被固定
+     * 
+     * @param key 缓存键
+     * @return 是否被固定
+     */
+    boolean isPinned(K key);
+    
+    /**
+     * 按热度从高到低返回最多limit个未过期的条目，用于保存预热快照
+     * 
+     * @param limit 最大条目数
+     * @return 按热度排序的条目
+     */
+    List<HotEntry<K, V>> hottest(int limit);
+    
+    /**
+     * 获取条目自写入以来的时间，不计为一次读取
+     * 
+     * @param key 缓存键
+     * @return 写入至今的时间，条目不存在或实现不记录写入时间时返回null
+     */
+    default Duration getAge(K key) {
+        return null;
+    }
+    
+    /**
+     * 获取条目的剩余写入寿命（不计空闲过期），不计为一次读取
+     * 
+     * @param key 缓存键
+     * @return 剩余寿命，条目不存在、不过期（如被固定）或实现不记录时返回null
+     */
+    default Duration getRemainingTtl(K key) {
+        return null;
+    }
+    
+    /**
+     * 按紧凑键对象读取，不构造键字符串，不计为一次未命中；实现应保证与按其字符串形式读写的是同一个条目
+     * 
+     * @param key 紧凑键
+     * @return 缓存值，未命中或实现不支持按键对象查找时返回null，由调用方按字符串形式查找
+     */
+    default V getIfPresent(CacheKey key) {
+        return null;
+    }
+    
+    /**
+     * 释放缓存占用的资源（如堆外内存），关闭后不再使用；默认清空所有条目
+     */
+    default void close() {
+        clear();
+    }
+    
     /**
      * 获取缓存名称
      * 
@@ -0,0 +1,19 @@
+package com.cache.plugin.local;
+
+import com.cache.plugin.config.TieredCacheProperties;
+
+/**
+ * 本地缓存工厂，为每个缓存区域创建独立的本地缓存实例
+ */
+@FunctionalInterface
+public interface LocalCacheFactory {
+    
+    /**
+     * 创建本地缓存
+     * 
+     * @param name 区域名称
+     * @param properties 区域的本地缓存配置
+     * @return 本地缓存实例
+     */
+    LocalCache<String, Object> create(String name, TieredCacheProperties.LocalCacheProperties properties);
+}
@@ -0,0 +1,16 @@
+package com.cache.plugin.local;
+
+/**
+ * 缓存值大小估算器，用于按字节预算（maxWeight）驱逐本地缓存
+ */
+@FunctionalInterface
+public interface ValueSizeEstimator {
+    
+    /**
+     * 估算值占用的字节数
+     * 
+     * @param value 缓存值，不为null
+     * @return 估算的字节数，返回0的条目不计入预算
+     */
+    long estimate(Object value);
+}
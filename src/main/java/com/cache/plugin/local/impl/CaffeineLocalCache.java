@@ -1,55 +1,113 @@
 package com.cache.plugin.local.impl;
 
 import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheKey;
 import com.cache.plugin.core.CacheStats;
 import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.local.HotEntry;
 import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.local.ValueSizeEstimator;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Caffeine本地缓存实现
+ *
+ * 基于Caffeine的可变过期（Expiry）：每个条目的写入寿命为put时指定的TTL，未指定时为expireAfterWrite；
+ * 配置了expireAfterAccess时，条目空闲超过该时间也会过期，但不会超过其写入寿命。
+ * 最大容量与过期时间可在运行时通过Caffeine的policy()调整，无需重建缓存。
+ * 配置maxWeight时按估算的字节数驱逐，此时maxSize相关方法均以字节为单位。
+ * 被固定（pin）的条目权重为0且不过期，不占用容量也不会被驱逐。
+ * 紧凑键（{@link CacheKey}）的字符串形式还原为键对象存放，按键对象读取时不构造键字符串。
  */
 public class CaffeineLocalCache implements LocalCache<String, Object> {
     
     private static final Logger logger = LoggerFactory.getLogger(CaffeineLocalCache.class);
     
-    private final Cache<String, Object> cache;
+    // 键字符串与条目包装的固定开销（字节）
+    private static final int ESTIMATED_KEY_OVERHEAD = 64;
+    
+    // 键为字符串或紧凑键
+    private final Cache<Object, LocalEntry> cache;
     private final String name;
     private final TieredCacheProperties.LocalCacheProperties properties;
+    private final Ticker ticker;
+    private final EntryExpiry expiry;
+    private final ValueSizeEstimator sizeEstimator;
+    private final boolean weighted;
+    private final Set<Object> pinnedKeys = ConcurrentHashMap.newKeySet();
+    // 按紧凑键对象命中的次数，这类读取不计入Caffeine的统计
+    private final LongAdder keyHits = new LongAdder();
+    // 最大条目数，按权重驱逐时为字节预算
+    private volatile long maxSize;
     
     public CaffeineLocalCache(TieredCacheProperties.LocalCacheProperties properties) {
+        this("caffeine-local-cache", properties);
+    }
+    
+    public CaffeineLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties) {
+        this(name, properties, null);
+    }
+    
+    /**
+     * @param sizeEstimator 按权重驱逐时使用的估算器，为null时按 weigher 配置选择
+     */
+    public CaffeineLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, ValueSizeEstimator sizeEstimator) {
+        this(name, properties, sizeEstimator, null);
+    }
+    
+    /**
+     * @param sizeEstimator 按权重驱逐时使用的估算器，为null时按 weigher 配置选择
+     * @param ticker 过期判断使用的计时器，为null时使用系统计时器
+     */
+    public CaffeineLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, ValueSizeEstimator sizeEstimator,
+                              Ticker ticker) {
         this.properties = properties;
-        this.name = "caffeine-local-cache";
+        this.name = name;
+        this.ticker = ticker != null ? ticker : Ticker.systemTicker();
+        this.weighted = properties.getMaxWeight() != null;
+        this.maxSize = weighted ? properties.getMaxWeight().toBytes() : properties.getMaxSize();
+        this.sizeEstimator = sizeEstimator != null ? sizeEstimator : createSizeEstimator(properties.getWeigher());
+        this.expiry = new EntryExpiry(toNanos(properties.getExpireAfterWrite()), toNanos(properties.getExpireAfterAccess()));
         this.cache = buildCache(properties);
-        logger.info("Caffeine local cache initialized with maxSize: {}, expireAfterWrite: {}, expireAfterAccess: {}", 
-                   properties.getMaxSize(), properties.getExpireAfterWrite(), properties.getExpireAfterAccess());
+        logger.info("Caffeine local cache '{}' initialized with {}: {}, expireAfterWrite: {}, expireAfterAccess: {}", 
+                   name, weighted ? "maxWeight" : "maxSize", maxSize, properties.getExpireAfterWrite(), properties.getExpireAfterAccess());
     }
     
     /**
      * 构建Caffeine缓存
      */
-    private Cache<String, Object> buildCache(TieredCacheProperties.LocalCacheProperties properties) {
+    private Cache<Object, LocalEntry> buildCache(TieredCacheProperties.LocalCacheProperties properties) {
         Caffeine<Object, Object> builder = Caffeine.newBuilder()
-                .maximumSize(properties.getMaxSize())
-                .initialCapacity(properties.getInitialCapacity());
+                .initialCapacity(properties.getInitialCapacity())
+                .ticker(ticker);
         
-        // 设置写入后过期时间
-        if (properties.getExpireAfterWrite() != null) {
-            builder.expireAfterWrite(properties.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS);
-        }
+        // 按条目数或估算的字节数限制容量，固定的条目权重为0
+        builder.maximumWeight(maxSize).weigher(this::weigh);
         
-        // 设置访问后过期时间
-        if (properties.getExpireAfterAccess() != null) {
-            builder.expireAfterAccess(properties.getExpireAfterAccess().toMillis(), TimeUnit.MILLISECONDS);
+        // 按条目计算过期时间
+        builder.expireAfter(expiry);
+        
+        // 由调度线程及时清除过期条目，而不是等到下一次读写时顺带清理
+        if (properties.isScheduledExpiry()) {
+            builder.scheduler(Scheduler.systemScheduler());
         }
         
         // 启用统计
@@ -63,7 +121,8 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     @Override
     public Object get(String key) {
         try {
-            return cache.getIfPresent(key);
+            LocalEntry entry = cache.getIfPresent(keyOf(key));
+            return entry != null ? entry.value : null;
         } catch (Exception e) {
             logger.error("Failed to get value from local cache for key: {}", key, e);
             return null;
@@ -72,10 +131,16 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     
     @Override
     public void put(String key, Object value) {
+        put(key, value, null);
+    }
+    
+    @Override
+    public void put(String key, Object value, Duration ttl) {
         try {
             if (key != null && value != null) {
-                cache.put(key, value);
-                logger.debug("Put value to local cache for key: {}", key);
+                Object localKey = keyOf(key);
+                cache.put(localKey, newEntry(localKey, value, ttl));
+                logger.debug("Put value to local cache for key: {}, ttl: {}", key, ttl);
             }
         } catch (Exception e) {
             logger.error("Failed to put value to local cache for key: {}", key, e);
@@ -83,16 +148,10 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
         }
     }
     
-    @Override
-    public void put(String key, Object value, Duration ttl) {
-        // Caffeine不支持单独设置TTL，使用默认的过期策略
-        put(key, value);
-    }
-    
     @Override
     public void evict(String key) {
         try {
-            cache.invalidate(key);
+            cache.invalidate(keyOf(key));
             logger.debug("Evicted key from local cache: {}", key);
         } catch (Exception e) {
             logger.error("Failed to evict key from local cache: {}", key, e);
@@ -114,7 +173,7 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     @Override
     public boolean containsKey(String key) {
         try {
-            return cache.getIfPresent(key) != null;
+            return get(key) != null;
         } catch (Exception e) {
             logger.error("Failed to check if local cache contains key: {}", key, e);
             return false;
@@ -136,9 +195,9 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
         try {
             Map<String, Object> result = new HashMap<>();
             for (String key : keys) {
-                Object value = cache.getIfPresent(key);
-                if (value != null) {
-                    result.put(key, value);
+                LocalEntry entry = cache.getIfPresent(keyOf(key));
+                if (entry != null) {
+                    result.put(key, entry.value);
                 }
             }
             return result;
@@ -151,7 +210,14 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     @Override
     public void multiPut(Map<String, Object> keyValues) {
         try {
-            cache.putAll(keyValues);
+            Map<Object, LocalEntry> entries = new HashMap<>();
+            for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    Object localKey = keyOf(entry.getKey());
+                    entries.put(localKey, newEntry(localKey, entry.getValue(), null));
+                }
+            }
+            cache.putAll(entries);
             logger.debug("Multi put {} entries to local cache", keyValues.size());
         } catch (Exception e) {
             logger.error("Failed to multi put to local cache", e);
@@ -162,7 +228,11 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     @Override
     public void multiEvict(Set<String> keys) {
         try {
-            cache.invalidateAll(keys);
+            List<Object> localKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                localKeys.add(keyOf(key));
+            }
+            cache.invalidateAll(localKeys);
             logger.debug("Multi evicted {} keys from local cache", keys.size());
         } catch (Exception e) {
             logger.error("Failed to multi evict from local cache", e);
@@ -175,7 +245,7 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
         try {
             com.github.benmanes.caffeine.cache.stats.CacheStats caffeineStats = cache.stats();
             return new CacheStats(
-                caffeineStats.hitCount(),
+                caffeineStats.hitCount() + keyHits.sum(),
                 caffeineStats.missCount(),
                 caffeineStats.loadCount(),
                 caffeineStats.evictionCount(),
@@ -194,23 +264,55 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     
     @Override
     public void setMaxSize(long maxSize) {
-        // Caffeine不支持动态修改最大大小，需要重建缓存
-        logger.warn("Caffeine cache does not support dynamic max size change. Current maxSize: {}, requested: {}", 
-                   properties.getMaxSize(), maxSize);
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        // 缩容时超出部分由Caffeine按淘汰策略立即驱逐
+        Optional<Policy.Eviction<Object, LocalEntry>> eviction = cache.policy().eviction();
+        if (!eviction.isPresent()) {
+            logger.warn("Local cache '{}' is not size bounded, ignoring maxSize change to {}", name, maxSize);
+            return;
+        }
+        long previous = this.maxSize;
+        eviction.get().setMaximum(maxSize);
+        this.maxSize = maxSize;
+        logger.info("Resized local cache '{}' from maxSize {} to {}", name, previous, maxSize);
     }
     
     @Override
     public void setExpireAfterWrite(Duration duration) {
-        // Caffeine不支持动态修改过期时间，需要重建缓存
-        logger.warn("Caffeine cache does not support dynamic expire time change. Current expireAfterWrite: {}, requested: {}", 
-                   properties.getExpireAfterWrite(), duration);
+        expiry.expireAfterWriteNanos = toNanos(duration);
+        reschedule();
+        logger.info("Changed expireAfterWrite of local cache '{}' to {}", name, duration);
     }
     
     @Override
     public void setExpireAfterAccess(Duration duration) {
-        // Caffeine不支持动态修改过期时间，需要重建缓存
-        logger.warn("Caffeine cache does not support dynamic expire time change. Current expireAfterAccess: {}, requested: {}", 
-                   properties.getExpireAfterAccess(), duration);
+        expiry.expireAfterAccessNanos = toNanos(duration);
+        reschedule();
+        logger.info("Changed expireAfterAccess of local cache '{}' to {}", name, duration);
+    }
+    
+    /**
+     * 按新的过期配置重新计算已有条目的过期时间，空闲时间从调整时刻起重新计算
+     */
+    private void reschedule() {
+        cache.policy().expireVariably().ifPresent(expiration -> {
+            long now = ticker.read();
+            for (Map.Entry<Object, LocalEntry> entry : cache.asMap().entrySet()) {
+                expiration.setExpiresAfter(entry.getKey(), expiry.remaining(entry.getValue(), now), TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+    
+    @Override
+    public Duration getExpireAfterWrite() {
+        return toDuration(expiry.expireAfterWriteNanos);
+    }
+    
+    @Override
+    public Duration getExpireAfterAccess() {
+        return toDuration(expiry.expireAfterAccessNanos);
     }
     
     @Override
@@ -220,7 +322,7 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
     
     @Override
     public long getMaxSize() {
-        return properties.getMaxSize();
+        return maxSize;
     }
     
     @Override
@@ -233,15 +335,218 @@ public class CaffeineLocalCache implements LocalCache<String, Object> {
         }
     }
     
+    @Override
+    public void pin(String key) {
+        Object localKey = keyOf(key);
+        if (pinnedKeys.add(localKey)) {
+            // 重新包装已有条目，使权重与过期时间按固定状态重新计算
+            cache.asMap().computeIfPresent(localKey, (k, entry) -> entry.withPinned(true));
+            logger.debug("Pinned key in local cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public void unpin(String key) {
+        Object localKey = keyOf(key);
+        if (pinnedKeys.remove(localKey)) {
+            cache.asMap().computeIfPresent(localKey, (k, entry) -> entry.withPinned(false));
+            logger.debug("Unpinned key in local cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public boolean isPinned(String key) {
+        return pinnedKeys.contains(keyOf(key));
+    }
+    
+    @Override
+    public List<HotEntry<String, Object>> hottest(int limit) {
+        List<HotEntry<String, Object>> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        try {
+            // 有容量限制时按Caffeine的频率与最近访问顺序取最热的条目，否则按任意顺序截取
+            Map<Object, LocalEntry> entries = cache.policy().eviction()
+                    .map(eviction -> eviction.hottest(limit))
+                    .orElseGet(cache::asMap);
+            long now = ticker.read();
+            for (Map.Entry<Object, LocalEntry> entry : entries.entrySet()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                LocalEntry localEntry = entry.getValue();
+                long lifetime = expiry.remainingLifetime(localEntry, now);
+                if (lifetime > 0) {
+                    result.add(new HotEntry<>(entry.getKey().toString(), localEntry.value, toDuration(lifetime)));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to collect hottest entries from local cache '{}'", name, e);
+        }
+        return result;
+    }
+    
+    @Override
+    public Duration getAge(String key) {
+        LocalEntry entry = key != null ? cache.asMap().get(keyOf(key)) : null;
+        return entry != null ? Duration.ofNanos(Math.max(0, ticker.read() - entry.writeTime)) : null;
+    }
+    
+    @Override
+    public Duration getRemainingTtl(String key) {
+        LocalEntry entry = key != null ? cache.asMap().get(keyOf(key)) : null;
+        return entry != null ? toDuration(expiry.remainingLifetime(entry, ticker.read())) : null;
+    }
+    
+    @Override
+    public Object getIfPresent(CacheKey key) {
+        // asMap读取同样更新访问顺序和空闲过期，但不计入Caffeine的统计
+        LocalEntry entry = cache.asMap().get(key);
+        if (entry == null) {
+            return null;
+        }
+        keyHits.increment();
+        return entry.value;
+    }
+    
     @Override
     public String getName() {
         return name;
     }
     
     /**
-     * 获取底层Caffeine缓存实例
+     * 获取底层Caffeine缓存实例，键为字符串或紧凑键，值为带过期信息的内部条目
+     *
+     * 与早期的 {@code Cache<String, Object>} 不兼容，缓存值应通过 {@link LocalCache} 的方法读写
      */
-    public Cache<String, Object> getNativeCache() {
+    public Cache<Object, ?> getNativeCache() {
         return cache;
     }
+    
+    /**
+     * 紧凑键的字符串形式还原为键对象，其余键原样返回
+     */
+    private static Object keyOf(String key) {
+        if (CacheKey.isEncoded(key)) {
+            CacheKey cacheKey = CacheKey.parse(key);
+            if (cacheKey != null) {
+                return cacheKey;
+            }
+        }
+        return key;
+    }
+    
+    /**
+     * 包装值并记录写入时间，ttl为null时写入寿命跟随expireAfterWrite
+     */
+    private LocalEntry newEntry(Object key, Object value, Duration ttl) {
+        long ttlNanos = ttl != null ? Math.max(0, ttl.toNanos()) : LocalEntry.DEFAULT_TTL;
+        return new LocalEntry(value, ticker.read(), ttlNanos, pinnedKeys.contains(key));
+    }
+    
+    /**
+     * 计算条目权重：按条目数限制时为1，按权重限制时为键与值的估算字节数，固定的条目为0
+     */
+    private int weigh(Object key, LocalEntry entry) {
+        if (entry.pinned) {
+            return 0;
+        }
+        if (!weighted) {
+            return 1;
+        }
+        long size = ESTIMATED_KEY_OVERHEAD + key.toString().length() * 2L + sizeEstimator.estimate(entry.value);
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+    
+    /**
+     * 按名称创建值大小估算器
+     */
+    private static ValueSizeEstimator createSizeEstimator(String weigher) {
+        if ("serialized".equalsIgnoreCase(weigher)) {
+            return new SerializedSizeEstimator();
+        }
+        return new ReflectiveSizeEstimator();
+    }
+    
+    /**
+     * 转换为纳秒，null表示不过期
+     */
+    private static long toNanos(Duration duration) {
+        return duration != null ? duration.toNanos() : Long.MAX_VALUE;
+    }
+    
+    /**
+     * 纳秒转换为时长，Long.MAX_VALUE表示不过期
+     */
+    private static Duration toDuration(long nanos) {
+        return nanos == Long.MAX_VALUE ? null : Duration.ofNanos(nanos);
+    }
+    
+    /**
+     * 本地缓存条目
+     */
+    private static final class LocalEntry {
+        // 未单独指定TTL，写入寿命跟随当前的expireAfterWrite
+        private static final long DEFAULT_TTL = -1;
+        
+        private final Object value;
+        private final long writeTime;
+        private final long ttlNanos;
+        private final boolean pinned;
+        
+        LocalEntry(Object value, long writeTime, long ttlNanos, boolean pinned) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.ttlNanos = ttlNanos;
+            this.pinned = pinned;
+        }
+        
+        LocalEntry withPinned(boolean pinned) {
+            return pinned == this.pinned ? this : new LocalEntry(value, writeTime, ttlNanos, pinned);
+        }
+    }
+    
+    /**
+     * 条目过期策略：写入寿命与空闲时间取先到者，过期时间可在运行时调整
+     */
+    private static final class EntryExpiry implements Expiry<Object, LocalEntry> {
+        private volatile long expireAfterWriteNanos;
+        private volatile long expireAfterAccessNanos;
+        
+        EntryExpiry(long expireAfterWriteNanos, long expireAfterAccessNanos) {
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+            this.expireAfterAccessNanos = expireAfterAccessNanos;
+        }
+        
+        @Override
+        public long expireAfterCreate(Object key, LocalEntry entry, long currentTime) {
+            return remaining(entry, currentTime);
+        }
+        
+        @Override
+        public long expireAfterUpdate(Object key, LocalEntry entry, long currentTime, long currentDuration) {
+            return remaining(entry, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(Object key, LocalEntry entry, long currentTime, long currentDuration) {
+            return remaining(entry, currentTime);
+        }
+        
+        long remaining(LocalEntry entry, long currentTime) {
+            return Math.min(remainingLifetime(entry, currentTime), expireAfterAccessNanos);
+        }
+        
+        /**
+         * 剩余写入寿命（不计空闲时间），固定的条目和不过期的条目返回Long.MAX_VALUE
+         */
+        long remainingLifetime(LocalEntry entry, long currentTime) {
+            if (entry.pinned) {
+                return Long.MAX_VALUE;
+            }
+            long lifetime = entry.ttlNanos != LocalEntry.DEFAULT_TTL ? entry.ttlNanos : expireAfterWriteNanos;
+            return lifetime == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, lifetime - (currentTime - entry.writeTime));
+        }
+    }
 }
\ No newline at end of file
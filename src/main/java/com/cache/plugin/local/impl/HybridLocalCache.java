@@ -0,0 +1,273 @@
+package com.cache.plugin.local.impl;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheKey;
+import com.cache.plugin.core.CacheStats;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.local.ValueSizeEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 堆内与堆外组合的本地缓存
+ *
+ * 小容量的Caffeine缓存（L1）存放解码后的热点对象，堆外缓存（L1.5）以字节形式存放更大的工作集。
+ * 写入同时进入两层，L1驱逐的条目仍可从堆外读取并按剩余寿命提升回L1；清除与固定同时作用于两层。
+ * maxSize相关方法作用于L1，堆外层的预算由 offHeap.maxMemory 决定。
+ */
+public class HybridLocalCache implements LocalCache<String, Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HybridLocalCache.class);
+    
+    private final String name;
+    private final CaffeineLocalCache heap;
+    private final OffHeapLocalCache offHeap;
+    
+    public HybridLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, ValueSizeEstimator sizeEstimator) {
+        this(name, properties, sizeEstimator, new CacheCodecRegistry());
+    }
+    
+    public HybridLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, ValueSizeEstimator sizeEstimator,
+                            CacheCodecRegistry codecs) {
+        this.name = name;
+        this.heap = new CaffeineLocalCache(name, properties, sizeEstimator);
+        this.offHeap = new OffHeapLocalCache(name + "-off-heap", properties,
+                properties.getOffHeap().getMaxMemory().toBytes(), codecs);
+        logger.info("Hybrid local cache '{}' initialized with heap maxSize: {}, off-heap maxSize: {} bytes",
+                   name, heap.getMaxSize(), offHeap.getMaxSize());
+    }
+    
+    @Override
+    public Object get(String key) {
+        Object value = heap.get(key);
+        if (value != null) {
+            return value;
+        }
+        long[] remainingNanos = new long[1];
+        value = offHeap.get(key, remainingNanos);
+        if (value != null) {
+            promote(key, value, remainingNanos[0]);
+        }
+        return value;
+    }
+    
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, null);
+    }
+    
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        heap.put(key, value, ttl);
+        offHeap.put(key, value, ttl);
+    }
+    
+    @Override
+    public void evict(String key) {
+        heap.evict(key);
+        offHeap.evict(key);
+    }
+    
+    @Override
+    public void clear() {
+        heap.clear();
+        offHeap.clear();
+    }
+    
+    @Override
+    public boolean containsKey(String key) {
+        return heap.containsKey(key) || offHeap.containsKey(key);
+    }
+    
+    /**
+     * 堆外层包含所有写入的条目，以其条目数为准
+     */
+    @Override
+    public long size() {
+        return Math.max(heap.size(), offHeap.size());
+    }
+    
+    @Override
+    public Map<String, Object> multiGet(Set<String> keys) {
+        Map<String, Object> result = new HashMap<>(heap.multiGet(keys));
+        if (result.size() < keys.size()) {
+            Set<String> missing = new HashSet<>(keys);
+            missing.removeAll(result.keySet());
+            for (String key : missing) {
+                Object value = get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public void multiPut(Map<String, Object> keyValues) {
+        heap.multiPut(keyValues);
+        offHeap.multiPut(keyValues);
+    }
+    
+    @Override
+    public void multiEvict(Set<String> keys) {
+        heap.multiEvict(keys);
+        offHeap.multiEvict(keys);
+    }
+    
+    /**
+     * 两层命中之和；未命中以堆外层为准（L1未命中会继续查询堆外层），驱逐数为两层之和
+     */
+    @Override
+    public CacheStats getStats() {
+        CacheStats heapStats = heap.getStats();
+        CacheStats offHeapStats = offHeap.getStats();
+        return new CacheStats(
+            heapStats.getHitCount() + offHeapStats.getHitCount(),
+            offHeapStats.getMissCount(),
+            heapStats.getLoadCount(),
+            heapStats.getEvictionCount() + offHeapStats.getEvictionCount(),
+            heapStats.getAverageLoadTime()
+        );
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return heap.isAvailable() && offHeap.isAvailable();
+    }
+    
+    @Override
+    public void setMaxSize(long maxSize) {
+        heap.setMaxSize(maxSize);
+    }
+    
+    @Override
+    public void setExpireAfterWrite(Duration duration) {
+        heap.setExpireAfterWrite(duration);
+        offHeap.setExpireAfterWrite(duration);
+    }
+    
+    @Override
+    public void setExpireAfterAccess(Duration duration) {
+        heap.setExpireAfterAccess(duration);
+        offHeap.setExpireAfterAccess(duration);
+    }
+    
+    @Override
+    public Duration getExpireAfterWrite() {
+        return heap.getExpireAfterWrite();
+    }
+    
+    @Override
+    public Duration getExpireAfterAccess() {
+        return heap.getExpireAfterAccess();
+    }
+    
+    @Override
+    public long getCurrentSize() {
+        return heap.getCurrentSize();
+    }
+    
+    @Override
+    public long getMaxSize() {
+        return heap.getMaxSize();
+    }
+    
+    @Override
+    public void cleanUp() {
+        heap.cleanUp();
+        offHeap.cleanUp();
+    }
+    
+    @Override
+    public void pin(String key) {
+        heap.pin(key);
+        offHeap.pin(key);
+    }
+    
+    @Override
+    public void unpin(String key) {
+        heap.unpin(key);
+        offHeap.unpin(key);
+    }
+    
+    @Override
+    public boolean isPinned(String key) {
+        return heap.isPinned(key);
+    }
+    
+    @Override
+    public List<HotEntry<String, Object>> hottest(int limit) {
+        // Caffeine中的条目最热，不足时按最近访问时间从堆外补充
+        List<HotEntry<String, Object>> result = heap.hottest(limit);
+        if (result.size() < limit) {
+            Set<String> keys = new HashSet<>();
+            for (HotEntry<String, Object> entry : result) {
+                keys.add(entry.getKey());
+            }
+            for (HotEntry<String, Object> entry : offHeap.hottest(limit)) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (keys.add(entry.getKey())) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 写入同时进入两层，L1中提升回来的条目写入时间较新，因此优先取堆外层记录的写入时间
+     */
+    @Override
+    public Duration getAge(String key) {
+        Duration age = offHeap.getAge(key);
+        return age != null ? age : heap.getAge(key);
+    }
+    
+    @Override
+    public Duration getRemainingTtl(String key) {
+        Duration remaining = heap.getRemainingTtl(key);
+        return remaining != null ? remaining : offHeap.getRemainingTtl(key);
+    }
+    
+    @Override
+    public Object getIfPresent(CacheKey key) {
+        // 只查L1，L1未命中时由调用方按字符串形式读取，从堆外层提升
+        return heap.getIfPresent(key);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 堆外层
+     */
+    public OffHeapLocalCache getOffHeapCache() {
+        return offHeap;
+    }
+    
+    /**
+     * 提升到L1，不超过条目在堆外层的剩余寿命
+     */
+    private void promote(String key, Object value, long remainingNanos) {
+        Duration ttl = remainingNanos == Long.MAX_VALUE ? null : Duration.ofNanos(Math.max(1, remainingNanos));
+        try {
+            heap.put(key, value, ttl);
+        } catch (Exception e) {
+            logger.debug("Failed to promote key to heap tier of '{}': {}", name, key, e);
+        }
+    }
+}
@@ -0,0 +1,744 @@
+package com.cache.plugin.local.impl;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheKey;
+import com.cache.plugin.core.CacheStats;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.local.LocalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以基本类型long为键的本地缓存实现
+ *
+ * 适用于以数字ID为键的区域。每个分段是一张开放寻址（线性探测）哈希表，键、值、写入时间、TTL、访问时间和标志
+ * 分别存放在平行数组中，条目不创建节点对象，按long读写时也不构造键字符串、不装箱。
+ * 容量按条目数平均分配到各分段，满时按CLOCK（二次机会）驱逐；过期在读取、CLOCK扫描或cleanUp时回收。
+ * 字符串键形式的接口方法接受规范的十进制整数（与Long.toString一致），其他键存放在同配置的Caffeine缓存中。
+ * 不支持按权重限制容量（maxWeight）。
+ */
+public class LongKeyLocalCache implements LocalCache<String, Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LongKeyLocalCache.class);
+    
+    private static final byte REFERENCED = 1;
+    private static final byte PINNED = 2;
+    
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    // 未单独指定TTL，写入寿命跟随当前的expireAfterWrite
+    private static final long DEFAULT_TTL = -1L;
+    // 斐波那契散列的乘数，连续的ID在分段内依然均匀分布
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    
+    private final String name;
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    // 非整数键
+    private final CaffeineLocalCache fallback;
+    private final Set<Long> pinnedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    private volatile long expireAfterWriteNanos;
+    private volatile long expireAfterAccessNanos;
+    private volatile long maxSize;
+    
+    public LongKeyLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties) {
+        this.name = name;
+        this.maxSize = properties.getMaxSize();
+        this.expireAfterWriteNanos = toNanos(properties.getExpireAfterWrite());
+        this.expireAfterAccessNanos = toNanos(properties.getExpireAfterAccess());
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+        this.fallback = new CaffeineLocalCache(name, properties);
+        if (properties.getMaxWeight() != null) {
+            logger.warn("maxWeight is not supported by long-key local cache '{}', limiting by maxSize: {}", name, maxSize);
+        }
+        logger.info("Long-key local cache '{}' initialized with maxSize: {}, expireAfterWrite: {}, expireAfterAccess: {}",
+                   name, maxSize, properties.getExpireAfterWrite(), properties.getExpireAfterAccess());
+    }
+    
+    /**
+     * 按long键读取，未命中返回null
+     */
+    public Object get(long key) {
+        Object value = getIfPresent(key);
+        if (value == null) {
+            missCount.incrementAndGet();
+        }
+        return value;
+    }
+    
+    /**
+     * 按long键读取，只有命中计入统计，供未命中后还会按字符串键再读一次的调用方使用
+     */
+    public Object getIfPresent(long key) {
+        long hash = hash(key);
+        Object value = segmentFor(hash).get(key, (int) hash, System.nanoTime());
+        if (value != null) {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+    
+    /**
+     * 按long键写入，ttl为null时使用expireAfterWrite
+     */
+    public void put(long key, Object value, Duration ttl) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(key);
+        long ttlNanos = ttl != null ? Math.max(0, ttl.toNanos()) : DEFAULT_TTL;
+        boolean pinned = !pinnedKeys.isEmpty() && pinnedKeys.contains(key);
+        segmentFor(hash).put(key, (int) hash, value, ttlNanos, pinned, System.nanoTime());
+    }
+    
+    public void evict(long key) {
+        long hash = hash(key);
+        segmentFor(hash).remove(key, (int) hash);
+    }
+    
+    public boolean containsKey(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).contains(key, (int) hash, System.nanoTime());
+    }
+    
+    @Override
+    public Object get(String key) {
+        if (!isLongKey(key)) {
+            return key != null ? fallback.get(key) : null;
+        }
+        return get(Long.parseLong(key));
+    }
+    
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, null);
+    }
+    
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        if (key == null || value == null) {
+            return;
+        }
+        if (!isLongKey(key)) {
+            fallback.put(key, value, ttl);
+            return;
+        }
+        put(Long.parseLong(key), value, ttl);
+        logger.debug("Put value to long-key local cache '{}' for key: {}, ttl: {}", name, key, ttl);
+    }
+    
+    @Override
+    public void evict(String key) {
+        if (key == null) {
+            return;
+        }
+        if (!isLongKey(key)) {
+            fallback.evict(key);
+            return;
+        }
+        evict(Long.parseLong(key));
+        logger.debug("Evicted key from long-key local cache '{}': {}", name, key);
+    }
+    
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        fallback.clear();
+        logger.info("Cleared all entries from long-key local cache '{}'", name);
+    }
+    
+    @Override
+    public boolean containsKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        return isLongKey(key) ? containsKey(Long.parseLong(key)) : fallback.containsKey(key);
+    }
+    
+    @Override
+    public long size() {
+        long size = fallback.size();
+        for (Segment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+    
+    @Override
+    public Map<String, Object> multiGet(Set<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (String key : keys) {
+            Object value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public void multiPut(Map<String, Object> keyValues) {
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        logger.debug("Multi put {} entries to long-key local cache '{}'", keyValues.size(), name);
+    }
+    
+    @Override
+    public void multiEvict(Set<String> keys) {
+        for (String key : keys) {
+            evict(key);
+        }
+        logger.debug("Multi evicted {} keys from long-key local cache '{}'", keys.size(), name);
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        CacheStats other = fallback.getStats();
+        return new CacheStats(hitCount.get() + other.getHitCount(), missCount.get() + other.getMissCount(),
+                other.getLoadCount(), evictionCount.get() + other.getEvictionCount(), other.getAverageLoadTime());
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+    
+    /**
+     * 调整long键的条目数上限，缩容时立即驱逐超出的条目；非整数键的缓存使用同一上限
+     */
+    @Override
+    public void setMaxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        long previous = this.maxSize;
+        this.maxSize = maxSize;
+        long now = System.nanoTime();
+        for (Segment segment : segments) {
+            segment.trim(now);
+        }
+        fallback.setMaxSize(maxSize);
+        logger.info("Resized long-key local cache '{}' from maxSize {} to {}", name, previous, maxSize);
+    }
+    
+    @Override
+    public void setExpireAfterWrite(Duration duration) {
+        expireAfterWriteNanos = toNanos(duration);
+        fallback.setExpireAfterWrite(duration);
+        logger.info("Changed expireAfterWrite of long-key local cache '{}' to {}", name, duration);
+    }
+    
+    @Override
+    public void setExpireAfterAccess(Duration duration) {
+        expireAfterAccessNanos = toNanos(duration);
+        fallback.setExpireAfterAccess(duration);
+        logger.info("Changed expireAfterAccess of long-key local cache '{}' to {}", name, duration);
+    }
+    
+    @Override
+    public Duration getExpireAfterWrite() {
+        return toDuration(expireAfterWriteNanos);
+    }
+    
+    @Override
+    public Duration getExpireAfterAccess() {
+        return toDuration(expireAfterAccessNanos);
+    }
+    
+    @Override
+    public long getCurrentSize() {
+        return size();
+    }
+    
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * 清除所有过期条目（未调用时过期条目在读取或CLOCK扫描到时回收）
+     */
+    @Override
+    public void cleanUp() {
+        long now = System.nanoTime();
+        for (Segment segment : segments) {
+            segment.removeExpired(now);
+        }
+        fallback.cleanUp();
+        logger.debug("Cleaned up long-key local cache '{}'", name);
+    }
+    
+    @Override
+    public void pin(String key) {
+        if (!isLongKey(key)) {
+            fallback.pin(key);
+            return;
+        }
+        long longKey = Long.parseLong(key);
+        if (pinnedKeys.add(longKey)) {
+            long hash = hash(longKey);
+            segmentFor(hash).setPinned(longKey, (int) hash, true);
+            logger.debug("Pinned key in long-key local cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public void unpin(String key) {
+        if (!isLongKey(key)) {
+            fallback.unpin(key);
+            return;
+        }
+        long longKey = Long.parseLong(key);
+        if (pinnedKeys.remove(longKey)) {
+            long hash = hash(longKey);
+            segmentFor(hash).setPinned(longKey, (int) hash, false);
+            logger.debug("Unpinned key in long-key local cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public boolean isPinned(String key) {
+        return isLongKey(key) ? pinnedKeys.contains(Long.parseLong(key)) : fallback.isPinned(key);
+    }
+    
+    /**
+     * long键的条目按最近访问时间排序，不足limit时再补充非整数键的条目
+     */
+    @Override
+    public List<HotEntry<String, Object>> hottest(int limit) {
+        List<HotEntry<String, Object>> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        long now = System.nanoTime();
+        List<RecentEntry> recent = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.collect(now, recent);
+        }
+        recent.sort((a, b) -> Long.compare(b.accessTime, a.accessTime));
+        for (RecentEntry entry : recent) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new HotEntry<>(Long.toString(entry.key), entry.value, toDuration(entry.lifetime)));
+        }
+        if (result.size() < limit) {
+            result.addAll(fallback.hottest(limit - result.size()));
+        }
+        return result;
+    }
+    
+    @Override
+    public Duration getAge(String key) {
+        if (!isLongKey(key)) {
+            return key != null ? fallback.getAge(key) : null;
+        }
+        long longKey = Long.parseLong(key);
+        long hash = hash(longKey);
+        long age = segmentFor(hash).age(longKey, (int) hash, System.nanoTime());
+        return age >= 0 ? Duration.ofNanos(age) : null;
+    }
+    
+    @Override
+    public Duration getRemainingTtl(String key) {
+        if (!isLongKey(key)) {
+            return key != null ? fallback.getRemainingTtl(key) : null;
+        }
+        long longKey = Long.parseLong(key);
+        long hash = hash(longKey);
+        long lifetime = segmentFor(hash).lifetime(longKey, (int) hash, System.nanoTime());
+        return lifetime > 0 ? toDuration(lifetime) : null;
+    }
+    
+    @Override
+    public Object getIfPresent(CacheKey key) {
+        // 紧凑键不是整数键，存放在Caffeine缓存中
+        return fallback.getIfPresent(key);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 是否为规范的十进制long（无前导零、无正号、不是"-0"，且不溢出）
+     */
+    static boolean isLongKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        int length = key.length();
+        if (length == 0 || length > 20) {
+            return false;
+        }
+        int start = key.charAt(0) == '-' ? 1 : 0;
+        if (start == length || (key.charAt(start) == '0' && (length > start + 1 || start == 1))) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (length - start < 19) {
+            return true;
+        }
+        // 19位及以上可能溢出
+        try {
+            Long.parseLong(key);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    private static long hash(long key) {
+        return key * HASH_MULTIPLIER;
+    }
+    
+    private Segment segmentFor(long hash) {
+        // 高位选择分段，低位用于分段内的索引
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+    
+    private int maxEntriesPerSegment() {
+        return (int) Math.min(Integer.MAX_VALUE, (maxSize + segments.length - 1) / segments.length);
+    }
+    
+    private static long toNanos(Duration duration) {
+        return duration != null ? duration.toNanos() : Long.MAX_VALUE;
+    }
+    
+    private static Duration toDuration(long nanos) {
+        return nanos == Long.MAX_VALUE ? null : Duration.ofNanos(nanos);
+    }
+    
+    /**
+     * 分段：开放寻址哈希表，values[slot] == null 表示空槽
+     */
+    private final class Segment {
+        
+        private long[] keys;
+        private Object[] values;
+        private long[] writeTimes;
+        private long[] ttls;
+        private long[] accessTimes;
+        private byte[] flags;
+        private int count;
+        // CLOCK指针
+        private int hand;
+        
+        Segment() {
+            reset();
+        }
+        
+        synchronized Object get(long key, int hash, long now) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                return null;
+            }
+            if (remaining(slot, now) <= 0) {
+                deleteSlot(slot);
+                return null;
+            }
+            accessTimes[slot] = now;
+            flags[slot] |= REFERENCED;
+            return values[slot];
+        }
+        
+        /**
+         * 条目写入至今的纳秒数，不存在或已过期时返回-1
+         */
+        synchronized long age(long key, int hash, long now) {
+            int slot = find(key, hash);
+            if (slot < 0 || remaining(slot, now) <= 0) {
+                return -1;
+            }
+            return Math.max(0, now - writeTimes[slot]);
+        }
+        
+        /**
+         * 条目的剩余写入寿命，不存在或已过期时返回-1
+         */
+        synchronized long lifetime(long key, int hash, long now) {
+            int slot = find(key, hash);
+            if (slot < 0 || remaining(slot, now) <= 0) {
+                return -1;
+            }
+            return remainingLifetime(slot, now);
+        }
+        
+        synchronized boolean contains(long key, int hash, long now) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            if (remaining(slot, now) <= 0) {
+                deleteSlot(slot);
+                return false;
+            }
+            return true;
+        }
+        
+        synchronized void put(long key, int hash, Object value, long ttlNanos, boolean pinned, long now) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                int maxEntries = maxEntriesPerSegment();
+                if (maxEntries == 0) {
+                    return;
+                }
+                // 分段内全部是固定的条目时超出上限也写入
+                while (count >= maxEntries) {
+                    if (!evictClock(now)) {
+                        break;
+                    }
+                }
+                if ((count + 1) * 4 > keys.length * 3) {
+                    rehash(keys.length * 2);
+                }
+                slot = freeSlot(hash);
+                keys[slot] = key;
+                count++;
+            }
+            values[slot] = value;
+            writeTimes[slot] = now;
+            accessTimes[slot] = now;
+            ttls[slot] = ttlNanos;
+            flags[slot] = pinned ? PINNED : 0;
+        }
+        
+        synchronized void remove(long key, int hash) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                deleteSlot(slot);
+            }
+        }
+        
+        synchronized void setPinned(long key, int hash, boolean pinned) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                return;
+            }
+            if (pinned) {
+                flags[slot] |= PINNED;
+            } else {
+                // 取消固定后重新开始计算寿命，避免固定期间积累的时间使条目立即过期
+                flags[slot] &= ~PINNED;
+                writeTimes[slot] = System.nanoTime();
+                accessTimes[slot] = writeTimes[slot];
+            }
+        }
+        
+        synchronized int count() {
+            return count;
+        }
+        
+        synchronized void clear() {
+            reset();
+        }
+        
+        synchronized void trim(long now) {
+            int maxEntries = maxEntriesPerSegment();
+            while (count > maxEntries) {
+                if (!evictClock(now)) {
+                    break;
+                }
+            }
+        }
+        
+        synchronized void removeExpired(long now) {
+            for (int slot = 0; slot < values.length; ) {
+                if (values[slot] != null && remaining(slot, now) <= 0) {
+                    // 删除后当前槽可能被后续条目填补，需要重新检查
+                    deleteSlot(slot);
+                } else {
+                    slot++;
+                }
+            }
+        }
+        
+        synchronized void collect(long now, List<RecentEntry> target) {
+            for (int slot = 0; slot < values.length; slot++) {
+                if (values[slot] != null && remaining(slot, now) > 0) {
+                    target.add(new RecentEntry(keys[slot], values[slot], accessTimes[slot], remainingLifetime(slot, now)));
+                }
+            }
+        }
+        
+        private void reset() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+            writeTimes = new long[INITIAL_CAPACITY];
+            ttls = new long[INITIAL_CAPACITY];
+            accessTimes = new long[INITIAL_CAPACITY];
+            flags = new byte[INITIAL_CAPACITY];
+            count = 0;
+            hand = 0;
+        }
+        
+        /**
+         * 从指针处扫描，过期条目直接回收，被引用的条目清除引用位后跳过，固定的条目不驱逐
+         *
+         * @return 是否回收了一个条目
+         */
+        private boolean evictClock(long now) {
+            int mask = values.length - 1;
+            long steps = 2L * values.length;
+            for (long i = 0; i < steps && count > 0; i++) {
+                int slot = hand;
+                if (values[slot] == null) {
+                    hand = (hand + 1) & mask;
+                    continue;
+                }
+                boolean expired = remaining(slot, now) <= 0;
+                if (!expired) {
+                    if ((flags[slot] & PINNED) != 0) {
+                        hand = (hand + 1) & mask;
+                        continue;
+                    }
+                    if ((flags[slot] & REFERENCED) != 0) {
+                        flags[slot] &= ~REFERENCED;
+                        hand = (hand + 1) & mask;
+                        continue;
+                    }
+                    evictionCount.incrementAndGet();
+                }
+                // 删除后后续条目可能移入当前槽，指针停留在原处
+                deleteSlot(slot);
+                return true;
+            }
+            return false;
+        }
+        
+        /**
+         * 剩余写入寿命（不计空闲时间），固定的条目和不过期的条目返回Long.MAX_VALUE
+         */
+        private long remainingLifetime(int slot, long now) {
+            if ((flags[slot] & PINNED) != 0) {
+                return Long.MAX_VALUE;
+            }
+            long lifetime = ttls[slot] != DEFAULT_TTL ? ttls[slot] : expireAfterWriteNanos;
+            return lifetime == Long.MAX_VALUE ? Long.MAX_VALUE : lifetime - (now - writeTimes[slot]);
+        }
+        
+        /**
+         * 剩余寿命：写入寿命与空闲时间取先到者，固定条目不过期
+         */
+        private long remaining(int slot, long now) {
+            if ((flags[slot] & PINNED) != 0) {
+                return Long.MAX_VALUE;
+            }
+            long remaining = remainingLifetime(slot, now);
+            long idle = expireAfterAccessNanos;
+            if (idle != Long.MAX_VALUE) {
+                remaining = Math.min(remaining, idle - (now - accessTimes[slot]));
+            }
+            return remaining;
+        }
+        
+        private int find(long key, int hash) {
+            int mask = values.length - 1;
+            for (int slot = hash & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+        
+        private int freeSlot(int hash) {
+            int mask = values.length - 1;
+            int slot = hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] oldWriteTimes = writeTimes;
+            long[] oldTtls = ttls;
+            long[] oldAccessTimes = accessTimes;
+            byte[] oldFlags = flags;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            writeTimes = new long[capacity];
+            ttls = new long[capacity];
+            accessTimes = new long[capacity];
+            flags = new byte[capacity];
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = freeSlot((int) hash(oldKeys[i]));
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    writeTimes[slot] = oldWriteTimes[i];
+                    ttls[slot] = oldTtls[i];
+                    accessTimes[slot] = oldAccessTimes[i];
+                    flags[slot] = oldFlags[i];
+                }
+            }
+            hand = 0;
+        }
+        
+        /**
+         * 向后移位删除：把探测链上后续的槽前移填补空位，保持查找不被空槽截断
+         */
+        private void deleteSlot(int slot) {
+            int mask = values.length - 1;
+            int hole = slot;
+            for (int i = (slot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+                int ideal = (int) hash(keys[i]) & mask;
+                boolean movable = hole <= i ? (ideal <= hole || ideal > i) : (ideal <= hole && ideal > i);
+                if (movable) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    writeTimes[hole] = writeTimes[i];
+                    ttls[hole] = ttls[i];
+                    accessTimes[hole] = accessTimes[i];
+                    flags[hole] = flags[i];
+                    hole = i;
+                }
+            }
+            values[hole] = null;
+            count--;
+        }
+    }
+    
+    /**
+     * 从分段中复制出的条目
+     */
+    private static final class RecentEntry {
+        private final long key;
+        private final Object value;
+        private final long accessTime;
+        private final long lifetime;
+        
+        RecentEntry(long key, Object value, long accessTime, long lifetime) {
+            this.key = key;
+            this.value = value;
+            this.accessTime = accessTime;
+            this.lifetime = lifetime;
+        }
+    }
+}
@@ -0,0 +1,1080 @@
+package com.cache.plugin.local.impl;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheStats;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.local.LocalCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 堆外本地缓存实现
+ *
+ * 值经共享的编解码器（CacheCodecRegistry）编码后存放在直接内存（DirectByteBuffer）中，堆上只保留每个分段的开放寻址索引（两个基本类型数组），
+ * 条目增多不会增加堆上的对象数，GC的标记与停顿时间与缓存大小无关。读取时解码，返回的是值的副本。
+ * 内存按 slabSize 分配为slab，每个slab切分为同一规格的块（规格按1.25倍递增），条目放入能容纳它的最小规格；
+ * 预算用尽时在同规格的块上按CLOCK（二次机会）驱逐，某一规格还没有slab时回收占用slab最多的规格中的一个slab。
+ * maxSize相关方法均以字节为单位。被固定（pin）的条目不过期、不被CLOCK驱逐，但仍占用预算。
+ */
+public class OffHeapLocalCache implements LocalCache<String, Object> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapLocalCache.class);
+    
+    // 块头：标志(1) 填充(3) 哈希(4) 写入时间(8) TTL(8) 访问时间(8) 键长度(4) 值长度(4)，随后是键和值的字节
+    private static final int FLAGS = 0;
+    private static final int HASH = 4;
+    private static final int WRITE_TIME = 8;
+    private static final int TTL = 16;
+    private static final int ACCESS_TIME = 24;
+    private static final int KEY_LENGTH = 32;
+    private static final int VALUE_LENGTH = 36;
+    private static final int HEADER_SIZE = 40;
+    // 空闲块在写入时间的位置保存下一个空闲块的地址
+    private static final int NEXT_FREE = WRITE_TIME;
+    
+    private static final byte OCCUPIED = 1;
+    private static final byte REFERENCED = 2;
+    private static final byte PINNED = 4;
+    
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+    private static final int MIN_SLAB_SIZE = 4096;
+    private static final int INITIAL_INDEX_CAPACITY = 64;
+    // 空槽、空闲链表结尾
+    private static final long NONE = -1L;
+    // 未单独指定TTL，写入寿命跟随当前的expireAfterWrite
+    private static final long DEFAULT_TTL = -1L;
+    
+    private final String name;
+    private final int slabSize;
+    // 各规格的块大小，最后一个规格等于slabSize
+    private final int[] chunkSizes;
+    private final Segment[] segments;
+    private final CacheCodecRegistry codecs;
+    private final Ticker ticker;
+    private final Set<String> pinnedKeys = ConcurrentHashMap.newKeySet();
+    // 已记录过无法编码警告的类型
+    private final Set<Class<?>> unencodableTypes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    private volatile long expireAfterWriteNanos;
+    private volatile long expireAfterAccessNanos;
+    // 字节预算
+    private volatile long maxSize;
+    
+    /**
+     * 字节预算取 maxWeight，未设置时取 offHeap.maxMemory
+     */
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties) {
+        this(name, properties, new CacheCodecRegistry());
+    }
+    
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, CacheCodecRegistry codecs) {
+        this(name, properties, codecs, null);
+    }
+    
+    /**
+     * @param ticker 过期判断使用的计时器，为null时使用系统计时器
+     */
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, CacheCodecRegistry codecs,
+                             Ticker ticker) {
+        this(name, properties, properties.getMaxWeight() != null
+                ? properties.getMaxWeight().toBytes() : properties.getOffHeap().getMaxMemory().toBytes(), codecs, ticker);
+    }
+    
+    /**
+     * @param maxBytes 字节预算
+     */
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, long maxBytes) {
+        this(name, properties, maxBytes, new CacheCodecRegistry());
+    }
+    
+    /**
+     * @param maxBytes 字节预算
+     * @param codecs 值的编解码器，与远程缓存共享
+     */
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, long maxBytes,
+                             CacheCodecRegistry codecs) {
+        this(name, properties, maxBytes, codecs, null);
+    }
+    
+    /**
+     * @param maxBytes 字节预算
+     * @param codecs 值的编解码器，与远程缓存共享
+     * @param ticker 过期判断使用的计时器，为null时使用系统计时器
+     */
+    public OffHeapLocalCache(String name, TieredCacheProperties.LocalCacheProperties properties, long maxBytes,
+                             CacheCodecRegistry codecs, Ticker ticker) {
+        TieredCacheProperties.OffHeapProperties offHeap = properties.getOffHeap();
+        this.name = name;
+        this.codecs = codecs;
+        this.ticker = ticker != null ? ticker : Ticker.systemTicker();
+        this.slabSize = (int) Math.max(MIN_SLAB_SIZE, Math.min(Integer.MAX_VALUE, offHeap.getSlabSize().toBytes()));
+        this.chunkSizes = chunkSizes(slabSize);
+        this.maxSize = Math.max(slabSize, maxBytes);
+        this.expireAfterWriteNanos = toNanos(properties.getExpireAfterWrite());
+        this.expireAfterAccessNanos = toNanos(properties.getExpireAfterAccess());
+        // 每个分段至少能分到一个slab
+        int segmentCount = (int) Math.max(1, Math.min(offHeap.getSegments(), maxSize / slabSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slabsPerSegment());
+        }
+        logger.info("Off-heap local cache '{}' initialized with maxSize: {} bytes, slabSize: {}, segments: {}, expireAfterWrite: {}, expireAfterAccess: {}",
+                   name, maxSize, slabSize, segmentCount, properties.getExpireAfterWrite(), properties.getExpireAfterAccess());
+    }
+    
+    @Override
+    public Object get(String key) {
+        return get(key, null);
+    }
+    
+    /**
+     * 读取值，命中时在 remainingNanos[0] 中返回条目的剩余寿命（Long.MAX_VALUE表示不过期）
+     */
+    Object get(String key, long[] remainingNanos) {
+        if (key == null) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        byte[] valueBytes = segmentFor(hash).get(hash, keyBytes, ticker.read(), remainingNanos);
+        if (valueBytes == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        try {
+            Object value = codecs.decode(valueBytes);
+            hitCount.incrementAndGet();
+            return value;
+        } catch (Exception e) {
+            logger.error("Failed to decode value from off-heap cache '{}' for key: {}", name, key, e);
+            segmentFor(hash).remove(hash, keyBytes);
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+    
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, null);
+    }
+    
+    /**
+     * 写入值；值无法编码或超过slabSize时不缓存（并移除该键的旧值），不影响远程写入
+     */
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        if (key == null || value == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        Segment segment = segmentFor(hash);
+        byte[] valueBytes = encode(key, value);
+        if (valueBytes == null) {
+            segment.remove(hash, keyBytes);
+            return;
+        }
+        long ttlNanos = ttl != null ? Math.max(0, ttl.toNanos()) : DEFAULT_TTL;
+        if (!segment.put(hash, keyBytes, valueBytes, ttlNanos, pinnedKeys.contains(key), ticker.read())) {
+            logger.debug("Skipped caching key in off-heap cache '{}': {} ({} bytes)", name, key, valueBytes.length);
+            return;
+        }
+        logger.debug("Put value to off-heap cache '{}' for key: {}, ttl: {}", name, key, ttl);
+    }
+    
+    @Override
+    public void evict(String key) {
+        if (key == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        segmentFor(hash).remove(hash, keyBytes);
+        logger.debug("Evicted key from off-heap cache '{}': {}", name, key);
+    }
+    
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        logger.info("Cleared all entries from off-heap cache '{}'", name);
+    }
+    
+    @Override
+    public boolean containsKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        return segmentFor(hash).contains(hash, keyBytes, ticker.read());
+    }
+    
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+    
+    @Override
+    public Map<String, Object> multiGet(Set<String> keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (String key : keys) {
+            Object value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public void multiPut(Map<String, Object> keyValues) {
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        logger.debug("Multi put {} entries to off-heap cache '{}'", keyValues.size(), name);
+    }
+    
+    @Override
+    public void multiEvict(Set<String> keys) {
+        for (String key : keys) {
+            evict(key);
+        }
+        logger.debug("Multi evicted {} keys from off-heap cache '{}'", keys.size(), name);
+    }
+    
+    @Override
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.get(), missCount.get(), 0, evictionCount.get(), 0.0);
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+    
+    /**
+     * 调整字节预算，缩容时立即回收超出预算的slab及其中的条目
+     */
+    @Override
+    public void setMaxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        long previous = this.maxSize;
+        this.maxSize = Math.max(slabSize, maxSize);
+        int slabs = slabsPerSegment();
+        for (Segment segment : segments) {
+            segment.resize(slabs);
+        }
+        logger.info("Resized off-heap cache '{}' from maxSize {} to {}", name, previous, this.maxSize);
+    }
+    
+    @Override
+    public void setExpireAfterWrite(Duration duration) {
+        expireAfterWriteNanos = toNanos(duration);
+        logger.info("Changed expireAfterWrite of off-heap cache '{}' to {}", name, duration);
+    }
+    
+    @Override
+    public void setExpireAfterAccess(Duration duration) {
+        expireAfterAccessNanos = toNanos(duration);
+        logger.info("Changed expireAfterAccess of off-heap cache '{}' to {}", name, duration);
+    }
+    
+    @Override
+    public Duration getExpireAfterWrite() {
+        return toDuration(expireAfterWriteNanos);
+    }
+    
+    @Override
+    public Duration getExpireAfterAccess() {
+        return toDuration(expireAfterAccessNanos);
+    }
+    
+    @Override
+    public long getCurrentSize() {
+        return size();
+    }
+    
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * 清除所有过期条目（未调用时过期条目在读取或CLOCK扫描到时回收）
+     */
+    @Override
+    public void cleanUp() {
+        long now = ticker.read();
+        for (Segment segment : segments) {
+            segment.removeExpired(now);
+        }
+        logger.debug("Cleaned up off-heap cache '{}'", name);
+    }
+    
+    @Override
+    public void pin(String key) {
+        if (pinnedKeys.add(key)) {
+            setPinned(key, true);
+            logger.debug("Pinned key in off-heap cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public void unpin(String key) {
+        if (pinnedKeys.remove(key)) {
+            setPinned(key, false);
+            logger.debug("Unpinned key in off-heap cache '{}': {}", name, key);
+        }
+    }
+    
+    @Override
+    public boolean isPinned(String key) {
+        return pinnedKeys.contains(key);
+    }
+    
+    @Override
+    public List<HotEntry<String, Object>> hottest(int limit) {
+        List<HotEntry<String, Object>> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        // 先收集所有条目的访问时间求出第limit新的访问时间，再只复制不早于它的条目，避免复制整个缓存
+        long now = ticker.read();
+        long[] accessTimes = new long[0];
+        for (Segment segment : segments) {
+            long[] times = segment.accessTimes(now);
+            long[] merged = Arrays.copyOf(accessTimes, accessTimes.length + times.length);
+            System.arraycopy(times, 0, merged, accessTimes.length, times.length);
+            accessTimes = merged;
+        }
+        Arrays.sort(accessTimes);
+        long threshold = accessTimes.length > limit ? accessTimes[accessTimes.length - limit] : Long.MIN_VALUE;
+        List<RecentEntry> recent = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.collect(threshold, now, recent);
+        }
+        recent.sort((a, b) -> Long.compare(b.accessTime, a.accessTime));
+        for (RecentEntry entry : recent) {
+            if (result.size() >= limit) {
+                break;
+            }
+            try {
+                result.add(new HotEntry<>(entry.key, codecs.decode(entry.value), toDuration(entry.lifetime)));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to decode value from off-heap cache '{}' for key: {}", name, entry.key, e);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Duration getAge(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        long age = segmentFor(hash).age(hash, keyBytes, ticker.read());
+        return age >= 0 ? Duration.ofNanos(age) : null;
+    }
+    
+    @Override
+    public Duration getRemainingTtl(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        long lifetime = segmentFor(hash).lifetime(hash, keyBytes, ticker.read());
+        return lifetime > 0 ? toDuration(lifetime) : null;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 已分配的直接内存（字节）
+     */
+    public long getAllocatedBytes() {
+        long slabs = 0;
+        for (Segment segment : segments) {
+            slabs += segment.allocatedSlabs();
+        }
+        return slabs * slabSize;
+    }
+    
+    private void setPinned(String key, boolean pinned) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(keyBytes);
+        segmentFor(hash).setPinned(hash, keyBytes, pinned);
+    }
+    
+    private Segment segmentFor(int hash) {
+        // 高位选择分段，低位用于分段内的索引
+        return segments[(hash >>> 16) % segments.length];
+    }
+    
+    private int slabsPerSegment() {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxSize / slabSize / segments.length));
+    }
+    
+    private byte[] encode(String key, Object value) {
+        try {
+            return codecs.encode(value);
+        } catch (RuntimeException e) {
+            if (unencodableTypes.add(value.getClass())) {
+                logger.warn("Values of type {} cannot be stored in off-heap cache '{}' (key: {}): {}",
+                           value.getClass().getName(), name, key, e.toString());
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * 键字节的哈希，经过混合使高低位都分布均匀
+     */
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+    
+    /**
+     * 从 MIN_CHUNK_SIZE 起按 CHUNK_GROWTH_FACTOR 递增（8字节对齐），最后一个规格为整个slab
+     */
+    private static int[] chunkSizes(int slabSize) {
+        List<Integer> sizes = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size <= slabSize / 2) {
+            sizes.add(size);
+            size = Math.max(size + 8, (int) (size * CHUNK_GROWTH_FACTOR + 7) & ~7);
+        }
+        sizes.add(slabSize);
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i);
+        }
+        return result;
+    }
+    
+    /**
+     * 能容纳指定字节数的最小规格，超过slabSize时返回-1
+     */
+    private int sizeClassOf(int bytes) {
+        int index = Arrays.binarySearch(chunkSizes, bytes);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < chunkSizes.length ? index : -1;
+    }
+    
+    private static long toNanos(Duration duration) {
+        return duration != null ? duration.toNanos() : Long.MAX_VALUE;
+    }
+    
+    private static Duration toDuration(long nanos) {
+        return nanos == Long.MAX_VALUE ? null : Duration.ofNanos(nanos);
+    }
+    
+    private static long address(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+    
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+    
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+    
+    /**
+     * 分段：独立的锁、索引、slab和字节预算
+     *
+     * 索引为线性探测的开放寻址表，删除时向后移位而不留墓碑；地址为 slab序号<<32 | 块偏移。
+     */
+    private final class Segment {
+        
+        private long[] addresses;
+        private int[] hashes;
+        private int count;
+        
+        // 按序号保存的slab，被回收的序号进入freeSlabIds并释放缓冲区
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private final List<Integer> slabClasses = new ArrayList<>();
+        private final Deque<Integer> freeSlabIds = new ArrayDeque<>();
+        private final List<List<Integer>> classSlabs = new ArrayList<>();
+        private final long[] freeHeads = new long[chunkSizes.length];
+        // 各规格的CLOCK指针：classSlabs中的位置与块偏移
+        private final int[] handSlabs = new int[chunkSizes.length];
+        private final int[] handOffsets = new int[chunkSizes.length];
+        private int allocatedSlabs;
+        private int maxSlabs;
+        
+        Segment(int maxSlabs) {
+            this.maxSlabs = maxSlabs;
+            for (int i = 0; i < chunkSizes.length; i++) {
+                classSlabs.add(new ArrayList<>());
+            }
+            reset();
+        }
+        
+        synchronized byte[] get(int hash, byte[] key, long now, long[] remainingNanos) {
+            int slot = find(hash, key);
+            if (slot < 0) {
+                return null;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            if (isExpired(slab, offset, now)) {
+                removeSlot(slot);
+                return null;
+            }
+            slab.put(offset + FLAGS, (byte) (slab.get(offset + FLAGS) | REFERENCED));
+            slab.putLong(offset + ACCESS_TIME, now);
+            if (remainingNanos != null) {
+                remainingNanos[0] = remaining(slab, offset, now);
+            }
+            int keyLength = slab.getInt(offset + KEY_LENGTH);
+            byte[] value = new byte[slab.getInt(offset + VALUE_LENGTH)];
+            read(slab, offset + HEADER_SIZE + keyLength, value);
+            return value;
+        }
+        
+        /**
+         * 条目写入至今的纳秒数，不存在或已过期时返回-1
+         */
+        synchronized long age(int hash, byte[] key, long now) {
+            int slot = find(hash, key);
+            if (slot < 0) {
+                return -1;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            if (isExpired(slab, offset, now)) {
+                return -1;
+            }
+            return Math.max(0, now - slab.getLong(offset + WRITE_TIME));
+        }
+        
+        /**
+         * 条目的剩余写入寿命，不存在或已过期时返回-1
+         */
+        synchronized long lifetime(int hash, byte[] key, long now) {
+            int slot = find(hash, key);
+            if (slot < 0) {
+                return -1;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            if (isExpired(slab, offset, now)) {
+                return -1;
+            }
+            return remainingLifetime(slab, offset, now);
+        }
+        
+        synchronized boolean contains(int hash, byte[] key, long now) {
+            int slot = find(hash, key);
+            if (slot < 0) {
+                return false;
+            }
+            long address = addresses[slot];
+            if (isExpired(slabs.get(slabOf(address)), offsetOf(address), now)) {
+                removeSlot(slot);
+                return false;
+            }
+            return true;
+        }
+        
+        synchronized boolean put(int hash, byte[] key, byte[] value, long ttlNanos, boolean pinned, long now) {
+            int slot = find(hash, key);
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+            int sizeClass = sizeClassOf(HEADER_SIZE + key.length + value.length);
+            if (sizeClass < 0) {
+                return false;
+            }
+            long address = allocate(sizeClass, now);
+            if (address == NONE) {
+                return false;
+            }
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            slab.put(offset + FLAGS, pinned ? (byte) (OCCUPIED | PINNED) : OCCUPIED);
+            slab.putInt(offset + HASH, hash);
+            slab.putLong(offset + WRITE_TIME, now);
+            slab.putLong(offset + TTL, ttlNanos);
+            slab.putLong(offset + ACCESS_TIME, now);
+            slab.putInt(offset + KEY_LENGTH, key.length);
+            slab.putInt(offset + VALUE_LENGTH, value.length);
+            write(slab, offset + HEADER_SIZE, key);
+            write(slab, offset + HEADER_SIZE + key.length, value);
+            insert(hash, address);
+            return true;
+        }
+        
+        synchronized void remove(int hash, byte[] key) {
+            int slot = find(hash, key);
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+        }
+        
+        synchronized void setPinned(int hash, byte[] key, boolean pinned) {
+            int slot = find(hash, key);
+            if (slot < 0) {
+                return;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            byte flags = slab.get(offset + FLAGS);
+            slab.put(offset + FLAGS, (byte) (pinned ? flags | PINNED : flags & ~PINNED));
+        }
+        
+        synchronized int count() {
+            return count;
+        }
+        
+        synchronized int allocatedSlabs() {
+            return allocatedSlabs;
+        }
+        
+        synchronized void clear() {
+            reset();
+        }
+        
+        synchronized void resize(int maxSlabs) {
+            this.maxSlabs = maxSlabs;
+            while (allocatedSlabs > maxSlabs) {
+                releaseSlab(largestClass(-1));
+            }
+        }
+        
+        /**
+         * 未过期条目的最近访问时间
+         */
+        synchronized long[] accessTimes(long now) {
+            long[] times = new long[count];
+            int n = 0;
+            for (long address : addresses) {
+                if (address == NONE) {
+                    continue;
+                }
+                ByteBuffer slab = slabs.get(slabOf(address));
+                int offset = offsetOf(address);
+                if (!isExpired(slab, offset, now)) {
+                    times[n++] = slab.getLong(offset + ACCESS_TIME);
+                }
+            }
+            return n == times.length ? times : Arrays.copyOf(times, n);
+        }
+        
+        /**
+         * 复制最近访问时间不早于threshold的未过期条目
+         */
+        synchronized void collect(long threshold, long now, List<RecentEntry> target) {
+            for (long address : addresses) {
+                if (address == NONE) {
+                    continue;
+                }
+                ByteBuffer slab = slabs.get(slabOf(address));
+                int offset = offsetOf(address);
+                long accessTime = slab.getLong(offset + ACCESS_TIME);
+                if (accessTime < threshold || isExpired(slab, offset, now)) {
+                    continue;
+                }
+                byte[] key = new byte[slab.getInt(offset + KEY_LENGTH)];
+                byte[] value = new byte[slab.getInt(offset + VALUE_LENGTH)];
+                read(slab, offset + HEADER_SIZE, key);
+                read(slab, offset + HEADER_SIZE + key.length, value);
+                target.add(new RecentEntry(new String(key, StandardCharsets.UTF_8), value, accessTime,
+                        remainingLifetime(slab, offset, now)));
+            }
+        }
+        
+        synchronized void removeExpired(long now) {
+            for (int sizeClass = 0; sizeClass < chunkSizes.length; sizeClass++) {
+                int chunkSize = chunkSizes[sizeClass];
+                for (int slabId : classSlabs.get(sizeClass)) {
+                    ByteBuffer slab = slabs.get(slabId);
+                    for (int offset = 0; offset + chunkSize <= slabSize; offset += chunkSize) {
+                        if ((slab.get(offset + FLAGS) & OCCUPIED) != 0 && isExpired(slab, offset, now)) {
+                            unindex(address(slabId, offset));
+                            freeChunk(sizeClass, address(slabId, offset));
+                        }
+                    }
+                }
+            }
+        }
+        
+        /**
+         * 释放所有slab并重建空索引
+         */
+        private void reset() {
+            addresses = new long[INITIAL_INDEX_CAPACITY];
+            hashes = new int[INITIAL_INDEX_CAPACITY];
+            Arrays.fill(addresses, NONE);
+            count = 0;
+            slabs.clear();
+            slabClasses.clear();
+            freeSlabIds.clear();
+            for (List<Integer> list : classSlabs) {
+                list.clear();
+            }
+            Arrays.fill(freeHeads, NONE);
+            Arrays.fill(handSlabs, 0);
+            Arrays.fill(handOffsets, 0);
+            allocatedSlabs = 0;
+        }
+        
+        /**
+         * 分配一个块：空闲链表、新slab、同规格CLOCK驱逐，最后从其他规格回收一个slab
+         */
+        private long allocate(int sizeClass, long now) {
+            if (freeHeads[sizeClass] == NONE && !assignSlab(sizeClass)) {
+                long evicted = evictClock(sizeClass, now);
+                if (evicted != NONE) {
+                    return evicted;
+                }
+                int victim = largestClass(sizeClass);
+                if (victim < 0) {
+                    return NONE;
+                }
+                releaseSlab(victim);
+                assignSlab(sizeClass);
+            }
+            long address = freeHeads[sizeClass];
+            if (address != NONE) {
+                freeHeads[sizeClass] = slabs.get(slabOf(address)).getLong(offsetOf(address) + NEXT_FREE);
+            }
+            return address;
+        }
+        
+        /**
+         * 在预算内为规格分配一个slab并切分为空闲块
+         */
+        private boolean assignSlab(int sizeClass) {
+            if (allocatedSlabs >= maxSlabs) {
+                return false;
+            }
+            ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+            int slabId;
+            if (freeSlabIds.isEmpty()) {
+                slabId = slabs.size();
+                slabs.add(slab);
+                slabClasses.add(sizeClass);
+            } else {
+                slabId = freeSlabIds.pop();
+                slabs.set(slabId, slab);
+                slabClasses.set(slabId, sizeClass);
+            }
+            classSlabs.get(sizeClass).add(slabId);
+            int chunkSize = chunkSizes[sizeClass];
+            for (int offset = slabSize / chunkSize * chunkSize - chunkSize; offset >= 0; offset -= chunkSize) {
+                freeChunk(sizeClass, address(slabId, offset));
+            }
+            allocatedSlabs++;
+            return true;
+        }
+        
+        /**
+         * 按CLOCK扫描规格内的块：跳过固定条目，清除被访问标志给予第二次机会，回收第一个过期或未被访问的条目
+         */
+        private long evictClock(int sizeClass, long now) {
+            List<Integer> list = classSlabs.get(sizeClass);
+            if (list.isEmpty()) {
+                return NONE;
+            }
+            int chunkSize = chunkSizes[sizeClass];
+            long steps = 2L * list.size() * (slabSize / chunkSize);
+            for (long i = 0; i < steps; i++) {
+                if (handSlabs[sizeClass] >= list.size()) {
+                    handSlabs[sizeClass] = 0;
+                    handOffsets[sizeClass] = 0;
+                }
+                int slabId = list.get(handSlabs[sizeClass]);
+                int offset = handOffsets[sizeClass];
+                handOffsets[sizeClass] += chunkSize;
+                if (handOffsets[sizeClass] + chunkSize > slabSize) {
+                    handOffsets[sizeClass] = 0;
+                    handSlabs[sizeClass]++;
+                }
+                ByteBuffer slab = slabs.get(slabId);
+                byte flags = slab.get(offset + FLAGS);
+                if ((flags & OCCUPIED) == 0 || (flags & PINNED) != 0) {
+                    continue;
+                }
+                boolean expired = isExpired(slab, offset, now);
+                if (!expired && (flags & REFERENCED) != 0) {
+                    slab.put(offset + FLAGS, (byte) (flags & ~REFERENCED));
+                    continue;
+                }
+                if (!expired) {
+                    evictionCount.incrementAndGet();
+                }
+                long address = address(slabId, offset);
+                unindex(address);
+                slab.put(offset + FLAGS, (byte) 0);
+                return address;
+            }
+            return NONE;
+        }
+        
+        /**
+         * 占用slab最多的规格（排除指定规格），没有时返回-1
+         */
+        private int largestClass(int excluded) {
+            int largest = -1;
+            for (int sizeClass = 0; sizeClass < chunkSizes.length; sizeClass++) {
+                if (sizeClass != excluded && !classSlabs.get(sizeClass).isEmpty()
+                        && (largest < 0 || classSlabs.get(sizeClass).size() > classSlabs.get(largest).size())) {
+                    largest = sizeClass;
+                }
+            }
+            return largest;
+        }
+        
+        /**
+         * 回收规格中CLOCK指针所在的slab，其中的条目（包括固定条目）被驱逐，缓冲区交给GC释放
+         */
+        private void releaseSlab(int sizeClass) {
+            List<Integer> list = classSlabs.get(sizeClass);
+            int position = handSlabs[sizeClass] < list.size() ? handSlabs[sizeClass] : 0;
+            int slabId = list.remove(position);
+            ByteBuffer slab = slabs.get(slabId);
+            int chunkSize = chunkSizes[sizeClass];
+            for (int offset = 0; offset + chunkSize <= slabSize; offset += chunkSize) {
+                if ((slab.get(offset + FLAGS) & OCCUPIED) != 0) {
+                    unindex(address(slabId, offset));
+                    evictionCount.incrementAndGet();
+                }
+            }
+            slabs.set(slabId, null);
+            slabClasses.set(slabId, -1);
+            freeSlabIds.push(slabId);
+            allocatedSlabs--;
+            handSlabs[sizeClass] = 0;
+            handOffsets[sizeClass] = 0;
+            rebuildFreeList(sizeClass);
+        }
+        
+        /**
+         * 空闲链表跨slab链接，回收slab后按剩余slab中的空闲块重建
+         */
+        private void rebuildFreeList(int sizeClass) {
+            freeHeads[sizeClass] = NONE;
+            int chunkSize = chunkSizes[sizeClass];
+            for (int slabId : classSlabs.get(sizeClass)) {
+                ByteBuffer slab = slabs.get(slabId);
+                for (int offset = 0; offset + chunkSize <= slabSize; offset += chunkSize) {
+                    if ((slab.get(offset + FLAGS) & OCCUPIED) == 0) {
+                        freeChunk(sizeClass, address(slabId, offset));
+                    }
+                }
+            }
+        }
+        
+        private void freeChunk(int sizeClass, long address) {
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            slab.put(offset + FLAGS, (byte) 0);
+            slab.putLong(offset + NEXT_FREE, freeHeads[sizeClass]);
+            freeHeads[sizeClass] = address;
+        }
+        
+        private boolean isExpired(ByteBuffer slab, int offset, long now) {
+            return remaining(slab, offset, now) <= 0;
+        }
+        
+        /**
+         * 剩余写入寿命（不计空闲时间），固定的条目和不过期的条目返回Long.MAX_VALUE
+         */
+        private long remainingLifetime(ByteBuffer slab, int offset, long now) {
+            if ((slab.get(offset + FLAGS) & PINNED) != 0) {
+                return Long.MAX_VALUE;
+            }
+            long ttl = slab.getLong(offset + TTL);
+            long lifetime = ttl != DEFAULT_TTL ? ttl : expireAfterWriteNanos;
+            return lifetime == Long.MAX_VALUE ? Long.MAX_VALUE : lifetime - (now - slab.getLong(offset + WRITE_TIME));
+        }
+        
+        /**
+         * 剩余寿命：写入寿命与空闲时间取先到者，固定条目不过期
+         */
+        private long remaining(ByteBuffer slab, int offset, long now) {
+            if ((slab.get(offset + FLAGS) & PINNED) != 0) {
+                return Long.MAX_VALUE;
+            }
+            long remaining = remainingLifetime(slab, offset, now);
+            long idle = expireAfterAccessNanos;
+            if (idle != Long.MAX_VALUE) {
+                remaining = Math.min(remaining, idle - (now - slab.getLong(offset + ACCESS_TIME)));
+            }
+            return remaining;
+        }
+        
+        private int find(int hash, byte[] key) {
+            int mask = addresses.length - 1;
+            for (int slot = hash & mask; addresses[slot] != NONE; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && keyEquals(addresses[slot], key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+        
+        private boolean keyEquals(long address, byte[] key) {
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            if (slab.getInt(offset + KEY_LENGTH) != key.length) {
+                return false;
+            }
+            int start = offset + HEADER_SIZE;
+            for (int i = 0; i < key.length; i++) {
+                if (slab.get(start + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private void insert(int hash, long address) {
+            if ((count + 1) * 4 > addresses.length * 3) {
+                rehash(addresses.length * 2);
+            }
+            int mask = addresses.length - 1;
+            int slot = hash & mask;
+            while (addresses[slot] != NONE) {
+                slot = (slot + 1) & mask;
+            }
+            addresses[slot] = address;
+            hashes[slot] = hash;
+            count++;
+        }
+        
+        private void rehash(int capacity) {
+            long[] oldAddresses = addresses;
+            int[] oldHashes = hashes;
+            addresses = new long[capacity];
+            hashes = new int[capacity];
+            Arrays.fill(addresses, NONE);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldAddresses.length; i++) {
+                if (oldAddresses[i] != NONE) {
+                    int slot = oldHashes[i] & mask;
+                    while (addresses[slot] != NONE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    addresses[slot] = oldAddresses[i];
+                    hashes[slot] = oldHashes[i];
+                }
+            }
+        }
+        
+        /**
+         * 删除索引槽并释放对应的块
+         */
+        private void removeSlot(int slot) {
+            long address = addresses[slot];
+            deleteSlot(slot);
+            freeChunk(slabClasses.get(slabOf(address)), address);
+        }
+        
+        /**
+         * 从索引中删除指向该地址的槽，块由调用方处理
+         */
+        private void unindex(long address) {
+            int hash = slabs.get(slabOf(address)).getInt(offsetOf(address) + HASH);
+            int mask = addresses.length - 1;
+            for (int slot = hash & mask; addresses[slot] != NONE; slot = (slot + 1) & mask) {
+                if (addresses[slot] == address) {
+                    deleteSlot(slot);
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * 向后移位删除：把探测链上后续的槽前移填补空位，保持查找不被空槽截断
+         */
+        private void deleteSlot(int slot) {
+            int mask = addresses.length - 1;
+            int hole = slot;
+            for (int i = (slot + 1) & mask; addresses[i] != NONE; i = (i + 1) & mask) {
+                int ideal = hashes[i] & mask;
+                boolean movable = hole <= i ? (ideal <= hole || ideal > i) : (ideal <= hole && ideal > i);
+                if (movable) {
+                    addresses[hole] = addresses[i];
+                    hashes[hole] = hashes[i];
+                    hole = i;
+                }
+            }
+            addresses[hole] = NONE;
+            count--;
+        }
+        
+        private void read(ByteBuffer slab, int position, byte[] target) {
+            ByteBuffer view = slab.duplicate();
+            ((Buffer) view).position(position);
+            view.get(target);
+        }
+        
+        private void write(ByteBuffer slab, int position, byte[] source) {
+            ByteBuffer view = slab.duplicate();
+            ((Buffer) view).position(position);
+            view.put(source);
+        }
+    }
+    
+    /**
+     * 从分段中复制出的条目
+     */
+    private static final class RecentEntry {
+        private final String key;
+        private final byte[] value;
+        private final long accessTime;
+        private final long lifetime;
+        
+        RecentEntry(String key, byte[] value, long accessTime, long lifetime) {
+            this.key = key;
+            this.value = value;
+            this.accessTime = accessTime;
+            this.lifetime = lifetime;
+        }
+    }
+}
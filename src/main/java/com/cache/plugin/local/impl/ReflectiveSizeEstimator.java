@@ -0,0 +1,189 @@
+package com.cache.plugin.local.impl;
+
+import com.cache.plugin.local.ValueSizeEstimator;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于反射遍历对象图的大小估算器
+ * 
+ * 按64位JVM（压缩指针）的对象布局近似计算：对象头12字节、引用4字节、按8字节对齐。
+ * 字符串、包装类型、集合和数组按其公开结构计算，无法反射访问的JDK内部字段只计浅层大小。
+ * 共享对象（枚举、Class）不计入，单个值最多遍历 maxObjects 个对象以限制开销。
+ */
+public class ReflectiveSizeEstimator implements ValueSizeEstimator {
+    
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ENTRY_OVERHEAD = 32;
+    
+    private final int maxObjects;
+    
+    // 每个类的浅层大小和引用字段
+    private final ConcurrentMap<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<>();
+    
+    public ReflectiveSizeEstimator() {
+        this(10000);
+    }
+    
+    public ReflectiveSizeEstimator(int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+    
+    @Override
+    public long estimate(Object value) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(value);
+        long size = 0;
+        
+        while (!pending.isEmpty() && visited.size() < maxObjects) {
+            Object current = pending.pop();
+            if (current == null || isShared(current) || !visited.add(current)) {
+                continue;
+            }
+            size += sizeOf(current, pending);
+        }
+        return size;
+    }
+    
+    /**
+     * 计算单个对象的大小，并将其引用的对象加入待遍历队列
+     */
+    private long sizeOf(Object object, Deque<Object> pending) {
+        Class<?> type = object.getClass();
+        if (object instanceof String) {
+            // String对象 + byte[]/char[]（按Latin-1与UTF-16的平均值近似）
+            return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + ((String) object).length() * 2L);
+        }
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+            return align(OBJECT_HEADER + 8);
+        }
+        if (type.isArray()) {
+            return sizeOfArray(object, type.getComponentType(), pending);
+        }
+        if (object instanceof Collection && isJdkType(type)) {
+            Collection<?> collection = (Collection<?>) object;
+            pending.addAll(collection);
+            return align(OBJECT_HEADER + 24) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE)
+                    + (object instanceof Set ? (long) collection.size() * ENTRY_OVERHEAD : 0);
+        }
+        if (object instanceof Map && isJdkType(type)) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                pending.push(entry.getKey());
+                pending.push(entry.getValue());
+            }
+            return align(OBJECT_HEADER + 36) + align(ARRAY_HEADER + (long) map.size() * REFERENCE)
+                    + (long) map.size() * ENTRY_OVERHEAD;
+        }
+        
+        ClassLayout layout = layouts.computeIfAbsent(type, ClassLayout::new);
+        for (Field field : layout.references) {
+            try {
+                pending.push(field.get(object));
+            } catch (IllegalAccessException ignored) {
+                // 无法访问的字段只计浅层大小
+            }
+        }
+        return layout.shallowSize;
+    }
+    
+    /**
+     * 计算数组大小
+     */
+    private long sizeOfArray(Object array, Class<?> componentType, Deque<Object> pending) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+        }
+        for (int i = 0; i < length; i++) {
+            pending.push(Array.get(array, i));
+        }
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+    
+    /**
+     * 是否为共享对象
+     */
+    private static boolean isShared(Object object) {
+        return object instanceof Enum || object instanceof Class;
+    }
+    
+    /**
+     * 是否为JDK类型，JDK 9+ 无法反射访问其内部字段
+     */
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+    
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+    
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+    
+    /**
+     * 类的浅层布局
+     */
+    private static final class ClassLayout {
+        private final long shallowSize;
+        private final List<Field> references = new ArrayList<>();
+        
+        ClassLayout(Class<?> type) {
+            long size = OBJECT_HEADER;
+            boolean accessible = !isJdkType(type);
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        size += primitiveSize(field.getType());
+                        continue;
+                    }
+                    size += REFERENCE;
+                    if (accessible && trySetAccessible(field)) {
+                        references.add(field);
+                    }
+                }
+            }
+            this.shallowSize = align(size);
+        }
+        
+        private static boolean trySetAccessible(Field field) {
+            try {
+                field.setAccessible(true);
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.cache.plugin.local.impl;
+
+import com.cache.plugin.local.ValueSizeEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * 基于Java序列化长度的大小估算器
+ * 
+ * 序列化长度与远程缓存中的占用更接近，但开销高于反射估算；不可序列化的值交给 fallback 估算。
+ */
+public class SerializedSizeEstimator implements ValueSizeEstimator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SerializedSizeEstimator.class);
+    
+    private final ValueSizeEstimator fallback;
+    
+    public SerializedSizeEstimator() {
+        this(new ReflectiveSizeEstimator());
+    }
+    
+    public SerializedSizeEstimator(ValueSizeEstimator fallback) {
+        this.fallback = fallback;
+    }
+    
+    @Override
+    public long estimate(Object value) {
+        if (!(value instanceof Serializable)) {
+            return fallback.estimate(value);
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to serialize value of type {}, falling back", value.getClass().getName(), e);
+            return fallback.estimate(value);
+        }
+        return counter.count;
+    }
+    
+    /**
+     * 只计数不保存数据的输出流
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.cache.plugin.metrics;
 
 import com.cache.plugin.core.TieredCacheManager;
 import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.remote.CircuitBreaker;
 import com.cache.plugin.remote.RemoteCache;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
@@ -104,6 +105,19 @@ public class CacheHealthIndicator implements HealthIndicator {
                 return false;
             }
             
+            // 熔断期间不再探测连接，避免健康检查本身等待远程超时
+            CircuitBreaker circuitBreaker = remoteCache.getCircuitBreaker();
+            if (circuitBreaker != null) {
+                builder.withDetail("remote-cache-circuit", circuitBreaker.getState().name())
+                       .withDetail("remote-cache-failure-rate", circuitBreaker.getFailureRate())
+                       .withDetail("remote-cache-slow-call-rate", circuitBreaker.getSlowCallRate())
+                       .withDetail("remote-cache-rejected-calls", circuitBreaker.getRejectedCount());
+                if (circuitBreaker.isOpen()) {
+                    builder.withDetail("remote-cache", "CIRCUIT_OPEN");
+                    return false;
+                }
+            }
+            
             boolean connected = remoteCache.isConnected();
             if (connected) {
                 builder.withDetail("remote-cache", "UP")
@@ -1,6 +1,15 @@
 package com.cache.plugin.metrics;
 
+import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.codec.CompressionStats;
+import com.cache.plugin.core.AdaptiveReadPolicy;
+import com.cache.plugin.core.CacheTaskExecutor;
+import com.cache.plugin.disk.DiskCache;
+import com.cache.plugin.remote.CircuitBreaker;
+import com.cache.plugin.remote.RemoteCache;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -8,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -22,10 +32,14 @@ public class CacheMetrics {
     // 计数器
     private final Counter localHitCounter;
     private final Counter remoteHitCounter;
+    private final Counter diskHitCounter;
     private final Counter missCounter;
     private final Counter putCounter;
     private final Counter evictCounter;
     private final Counter errorCounter;
+    private final Counter nullHitCounter;
+    private final Counter nullPutCounter;
+    private final Counter bloomRejectCounter;
     
     // 计时器
     private final Timer localGetTimer;
@@ -37,7 +51,9 @@ public class CacheMetrics {
     private final AtomicLong totalRequests = new AtomicLong(0);
     private final AtomicLong localHits = new AtomicLong(0);
     private final AtomicLong remoteHits = new AtomicLong(0);
+    private final AtomicLong diskHits = new AtomicLong(0);
     private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong nullHits = new AtomicLong(0);
     
     public CacheMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -53,6 +69,11 @@ public class CacheMetrics {
                 .tag("level", "remote")
                 .register(meterRegistry);
                 
+        this.diskHitCounter = Counter.builder("cache.disk.hit")
+                .description("Disk cache hit count")
+                .tag("level", "disk")
+                .register(meterRegistry);
+                
         this.missCounter = Counter.builder("cache.miss")
                 .description("Cache miss count")
                 .register(meterRegistry);
@@ -68,6 +89,18 @@ public class CacheMetrics {
         this.errorCounter = Counter.builder("cache.error")
                 .description("Cache error count")
                 .register(meterRegistry);
+                
+        this.nullHitCounter = Counter.builder("cache.null.hit")
+                .description("Cached null value hit count")
+                .register(meterRegistry);
+                
+        this.nullPutCounter = Counter.builder("cache.null.put")
+                .description("Cached null value put count")
+                .register(meterRegistry);
+                
+        this.bloomRejectCounter = Counter.builder("cache.bloom.reject")
+                .description("Remote lookups skipped by the Bloom filter")
+                .register(meterRegistry);
         
         // 初始化计时器
         this.localGetTimer = Timer.builder("cache.local.get.duration")
@@ -151,6 +184,183 @@ public class CacheMetrics {
         logger.debug("Recorded cache miss");
     }
     
+    /**
+     * 批量记录本地缓存命中
+     */
+    public void recordLocalHits(long count) {
+        localHitCounter.increment(count);
+        localHits.addAndGet(count);
+        totalRequests.addAndGet(count);
+        logger.debug("Recorded {} local cache hits", count);
+    }
+    
+    /**
+     * 批量记录远程缓存命中
+     */
+    public void recordRemoteHits(long count) {
+        remoteHitCounter.increment(count);
+        remoteHits.addAndGet(count);
+        totalRequests.addAndGet(count);
+        logger.debug("Recorded {} remote cache hits", count);
+    }
+    
+    /**
+     * 批量记录磁盘缓存命中
+     */
+    public void recordDiskHits(long count) {
+        diskHitCounter.increment(count);
+        diskHits.addAndGet(count);
+        totalRequests.addAndGet(count);
+        logger.debug("Recorded {} disk cache hits", count);
+    }
+    
+    /**
+     * 批量记录缓存未命中
+     */
+    public void recordMisses(long count) {
+        missCounter.increment(count);
+        misses.addAndGet(count);
+        totalRequests.addAndGet(count);
+        logger.debug("Recorded {} cache misses", count);
+    }
+    
+    /**
+     * 记录空值标记命中
+     */
+    public void recordNullHit() {
+        nullHitCounter.increment();
+        nullHits.incrementAndGet();
+        logger.debug("Recorded cached null hit");
+    }
+    
+    /**
+     * 记录空值标记写入
+     */
+    public void recordNullPut() {
+        nullPutCounter.increment();
+        logger.debug("Recorded cached null put");
+    }
+    
+    /**
+     * 记录被布隆过滤器拦截的远程查询
+     */
+    public void recordBloomFilterRejects(long count) {
+        bloomRejectCounter.increment(count);
+        logger.debug("Recorded {} Bloom filter rejects", count);
+    }
+    
+    /**
+     * 注册区域自适应策略的指标：当前选择（0为本地优先，1为远程优先）和切换次数
+     */
+    public void registerAdaptivePolicy(String region, AdaptiveReadPolicy policy) {
+        Gauge.builder("cache.adaptive.strategy", policy,
+                      p -> p.getStrategy() == CacheStrategy.REMOTE_FIRST ? 1 : 0)
+                .description("Read path chosen by the adaptive strategy (0 = local-first, 1 = remote-first)")
+                .tag("region", region)
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.adaptive.switches", policy, AdaptiveReadPolicy::getSwitchCount)
+                .description("Adaptive strategy switch count")
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 注册磁盘缓存的指标：条目数和段文件占用的磁盘空间
+     */
+    public void registerDiskCache(DiskCache<?, ?> diskCache) {
+        Gauge.builder("cache.disk.size", diskCache, DiskCache::size)
+                .description("Entries in the disk cache")
+                .register(meterRegistry);
+        
+        Gauge.builder("cache.disk.usage", diskCache, DiskCache::getDiskUsage)
+                .description("Bytes used by disk cache segment files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 注册异步任务执行器的指标：各通道的排队任务数和拒绝数
+     */
+    public void registerTaskExecutor(CacheTaskExecutor taskExecutor) {
+        for (CacheTaskExecutor.Lane lane : CacheTaskExecutor.Lane.values()) {
+            String laneName = lane.name().toLowerCase();
+            Gauge.builder("cache.executor.queue.depth", taskExecutor, executor -> executor.getQueueDepth(lane))
+                    .description("Pending cache tasks in the lane")
+                    .tag("lane", laneName)
+                    .register(meterRegistry);
+            
+            FunctionCounter.builder("cache.executor.rejected", taskExecutor, executor -> executor.getRejectedCount(lane))
+                    .description("Cache tasks rejected because the lane was full")
+                    .tag("lane", laneName)
+                    .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * 注册远程缓存熔断器的指标：当前状态（0为关闭，1为熔断，2为半开）、熔断次数和被拒绝的调用数
+     */
+    public void registerCircuitBreaker(CircuitBreaker circuitBreaker) {
+        Gauge.builder("cache.remote.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Remote cache circuit breaker state (0 = closed, 1 = open, 2 = half-open)")
+                .tag("name", circuitBreaker.getName())
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.remote.circuit.opened", circuitBreaker, CircuitBreaker::getOpenCount)
+                .description("Times the remote cache circuit breaker opened")
+                .tag("name", circuitBreaker.getName())
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.remote.circuit.rejected", circuitBreaker, CircuitBreaker::getRejectedCount)
+                .description("Remote cache calls rejected while the circuit breaker was open")
+                .tag("name", circuitBreaker.getName())
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 注册熔断期间被推迟的远程删除的指标：待重试的删除数和累计推迟的删除数
+     */
+    public void registerDeferredEvicts(RemoteCache<?, ?> remoteCache) {
+        Gauge.builder("cache.remote.evict.pending", remoteCache, RemoteCache::getPendingEvictCount)
+                .description("Remote evicts deferred by the circuit breaker and waiting to be retried")
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.remote.evict.deferred", remoteCache, RemoteCache::getDeferredEvictCount)
+                .description("Remote evicts deferred while the circuit breaker was open")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 注册远程缓存值压缩的指标：压缩率（原始字节数除以写入字节数）、字节数和压缩、解压耗时
+     */
+    public void registerCompression(CompressionStats stats) {
+        Gauge.builder("cache.remote.compression.ratio", stats, CompressionStats::getRatio)
+                .description("Uncompressed bytes divided by stored bytes for values eligible for compression")
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.remote.compression.bytes", stats, CompressionStats::getRawBytes)
+                .description("Bytes of values eligible for compression")
+                .tag("stage", "raw")
+                .register(meterRegistry);
+        
+        FunctionCounter.builder("cache.remote.compression.bytes", stats, CompressionStats::getStoredBytes)
+                .description("Bytes of values eligible for compression")
+                .tag("stage", "stored")
+                .register(meterRegistry);
+        
+        FunctionTimer.builder("cache.remote.compression.duration", stats,
+                        CompressionStats::getCompressionCount, s -> s.getCompressTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Time spent compressing remote cache values")
+                .tag("operation", "compress")
+                .register(meterRegistry);
+        
+        FunctionTimer.builder("cache.remote.compression.duration", stats,
+                        CompressionStats::getDecompressionCount, s -> s.getDecompressTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .description("Time spent decompressing remote cache values")
+                .tag("operation", "decompress")
+                .register(meterRegistry);
+    }
+    
     /**
      * 记录缓存存储
      */
@@ -215,7 +425,7 @@ public class CacheMetrics {
         if (total == 0) {
             return 0.0;
         }
-        long hits = localHits.get() + remoteHits.get();
+        long hits = localHits.get() + remoteHits.get() + diskHits.get();
         return (double) hits / total;
     }
     
@@ -262,6 +472,13 @@ public class CacheMetrics {
         return remoteHits.get();
     }
     
+    /**
+     * 获取磁盘命中数
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+    
     /**
      * 获取未命中数
      */
@@ -269,6 +486,13 @@ public class CacheMetrics {
         return misses.get();
     }
     
+    /**
+     * 获取空值标记命中数
+     */
+    public long getNullHits() {
+        return nullHits.get();
+    }
+    
     /**
      * 重置所有统计
      */
@@ -276,7 +500,9 @@ public class CacheMetrics {
         totalRequests.set(0);
         localHits.set(0);
         remoteHits.set(0);
+        diskHits.set(0);
         misses.set(0);
+        nullHits.set(0);
         logger.info("Cache metrics reset");
     }
     
@@ -0,0 +1,118 @@
+package com.cache.plugin.metrics;
+
+import com.cache.plugin.core.AdaptiveReadPolicy;
+import com.cache.plugin.core.CacheRegion;
+import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.local.LocalCache;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分层缓存管理端点
+ *
+ * GET /actuator/tieredcache 查看所有区域，GET /actuator/tieredcache/{region} 查看单个区域；
+ * POST /actuator/tieredcache/{region} 在运行时调整区域的 maxSize、expireAfterWrite、expireAfterAccess，
+ * POST /actuator/tieredcache 按当前配置重新应用所有区域的本地缓存设置。
+ */
+@Endpoint(id = "tieredcache")
+public class TieredCacheEndpoint {
+    
+    private final TieredCacheManager cacheManager;
+    
+    public TieredCacheEndpoint(TieredCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+    
+    /**
+     * 所有区域的概况
+     */
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Map<String, Object> regions = new TreeMap<>();
+        for (CacheRegion region : cacheManager.getRegions()) {
+            regions.put(region.getName(), describe(region));
+        }
+        return regions;
+    }
+    
+    /**
+     * 单个区域的概况
+     */
+    @ReadOperation
+    public Map<String, Object> region(@Selector String name) {
+        if (!cacheManager.hasRegion(name)) {
+            return null;
+        }
+        return describe(cacheManager.getRegion(name));
+    }
+    
+    /**
+     * 调整区域本地缓存的容量和过期时间，未提供的参数保持不变
+     */
+    @WriteOperation
+    public Map<String, Object> reconfigure(@Selector String name, @Nullable Long maxSize,
+                                           @Nullable Duration expireAfterWrite, @Nullable Duration expireAfterAccess) {
+        if (!cacheManager.hasRegion(name)) {
+            return null;
+        }
+        cacheManager.reconfigureRegion(name, maxSize, expireAfterWrite, expireAfterAccess);
+        return describe(cacheManager.getRegion(name));
+    }
+    
+    /**
+     * 按当前配置重新应用所有区域的本地缓存设置
+     */
+    @WriteOperation
+    public Map<String, Object> reload() {
+        cacheManager.reloadLocalSettings();
+        return regions();
+    }
+    
+    /**
+     * 区域概况
+     */
+    private Map<String, Object> describe(CacheRegion region) {
+        LocalCache<String, Object> local = region.getLocalCache();
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("maxSize", local.getMaxSize());
+        info.put("size", local.getCurrentSize());
+        info.put("expireAfterWrite", local.getExpireAfterWrite());
+        info.put("expireAfterAccess", local.getExpireAfterAccess());
+        info.put("namespace", region.getNamespace());
+        info.put("ttl", region.getTtl());
+        info.put("localHits", region.getLocalHits());
+        info.put("remoteHits", region.getRemoteHits());
+        info.put("diskHits", region.getDiskHits());
+        info.put("misses", region.getMisses());
+        info.put("hitRate", region.getHitRate());
+        if (region.getBloomFilter() != null) {
+            Map<String, Object> bloomFilter = new LinkedHashMap<>();
+            bloomFilter.put("key", region.getBloomFilterKey());
+            bloomFilter.put("active", region.isBloomFilterActive());
+            bloomFilter.put("bitSize", region.getBloomFilter().getBitSize());
+            bloomFilter.put("hashCount", region.getBloomFilter().getHashCount());
+            bloomFilter.put("fillRatio", region.getBloomFilter().getFillRatio());
+            bloomFilter.put("rejects", region.getBloomFilterRejects());
+            info.put("bloomFilter", bloomFilter);
+        }
+        AdaptiveReadPolicy adaptive = region.getAdaptivePolicy();
+        if (adaptive != null) {
+            Map<String, Object> policy = new LinkedHashMap<>();
+            policy.put("strategy", adaptive.getStrategy());
+            policy.put("localHitRatio", adaptive.getLocalHitRatio());
+            policy.put("invalidationRatio", adaptive.getInvalidationRatio());
+            policy.put("remoteLatencyMicros", adaptive.getRemoteLatencyNanos() / 1000);
+            policy.put("switches", adaptive.getSwitchCount());
+            info.put("adaptive", policy);
+        }
+        return info;
+    }
+}
@@ -0,0 +1,43 @@
+package com.cache.plugin.remote;
+
+import java.util.function.Consumer;
+
+/**
+ * 布隆过滤器共享存储，以位图形式在节点间共享过滤器
+ * 
+ * 位编号与Redis位图一致：第0位为第0个字节的最高位。
+ */
+public interface BloomFilterStore {
+    
+    /**
+     * 将位图中指定的位置为1，实现应在一次往返内完成（如管道）
+     * 
+     * @param key 位图键
+     * @param offsets 位编号
+     */
+    void setBits(String key, long[] offsets);
+    
+    /**
+     * 读取整个位图
+     * 
+     * @param key 位图键
+     * @return 位图，不存在时返回null
+     */
+    byte[] getBits(String key);
+    
+    /**
+     * 用新的位图替换原有位图
+     * 
+     * @param key 位图键
+     * @param bitmap 位图
+     */
+    void replace(String key, byte[] bitmap);
+    
+    /**
+     * 遍历匹配模式的远程键（增量扫描，不阻塞服务端）
+     * 
+     * @param pattern 键模式
+     * @param consumer 键处理器
+     */
+    void scan(String pattern, Consumer<String> consumer);
+}
@@ -0,0 +1,225 @@
+package com.cache.plugin.remote;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 远程缓存熔断器
+ *
+ * 按最近 slidingWindowSize 次调用统计失败比例和慢调用比例，调用数达到 minimumCalls 后任一比例超过阈值即熔断（OPEN）：
+ * 熔断期间远程调用直接失败，不再等待超时。经过 waitDurationInOpenState 后进入半开状态（HALF_OPEN），
+ * 放行 permittedCallsInHalfOpenState 次探测调用，探测结果未超过阈值时恢复（CLOSED），否则重新熔断。
+ */
+public class CircuitBreaker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final TieredCacheProperties.CircuitBreakerProperties properties;
+    private final long slowCallNanos;
+    private final long waitNanos;
+    
+    // 最近调用结果的环形窗口
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int halfOpenPermits;
+    
+    private final AtomicLong openCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    
+    public CircuitBreaker(String name, TieredCacheProperties.CircuitBreakerProperties properties) {
+        if (properties.getPermittedCallsInHalfOpenState() > properties.getSlidingWindowSize()) {
+            // 半开状态需要记录满探测调用数才能结束，窗口放不下时会一直停留在半开状态
+            throw new IllegalArgumentException("permittedCallsInHalfOpenState ("
+                    + properties.getPermittedCallsInHalfOpenState() + ") must not exceed slidingWindowSize ("
+                    + properties.getSlidingWindowSize() + ")");
+        }
+        this.name = name;
+        this.properties = properties;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.waitNanos = properties.getWaitDurationInOpenState().toNanos();
+        int windowSize = Math.max(1, properties.getSlidingWindowSize());
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+    
+    /**
+     * 申请一次远程调用，返回false时调用方应直接失败
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= waitNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                return true;
+            }
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+    
+    /**
+     * 是否处于熔断状态且尚未到半开探测时间，调用方可据此直接跳过远程层
+     */
+    public boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAt < waitNanos;
+    }
+    
+    /**
+     * 记录一次成功调用
+     *
+     * @param nanos 调用耗时
+     */
+    public void onSuccess(long nanos) {
+        record(false, nanos >= slowCallNanos);
+    }
+    
+    /**
+     * 记录一次失败调用
+     *
+     * @param nanos 调用耗时
+     */
+    public void onError(long nanos) {
+        record(true, nanos >= slowCallNanos);
+    }
+    
+    private synchronized void record(boolean failure, boolean slowCall) {
+        if (state == State.OPEN) {
+            // 熔断前发出的调用，结果不再计入
+            return;
+        }
+        if (recorded == failed.length) {
+            failures -= failed[position] ? 1 : 0;
+            slowCalls -= slow[position] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[position] = failure;
+        slow[position] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        position = (position + 1) % failed.length;
+        
+        if (state == State.HALF_OPEN) {
+            if (recorded >= properties.getPermittedCallsInHalfOpenState()) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= properties.getMinimumCalls() && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+    
+    private boolean exceedsThresholds() {
+        return getFailureRate() >= properties.getFailureRateThreshold()
+                || getSlowCallRate() >= properties.getSlowCallRateThreshold();
+    }
+    
+    private void transitionTo(State newState) {
+        State oldState = state;
+        resetWindow();
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+            openCount.incrementAndGet();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = Math.max(1, properties.getPermittedCallsInHalfOpenState());
+        }
+        state = newState;
+        if (newState == State.OPEN) {
+            logger.warn("Circuit breaker {} transitioned from {} to OPEN, remote calls will fail fast for {}",
+                       name, oldState, properties.getWaitDurationInOpenState());
+        } else {
+            logger.info("Circuit breaker {} transitioned from {} to {}", name, oldState, newState);
+        }
+    }
+    
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenPermits = 0;
+    }
+    
+    /**
+     * 强制熔断，用于运维手动摘除远程缓存
+     */
+    public synchronized void forceOpen() {
+        transitionTo(State.OPEN);
+    }
+    
+    /**
+     * 强制恢复并清空统计
+     */
+    public synchronized void reset() {
+        transitionTo(State.CLOSED);
+    }
+    
+    /**
+     * 当前状态
+     */
+    public State getState() {
+        return state;
+    }
+    
+    /**
+     * 当前窗口内的失败比例
+     */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+    
+    /**
+     * 当前窗口内的慢调用比例
+     */
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0.0 : (double) slowCalls / recorded;
+    }
+    
+    /**
+     * 累计熔断次数
+     */
+    public long getOpenCount() {
+        return openCount.get();
+    }
+    
+    /**
+     * 累计被拒绝的调用数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+    
+    /**
+     * 熔断器名称
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cache.plugin.remote;
+
+import java.util.Collection;
+
+/**
+ * 远程缓存失效通知监听器
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+    
+    /**
+     * 远程键已被修改、删除或过期
+     * 
+     * @param keys 失效的远程键，为null时表示所有键均已失效（例如FLUSHDB或跟踪连接重连后可能遗漏通知）
+     */
+    void onInvalidate(Collection<String> keys);
+}
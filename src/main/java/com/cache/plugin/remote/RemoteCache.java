@@ -1,8 +1,11 @@
 package com.cache.plugin.remote;
 
+import com.cache.plugin.codec.CompressionStats;
 import com.cache.plugin.core.TieredCache;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 远程缓存接口
@@ -26,6 +29,14 @@ public interface RemoteCache<K, V> extends TieredCache<K, V> {
      */
     Duration getDefaultTtl();
     
+    /**
+     * 批量存储并设置统一的过期时间，实现应在一次往返内完成（如管道）
+     * 
+     * @param keyValues 键值对映射
+     * @param ttl 过期时间
+     */
+    void multiPut(Map<K, V> keyValues, Duration ttl);
+    
     /**
      * 发布消息到指定频道
      * 
@@ -89,4 +100,67 @@ public interface RemoteCache<K, V> extends TieredCache<K, V> {
      * @return 剩余过期时间，如果键不存在或没有设置过期时间返回null
      */
     Duration getExpire(K key);
+    
+    /**
+     * 获取远程调用的熔断器
+     * 
+     * @return 熔断器，未启用熔断时返回null
+     */
+    default CircuitBreaker getCircuitBreaker() {
+        return null;
+    }
+    
+    /**
+     * 获取熔断期间被推迟、等待远程缓存恢复后重试的删除数
+     * 
+     * @return 待重试的删除数
+     */
+    default long getPendingEvictCount() {
+        return 0;
+    }
+    
+    /**
+     * 获取累计因熔断被推迟的删除数
+     * 
+     * @return 累计推迟的删除数
+     */
+    default long getDeferredEvictCount() {
+        return 0;
+    }
+    
+    /**
+     * 获取值压缩统计
+     * 
+     * @return 压缩统计，未启用压缩时返回null
+     */
+    default CompressionStats getCompressionStats() {
+        return null;
+    }
+    
+    /**
+     * 设置后台任务（如压缩字典的训练与续期）的执行器，由缓存管理器在创建时设置
+     * 
+     * @param executor 后台执行器
+     */
+    default void setBackgroundExecutor(Executor executor) {
+    }
+    
+    /**
+     * 注册由服务端推送的失效通知监听器
+     * 
+     * @param listener 失效通知监听器
+     * @return 是否支持服务端推送失效通知，不支持时调用方应继续使用同步频道
+     */
+    default boolean addInvalidationListener(InvalidationListener listener) {
+        return false;
+    }
+    
+    /**
+     * 服务端是否对所有键推送失效通知（客户端缓存跟踪的BCAST模式且未限定前缀）
+     * 
+     * @return 为true时其他节点的写入由服务端通知，各节点无需再广播写入事件
+     */
+    default boolean isTrackingAllKeys() {
+        return false;
+    }
 }
\ No newline at end of file
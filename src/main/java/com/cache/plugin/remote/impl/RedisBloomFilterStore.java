@@ -0,0 +1,110 @@
+package com.cache.plugin.remote.impl;
+
+import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.remote.BloomFilterStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis位图的布隆过滤器存储
+ * 
+ * 直接操作原始字节，不经过RedisTemplate的值序列化，位图可被其他客户端以SETBIT/GETBIT读写。
+ */
+public class RedisBloomFilterStore implements BloomFilterStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RedisBloomFilterStore.class);
+    
+    private static final long SCAN_COUNT = 1000;
+    
+    private final RedisTemplate<String, Object> redisTemplate;
+    
+    public RedisBloomFilterStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+    
+    @Override
+    public void setBits(String key, long[] offsets) {
+        if (offsets == null || offsets.length == 0) {
+            return;
+        }
+        byte[] rawKey = rawKey(key);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long offset : offsets) {
+                    connection.stringCommands().setBit(rawKey, offset, true);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Failed to set Bloom filter bits for key: {}", key, e);
+            throw new CacheException("Failed to set Bloom filter bits", e);
+        }
+    }
+    
+    @Override
+    public byte[] getBits(String key) {
+        byte[] rawKey = rawKey(key);
+        try {
+            return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        } catch (Exception e) {
+            logger.error("Failed to get Bloom filter bitmap for key: {}", key, e);
+            throw new CacheException("Failed to get Bloom filter bitmap", e);
+        }
+    }
+    
+    @Override
+    public void replace(String key, byte[] bitmap) {
+        byte[] rawKey = rawKey(key);
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(rawKey, bitmap));
+        } catch (Exception e) {
+            logger.error("Failed to replace Bloom filter bitmap for key: {}", key, e);
+            throw new CacheException("Failed to replace Bloom filter bitmap", e);
+        }
+    }
+    
+    @Override
+    public void scan(String pattern, Consumer<String> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                scan(connection, options, consumer);
+                return null;
+            });
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to scan keys with pattern: {}", pattern, e);
+            throw new CacheException("Failed to scan keys", e);
+        }
+    }
+    
+    private void scan(RedisConnection connection, ScanOptions options, Consumer<String> consumer) {
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext()) {
+                consumer.accept(deserializeKey(cursor.next()));
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        RedisSerializer<String> serializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        return serializer != null ? serializer.serialize(key) : key.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private String deserializeKey(byte[] rawKey) {
+        RedisSerializer<String> serializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        return serializer != null ? serializer.deserialize(rawKey) : new String(rawKey, StandardCharsets.UTF_8);
+    }
+}
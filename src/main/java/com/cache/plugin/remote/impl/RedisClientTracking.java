@@ -0,0 +1,342 @@
+package com.cache.plugin.remote.impl;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.remote.InvalidationListener;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis客户端缓存跟踪（CLIENT TRACKING）
+ *
+ * 使用一条独立的RESP3连接开启跟踪，服务端在键被修改、删除或过期时推送 invalidate 消息，转发给注册的监听器。
+ * BCAST模式按键前缀订阅；DEFAULT模式下远程读取经由该连接执行，服务端只通知本节点读取过的键。
+ * 跟踪以NOLOOP开启，本节点的写入也经由该连接执行，不会使刚写入本地的值失效。
+ * 连接断开期间的通知会丢失，重连后重新开启跟踪并通知所有键失效。
+ */
+public class RedisClientTracking {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RedisClientTracking.class);
+    
+    private static final String INVALIDATE = "invalidate";
+    
+    private final TieredCacheProperties.ClientTrackingProperties properties;
+    private final RedisClient client;
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final RedisSerializer<String> keySerializer;
+    private final RedisSerializer<?> valueSerializer;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong invalidationCount = new AtomicLong(0);
+    
+    private volatile boolean connected;
+    
+    RedisClientTracking(TieredCacheProperties.ClientTrackingProperties properties, RedisClient client,
+                        RedisSerializer<String> keySerializer, RedisSerializer<?> valueSerializer) {
+        this.properties = properties;
+        this.client = client;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.connection = client.connect(ByteArrayCodec.INSTANCE);
+        this.connection.addListener(this::onPushMessage);
+        this.connection.sync().clientTracking(trackingArgs());
+        this.connected = true;
+        client.addListener(new ReconnectListener());
+        logger.info("Redis client tracking enabled in {} mode with prefixes: {}",
+                   properties.getMode(), properties.getPrefixes());
+    }
+    
+    /**
+     * 基于RedisTemplate的连接工厂创建跟踪连接，不支持时（非Lettuce、集群或哨兵、Redis 6以下）返回null
+     */
+    @SuppressWarnings("unchecked")
+    public static RedisClientTracking create(TieredCacheProperties.ClientTrackingProperties properties,
+                                             RedisConnectionFactory connectionFactory,
+                                             RedisSerializer<?> keySerializer,
+                                             RedisSerializer<?> valueSerializer) {
+        if (!(connectionFactory instanceof LettuceConnectionFactory)) {
+            logger.warn("Redis client tracking requires Lettuce, falling back to the sync channel");
+            return null;
+        }
+        LettuceConnectionFactory factory = (LettuceConnectionFactory) connectionFactory;
+        if (factory.isClusterAware() || factory.isRedisSentinelAware()) {
+            logger.warn("Redis client tracking supports standalone Redis only, falling back to the sync channel");
+            return null;
+        }
+        RedisClient client = null;
+        try {
+            client = RedisClient.create(redisUri(factory));
+            // 失效通知以RESP3推送消息送达同一连接
+            client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+            return new RedisClientTracking(properties, client, (RedisSerializer<String>) keySerializer, valueSerializer);
+        } catch (Exception e) {
+            logger.warn("Failed to enable Redis client tracking (requires Redis 6+), falling back to the sync channel", e);
+            if (client != null) {
+                client.shutdown();
+            }
+            return null;
+        }
+    }
+    
+    private static RedisURI redisUri(LettuceConnectionFactory factory) {
+        RedisURI.Builder builder = RedisURI.Builder.redis(factory.getHostName(), factory.getPort())
+                .withDatabase(factory.getDatabase())
+                .withSsl(factory.isUseSsl())
+                .withTimeout(Duration.ofMillis(factory.getTimeout()));
+        String username = factory.getStandaloneConfiguration().getUsername();
+        String password = factory.getPassword();
+        if (password != null && !password.isEmpty()) {
+            if (username != null && !username.isEmpty()) {
+                builder.withAuthentication(username, password);
+            } else {
+                builder.withPassword(password.toCharArray());
+            }
+        }
+        return builder.build();
+    }
+    
+    private TrackingArgs trackingArgs() {
+        // NOLOOP：本连接执行的写入不通知本节点
+        TrackingArgs args = TrackingArgs.Builder.enabled().noloop();
+        if (properties.getMode() == TieredCacheProperties.TrackingMode.BCAST) {
+            args.bcast();
+            List<String> prefixes = properties.getPrefixes();
+            if (prefixes != null && !prefixes.isEmpty()) {
+                args.prefixes(prefixes.toArray(new String[0]));
+            }
+        }
+        return args;
+    }
+    
+    /**
+     * 注册失效通知监听器
+     */
+    public void addListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * 远程读取是否应经由跟踪连接执行（DEFAULT模式）
+     */
+    public boolean isTrackingReads() {
+        return properties.getMode() == TieredCacheProperties.TrackingMode.DEFAULT;
+    }
+    
+    /**
+     * 服务端是否对所有键推送失效通知（BCAST模式且未限定前缀），此时其他节点的写入无需再经同步频道广播
+     */
+    public boolean isTrackingAllKeys() {
+        List<String> prefixes = properties.getPrefixes();
+        return properties.getMode() == TieredCacheProperties.TrackingMode.BCAST
+                && (prefixes == null || prefixes.isEmpty());
+    }
+    
+    /**
+     * 经由跟踪连接读取，服务端记录该键并在其被修改时通知
+     */
+    public Object get(String key) {
+        return deserializeValue(connection.sync().get(rawKey(key)));
+    }
+    
+    /**
+     * 经由跟踪连接批量读取，返回值与keys一一对应，不存在的键对应null
+     */
+    public List<Object> multiGet(List<String> keys) {
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(keys.get(i));
+        }
+        List<Object> values = new ArrayList<>(keys.size());
+        for (KeyValue<byte[], byte[]> keyValue : connection.sync().mget(rawKeys)) {
+            values.add(keyValue.hasValue() ? deserializeValue(keyValue.getValue()) : null);
+        }
+        return values;
+    }
+    
+    /**
+     * 经由跟踪连接写入，ttl为null时不过期。NOLOOP下本节点不会收到该写入的失效通知
+     */
+    public void set(String key, Object value, Duration ttl) {
+        if (ttl != null) {
+            connection.sync().set(rawKey(key), serializeValue(value), SetArgs.Builder.px(ttl.toMillis()));
+        } else {
+            connection.sync().set(rawKey(key), serializeValue(value));
+        }
+    }
+    
+    /**
+     * 经由跟踪连接批量写入，ttl为null时以MSET写入，否则逐个SET并等待全部完成
+     */
+    public void multiSet(Map<String, Object> keyValues, Duration ttl) {
+        if (ttl == null) {
+            Map<byte[], byte[]> rawValues = new LinkedHashMap<>(keyValues.size() * 2);
+            for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+                rawValues.put(rawKey(entry.getKey()), serializeValue(entry.getValue()));
+            }
+            connection.sync().mset(rawValues);
+            return;
+        }
+        RedisAsyncCommands<byte[], byte[]> commands = connection.async();
+        SetArgs args = SetArgs.Builder.px(ttl.toMillis());
+        List<RedisFuture<String>> futures = new ArrayList<>(keyValues.size());
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            futures.add(commands.set(rawKey(entry.getKey()), serializeValue(entry.getValue()), args));
+        }
+        if (!LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]))) {
+            throw new RedisCommandTimeoutException("Timed out writing " + keyValues.size() + " keys on the tracking connection");
+        }
+    }
+    
+    /**
+     * 处理服务端推送的失效消息：[invalidate, 键数组]，键数组为null表示全部失效（FLUSHALL/FLUSHDB）
+     */
+    void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(this::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List) {
+            List<String> invalidated = new ArrayList<>();
+            for (Object key : (List<?>) keys) {
+                if (key instanceof String) {
+                    invalidated.add((String) key);
+                }
+            }
+            invalidationCount.addAndGet(invalidated.size());
+            notifyListeners(invalidated);
+        } else {
+            logger.info("Redis flushed all tracked keys, invalidating local caches");
+            notifyListeners(null);
+        }
+    }
+    
+    private void notifyListeners(Collection<String> keys) {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidate(keys);
+            } catch (Exception e) {
+                logger.error("Failed to handle invalidation of keys: {}", keys, e);
+            }
+        }
+    }
+    
+    /**
+     * 推送消息中的键以ByteBuffer送达，按RedisTemplate的键序列化方式解码
+     */
+    private Object decodeKey(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return keySerializer != null ? keySerializer.deserialize(bytes) : new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private byte[] rawKey(String key) {
+        return keySerializer != null ? keySerializer.serialize(key) : key.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        if (valueSerializer != null) {
+            return ((RedisSerializer<Object>) valueSerializer).serialize(value);
+        }
+        return (byte[]) value;
+    }
+    
+    private Object deserializeValue(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        return valueSerializer != null ? valueSerializer.deserialize(value) : value;
+    }
+    
+    /**
+     * 跟踪连接是否可用
+     */
+    public boolean isConnected() {
+        return connected && connection.isOpen();
+    }
+    
+    /**
+     * 累计收到的失效键数
+     */
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+    
+    /**
+     * 关闭跟踪连接
+     */
+    public void close() {
+        connected = false;
+        try {
+            connection.close();
+        } finally {
+            client.shutdown();
+        }
+    }
+    
+    /**
+     * 跟踪状态随连接丢失，重连后重新开启跟踪，并通知所有键失效以覆盖断开期间遗漏的通知
+     */
+    private class ReconnectListener implements RedisConnectionStateListener {
+        
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+            if (handler != connection || connected) {
+                return;
+            }
+            // 在事件循环线程上回调，不能同步等待命令结果
+            connection.async().clientTracking(trackingArgs()).whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.error("Failed to re-enable Redis client tracking after reconnect", error);
+                    return;
+                }
+                connected = true;
+                logger.info("Redis client tracking re-enabled after reconnect, invalidating local caches");
+                notifyListeners(null);
+            });
+        }
+        
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+            if (handler == connection && connected) {
+                connected = false;
+                logger.warn("Redis client tracking connection lost, invalidations are missed until reconnected");
+            }
+        }
+        
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+            // 由连接自身的重连机制处理
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.cache.plugin.remote.impl;
+
+import com.cache.plugin.codec.DictionaryStore;
+import com.cache.plugin.exception.CacheException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 基于Redis的压缩字典存储
+ * 
+ * 字典以原始字节保存在 {@code tiered-cache:dictionary:<字典ID>} 下，不经过RedisTemplate的值序列化。
+ * 未配置保留时间时字典不过期；配置后每次保存和使用（{@link #touch}）都会重新计算过期时间，
+ * 只有在保留时间内没有被任何节点使用的字典才会过期。
+ */
+public class RedisDictionaryStore implements DictionaryStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RedisDictionaryStore.class);
+    
+    private static final String KEY_PREFIX = "tiered-cache:dictionary:";
+    
+    private final RedisTemplate<String, Object> redisTemplate;
+    // 为null时不过期
+    private final Duration ttl;
+    
+    public RedisDictionaryStore(RedisTemplate<String, Object> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl != null && !ttl.isZero() && !ttl.isNegative() ? ttl : null;
+    }
+    
+    @Override
+    public void save(int id, byte[] dictionary) {
+        byte[] rawKey = rawKey(id);
+        Expiration expiration = ttl != null ? Expiration.from(ttl) : Expiration.persistent();
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(rawKey, dictionary, expiration, RedisStringCommands.SetOption.upsert()));
+        } catch (Exception e) {
+            logger.error("Failed to save compression dictionary: {}", Integer.toHexString(id), e);
+            throw new CacheException("Failed to save compression dictionary", e);
+        }
+    }
+    
+    @Override
+    public byte[] load(int id) {
+        byte[] rawKey = rawKey(id);
+        try {
+            return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        } catch (Exception e) {
+            logger.error("Failed to load compression dictionary: {}", Integer.toHexString(id), e);
+            throw new CacheException("Failed to load compression dictionary", e);
+        }
+    }
+    
+    @Override
+    public void touch(int id) {
+        if (ttl == null) {
+            return;
+        }
+        byte[] rawKey = rawKey(id);
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.keyCommands()
+                    .pExpire(rawKey, ttl.toMillis()));
+        } catch (Exception e) {
+            logger.warn("Failed to extend compression dictionary: {}", Integer.toHexString(id), e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(int id) {
+        String key = KEY_PREFIX + Integer.toHexString(id);
+        RedisSerializer<String> serializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        return serializer != null ? serializer.serialize(key) : key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,43 +1,79 @@
 package com.cache.plugin.remote.impl;
 
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.codec.CacheCompressor;
+import com.cache.plugin.codec.CompressionStats;
+import com.cache.plugin.codec.DictionaryCompressor;
 import com.cache.plugin.config.TieredCacheProperties;
 import com.cache.plugin.core.CacheStats;
 import com.cache.plugin.exception.CacheConnectionException;
 import com.cache.plugin.exception.CacheException;
 import com.cache.plugin.exception.CacheSerializationException;
+import com.cache.plugin.remote.CircuitBreaker;
+import com.cache.plugin.remote.InvalidationListener;
 import com.cache.plugin.remote.MessageListener;
 import com.cache.plugin.remote.RemoteCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis远程缓存实现
+ *
+ * 启用编解码器时，值由 {@link CacheCodecRegistry} 编码为字节后以原始字节写入Redis，
+ * 读取时按头部解码；没有头部的旧值仍交给RedisTemplate的值序列化器。启用压缩时同样使用编解码器格式，
+ * 编码后达到阈值的值按命名空间配置的算法压缩。
  */
 public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     private static final Logger logger = LoggerFactory.getLogger(RedisRemoteCache.class);
+    // 熔断期间最多推迟的删除数
+    private static final int MAX_PENDING_EVICTS = 100_000;
+    // 每次重试删除的最大键数
+    private static final int EVICT_RETRY_BATCH = 1000;
     
     private final RedisTemplate<String, Object> redisTemplate;
+    // 读写值使用的模板，启用编解码器时值序列化器为原始字节
+    private final RedisTemplate<String, Object> valueTemplate;
     private final TieredCacheProperties.RemoteCacheProperties properties;
+    private final CacheCodecRegistry codecs;
+    // 值是否以编解码器格式读写
+    private final boolean encodeValues;
+    private final CompressionSettings defaultCompression;
+    // 命名空间 -> 压缩配置
+    private final Map<String, CompressionSettings> regionCompression;
+    private final CompressionStats compressionStats = new CompressionStats();
     private final ObjectMapper objectMapper;
     private final String name;
     private final Map<String, MessageListener> listeners;
     private final RedisMessageListenerContainer messageListenerContainer;
+    private final CircuitBreaker circuitBreaker;
+    // 客户端缓存跟踪，未启用或不支持时为null
+    private final RedisClientTracking clientTracking;
     
     // 统计信息
     private final AtomicLong hitCount = new AtomicLong(0);
@@ -45,40 +81,94 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     private final AtomicLong putCount = new AtomicLong(0);
     private final AtomicLong evictCount = new AtomicLong(0);
     
+    // 熔断期间被跳过、等待恢复后重试的删除
+    private final Set<String> pendingEvicts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean retryingEvicts = new AtomicBoolean(false);
+    private final AtomicLong deferredEvictCount = new AtomicLong(0);
+    // 启用字典压缩时的压缩器，训练与续期交给后台执行器
+    private final DictionaryCompressor dictionaryCompressor;
+    
     public RedisRemoteCache(TieredCacheProperties.RemoteCacheProperties properties,
                            RedisTemplate<String, Object> redisTemplate) {
+        this(properties, redisTemplate, new CacheCodecRegistry());
+    }
+    
+    public RedisRemoteCache(TieredCacheProperties.RemoteCacheProperties properties,
+                           RedisTemplate<String, Object> redisTemplate,
+                           CacheCodecRegistry codecs) {
         this.properties = properties;
         this.redisTemplate = redisTemplate;
+        this.codecs = codecs;
+        TieredCacheProperties.CompressionProperties compression = properties.getCompression();
+        if (usesDictionary(compression)) {
+            this.dictionaryCompressor = new DictionaryCompressor(compression.getDictionary(),
+                    new RedisDictionaryStore(redisTemplate, compression.getDictionary().getTtl()));
+            codecs.registerCompressor(dictionaryCompressor);
+        } else {
+            this.dictionaryCompressor = null;
+        }
+        this.defaultCompression = CompressionSettings.of(compression.isEnabled(), compression.getAlgorithm(),
+                compression.getThreshold(), codecs);
+        this.regionCompression = new HashMap<>();
+        for (Map.Entry<String, TieredCacheProperties.RegionCompressionProperties> entry : compression.getRegions().entrySet()) {
+            TieredCacheProperties.RegionCompressionProperties region = entry.getValue();
+            regionCompression.put(entry.getKey(), CompressionSettings.of(
+                    region.getEnabled() != null ? region.getEnabled() : compression.isEnabled(),
+                    region.getAlgorithm() != null ? region.getAlgorithm() : compression.getAlgorithm(),
+                    region.getThreshold() != null ? region.getThreshold() : compression.getThreshold(), codecs));
+        }
+        this.encodeValues = codecs.isEnabled() || isCompressionEnabled();
+        this.valueTemplate = encodeValues ? createValueTemplate(redisTemplate) : redisTemplate;
         this.name = "redis-remote-cache";
-        this.objectMapper = new ObjectMapper();
+        this.objectMapper = codecs.getObjectMapper();
         this.listeners = new ConcurrentHashMap<>();
         this.messageListenerContainer = new RedisMessageListenerContainer();
         this.messageListenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
         this.messageListenerContainer.afterPropertiesSet();
         this.messageListenerContainer.start();
+        this.circuitBreaker = properties.getCircuitBreaker().isEnabled()
+                ? new CircuitBreaker(name, properties.getCircuitBreaker()) : null;
+        this.clientTracking = createClientTracking(properties.getClientTracking(), valueTemplate);
         
-        logger.info("Redis remote cache initialized with TTL: {}, timeout: {}", 
-                   properties.getTtl(), properties.getTimeout());
+        logger.info("Redis remote cache initialized with TTL: {}, timeout: {}, codec: {}, compression: {}", 
+                   properties.getTtl(), properties.getTimeout(),
+                   encodeValues ? codecs.getDefaultCodec().name() : "template",
+                   defaultCompression.compressor != null ? defaultCompression.compressor.name() : "none");
     }
     
     @Override
     public Object get(String key) {
+        if (isEvictPending(key) || !acquirePermission("get")) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        long start = System.nanoTime();
+        Object value;
         try {
-            Object value = redisTemplate.opsForValue().get(key);
-            if (value != null) {
-                hitCount.incrementAndGet();
-                logger.debug("Hit remote cache for key: {}", key);
-                return deserializeValue(value);
-            } else {
-                missCount.incrementAndGet();
-                logger.debug("Miss remote cache for key: {}", key);
-                return null;
-            }
+            value = isTrackingReads() ? clientTracking.get(key) : valueTemplate.opsForValue().get(key);
+            recordSuccess(start);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to get value from remote cache for key: {}", key, e);
             missCount.incrementAndGet();
             return null;
         }
+        if (value == null) {
+            missCount.incrementAndGet();
+            logger.debug("Miss remote cache for key: {}", key);
+            return null;
+        }
+        // 解码失败与Redis是否健康无关，不计入熔断统计
+        try {
+            Object decoded = deserializeValue(value);
+            hitCount.incrementAndGet();
+            logger.debug("Hit remote cache for key: {}", key);
+            return decoded;
+        } catch (Exception e) {
+            logger.error("Failed to decode value from remote cache for key: {}", key, e);
+            missCount.incrementAndGet();
+            return null;
+        }
     }
     
     @Override
@@ -88,18 +178,30 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public void put(String key, Object value, Duration ttl) {
+        // 空输入和编码在申请调用之前处理，半开状态的探测名额只用于真正的Redis调用
+        if (key == null || value == null) {
+            return;
+        }
+        Object serializedValue = serializeValue(key, value);
+        if (!acquirePermission("put")) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            if (key != null && value != null) {
-                Object serializedValue = serializeValue(value);
-                if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
-                    redisTemplate.opsForValue().set(key, serializedValue, ttl.toMillis(), TimeUnit.MILLISECONDS);
-                } else {
-                    redisTemplate.opsForValue().set(key, serializedValue);
-                }
-                putCount.incrementAndGet();
-                logger.debug("Put value to remote cache for key: {} with TTL: {}", key, ttl);
+            boolean expiring = ttl != null && !ttl.isZero() && !ttl.isNegative();
+            if (isTrackingWrites()) {
+                clientTracking.set(key, serializedValue, expiring ? ttl : null);
+            } else if (expiring) {
+                valueTemplate.opsForValue().set(key, serializedValue, ttl.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                valueTemplate.opsForValue().set(key, serializedValue);
             }
+            recordSuccess(start);
+            pendingEvicts.remove(key);
+            putCount.incrementAndGet();
+            logger.debug("Put value to remote cache for key: {} with TTL: {}", key, ttl);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to put value to remote cache for key: {}", key, e);
             throw new CacheException("Failed to put value to remote cache", e);
         }
@@ -107,13 +209,23 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public void evict(String key) {
+        if (key == null) {
+            return;
+        }
+        if (!acquirePermission("evict")) {
+            deferEvicts(Collections.singleton(key));
+            return;
+        }
+        long start = System.nanoTime();
         try {
             Boolean deleted = redisTemplate.delete(key);
+            recordSuccess(start);
             if (Boolean.TRUE.equals(deleted)) {
                 evictCount.incrementAndGet();
                 logger.debug("Evicted key from remote cache: {}", key);
             }
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to evict key from remote cache: {}", key, e);
             throw new CacheException("Failed to evict key from remote cache", e);
         }
@@ -133,9 +245,16 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public boolean containsKey(String key) {
+        if (!acquirePermission("containsKey")) {
+            return false;
+        }
+        long start = System.nanoTime();
         try {
-            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+            Boolean exists = redisTemplate.hasKey(key);
+            recordSuccess(start);
+            return Boolean.TRUE.equals(exists);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to check if remote cache contains key: {}", key, e);
             return false;
         }
@@ -153,58 +272,139 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public Map<String, Object> multiGet(Set<String> keys) {
-        try {
-            Map<String, Object> result = new HashMap<>();
-            if (keys != null && !keys.isEmpty()) {
-                List<String> keyList = new ArrayList<>(keys);
-                List<Object> values = redisTemplate.opsForValue().multiGet(keyList);
-                if (values != null) {
-                    for (int i = 0; i < keyList.size() && i < values.size(); i++) {
-                        String key = keyList.get(i);
-                        Object value = values.get(i);
-                        if (value != null) {
-                            result.put(key, deserializeValue(value));
-                            hitCount.incrementAndGet();
-                        } else {
-                            missCount.incrementAndGet();
-                        }
-                    }
-                }
+        Map<String, Object> result = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        if (!pendingEvicts.isEmpty()) {
+            keyList.removeIf(pendingEvicts::contains);
+            missCount.addAndGet(keys.size() - keyList.size());
+            if (keyList.isEmpty()) {
+                return result;
             }
+        }
+        if (!acquirePermission("multiGet")) {
+            missCount.addAndGet(keyList.size());
             return result;
+        }
+        long start = System.nanoTime();
+        List<Object> values;
+        try {
+            values = isTrackingReads()
+                    ? clientTracking.multiGet(keyList) : valueTemplate.opsForValue().multiGet(keyList);
+            recordSuccess(start);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to multi get from remote cache", e);
-            return new HashMap<>();
+            return result;
+        }
+        if (values != null) {
+            for (int i = 0; i < keyList.size() && i < values.size(); i++) {
+                String key = keyList.get(i);
+                Object value = values.get(i);
+                if (value == null) {
+                    missCount.incrementAndGet();
+                    continue;
+                }
+                try {
+                    result.put(key, deserializeValue(value));
+                    hitCount.incrementAndGet();
+                } catch (Exception e) {
+                    logger.error("Failed to decode value from remote cache for key: {}", key, e);
+                    missCount.incrementAndGet();
+                }
+            }
         }
+        return result;
     }
     
     @Override
     public void multiPut(Map<String, Object> keyValues) {
+        if (keyValues == null || keyValues.isEmpty()) {
+            return;
+        }
+        Map<String, Object> serializedValues = serializeValues(keyValues);
+        if (!acquirePermission("multiPut")) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            if (keyValues != null && !keyValues.isEmpty()) {
-                Map<String, Object> serializedValues = new HashMap<>();
-                for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
-                    serializedValues.put(entry.getKey(), serializeValue(entry.getValue()));
-                }
-                redisTemplate.opsForValue().multiSet(serializedValues);
-                putCount.addAndGet(keyValues.size());
-                logger.debug("Multi put {} entries to remote cache", keyValues.size());
+            if (isTrackingWrites()) {
+                clientTracking.multiSet(serializedValues, null);
+            } else {
+                valueTemplate.opsForValue().multiSet(serializedValues);
             }
+            recordSuccess(start);
+            clearPendingEvicts(keyValues.keySet());
+            putCount.addAndGet(keyValues.size());
+            logger.debug("Multi put {} entries to remote cache", keyValues.size());
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to multi put to remote cache", e);
             throw new CacheException("Failed to multi put to remote cache", e);
         }
     }
     
     @Override
-    public void multiEvict(Set<String> keys) {
+    @SuppressWarnings("unchecked")
+    public void multiPut(Map<String, Object> keyValues, Duration ttl) {
+        if (keyValues == null || keyValues.isEmpty()) {
+            return;
+        }
+        Map<String, Object> serializedValues = serializeValues(keyValues);
+        if (!acquirePermission("multiPut")) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            if (keys != null && !keys.isEmpty()) {
-                Long deletedCount = redisTemplate.delete(keys);
-                evictCount.addAndGet(deletedCount != null ? deletedCount : 0);
-                logger.debug("Multi evicted {} keys from remote cache", deletedCount);
+            boolean expiring = ttl != null && !ttl.isZero() && !ttl.isNegative();
+            if (isTrackingWrites()) {
+                clientTracking.multiSet(serializedValues, expiring ? ttl : null);
+            } else {
+                valueTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        ValueOperations<String, Object> valueOps = ((RedisOperations<String, Object>) operations).opsForValue();
+                        for (Map.Entry<String, Object> entry : serializedValues.entrySet()) {
+                            if (expiring) {
+                                valueOps.set(entry.getKey(), entry.getValue(), ttl.toMillis(), TimeUnit.MILLISECONDS);
+                            } else {
+                                valueOps.set(entry.getKey(), entry.getValue());
+                            }
+                        }
+                        return null;
+                    }
+                });
             }
+            recordSuccess(start);
+            clearPendingEvicts(keyValues.keySet());
+            putCount.addAndGet(keyValues.size());
+            logger.debug("Pipelined put {} entries to remote cache with TTL: {}", keyValues.size(), ttl);
+        } catch (Exception e) {
+            recordFailure(start);
+            logger.error("Failed to pipelined put to remote cache", e);
+            throw new CacheException("Failed to pipelined put to remote cache", e);
+        }
+    }
+    
+    @Override
+    public void multiEvict(Set<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        if (!acquirePermission("multiEvict")) {
+            deferEvicts(keys);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Long deletedCount = redisTemplate.delete(keys);
+            recordSuccess(start);
+            evictCount.addAndGet(deletedCount != null ? deletedCount : 0);
+            logger.debug("Multi evicted {} keys from remote cache", deletedCount);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to multi evict from remote cache", e);
             throw new CacheException("Failed to multi evict from remote cache", e);
         }
@@ -313,9 +513,33 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
         }
     }
     
+    @Override
+    public boolean addInvalidationListener(InvalidationListener listener) {
+        if (clientTracking == null) {
+            return false;
+        }
+        clientTracking.addListener(listener);
+        return true;
+    }
+    
+    @Override
+    public boolean isTrackingAllKeys() {
+        return clientTracking != null && clientTracking.isTrackingAllKeys();
+    }
+    
+    /**
+     * 获取客户端缓存跟踪，未启用时返回null
+     */
+    public RedisClientTracking getClientTracking() {
+        return clientTracking;
+    }
+    
     @Override
     public void close() {
         try {
+            if (clientTracking != null) {
+                clientTracking.close();
+            }
             if (messageListenerContainer != null) {
                 messageListenerContainer.stop();
                 messageListenerContainer.destroy();
@@ -333,9 +557,16 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public boolean expire(String key, Duration ttl) {
+        if (!acquirePermission("expire")) {
+            return false;
+        }
+        long start = System.nanoTime();
         try {
-            return Boolean.TRUE.equals(redisTemplate.expire(key, ttl.toMillis(), TimeUnit.MILLISECONDS));
+            Boolean updated = redisTemplate.expire(key, ttl.toMillis(), TimeUnit.MILLISECONDS);
+            recordSuccess(start);
+            return Boolean.TRUE.equals(updated);
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to set expire for key: {}", key, e);
             return false;
         }
@@ -343,31 +574,293 @@ public class RedisRemoteCache implements RemoteCache<String, Object> {
     
     @Override
     public Duration getExpire(String key) {
+        if (!acquirePermission("getExpire")) {
+            return null;
+        }
+        long start = System.nanoTime();
         try {
             Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+            recordSuccess(start);
             return ttl != null && ttl > 0 ? Duration.ofMillis(ttl) : null;
         } catch (Exception e) {
+            recordFailure(start);
             logger.error("Failed to get expire for key: {}", key, e);
             return null;
         }
     }
     
+    @Override
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    @Override
+    public long getPendingEvictCount() {
+        return pendingEvicts.size();
+    }
+    
+    @Override
+    public long getDeferredEvictCount() {
+        return deferredEvictCount.get();
+    }
+    
+    @Override
+    public CompressionStats getCompressionStats() {
+        return isCompressionEnabled() ? compressionStats : null;
+    }
+    
+    @Override
+    public void setBackgroundExecutor(Executor executor) {
+        if (dictionaryCompressor != null) {
+            dictionaryCompressor.setExecutor(executor);
+        }
+    }
+    
+    /**
+     * 按配置创建客户端缓存跟踪，未启用或环境不支持时返回null
+     */
+    private static RedisClientTracking createClientTracking(TieredCacheProperties.ClientTrackingProperties properties,
+                                                            RedisTemplate<String, Object> redisTemplate) {
+        if (properties == null || !properties.isEnabled()) {
+            return null;
+        }
+        if (!ClassUtils.isPresent("io.lettuce.core.RedisClient", RedisRemoteCache.class.getClassLoader())) {
+            logger.warn("Redis client tracking requires Lettuce, falling back to the sync channel");
+            return null;
+        }
+        return RedisClientTracking.create(properties, redisTemplate.getConnectionFactory(),
+                redisTemplate.getKeySerializer(), redisTemplate.getValueSerializer());
+    }
+    
+    /**
+     * DEFAULT模式下远程读取经由跟踪连接执行，跟踪连接断开时退回普通连接（重连后会通知所有键失效）
+     */
+    private boolean isTrackingReads() {
+        return clientTracking != null && clientTracking.isTrackingReads() && clientTracking.isConnected();
+    }
+    
+    /**
+     * 启用跟踪时写入经由跟踪连接执行（NOLOOP），本节点的写入不会使刚写入本地的值失效
+     */
+    private boolean isTrackingWrites() {
+        return clientTracking != null && clientTracking.isConnected();
+    }
+    
+    /**
+     * 申请远程调用，熔断期间直接拒绝
+     */
+    private boolean acquirePermission(String operation) {
+        if (circuitBreaker == null || circuitBreaker.tryAcquirePermission()) {
+            return true;
+        }
+        logger.debug("Circuit breaker is open, skipped remote {}", operation);
+        return false;
+    }
+    
+    private void recordSuccess(long start) {
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            if (!pendingEvicts.isEmpty()) {
+                retryDeferredEvicts();
+            }
+        }
+    }
+    
+    private void recordFailure(long start) {
+        if (circuitBreaker != null) {
+            circuitBreaker.onError(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 熔断期间跳过的删除加入待重试集合，集合已满时放弃并告警
+     */
+    private void deferEvicts(Collection<String> keys) {
+        int dropped = 0;
+        for (String key : keys) {
+            if (pendingEvicts.size() >= MAX_PENDING_EVICTS && !pendingEvicts.contains(key)) {
+                dropped++;
+            } else if (pendingEvicts.add(key)) {
+                deferredEvictCount.incrementAndGet();
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("Circuit breaker is open and {} evicts are already pending, dropped {} evicts; "
+                       + "the remote cache may serve stale values until they expire", pendingEvicts.size(), dropped);
+        } else {
+            logger.warn("Circuit breaker is open, deferred evict of {} keys until the remote cache recovers", keys.size());
+        }
+    }
+    
+    /**
+     * 熔断恢复后重试被推迟的删除，同一时刻只有一个线程执行，每次最多删除一批
+     */
+    private void retryDeferredEvicts() {
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED || !retryingEvicts.compareAndSet(false, true)) {
+            return;
+        }
+        List<String> batch = new ArrayList<>();
+        try {
+            for (String key : pendingEvicts) {
+                if (batch.size() >= EVICT_RETRY_BATCH) {
+                    break;
+                }
+                // 先移出集合，重试期间再次被推迟的键保留到下一次重试
+                if (pendingEvicts.remove(key)) {
+                    batch.add(key);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                Long deletedCount = redisTemplate.delete(batch);
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                evictCount.addAndGet(deletedCount != null ? deletedCount : 0);
+                logger.info("Retried {} evicts deferred while the circuit breaker was open", batch.size());
+            } catch (Exception e) {
+                circuitBreaker.onError(System.nanoTime() - start);
+                pendingEvicts.addAll(batch);
+                logger.warn("Failed to retry {} deferred evicts, will retry later", batch.size(), e);
+            }
+        } finally {
+            retryingEvicts.set(false);
+        }
+    }
+    
+    private boolean isEvictPending(String key) {
+        return !pendingEvicts.isEmpty() && pendingEvicts.contains(key);
+    }
+    
+    private void clearPendingEvicts(Set<String> keys) {
+        if (!pendingEvicts.isEmpty()) {
+            pendingEvicts.removeAll(keys);
+        }
+    }
+    
     /**
-     * 序列化值
+     * 值使用原始字节序列化、其余设置与原模板相同的模板
      */
-    private Object serializeValue(Object value) {
-        // 如果RedisTemplate已经配置了序列化器，直接返回
-        // 否则使用JSON序列化
-        return value;
+    private static RedisTemplate<String, Object> createValueTemplate(RedisTemplate<String, Object> redisTemplate) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisTemplate.getConnectionFactory());
+        template.setKeySerializer(redisTemplate.getKeySerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(redisTemplate.getHashKeySerializer());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+    
+    private static boolean usesDictionary(TieredCacheProperties.CompressionProperties compression) {
+        if (DictionaryCompressor.NAME.equals(compression.getAlgorithm())) {
+            return true;
+        }
+        for (TieredCacheProperties.RegionCompressionProperties region : compression.getRegions().values()) {
+            if (DictionaryCompressor.NAME.equals(region.getAlgorithm())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean isCompressionEnabled() {
+        if (defaultCompression.compressor != null) {
+            return true;
+        }
+        for (CompressionSettings settings : regionCompression.values()) {
+            if (settings.compressor != null) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
-     * 反序列化值
+     * 远程键所属命名空间的压缩配置
+     */
+    private CompressionSettings compressionFor(String key) {
+        if (!regionCompression.isEmpty()) {
+            int separator = key.indexOf(':');
+            if (separator > 0) {
+                CompressionSettings settings = regionCompression.get(key.substring(0, separator));
+                if (settings != null) {
+                    return settings;
+                }
+            }
+        }
+        return defaultCompression;
+    }
+    
+    /**
+     * 序列化值，未启用编解码器和压缩时交给RedisTemplate的序列化器
+     */
+    private Object serializeValue(String key, Object value) {
+        if (!encodeValues) {
+            return value;
+        }
+        byte[] encoded = codecs.encode(key, value);
+        CompressionSettings compression = compressionFor(key);
+        if (compression.compressor == null || encoded.length < compression.threshold) {
+            return encoded;
+        }
+        CacheCompressor compressor = compression.compressor;
+        if (compressor instanceof DictionaryCompressor) {
+            // 字典按命名空间训练
+            int separator = key.indexOf(':');
+            compressor = ((DictionaryCompressor) compressor).forNamespace(separator > 0 ? key.substring(0, separator) : "");
+        }
+        long start = System.nanoTime();
+        byte[] compressed = codecs.compress(encoded, compressor);
+        compressionStats.recordCompression(encoded.length, compressed.length, System.nanoTime() - start);
+        return compressed;
+    }
+    
+    private Map<String, Object> serializeValues(Map<String, Object> keyValues) {
+        Map<String, Object> serializedValues = new HashMap<>(keyValues.size() * 2);
+        for (Map.Entry<String, Object> entry : keyValues.entrySet()) {
+            serializedValues.put(entry.getKey(), serializeValue(entry.getKey(), entry.getValue()));
+        }
+        return serializedValues;
+    }
+    
+    /**
+     * 反序列化值，启用编解码器之前写入的值使用原模板的值序列化器
      */
     private Object deserializeValue(Object value) {
-        // 如果RedisTemplate已经配置了序列化器，直接返回
-        // 否则进行JSON反序列化
-        return value;
+        if (!encodeValues || !(value instanceof byte[])) {
+            return value;
+        }
+        byte[] bytes = (byte[]) value;
+        if (CacheCodecRegistry.isCompressed(bytes)) {
+            long start = System.nanoTime();
+            bytes = codecs.decompress(bytes);
+            compressionStats.recordDecompression(System.nanoTime() - start);
+        }
+        if (CacheCodecRegistry.isEncoded(bytes)) {
+            return codecs.decode(bytes);
+        }
+        RedisSerializer<?> legacySerializer = redisTemplate.getValueSerializer();
+        return legacySerializer != null ? legacySerializer.deserialize(bytes) : bytes;
+    }
+    
+    /**
+     * 压缩配置，compressor为null表示不压缩
+     */
+    private static final class CompressionSettings {
+        private final CacheCompressor compressor;
+        private final long threshold;
+        
+        private CompressionSettings(CacheCompressor compressor, long threshold) {
+            this.compressor = compressor;
+            this.threshold = threshold;
+        }
+        
+        static CompressionSettings of(boolean enabled, String algorithm, DataSize threshold, CacheCodecRegistry codecs) {
+            return new CompressionSettings(enabled ? codecs.getCompressor(algorithm) : null,
+                    threshold != null ? threshold.toBytes() : 0);
+        }
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.cache.plugin.security;
 
+import com.cache.plugin.codec.CacheCodecRegistry;
 import com.cache.plugin.config.TieredCacheProperties;
 import com.cache.plugin.exception.CacheSerializationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,6 +18,8 @@ import java.util.Base64;
 
 /**
  * 缓存加密组件
+ *
+ * 明文由编解码器注册表编码，解密后按类型头还原为原类型；旧版本以JSON文本加密的值仍可解密。
  */
 public class CacheEncryption {
     
@@ -28,13 +31,19 @@ public class CacheEncryption {
     private static final int GCM_TAG_LENGTH = 16;
     
     private final TieredCacheProperties.EncryptionProperties properties;
+    private final CacheCodecRegistry codecs;
     private final ObjectMapper objectMapper;
     private final SecretKey secretKey;
     private final SecureRandom secureRandom;
     
     public CacheEncryption(TieredCacheProperties.EncryptionProperties properties) {
+        this(properties, new CacheCodecRegistry());
+    }
+    
+    public CacheEncryption(TieredCacheProperties.EncryptionProperties properties, CacheCodecRegistry codecs) {
         this.properties = properties;
-        this.objectMapper = new ObjectMapper();
+        this.codecs = codecs;
+        this.objectMapper = codecs.getObjectMapper();
         this.secureRandom = new SecureRandom();
         this.secretKey = initializeSecretKey();
         
@@ -84,9 +93,8 @@ public class CacheEncryption {
         }
         
         try {
-            // 序列化对象为JSON
-            String jsonValue = objectMapper.writeValueAsString(value);
-            byte[] plaintext = jsonValue.getBytes(StandardCharsets.UTF_8);
+            // 编码对象
+            byte[] plaintext = codecs.encode(value);
             
             // 生成随机IV
             byte[] iv = new byte[GCM_IV_LENGTH];
@@ -151,9 +159,12 @@ public class CacheEncryption {
             
             // 解密
             byte[] plaintext = cipher.doFinal(ciphertext);
-            String jsonValue = new String(plaintext, StandardCharsets.UTF_8);
+            if (CacheCodecRegistry.isEncoded(plaintext)) {
+                return codecs.decode(plaintext);
+            }
             
-            // 反序列化JSON为对象
+            // 旧格式：反序列化JSON为对象
+            String jsonValue = new String(plaintext, StandardCharsets.UTF_8);
             return objectMapper.readValue(jsonValue, Object.class);
             
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.cache.plugin.security;
 
+import com.cache.plugin.codec.CacheCodecRegistry;
 import com.cache.plugin.config.TieredCacheProperties;
 import com.cache.plugin.exception.CacheAccessDeniedException;
 import org.slf4j.Logger;
@@ -19,8 +20,12 @@ public class CacheSecurityManager {
     private final CacheAccessControl accessControl;
     
     public CacheSecurityManager(TieredCacheProperties.SecurityProperties securityProperties) {
+        this(securityProperties, new CacheCodecRegistry());
+    }
+    
+    public CacheSecurityManager(TieredCacheProperties.SecurityProperties securityProperties, CacheCodecRegistry codecs) {
         this.securityProperties = securityProperties;
-        this.encryption = new CacheEncryption(securityProperties.getEncryption());
+        this.encryption = new CacheEncryption(securityProperties.getEncryption(), codecs);
         this.accessControl = new CacheAccessControl(securityProperties.getAccessControl());
     }
     
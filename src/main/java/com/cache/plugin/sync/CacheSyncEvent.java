@@ -5,6 +5,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * 缓存同步事件
+ *
+ * 写入事件的值由共享的 {@link com.cache.plugin.codec.CacheCodecRegistry} 编码后放在 encodedValue 中
+ * （JSON中为Base64），接收方按编码头部还原原类型。两者都存在时以 encodedValue 为准；value 供只识别它的
+ * 旧版本节点使用，本版本仍同时写入，下一个版本起不再写入。
  */
 public class CacheSyncEvent {
     
@@ -14,26 +18,41 @@ public class CacheSyncEvent {
     public enum Type {
         PUT,    // 缓存存储
         EVICT,  // 缓存清除
-        CLEAR   // 缓存清空
+        CLEAR,  // 缓存清空
+        HOT     // 热点键
     }
     
     private final Type type;
     private final String key;
     private final Object value;
+    private final byte[] encodedValue;
     private final long timestamp;
     private final String nodeId;
+    private final String region;
+    
+    public CacheSyncEvent(Type type, String key, Object value, long timestamp, String nodeId) {
+        this(type, key, value, timestamp, nodeId, null);
+    }
+    
+    public CacheSyncEvent(Type type, String key, Object value, long timestamp, String nodeId, String region) {
+        this(type, key, value, null, timestamp, nodeId, region);
+    }
     
     @JsonCreator
     public CacheSyncEvent(@JsonProperty("type") Type type,
                          @JsonProperty("key") String key,
                          @JsonProperty("value") Object value,
+                         @JsonProperty("encodedValue") byte[] encodedValue,
                          @JsonProperty("timestamp") long timestamp,
-                         @JsonProperty("nodeId") String nodeId) {
+                         @JsonProperty("nodeId") String nodeId,
+                         @JsonProperty("region") String region) {
         this.type = type;
         this.key = key;
         this.value = value;
+        this.encodedValue = encodedValue;
         this.timestamp = timestamp;
         this.nodeId = nodeId;
+        this.region = region;
     }
     
     public Type getType() {
@@ -44,10 +63,20 @@ public class CacheSyncEvent {
         return key;
     }
     
+    /**
+     * 未编码的值，仅用于兼容旧版本节点，{@link #getEncodedValue()} 不为null时忽略
+     */
     public Object getValue() {
         return value;
     }
     
+    /**
+     * 编解码器编码的值，为null时使用 {@link #getValue()}
+     */
+    public byte[] getEncodedValue() {
+        return encodedValue;
+    }
+    
     public long getTimestamp() {
         return timestamp;
     }
@@ -56,6 +85,13 @@ public class CacheSyncEvent {
         return nodeId;
     }
     
+    /**
+     * 缓存区域，为null时为默认区域
+     */
+    public String getRegion() {
+        return region;
+    }
+    
     /**
      * 检查是否来自当前节点
      */
@@ -70,8 +106,10 @@ public class CacheSyncEvent {
                 "type=" + type +
                 ", key='" + key + '\'' +
                 ", value=" + value +
+                ", encodedValue=" + (encodedValue != null ? encodedValue.length + " bytes" : null) +
                 ", timestamp=" + timestamp +
                 ", nodeId='" + nodeId + '\'' +
+                ", region='" + region + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.cache.plugin.sync;
 
+import com.cache.plugin.codec.CacheCodecRegistry;
 import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.TieredCacheManager;
 import com.cache.plugin.local.LocalCache;
 import com.cache.plugin.remote.RemoteCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -12,6 +14,7 @@ import org.springframework.context.event.EventListener;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.Collections;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -26,18 +29,32 @@ public class CacheSyncManager {
     private final LocalCache<String, Object> localCache;
     private final RemoteCache<String, Object> remoteCache;
     private final TieredCacheProperties.SyncProperties syncProperties;
+    private final CacheCodecRegistry codecs;
     private final ObjectMapper objectMapper;
     private final ScheduledExecutorService syncExecutor;
     
     private ApplicationEventPublisher eventPublisher;
+    // 设置后同步事件经由缓存管理器应用，过时的写入被丢弃
+    private TieredCacheManager cacheManager;
     
     public CacheSyncManager(LocalCache<String, Object> localCache,
                            RemoteCache<String, Object> remoteCache,
                            TieredCacheProperties.SyncProperties syncProperties) {
+        this(localCache, remoteCache, syncProperties, new CacheCodecRegistry());
+    }
+    
+    /**
+     * @param codecs 与远程缓存共享的编解码器注册表，写入事件的值经它编码，事件本身使用它的ObjectMapper
+     */
+    public CacheSyncManager(LocalCache<String, Object> localCache,
+                           RemoteCache<String, Object> remoteCache,
+                           TieredCacheProperties.SyncProperties syncProperties,
+                           CacheCodecRegistry codecs) {
         this.localCache = localCache;
         this.remoteCache = remoteCache;
         this.syncProperties = syncProperties;
-        this.objectMapper = new ObjectMapper();
+        this.codecs = codecs;
+        this.objectMapper = codecs.getObjectMapper();
         this.syncExecutor = Executors.newScheduledThreadPool(2, r -> {
             Thread t = new Thread(r, "cache-sync-");
             t.setDaemon(true);
@@ -49,6 +66,10 @@ public class CacheSyncManager {
         this.eventPublisher = eventPublisher;
     }
     
+    public void setCacheManager(TieredCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+    
     @PostConstruct
     public void initialize() {
         if (syncProperties.isEnabled()) {
@@ -138,17 +159,19 @@ public class CacheSyncManager {
         try {
             switch (event.getType()) {
                 case PUT:
-                    localCache.put(event.getKey(), event.getValue());
-                    logger.debug("Synced PUT operation for key: {}", event.getKey());
+                    applyPut(event);
                     break;
                 case EVICT:
-                    localCache.evict(event.getKey());
+                    applyEvict(event.getKey());
                     logger.debug("Synced EVICT operation for key: {}", event.getKey());
                     break;
                 case CLEAR:
-                    localCache.clear();
+                    applyClear();
                     logger.debug("Synced CLEAR operation");
                     break;
+                case HOT:
+                    // 热点键由TieredCacheManager的热点键复制处理
+                    break;
                 default:
                     logger.warn("Unknown sync event type: {}", event.getType());
             }
@@ -158,10 +181,66 @@ public class CacheSyncManager {
     }
     
     /**
-     * 发布缓存更新事件
+     * 应用其他节点的写入事件，encodedValue 优先于 value；值无法解码（例如类型不受信任）或事件不带值时
+     * 清除本地条目，下次读取从远程缓存加载
+     */
+    private void applyPut(CacheSyncEvent event) {
+        Object value;
+        if (event.getEncodedValue() != null) {
+            try {
+                value = codecs.decode(event.getEncodedValue());
+            } catch (Exception e) {
+                logger.warn("Failed to decode synced value for key: {}, evicting it locally", event.getKey(), e);
+                applyEvict(event.getKey());
+                return;
+            }
+        } else {
+            value = event.getValue();
+        }
+        if (value == null) {
+            applyEvict(event.getKey());
+            return;
+        }
+        applyPut(event.getKey(), value, event.getTimestamp());
+        logger.debug("Synced PUT operation for key: {}", event.getKey());
+    }
+    
+    /**
+     * 应用其他节点的写入，经由缓存管理器时丢弃本节点之后已写入或清除过的键
+     */
+    private void applyPut(String key, Object value, long timestamp) {
+        if (cacheManager != null) {
+            cacheManager.applySyncPut(key, value, timestamp);
+        } else {
+            localCache.put(key, value);
+        }
+    }
+    
+    /**
+     * 应用其他节点的清除，经由缓存管理器时同时放弃该键进行中的异步回写
+     */
+    private void applyEvict(String key) {
+        if (cacheManager != null) {
+            cacheManager.invalidateLocal(Collections.singletonList(key));
+        } else {
+            localCache.evict(key);
+        }
+    }
+    
+    private void applyClear() {
+        if (cacheManager != null) {
+            cacheManager.invalidateLocal(null);
+        } else {
+            localCache.clear();
+        }
+    }
+    
+    /**
+     * 发布缓存更新事件，同时携带 value 和 encodedValue：只识别 value 的旧版本节点仍写入正确的值，
+     * 新版本节点以 encodedValue 为准
      */
     public void publishCacheUpdate(String key, Object value) {
-        if (!syncProperties.isEnabled()) {
+        if (!isPublishing()) {
             return;
         }
         
@@ -170,8 +249,10 @@ public class CacheSyncManager {
                 CacheSyncEvent.Type.PUT,
                 key,
                 value,
+                value != null ? codecs.encode(value) : null,
                 System.currentTimeMillis(),
-                getCurrentNodeId()
+                getCurrentNodeId(),
+                null
             );
             publishSyncEvent(event);
         } catch (Exception e) {
@@ -183,7 +264,7 @@ public class CacheSyncManager {
      * 发布缓存清除事件
      */
     public void publishCacheEvict(String key) {
-        if (!syncProperties.isEnabled()) {
+        if (!isPublishing()) {
             return;
         }
         
@@ -205,7 +286,7 @@ public class CacheSyncManager {
      * 发布缓存清空事件
      */
     public void publishCacheClear() {
-        if (!syncProperties.isEnabled()) {
+        if (!isPublishing()) {
             return;
         }
         
@@ -223,6 +304,14 @@ public class CacheSyncManager {
         }
     }
     
+    /**
+     * 是否广播写入事件。服务端对所有键推送失效通知时（BCAST模式且未限定前缀）无需广播；
+     * DEFAULT模式只通知本节点读取过的键，本节点写入本地的键收不到其他节点的修改，仍需广播
+     */
+    private boolean isPublishing() {
+        return syncProperties.isEnabled() && !remoteCache.isTrackingAllKeys();
+    }
+    
     /**
      * 发布同步事件
      */
@@ -267,7 +356,7 @@ public class CacheSyncManager {
     public void handleLocalCacheUpdate(CacheUpdateEvent event) {
         if (event.isFromRemote()) {
             // 来自远程的更新，同步到本地缓存
-            localCache.put(event.getKey(), event.getValue());
+            applyPut(event.getKey(), event.getValue(), event.getTimestamp());
         } else {
             // 本地更新，发布到远程
             publishCacheUpdate(event.getKey(), event.getValue());
@@ -282,9 +371,9 @@ public class CacheSyncManager {
         if (event.isFromRemote()) {
             // 来自远程的清除，同步到本地缓存
             if (event.isAllEntries()) {
-                localCache.clear();
+                applyClear();
             } else {
-                localCache.evict(event.getKey());
+                applyEvict(event.getKey());
             }
         } else {
             // 本地清除，发布到远程
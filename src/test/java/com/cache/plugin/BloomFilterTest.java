@@ -0,0 +1,77 @@
+package com.cache.plugin;
+
+import com.cache.plugin.core.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 布隆过滤器测试
+ */
+public class BloomFilterTest {
+    
+    @Test
+    void testNoFalseNegativesAndBoundedFalsePositives() {
+        // 准备数据
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user:" + i);
+        }
+        
+        // 执行测试
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user:" + i));
+            if (filter.mightContain("absent:" + i)) {
+                falsePositives++;
+            }
+        }
+        
+        // 验证结果
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+    
+    @Test
+    void testPutReportsWhetherBitsChanged() {
+        // 准备数据
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        
+        // 执行测试 & 验证结果
+        assertTrue(filter.put("k1"));
+        assertFalse(filter.put("k1"));
+    }
+    
+    @Test
+    void testRedisBitmapRoundTrip() {
+        // 准备数据
+        BloomFilter source = new BloomFilter(1000, 0.01);
+        source.put("a");
+        source.put("b");
+        
+        // 执行测试
+        byte[] bitmap = source.toByteArray();
+        BloomFilter mirror = new BloomFilter(1000, 0.01);
+        mirror.merge(bitmap);
+        
+        // 验证结果：位编号与Redis SETBIT一致（第0位为首字节最高位）
+        assertEquals(source.getBitSize() / 8, bitmap.length);
+        assertTrue(mirror.mightContain("a"));
+        assertTrue(mirror.mightContain("b"));
+        long offset = source.bitIndexes("a")[0];
+        assertNotEquals(0, bitmap[(int) (offset / 8)] & (0x80 >>> (offset % 8)));
+    }
+    
+    @Test
+    void testMergeTruncatedBitmap() {
+        // 准备数据：SETBIT只会把位图扩展到最高置位所在的字节
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        
+        // 执行测试
+        filter.merge(new byte[] {(byte) 0x80, 0, 1});
+        filter.merge(null);
+        
+        // 验证结果
+        assertTrue(filter.getFillRatio() > 0);
+        assertEquals(2.0 / filter.getBitSize(), filter.getFillRatio());
+    }
+}
@@ -1,19 +1,25 @@
 package com.cache.plugin;
 
+import com.cache.plugin.annotation.CacheEvict;
 import com.cache.plugin.annotation.CacheStrategy;
 import com.cache.plugin.annotation.TieredCache;
 import com.cache.plugin.annotation.LocalCache;
 import com.cache.plugin.annotation.RemoteCache;
 import com.cache.plugin.aspect.CacheAspect;
+import com.cache.plugin.aspect.CacheRegionRegistrar;
+import com.cache.plugin.config.TieredCacheProperties;
 import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.local.impl.CaffeineLocalCache;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -54,7 +60,7 @@ public class CacheAspectTest {
         
         when(methodSignature.getMethod()).thenReturn(method);
         when(joinPoint.getArgs()).thenReturn(args);
-        when(cacheManager.get(anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST)))
+        when(cacheManager.get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST)))
                 .thenReturn(expectedValue);
         
         // 执行测试
@@ -63,7 +69,7 @@ public class CacheAspectTest {
         // 验证结果
         assertEquals(expectedValue, result);
         verify(joinPoint, never()).proceed();
-        verify(cacheManager).get(anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST));
+        verify(cacheManager).get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST));
     }
     
     @Test
@@ -77,7 +83,7 @@ public class CacheAspectTest {
         
         when(methodSignature.getMethod()).thenReturn(method);
         when(joinPoint.getArgs()).thenReturn(args);
-        when(cacheManager.get(anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST)))
+        when(cacheManager.get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST)))
                 .thenReturn(null);
         when(joinPoint.proceed()).thenReturn(methodResult);
         
@@ -87,8 +93,8 @@ public class CacheAspectTest {
         // 验证结果
         assertEquals(methodResult, result);
         verify(joinPoint).proceed();
-        verify(cacheManager).get(anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST));
-        verify(cacheManager).put(anyString(), eq(methodResult), eq(CacheStrategy.LOCAL_FIRST), any());
+        verify(cacheManager).get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.LOCAL_FIRST));
+        verify(cacheManager).put(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(methodResult), eq(CacheStrategy.LOCAL_FIRST), any());
     }
     
     @Test
@@ -102,7 +108,7 @@ public class CacheAspectTest {
         
         when(methodSignature.getMethod()).thenReturn(method);
         when(joinPoint.getArgs()).thenReturn(args);
-        when(cacheManager.get(anyString(), eq(String.class), eq(CacheStrategy.LOCAL_ONLY)))
+        when(cacheManager.get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.LOCAL_ONLY)))
                 .thenReturn(null);
         when(joinPoint.proceed()).thenReturn(methodResult);
         
@@ -111,7 +117,7 @@ public class CacheAspectTest {
         
         // 验证结果
         assertEquals(methodResult, result);
-        verify(cacheManager).put(anyString(), eq(methodResult), eq(CacheStrategy.LOCAL_ONLY), isNull());
+        verify(cacheManager).put(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(methodResult), eq(CacheStrategy.LOCAL_ONLY), isNull());
     }
     
     @Test
@@ -125,7 +131,7 @@ public class CacheAspectTest {
         
         when(methodSignature.getMethod()).thenReturn(method);
         when(joinPoint.getArgs()).thenReturn(args);
-        when(cacheManager.get(anyString(), eq(String.class), eq(CacheStrategy.REMOTE_ONLY)))
+        when(cacheManager.get(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(String.class), eq(CacheStrategy.REMOTE_ONLY)))
                 .thenReturn(null);
         when(joinPoint.proceed()).thenReturn(methodResult);
         
@@ -134,7 +140,52 @@ public class CacheAspectTest {
         
         // 验证结果
         assertEquals(methodResult, result);
-        verify(cacheManager).put(anyString(), eq(methodResult), eq(CacheStrategy.REMOTE_ONLY), any());
+        verify(cacheManager).put(eq(TieredCacheManager.DEFAULT_REGION), anyString(), eq(methodResult), eq(CacheStrategy.REMOTE_ONLY), any());
+    }
+    
+    @Test
+    void testLocalCacheAnnotation_NamedRegion() throws Throwable {
+        // 准备数据
+        Method method = TestService.class.getMethod("getUserById", Long.class);
+        Object[] args = {123L};
+        String methodResult = "method-result";
+        
+        LocalCache annotation = createLocalCacheAnnotation("hot-config");
+        
+        when(methodSignature.getMethod()).thenReturn(method);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(cacheManager.hasRegion("hot-config")).thenReturn(false);
+        when(joinPoint.proceed()).thenReturn(methodResult);
+        
+        // 执行测试
+        Object result = cacheAspect.handleLocalCache(joinPoint, annotation);
+        
+        // 验证结果：区域按注解声明的限制创建，读写都落在该区域
+        assertEquals(methodResult, result);
+        verify(cacheManager).getRegion(eq("hot-config"), argThat(defaults ->
+                defaults.getMaxSize() == 1000 && Duration.ofSeconds(300).equals(defaults.getExpireAfterWrite())));
+        verify(cacheManager).get(eq("hot-config"), eq("user:123"), eq(String.class), eq(CacheStrategy.LOCAL_ONLY));
+        verify(cacheManager).put(eq("hot-config"), eq("user:123"), eq(methodResult), eq(CacheStrategy.LOCAL_ONLY), isNull());
+    }
+    
+    @Test
+    void testRegionDeclaredAtStartupIndependentOfCallOrder() {
+        // 准备数据
+        @SuppressWarnings("unchecked")
+        com.cache.plugin.remote.RemoteCache<String, Object> remoteCache = mock(com.cache.plugin.remote.RemoteCache.class);
+        TieredCacheManager manager = new TieredCacheManager(
+                new CaffeineLocalCache(new TieredCacheProperties.LocalCacheProperties()), remoteCache, new TieredCacheProperties());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheManager", manager);
+        CacheRegionRegistrar registrar = new CacheRegionRegistrar(beanFactory.getBeanProvider(TieredCacheManager.class));
+        
+        // 执行测试：登记后先由清除访问区域
+        registrar.postProcessAfterInitialization(new OrderService(), "orderService");
+        manager.evict("orders", "1", CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果：区域按注解声明的命名空间创建
+        assertEquals("ord", manager.getRegion("orders").getNamespace());
+        verify(remoteCache).evict("ord:1");
     }
     
     /**
@@ -181,6 +232,21 @@ public class CacheAspectTest {
             public String condition() {
                 return "";
             }
+            
+            @Override
+            public int refreshAfter() {
+                return 0;
+            }
+            
+            @Override
+            public boolean cacheNullValues() {
+                return false;
+            }
+            
+            @Override
+            public int nullValueTtl() {
+                return 0;
+            }
         };
     }
     
@@ -188,6 +254,13 @@ public class CacheAspectTest {
      * 创建LocalCache注解的模拟
      */
     private LocalCache createLocalCacheAnnotation() {
+        return createLocalCacheAnnotation("default");
+    }
+    
+    /**
+     * 创建指定区域的LocalCache注解的模拟
+     */
+    private LocalCache createLocalCacheAnnotation(String cacheName) {
         return new LocalCache() {
             @Override
             public Class<? extends java.lang.annotation.Annotation> annotationType() {
@@ -221,13 +294,18 @@ public class CacheAspectTest {
             
             @Override
             public String cacheName() {
-                return "default";
+                return cacheName;
             }
             
             @Override
             public boolean sync() {
                 return false;
             }
+            
+            @Override
+            public boolean longKeys() {
+                return false;
+            }
         };
     }
     
@@ -273,6 +351,20 @@ public class CacheAspectTest {
         };
     }
     
+    /**
+     * 读取和清除声明同一区域的服务类
+     */
+    public static class OrderService {
+        @RemoteCache(cacheName = "orders", namespace = "ord")
+        public String getOrder(String id) {
+            return "order-" + id;
+        }
+        
+        @CacheEvict(cacheName = "orders")
+        public void deleteOrder(String id) {
+        }
+    }
+    
     /**
      * 测试用的服务类
      */
@@ -0,0 +1,592 @@
+package com.cache.plugin;
+
+import com.cache.plugin.codec.BinaryCacheCodec;
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.codec.CacheCompressor;
+import com.cache.plugin.codec.DeflateCompressor;
+import com.cache.plugin.codec.DictionaryCompressor;
+import com.cache.plugin.codec.DictionaryStore;
+import com.cache.plugin.codec.JsonCacheCodec;
+import com.cache.plugin.codec.LzCompressor;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.exception.CacheSerializationException;
+import com.cache.plugin.local.LocalCache;
+import com.cache.plugin.remote.MessageListener;
+import com.cache.plugin.remote.RemoteCache;
+import com.cache.plugin.security.CacheEncryption;
+import com.cache.plugin.sync.CacheSyncEvent;
+import com.cache.plugin.sync.CacheSyncManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.support.NullValue;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 值编解码器测试
+ */
+public class CacheCodecTest {
+    
+    enum Level { LOW, HIGH }
+    
+    public static class Profile {
+        private String name;
+        private int age;
+        private LocalDate birthday;
+        
+        public Profile() {
+        }
+        
+        Profile(String name, int age, LocalDate birthday) {
+            this.name = name;
+            this.age = age;
+            this.birthday = birthday;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public int getAge() {
+            return age;
+        }
+        
+        public void setAge(int age) {
+            this.age = age;
+        }
+        
+        public LocalDate getBirthday() {
+            return birthday;
+        }
+        
+        public void setBirthday(LocalDate birthday) {
+            this.birthday = birthday;
+        }
+    }
+    
+    public static class SerializableProfile implements Serializable {
+        private String name;
+        
+        public SerializableProfile() {
+        }
+        
+        SerializableProfile(String name) {
+            this.name = name;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+    
+    @Test
+    void testBinaryRoundTripKeepsTypes() {
+        // 准备数据
+        CacheCodecRegistry codecs = new CacheCodecRegistry(trustedProperties());
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 7L);
+        map.put("tags", Arrays.asList("a", "b"));
+        map.put("level", Level.HIGH);
+        
+        // 执行测试 & 验证结果
+        assertEquals("hello", codecs.decode(codecs.encode("hello")));
+        assertEquals(123456789012L, codecs.decode(codecs.encode(123456789012L)));
+        assertEquals(-5, codecs.decode(codecs.encode(-5)));
+        assertEquals(2.5d, codecs.decode(codecs.encode(2.5d)));
+        assertEquals(Level.LOW, codecs.decode(codecs.encode(Level.LOW)));
+        assertEquals(map, codecs.decode(codecs.encode(map)));
+        assertSame(NullValue.INSTANCE, codecs.decode(codecs.encode(NullValue.INSTANCE)));
+        assertEquals(2, codecs.encode(NullValue.INSTANCE).length);
+        
+        Profile decoded = (Profile) codecs.decode(codecs.encode(new Profile("tom", 30, LocalDate.of(1990, 1, 2))));
+        assertEquals("tom", decoded.getName());
+        assertEquals(30, decoded.getAge());
+        assertEquals(LocalDate.of(1990, 1, 2), decoded.getBirthday());
+    }
+    
+    @Test
+    void testJsonCodecWritesTypeHeader() {
+        // 准备数据
+        TieredCacheProperties.CodecProperties properties = trustedProperties();
+        properties.setDefaultCodec(JsonCacheCodec.NAME);
+        CacheCodecRegistry codecs = new CacheCodecRegistry(properties);
+        
+        // 执行测试
+        byte[] encoded = codecs.encode(new Profile("amy", 20, null));
+        Object decoded = codecs.decode(encoded);
+        
+        // 验证结果：类型由头部的类名给出
+        assertTrue(CacheCodecRegistry.isEncoded(encoded));
+        assertEquals(JsonCacheCodec.ID, encoded[1]);
+        assertTrue(decoded instanceof Profile);
+        assertEquals("amy", ((Profile) decoded).getName());
+        assertEquals(Arrays.asList(1, 2), codecs.decode(codecs.encode(new ArrayList<>(Arrays.asList(1, 2)))));
+    }
+    
+    @Test
+    void testJsonGenericCollectionsRoundTrip() {
+        // 准备数据
+        CacheCodecRegistry codecs = jsonRegistry();
+        List<Profile> profiles = new ArrayList<>(Arrays.asList(profile(1), profile(2)));
+        Map<String, List<Profile>> byGroup = new HashMap<>();
+        byGroup.put("a", profiles);
+        Map<Level, Long> counts = new HashMap<>();
+        counts.put(Level.HIGH, 3L);
+        
+        // 执行测试
+        List<?> decodedList = (List<?>) codecs.decode(codecs.encode(profiles));
+        Map<?, ?> decodedMap = (Map<?, ?>) codecs.decode(codecs.encode(byGroup));
+        Map<?, ?> decodedCounts = (Map<?, ?>) codecs.decode(codecs.encode(counts));
+        
+        // 验证结果：元素按原本的类型还原，而不是LinkedHashMap
+        assertTrue(decodedList.get(0) instanceof Profile);
+        assertEquals("user2", ((Profile) decodedList.get(1)).getName());
+        assertEquals(LocalDate.of(1990, 1, 3), ((Profile) decodedList.get(1)).getBirthday());
+        assertTrue(((List<?>) decodedMap.get("a")).get(0) instanceof Profile);
+        assertEquals(3L, decodedCounts.get(Level.HIGH));
+        // 元素类型不一致时按原始类型解码
+        assertEquals(Arrays.asList(1, "x"), codecs.decode(codecs.encode(new ArrayList<>(Arrays.asList(1, "x")))));
+    }
+    
+    @Test
+    void testRegisteredTypeAndNamespaceCodec() {
+        // 准备数据
+        TieredCacheProperties.CodecProperties properties = new TieredCacheProperties.CodecProperties();
+        properties.getRegions().put("orders", JsonCacheCodec.NAME);
+        TieredCacheProperties.TypeCodecProperties type = new TieredCacheProperties.TypeCodecProperties();
+        type.setId(9);
+        properties.getTypes().put(Profile.class.getName(), type);
+        CacheCodecRegistry codecs = new CacheCodecRegistry(properties);
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("total", 3);
+        
+        // 执行测试
+        byte[] profile = codecs.encode("users:1", new Profile("bob", 40, null));
+        byte[] json = codecs.encode("orders:1", order);
+        byte[] binary = codecs.encode("orderstats:1", order);
+        
+        // 验证结果：注册类型只写类型ID，命名空间按完整前缀匹配
+        assertEquals(JsonCacheCodec.ID, profile[1]);
+        assertEquals(9, profile[2]);
+        assertEquals("bob", ((Profile) codecs.decode(profile)).getName());
+        assertEquals(JsonCacheCodec.ID, json[1]);
+        assertEquals(BinaryCacheCodec.ID, binary[1]);
+        assertEquals(order, codecs.decode(json));
+        assertEquals(order, codecs.decode(binary));
+    }
+    
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        // 准备数据
+        TieredCacheProperties.CodecProperties jsonProperties = new TieredCacheProperties.CodecProperties();
+        jsonProperties.setDefaultCodec(JsonCacheCodec.NAME);
+        CacheCodecRegistry json = new CacheCodecRegistry(jsonProperties);
+        CacheCodecRegistry binary = new CacheCodecRegistry();
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            ids.add(1_000_000L + i);
+        }
+        
+        // 执行测试
+        int jsonSize = json.encode(ids).length;
+        int binarySize = binary.encode(ids).length;
+        
+        // 验证结果
+        assertTrue(binarySize < jsonSize, "binary " + binarySize + " should be smaller than json " + jsonSize);
+        assertEquals(ids, binary.decode(binary.encode(ids)));
+    }
+    
+    @Test
+    void testUntrustedTypesAreNotDecoded() {
+        // 准备数据：编码端信任测试包，解码端只信任JDK类型
+        CacheCodecRegistry writer = new CacheCodecRegistry(trustedProperties());
+        CacheCodecRegistry reader = new CacheCodecRegistry();
+        byte[] profile = writer.encode(new Profile("eve", 1, null));
+        byte[] level = writer.encode(Level.LOW);
+        
+        // 执行测试 & 验证结果：类名不受信任时不解析，JDK类型照常解码
+        assertThrows(CacheSerializationException.class, () -> reader.decode(profile));
+        assertThrows(CacheSerializationException.class, () -> reader.decode(level));
+        assertEquals(LocalDate.of(2020, 2, 2), reader.decode(writer.encode(LocalDate.of(2020, 2, 2))));
+    }
+    
+    @Test
+    void testSerializableValuesUseJsonInsteadOfJavaSerialization() {
+        // 准备数据
+        CacheCodecRegistry codecs = new CacheCodecRegistry(trustedProperties());
+        TreeMap<String, Long> sorted = new TreeMap<>();
+        sorted.put("b", 2L);
+        sorted.put("a", 1L);
+        
+        // 执行测试
+        byte[] encoded = codecs.encode(new SerializableProfile("ann"));
+        
+        // 验证结果：不包含Java序列化的流头，有序集合逐元素编码并保留类型
+        assertFalse(new String(encoded, StandardCharsets.ISO_8859_1).contains("\u00AC\u00ED"));
+        assertEquals("ann", ((SerializableProfile) codecs.decode(encoded)).getName());
+        Object decoded = codecs.decode(codecs.encode(sorted));
+        assertTrue(decoded instanceof TreeMap);
+        assertEquals(sorted, decoded);
+    }
+    
+    @Test
+    void testDecompressedSizeIsCapped() {
+        // 准备数据
+        TieredCacheProperties.CodecProperties properties = new TieredCacheProperties.CodecProperties();
+        properties.setMaxDecompressedSize(DataSize.ofKilobytes(1));
+        CacheCodecRegistry codecs = new CacheCodecRegistry(properties);
+        byte[] large = new byte[4096];
+        byte[] compressed = codecs.compress(codecs.encode(large), codecs.getCompressor(DeflateCompressor.NAME));
+        
+        // 执行测试 & 验证结果：原始长度超过上限时不分配缓冲区
+        assertTrue(CacheCodecRegistry.isCompressed(compressed));
+        assertThrows(CacheSerializationException.class, () -> codecs.decode(compressed));
+        assertArrayEquals(large, (byte[]) new CacheCodecRegistry().decode(compressed));
+    }
+    
+    @Test
+    void testLegacyValuesAreNotEncoded() {
+        // 准备数据
+        byte[] legacyJson = "{\"name\":\"tom\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] legacyJdk = {(byte) 0xAC, (byte) 0xED, 0, 5};
+        
+        // 验证结果
+        assertFalse(CacheCodecRegistry.isEncoded(legacyJson));
+        assertFalse(CacheCodecRegistry.isEncoded(legacyJdk));
+        assertFalse(CacheCodecRegistry.isEncoded(null));
+        assertTrue(CacheCodecRegistry.isEncoded(new CacheCodecRegistry().encode("x")));
+    }
+    
+    @Test
+    void testEncryptionPreservesType() {
+        // 准备数据
+        TieredCacheProperties.EncryptionProperties properties = new TieredCacheProperties.EncryptionProperties();
+        properties.setEnabled(true);
+        CacheEncryption encryption = new CacheEncryption(properties, new CacheCodecRegistry());
+        
+        // 执行测试
+        Object encrypted = encryption.encrypt(42L);
+        Object decrypted = encryption.decrypt(encrypted);
+        
+        // 验证结果：解密后仍为Long，而不是JSON读回的Integer
+        assertTrue(encrypted instanceof String);
+        assertEquals(42L, decrypted);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSyncEventsCarryEncodedValues() throws Exception {
+        // 准备数据
+        CacheCodecRegistry codecs = new CacheCodecRegistry(trustedProperties());
+        LocalCache<String, Object> localCache = mock(LocalCache.class);
+        RemoteCache<String, Object> remoteCache = mock(RemoteCache.class);
+        TieredCacheProperties.SyncProperties syncProperties = new TieredCacheProperties.SyncProperties();
+        syncProperties.setEnabled(true);
+        CacheSyncManager syncManager = new CacheSyncManager(localCache, remoteCache, syncProperties, codecs);
+        syncManager.initialize();
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(remoteCache).subscribe(eq(syncProperties.getChannel()), listener.capture());
+        
+        try {
+            // 执行测试：发布的写入事件携带编码后的值（JSON中为Base64）
+            Profile profile = new Profile("joe", 33, null);
+            byte[] encoded = codecs.encode(profile);
+            syncManager.publishCacheUpdate("user:1", profile);
+            ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+            verify(remoteCache).publish(eq(syncProperties.getChannel()), published.capture());
+            CacheSyncEvent remote = new CacheSyncEvent(CacheSyncEvent.Type.PUT, "user:1",
+                    Collections.singletonMap("name", "stale"), encoded, System.currentTimeMillis(), "other-node", null);
+            listener.getValue().onMessage(syncProperties.getChannel(), remote);
+            
+            // 验证结果：旧版本节点读取的value仍随事件发布，接收方以encodedValue为准写入原类型而不是Map
+            assertTrue(((String) published.getValue()).contains(
+                    "\"encodedValue\":\"" + Base64.getEncoder().encodeToString(encoded) + "\""));
+            assertTrue(((String) published.getValue()).contains("\"name\":\"joe\""));
+            ArgumentCaptor<Object> applied = ArgumentCaptor.forClass(Object.class);
+            verify(localCache).put(eq("user:1"), applied.capture());
+            assertTrue(applied.getValue() instanceof Profile);
+            assertEquals("joe", ((Profile) applied.getValue()).getName());
+        } finally {
+            syncManager.destroy();
+        }
+    }
+    
+    @Test
+    void testCompressedValuesRoundTrip() {
+        // 准备数据
+        CacheCodecRegistry codecs = new CacheCodecRegistry();
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("orderId", "ORD-" + (100000 + i));
+            order.put("status", i % 3 == 0 ? "SHIPPED" : "PENDING");
+            order.put("amount", i * 10L);
+            orders.add(order);
+        }
+        byte[] encoded = codecs.encode("orders:1", orders);
+        
+        for (String algorithm : Arrays.asList(DeflateCompressor.NAME, LzCompressor.NAME)) {
+            // 执行测试
+            byte[] compressed = codecs.compress(encoded, codecs.getCompressor(algorithm));
+            
+            // 验证结果：压缩后明显变小，解码结果与未压缩的一致
+            assertTrue(CacheCodecRegistry.isCompressed(compressed), algorithm);
+            assertTrue(compressed.length * 3 < encoded.length, algorithm + " " + compressed.length + "/" + encoded.length);
+            assertEquals(orders, codecs.decode(compressed), algorithm);
+            assertArrayEquals(encoded, codecs.decompress(compressed), algorithm);
+        }
+        // 未压缩的值照常解码
+        assertFalse(CacheCodecRegistry.isCompressed(encoded));
+        assertEquals(orders, codecs.decode(encoded));
+    }
+    
+    @Test
+    void testDeflateRoundTripsConcurrentlyBeyondPoolCapacity() throws Exception {
+        // 准备数据：并发线程数超过池容量，池外的实例用完即释放
+        DeflateCompressor compressor = new DeflateCompressor();
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        
+        try {
+            // 执行测试
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        byte[] original = ("value-" + seed + "-" + i + "-" + String.join(",", Collections.nCopies(20, "x")))
+                                .getBytes(StandardCharsets.UTF_8);
+                        byte[] compressed = compressor.compress(original, 0, original.length);
+                        byte[] restored = new byte[original.length];
+                        compressor.decompress(compressed, 0, compressed.length, restored, 0, original.length);
+                        if (!Arrays.equals(original, restored)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            
+            // 验证结果
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testIncompressibleValuesAreLeftAsIs() {
+        // 准备数据
+        CacheCodecRegistry codecs = new CacheCodecRegistry();
+        byte[] random = new byte[2048];
+        new Random(42).nextBytes(random);
+        byte[] encoded = codecs.encode(random);
+        byte[] nullValue = codecs.encode(NullValue.INSTANCE);
+        
+        // 执行测试 & 验证结果
+        for (String algorithm : Arrays.asList(DeflateCompressor.NAME, LzCompressor.NAME)) {
+            CacheCompressor compressor = codecs.getCompressor(algorithm);
+            assertSame(encoded, codecs.compress(encoded, compressor));
+            assertSame(nullValue, codecs.compress(nullValue, compressor));
+        }
+    }
+    
+    @Test
+    void testLzCompressorHandlesEdgeCases() {
+        // 准备数据
+        LzCompressor compressor = new LzCompressor();
+        Random random = new Random(7);
+        byte[] repeated = new byte[70000];
+        Arrays.fill(repeated, (byte) 'a');
+        byte[] mixed = new byte[5000];
+        for (int i = 0; i < mixed.length; i++) {
+            mixed[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt(256) : 'x' + i % 7);
+        }
+        
+        // 执行测试 & 验证结果：短输入、长重复（重叠匹配和扩展长度）、混合数据都能还原
+        for (byte[] input : Arrays.asList(new byte[0], "short".getBytes(StandardCharsets.UTF_8), repeated, mixed)) {
+            byte[] compressed = compressor.compress(input, 0, input.length);
+            byte[] restored = new byte[input.length + 3];
+            compressor.decompress(compressed, 0, compressed.length, restored, 3, input.length);
+            assertArrayEquals(input, Arrays.copyOfRange(restored, 3, restored.length));
+        }
+        byte[] compressed = compressor.compress(repeated, 0, repeated.length);
+        assertThrows(CacheSerializationException.class,
+                () -> compressor.decompress(compressed, 0, compressed.length - 1, new byte[repeated.length], 0, repeated.length));
+    }
+    
+    @Test
+    void testDictionaryCompressesSmallJsonValues() {
+        // 准备数据：两个节点共享字典存储
+        Map<Integer, byte[]> shared = new ConcurrentHashMap<>();
+        DictionaryStore store = new DictionaryStore() {
+            @Override
+            public void save(int id, byte[] dictionary) {
+                shared.put(id, dictionary);
+            }
+            
+            @Override
+            public byte[] load(int id) {
+                return shared.get(id);
+            }
+        };
+        TieredCacheProperties.DictionaryProperties dictionaryProperties = new TieredCacheProperties.DictionaryProperties();
+        dictionaryProperties.setSampleSize(20);
+        CacheCodecRegistry node1 = jsonRegistry();
+        CacheCodecRegistry node2 = jsonRegistry();
+        DictionaryCompressor dictionary = new DictionaryCompressor(dictionaryProperties, store);
+        node1.registerCompressor(dictionary);
+        node2.registerCompressor(new DictionaryCompressor(dictionaryProperties, store));
+        CacheCompressor users = dictionary.forNamespace("users");
+        
+        // 执行测试：采样阶段没有字典，样本数达到后训练
+        for (int i = 0; i < 20; i++) {
+            node1.compress(node1.encode("users:" + i, profile(i)), users);
+        }
+        byte[] encoded = node1.encode("users:99", profile(99));
+        byte[] withDictionary = node1.compress(encoded, users);
+        byte[] plain = node1.compress(encoded, node1.getCompressor(DeflateCompressor.NAME));
+        
+        // 验证结果：字典明显优于普通Deflate，另一个节点从共享存储加载字典后可以解码
+        assertEquals(1, dictionary.getVersion("users"));
+        assertEquals(0, dictionary.getVersion("orders"));
+        assertTrue(shared.containsKey(dictionary.getDictionaryId("users")));
+        assertTrue(CacheCodecRegistry.isCompressed(withDictionary));
+        assertTrue(withDictionary.length * 2 < plain.length,
+                "dictionary " + withDictionary.length + " vs deflate " + plain.length);
+        assertEquals("user99", ((Profile) node1.decode(withDictionary)).getName());
+        assertEquals("user99", ((Profile) node2.decode(withDictionary)).getName());
+        
+        // 没有共享存储的节点无法解码
+        CacheCodecRegistry isolated = jsonRegistry();
+        assertThrows(CacheSerializationException.class, () -> isolated.decode(withDictionary));
+    }
+    
+    @Test
+    void testDictionaryRotationKeepsOldValuesReadable() {
+        // 准备数据
+        TieredCacheProperties.DictionaryProperties dictionaryProperties = new TieredCacheProperties.DictionaryProperties();
+        dictionaryProperties.setSampleSize(10);
+        dictionaryProperties.setRetrainInterval(5);
+        CacheCodecRegistry codecs = jsonRegistry();
+        DictionaryCompressor dictionary = new DictionaryCompressor(dictionaryProperties, null);
+        codecs.registerCompressor(dictionary);
+        for (int i = 0; i < 10; i++) {
+            codecs.compress(codecs.encode(profile(i)), dictionary);
+        }
+        byte[] old = codecs.compress(codecs.encode(profile(1)), dictionary);
+        int oldId = dictionary.getDictionaryId("");
+        
+        // 执行测试：重新训练间隔过后采样新的值
+        for (int i = 0; i < 20; i++) {
+            codecs.compress(codecs.encode(new Profile("renamed-" + i, i, LocalDate.of(2000, 1, 1).plusDays(i))), dictionary);
+        }
+        
+        // 验证结果：版本轮换后旧字典压缩的值仍可解码
+        assertEquals(2, dictionary.getVersion(""));
+        assertNotEquals(oldId, dictionary.getDictionaryId(""));
+        assertEquals("user1", ((Profile) codecs.decode(old)).getName());
+    }
+    
+    @Test
+    void testDictionaryTrainsInBackgroundAndExtendsUsedDictionaries() {
+        // 准备数据：后台任务先排队，由测试手动执行
+        Map<Integer, byte[]> shared = new ConcurrentHashMap<>();
+        List<Integer> touched = new ArrayList<>();
+        DictionaryStore store = new DictionaryStore() {
+            @Override
+            public void save(int id, byte[] dictionary) {
+                shared.put(id, dictionary);
+            }
+            
+            @Override
+            public byte[] load(int id) {
+                return shared.get(id);
+            }
+            
+            @Override
+            public void touch(int id) {
+                touched.add(id);
+            }
+        };
+        TieredCacheProperties.DictionaryProperties dictionaryProperties = new TieredCacheProperties.DictionaryProperties();
+        dictionaryProperties.setSampleSize(20);
+        dictionaryProperties.setTtl(Duration.ofDays(1));
+        CacheCodecRegistry codecs = jsonRegistry();
+        DictionaryCompressor dictionary = new DictionaryCompressor(dictionaryProperties, store);
+        List<Runnable> background = new ArrayList<>();
+        dictionary.setExecutor(background::add);
+        codecs.registerCompressor(dictionary);
+        for (int i = 0; i < 20; i++) {
+            codecs.compress(codecs.encode(profile(i)), dictionary);
+        }
+        
+        // 执行测试：样本数达到后训练只提交到后台
+        assertEquals(0, dictionary.getVersion(""));
+        assertEquals(1, background.size());
+        background.remove(0).run();
+        byte[] compressed = codecs.compress(codecs.encode(profile(99)), dictionary);
+        CacheCodecRegistry other = jsonRegistry();
+        DictionaryCompressor otherDictionary = new DictionaryCompressor(dictionaryProperties, store);
+        otherDictionary.setExecutor(background::add);
+        other.registerCompressor(otherDictionary);
+        assertEquals("user99", ((Profile) other.decode(compressed)).getName());
+        background.forEach(Runnable::run);
+        
+        // 验证结果：训练后保存过的字典不会立即续期，另一个节点首次使用时续期
+        int id = dictionary.getDictionaryId("");
+        assertEquals(1, dictionary.getVersion(""));
+        assertTrue(shared.containsKey(id));
+        assertEquals(Collections.singletonList(id), touched);
+    }
+    
+    private static CacheCodecRegistry jsonRegistry() {
+        TieredCacheProperties.CodecProperties properties = trustedProperties();
+        properties.setDefaultCodec(JsonCacheCodec.NAME);
+        return new CacheCodecRegistry(properties);
+    }
+    
+    private static TieredCacheProperties.CodecProperties trustedProperties() {
+        TieredCacheProperties.CodecProperties properties = new TieredCacheProperties.CodecProperties();
+        properties.getTrustedPackages().add("com.cache.plugin");
+        return properties;
+    }
+    
+    private static Profile profile(int i) {
+        return new Profile("user" + i, 20 + i % 50, LocalDate.of(1990, 1, 1).plusDays(i));
+    }
+}
@@ -1,6 +1,7 @@
 package com.cache.plugin;
 
 import com.cache.plugin.aspect.CacheKeyGenerator;
+import com.cache.plugin.core.CacheKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -123,6 +124,74 @@ public class CacheKeyGeneratorTest {
         assertEquals("user:null", key);
     }
     
+    @Test
+    void testDefaultKeyIsStringMatchingGenerate() throws NoSuchMethodException {
+        Method method = TestService.class.getMethod("getUserByNameAndAge", String.class, Integer.class);
+        
+        Object first = keyGenerator.generateKey("", "", method, new Object[]{"John", 25}, null);
+        Object other = keyGenerator.generateKey("", "", method, new Object[]{"John", 26}, null);
+        
+        assertTrue(first instanceof String);
+        assertEquals("TestService.getUserByNameAndAge(John,25)", first);
+        assertEquals(keyGenerator.generate("", "", method, new Object[]{"John", 25}, null), first);
+        assertNotEquals(first, other);
+    }
+    
+    @Test
+    void testCompactDefaultKey() throws NoSuchMethodException {
+        // 准备数据
+        CacheKeyGenerator compact = new CacheKeyGenerator(true);
+        Method method = TestService.class.getMethod("getUserByNameAndAge", String.class, Integer.class);
+        
+        // 执行测试
+        Object first = compact.generateKey("", "", method, new Object[]{"John", 25}, null);
+        Object same = compact.generateKey("", "", method, new Object[]{"John", 25}, null);
+        Object other = compact.generateKey("", "", method, new Object[]{"John", 26}, null);
+        
+        // 验证结果
+        assertTrue(first instanceof CacheKey);
+        assertEquals(same, first);
+        assertEquals(((CacheKey) same).hash64(), ((CacheKey) first).hash64());
+        assertNotEquals(first, other);
+        assertEquals(compact.generate("", "", method, new Object[]{"John", 25}, null), first.toString());
+        assertTrue(CacheKey.isEncoded(first.toString()));
+        // 键表达式不受影响
+        assertEquals("user:John:25", compact.generate("'user:' + #p0 + ':' + #p1", "", method, new Object[]{"John", 25}, null));
+    }
+    
+    @Test
+    void testCompactKeyEncodingRoundTrip() {
+        // 准备数据
+        CacheKey key = new CacheKey("TestService.find", new Object[]{-1L, 7, "名称:a,b", null, true, false, Long.MIN_VALUE, new int[]{1, 2}});
+        
+        // 执行测试
+        String encoded = key.toString();
+        CacheKey parsed = CacheKey.parse(encoded);
+        
+        // 验证结果
+        assertNotNull(parsed);
+        assertEquals(key, parsed);
+        assertEquals(key.hashCode(), parsed.hashCode());
+        assertEquals(encoded, parsed.toString());
+        // 整数参数的类型不影响键
+        assertEquals(new CacheKey("TestService.find", new Object[]{7L}), new CacheKey("TestService.find", new Object[]{7}));
+        // 字符串与同文本的整数不相等
+        assertNotEquals(new CacheKey("TestService.find", new Object[]{"7"}), new CacheKey("TestService.find", new Object[]{7}));
+    }
+    
+    @Test
+    void testParseRejectsInvalidEncoding() {
+        // 准备数据
+        String encoded = new CacheKey("TestService.find", new Object[]{42L}).toString();
+        
+        // 执行测试 & 验证结果
+        assertNull(CacheKey.parse("TestService.find(42)"));
+        assertNull(CacheKey.parse(encoded.substring(0, encoded.length() - 1)));
+        assertNull(CacheKey.parse(encoded + "x"));
+        assertNull(CacheKey.parse(CacheKey.MARKER + "Z"));
+        assertNull(CacheKey.parse(null));
+    }
+    
     /**
      * 测试用的服务类
      */
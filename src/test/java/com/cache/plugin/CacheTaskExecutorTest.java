@@ -0,0 +1,126 @@
+package com.cache.plugin;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheTaskExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存异步任务执行器测试
+ */
+public class CacheTaskExecutorTest {
+    
+    private CacheTaskExecutor executor;
+    
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    private TieredCacheProperties.AsyncProperties properties() {
+        TieredCacheProperties.AsyncProperties properties = new TieredCacheProperties.AsyncProperties();
+        properties.getBackfill().setThreads(1);
+        properties.getBackfill().setQueueCapacity(1);
+        properties.getWrite().setThreads(1);
+        properties.getWrite().setQueueCapacity(1);
+        return properties;
+    }
+    
+    @Test
+    void testBackfillLaneShedsTasksWhenFull() throws Exception {
+        // 准备数据：唯一的工作线程被占用，队列中已有一个任务
+        executor = new CacheTaskExecutor(properties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        executor.execute(CacheTaskExecutor.Lane.BACKFILL, () -> {
+            started.countDown();
+            await(release);
+            completed.incrementAndGet();
+        }, rejected::incrementAndGet);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        executor.execute(CacheTaskExecutor.Lane.BACKFILL, completed::incrementAndGet, rejected::incrementAndGet);
+        
+        // 执行测试
+        executor.execute(CacheTaskExecutor.Lane.BACKFILL, completed::incrementAndGet, rejected::incrementAndGet);
+        
+        // 验证结果
+        assertEquals(1, rejected.get());
+        assertEquals(1, executor.getRejectedCount(CacheTaskExecutor.Lane.BACKFILL));
+        assertEquals(1, executor.getQueueDepth(CacheTaskExecutor.Lane.BACKFILL));
+        assertEquals(0, executor.getRejectedCount(CacheTaskExecutor.Lane.WRITE));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(2, completed.get());
+    }
+    
+    @Test
+    void testWriteLaneRunsOnCallerWhenFull() throws Exception {
+        // 准备数据
+        executor = new CacheTaskExecutor(properties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.lane(CacheTaskExecutor.Lane.WRITE).execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        executor.lane(CacheTaskExecutor.Lane.WRITE).execute(() -> { });
+        
+        // 执行测试
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        executor.lane(CacheTaskExecutor.Lane.WRITE).execute(() -> runner.set(Thread.currentThread()));
+        
+        // 验证结果
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(1, executor.getRejectedCount(CacheTaskExecutor.Lane.WRITE));
+        release.countDown();
+    }
+    
+    @Test
+    void testVirtualThreadsOnlyWhenSupported() throws Exception {
+        // 准备数据
+        TieredCacheProperties.AsyncProperties properties = properties();
+        properties.setVirtualThreads(true);
+        boolean supported;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+        
+        // 执行测试
+        executor = new CacheTaskExecutor(properties);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        executor.lane(CacheTaskExecutor.Lane.BACKFILL).execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+        
+        // 验证结果
+        assertEquals(supported, executor.isVirtualThreads());
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("cache-backfill-"));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
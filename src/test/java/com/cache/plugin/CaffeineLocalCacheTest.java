@@ -1,10 +1,13 @@
 package com.cache.plugin;
 
 import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.CacheKey;
 import com.cache.plugin.local.impl.CaffeineLocalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.util.unit.DataSize;
+
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -20,6 +23,7 @@ public class CaffeineLocalCacheTest {
     
     private CaffeineLocalCache cache;
     private TieredCacheProperties.LocalCacheProperties properties;
+    private FakeTicker ticker;
     
     @BeforeEach
     void setUp() {
@@ -28,6 +32,7 @@ public class CaffeineLocalCacheTest {
         properties.setExpireAfterWrite(Duration.ofSeconds(10));
         properties.setExpireAfterAccess(Duration.ofSeconds(20));
         properties.setRecordStats(true);
+        ticker = new FakeTicker();
         
         cache = new CaffeineLocalCache(properties);
     }
@@ -165,4 +170,183 @@ public class CaffeineLocalCacheTest {
         
         assertNull(cache.get(null));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testPerEntryTtl() {
+        // 准备数据
+        cache = new CaffeineLocalCache("ttl", properties, null, ticker);
+        cache.put("short-key", "short-value", Duration.ofMillis(100));
+        cache.put("default-key", "default-value");
+        
+        // 执行测试
+        assertEquals("short-value", cache.get("short-key"));
+        ticker.advance(Duration.ofMillis(200));
+        
+        // 验证结果：短TTL条目已过期，默认条目仍按expireAfterWrite保留
+        assertNull(cache.get("short-key"));
+        assertFalse(cache.containsKey("short-key"));
+        assertEquals("default-value", cache.get("default-key"));
+    }
+    
+    @Test
+    void testPerEntryTtlIsBoundedByExpireAfterAccess() {
+        // 准备数据
+        properties.setExpireAfterWrite(null);
+        properties.setExpireAfterAccess(Duration.ofMillis(100));
+        cache = new CaffeineLocalCache("ttl", properties, null, ticker);
+        cache.put("key", "value", Duration.ofMinutes(10));
+        
+        // 执行测试：在空闲期内访问会续期
+        ticker.advance(Duration.ofMillis(60));
+        assertEquals("value", cache.get("key"));
+        ticker.advance(Duration.ofMillis(60));
+        assertEquals("value", cache.get("key"));
+        
+        // 验证结果：空闲超过expireAfterAccess后过期
+        ticker.advance(Duration.ofMillis(200));
+        assertNull(cache.get("key"));
+    }
+    
+    @Test
+    void testReadDoesNotExtendWriteLifetime() {
+        // 准备数据
+        cache = new CaffeineLocalCache("ttl", properties, null, ticker);
+        cache.put("key", "value", Duration.ofMillis(150));
+        
+        // 执行测试
+        for (int i = 0; i < 4; i++) {
+            ticker.advance(Duration.ofMillis(50));
+            cache.get("key");
+        }
+        
+        // 验证结果
+        assertNull(cache.get("key"));
+    }
+    
+    @Test
+    void testSetMaxSizeShrinksCacheAtRuntime() {
+        // 准备数据
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        
+        // 执行测试
+        cache.setMaxSize(10);
+        cache.cleanUp();
+        
+        // 验证结果
+        assertEquals(10, cache.getMaxSize());
+        assertTrue(cache.getCurrentSize() <= 10);
+    }
+    
+    @Test
+    void testSetExpireAfterWriteAppliesToExistingEntries() {
+        // 准备数据
+        cache = new CaffeineLocalCache("resize", properties, null, ticker);
+        cache.put("default-key", "default-value");
+        cache.put("ttl-key", "ttl-value", Duration.ofMinutes(5));
+        
+        // 执行测试
+        cache.setExpireAfterWrite(Duration.ofMillis(50));
+        ticker.advance(Duration.ofMillis(100));
+        
+        // 验证结果：跟随默认过期的条目按新配置过期，单独指定TTL的条目不受影响
+        assertEquals(Duration.ofMillis(50), cache.getExpireAfterWrite());
+        assertNull(cache.get("default-key"));
+        assertEquals("ttl-value", cache.get("ttl-key"));
+    }
+    
+    @Test
+    void testMaxWeightEvictsByEstimatedBytes() {
+        // 准备数据：预算约可容纳两个4KB的值
+        properties.setMaxWeight(DataSize.ofKilobytes(10));
+        cache = new CaffeineLocalCache("weighted", properties, value -> value instanceof byte[] ? ((byte[]) value).length : 16);
+        
+        // 执行测试
+        for (int i = 0; i < 10; i++) {
+            cache.put("small-" + i, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put("large-" + i, new byte[4096]);
+        }
+        cache.cleanUp();
+        
+        // 验证结果
+        assertEquals(10 * 1024, cache.getMaxSize());
+        long weightedSize = cache.getNativeCache().policy().eviction().get().weightedSize().getAsLong();
+        assertTrue(weightedSize <= 10 * 1024);
+        assertTrue(cache.getCurrentSize() < 15);
+    }
+    
+    @Test
+    void testMaxWeightUsesConfiguredEstimator() {
+        // 准备数据
+        properties.setMaxWeight(DataSize.ofMegabytes(1));
+        properties.setWeigher("serialized");
+        cache = new CaffeineLocalCache("serialized", properties, null);
+        
+        // 执行测试
+        cache.put("key", "value");
+        cache.cleanUp();
+        
+        // 验证结果
+        assertEquals("value", cache.get("key"));
+        assertTrue(cache.getNativeCache().policy().eviction().get().weightedSize().getAsLong() > 0);
+    }
+    
+    @Test
+    void testPinnedEntrySurvivesEvictionAndExpiry() {
+        // 准备数据
+        properties.setMaxSize(10);
+        properties.setExpireAfterWrite(Duration.ofMillis(100));
+        properties.setExpireAfterAccess(null);
+        cache = new CaffeineLocalCache("pinned", properties, null, ticker);
+        cache.put("hot", "value");
+        cache.pin("hot");
+        
+        // 执行测试
+        for (int i = 0; i < 100; i++) {
+            cache.put("key-" + i, "value-" + i);
+        }
+        ticker.advance(Duration.ofMillis(200));
+        cache.cleanUp();
+        
+        // 验证结果：固定的条目不被驱逐也不过期，之后写入的值仍被固定
+        assertEquals("value", cache.get("hot"));
+        cache.put("hot", "updated");
+        ticker.advance(Duration.ofMillis(200));
+        assertEquals("updated", cache.get("hot"));
+        
+        // 执行测试：取消固定后恢复原有的过期策略
+        cache.unpin("hot");
+        ticker.advance(Duration.ofMillis(150));
+        
+        // 验证结果
+        assertFalse(cache.isPinned("hot"));
+        assertNull(cache.get("hot"));
+    }
+    
+    @Test
+    void testCompactKeySharesEntryWithEncodedString() {
+        // 准备数据
+        CacheKey key = new CacheKey("UserService.find", new Object[]{7L, "name"});
+        CacheKey other = new CacheKey("UserService.find", new Object[]{8L, "name"});
+        
+        // 执行测试
+        cache.put(key.toString(), "user7");
+        
+        // 验证结果：键对象与编码字符串命中同一条目，不支持的键不计为未命中
+        assertEquals("user7", cache.getIfPresent(key));
+        assertEquals("user7", cache.get(key.toString()));
+        assertNull(cache.getIfPresent(other));
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getStats().getHitCount());
+        assertEquals(0, cache.getStats().getMissCount());
+        
+        // 执行测试：按编码字符串清除
+        cache.evict(CacheKey.parse(key.toString()).toString());
+        
+        // 验证结果
+        assertNull(cache.getIfPresent(key));
+    }
+}
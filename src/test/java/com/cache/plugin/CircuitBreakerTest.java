@@ -0,0 +1,106 @@
+package com.cache.plugin;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.remote.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 远程缓存熔断器测试
+ */
+public class CircuitBreakerTest {
+    
+    private TieredCacheProperties.CircuitBreakerProperties properties(Duration waitDuration) {
+        TieredCacheProperties.CircuitBreakerProperties properties = new TieredCacheProperties.CircuitBreakerProperties();
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setSlowCallRateThreshold(0.5);
+        properties.setSlowCallDuration(Duration.ofMillis(100));
+        properties.setWaitDurationInOpenState(waitDuration);
+        properties.setPermittedCallsInHalfOpenState(2);
+        return properties;
+    }
+    
+    @Test
+    void testOpensOnFailureRateAndRejectsCalls() {
+        // 准备数据
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", properties(Duration.ofMinutes(1)));
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onError(0);
+        circuitBreaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        // 执行测试
+        circuitBreaker.onError(0);
+        
+        // 验证结果
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isOpen());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getOpenCount());
+        assertEquals(1, circuitBreaker.getRejectedCount());
+    }
+    
+    @Test
+    void testOpensOnSlowCallRate() {
+        // 准备数据
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", properties(Duration.ofMinutes(1)));
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+        
+        // 执行测试
+        circuitBreaker.onSuccess(slow);
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(slow);
+        circuitBreaker.onSuccess(0);
+        
+        // 验证结果
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void testHalfOpenProbesCloseOrReopen() throws Exception {
+        // 准备数据
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", properties(Duration.ofMillis(20)));
+        circuitBreaker.forceOpen();
+        Thread.sleep(50);
+        
+        // 执行测试：探测失败重新熔断
+        assertFalse(circuitBreaker.isOpen());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onError(0);
+        circuitBreaker.onError(0);
+        
+        // 验证结果
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        
+        // 执行测试：探测成功恢复
+        Thread.sleep(50);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        
+        // 验证结果
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+    }
+    
+    @Test
+    void testRejectsMoreHalfOpenProbesThanWindowSize() {
+        // 准备数据：窗口放不下全部探测调用时半开状态无法结束
+        TieredCacheProperties.CircuitBreakerProperties properties = properties(Duration.ofMinutes(1));
+        properties.setPermittedCallsInHalfOpenState(11);
+        
+        // 执行测试并验证结果
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("test", properties));
+    }
+}
@@ -0,0 +1,26 @@
+package com.cache.plugin;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 手动推进的计时器，过期相关的测试不依赖Thread.sleep
+ */
+public class FakeTicker implements Ticker {
+    
+    private final AtomicLong nanos = new AtomicLong(System.nanoTime());
+    
+    @Override
+    public long read() {
+        return nanos.get();
+    }
+    
+    /**
+     * 推进指定时长
+     */
+    public void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,286 @@
+package com.cache.plugin;
+
+import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.disk.impl.LogStructuredDiskCache;
+import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.remote.RemoteCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 日志结构磁盘缓存测试
+ */
+public class LogStructuredDiskCacheTest {
+    
+    @TempDir
+    Path directory;
+    
+    private TieredCacheProperties.DiskCacheProperties properties;
+    private LogStructuredDiskCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new TieredCacheProperties.DiskCacheProperties();
+        properties.setEnabled(true);
+        properties.setPath(directory.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setMaxSize(DataSize.ofMegabytes(1));
+        properties.setCompactionInterval(Duration.ofHours(1));
+        
+        cache = new LogStructuredDiskCache(properties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+    
+    @Test
+    void testPutGetAndEvict() {
+        // 准备数据
+        cache.put("key", "value");
+        cache.put("other", 42);
+        
+        // 执行测试
+        cache.evict("other");
+        
+        // 验证结果
+        assertEquals("value", cache.get("key"));
+        assertNull(cache.get("other"));
+        assertTrue(cache.containsKey("key"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+    
+    @Test
+    void testRecoversIndexAfterRestart() {
+        // 准备数据
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cache.put("key0", "updated");
+        cache.evict("key1");
+        
+        // 执行测试
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        
+        // 验证结果：覆盖写和删除标记在重放后依然生效
+        assertEquals(199, cache.size());
+        assertEquals("updated", cache.get("key0"));
+        assertNull(cache.get("key1"));
+        assertEquals("value199", cache.get("key199"));
+    }
+    
+    @Test
+    void testTruncatesTornTailOnRecovery() throws IOException {
+        // 准备数据
+        cache.put("first", "value1");
+        cache.put("second", "value2");
+        cache.close();
+        
+        // 执行测试：截掉最后一条记录的末尾，模拟写入中途崩溃
+        Path last = segmentFiles().get(segmentFiles().size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        cache = new LogStructuredDiskCache(properties);
+        cache.put("third", "value3");
+        
+        // 验证结果
+        assertEquals("value1", cache.get("first"));
+        assertNull(cache.get("second"));
+        assertEquals("value3", cache.get("third"));
+    }
+    
+    @Test
+    void testExpiresEntriesAcrossRestart() throws InterruptedException {
+        // 准备数据
+        cache.put("short", "value", Duration.ofMillis(100));
+        cache.put("long", "value", Duration.ofMinutes(10));
+        
+        // 执行测试
+        Thread.sleep(200);
+        
+        // 验证结果
+        assertNull(cache.get("short"));
+        
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        assertNull(cache.get("short"));
+        assertEquals("value", cache.get("long"));
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    void testCompactionReclaimsOverwrittenRecords() {
+        // 准备数据：反复覆盖同一批键，产生大量失效记录
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("key" + i, "value" + round + "-" + i);
+            }
+        }
+        long before = cache.getDiskUsage();
+        
+        // 执行测试
+        long reclaimed = cache.compact();
+        
+        // 验证结果
+        assertTrue(reclaimed > 0);
+        assertTrue(cache.getDiskUsage() < before);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value19-" + i, cache.get("key" + i));
+        }
+        
+        // 验证结果：压缩后的数据在重启后依然正确
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        assertEquals(10, cache.size());
+        assertEquals("value19-0", cache.get("key0"));
+    }
+    
+    @Test
+    void testCompactionDoesNotResurrectEvictedKeys() {
+        // 准备数据
+        cache.put("evicted", "old");
+        for (int i = 0; i < 100; i++) {
+            cache.put("filler" + i, "value" + i);
+        }
+        cache.evict("evicted");
+        for (int i = 0; i < 100; i++) {
+            cache.evict("filler" + i);
+        }
+        
+        // 执行测试
+        cache.compact();
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        
+        // 验证结果
+        assertNull(cache.get("evicted"));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void testDropsOldestSegmentsOverMaxSize() {
+        // 准备数据
+        properties.setMaxSize(DataSize.ofKilobytes(16));
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        byte[] payload = new byte[500];
+        
+        // 执行测试
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + i, payload);
+        }
+        
+        // 验证结果
+        assertTrue(cache.getDiskUsage() <= 16 * 1024);
+        assertNull(cache.get("key0"));
+        assertArrayEquals(payload, (byte[]) cache.get("key199"));
+        assertTrue(cache.getStats().getEvictionCount() > 0);
+    }
+    
+    @Test
+    void testStoresNonSerializableValuesAcrossRestart() {
+        // 准备数据：值类型没有实现Serializable，所在的包受信任
+        TieredCacheProperties.CodecProperties codec = new TieredCacheProperties.CodecProperties();
+        codec.setTrustedPackages(Collections.singletonList("com.cache.plugin"));
+        cache.close();
+        cache = new LogStructuredDiskCache(properties, new CacheCodecRegistry(codec));
+        Item item = new Item();
+        item.setName("book");
+        cache.put("key", item);
+        
+        // 执行测试：重启后重放段文件
+        cache.close();
+        cache = new LogStructuredDiskCache(properties, new CacheCodecRegistry(codec));
+        Object result = cache.get("key");
+        
+        // 验证结果
+        assertTrue(result instanceof Item);
+        assertEquals("book", ((Item) result).getName());
+    }
+    
+    @Test
+    void testUndecodableRecordIsTreatedAsMiss() {
+        // 准备数据：包不受信任时记录无法解码
+        TieredCacheProperties.CodecProperties codec = new TieredCacheProperties.CodecProperties();
+        codec.setTrustedPackages(Collections.singletonList("com.cache.plugin"));
+        cache.close();
+        cache = new LogStructuredDiskCache(properties, new CacheCodecRegistry(codec));
+        cache.put("key", new Item());
+        cache.close();
+        cache = new LogStructuredDiskCache(properties);
+        
+        // 执行测试
+        Object result = cache.get("key");
+        
+        // 验证结果：按未命中处理并从索引中移除
+        assertNull(result);
+        assertFalse(cache.containsKey("key"));
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+    
+    @Test
+    void testManagerReadsDiskBetweenLocalAndRemote() {
+        // 准备数据
+        @SuppressWarnings("unchecked")
+        RemoteCache<String, Object> remoteCache = mock(RemoteCache.class);
+        TieredCacheProperties.LocalCacheProperties localProps = new TieredCacheProperties.LocalCacheProperties();
+        localProps.setMaxSize(100);
+        TieredCacheManager manager = new TieredCacheManager(new CaffeineLocalCache(localProps), remoteCache,
+                new TieredCacheProperties());
+        manager.setDiskCache(cache);
+        cache.put("disk-key", "disk-value");
+        
+        // 执行测试
+        Object result = manager.get("disk-key", String.class, CacheStrategy.LOCAL_FIRST);
+        manager.evict("disk-key", CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果：磁盘命中时不访问远程缓存，删除同时作用于磁盘
+        assertEquals("disk-value", result);
+        verify(remoteCache, never()).get(anyString());
+        assertEquals(1, manager.getRegion(null).getDiskHits());
+        assertNull(cache.get("disk-key"));
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path path : stream) {
+                files.add(path);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+    
+    public static class Item {
+        private String name;
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+}
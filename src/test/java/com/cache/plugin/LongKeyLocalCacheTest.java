@@ -0,0 +1,139 @@
+package com.cache.plugin;
+
+import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.aspect.CacheKeyGenerator;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.local.impl.LongKeyLocalCache;
+import com.cache.plugin.remote.RemoteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * long键本地缓存测试
+ */
+public class LongKeyLocalCacheTest {
+    
+    private TieredCacheProperties.LocalCacheProperties properties;
+    private LongKeyLocalCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new TieredCacheProperties.LocalCacheProperties();
+        properties.setMaxSize(160);
+        properties.setExpireAfterWrite(Duration.ofMinutes(5));
+        properties.setExpireAfterAccess(null);
+        cache = new LongKeyLocalCache("users", properties);
+    }
+    
+    @Test
+    void testLongAndStringKeysShareEntries() {
+        // 准备数据
+        cache.put(42L, "user42", null);
+        cache.put("-7", "user-7");
+        cache.put("042", "padded");
+        cache.put("name", "other");
+        
+        // 执行测试
+        cache.evict(-7L);
+        
+        // 验证结果：只有规范的十进制整数按long存放，其他键存放在普通缓存中
+        assertEquals("user42", cache.get("42"));
+        assertEquals("user42", cache.get(42L));
+        assertNull(cache.get("-7"));
+        assertEquals("padded", cache.get("042"));
+        assertEquals("other", cache.get("name"));
+        assertEquals(3, cache.size());
+        assertEquals(4, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+    
+    @Test
+    void testEvictsWithinMaxSize() {
+        // 准备数据
+        cache.put("1", "pinned");
+        cache.pin("1");
+        
+        // 执行测试
+        for (long id = 2; id <= 2000; id++) {
+            cache.put(id, "user" + id, null);
+        }
+        
+        // 验证结果
+        assertTrue(cache.size() <= 160);
+        assertTrue(cache.getStats().getEvictionCount() > 0);
+        assertEquals("pinned", cache.get(1L));
+        assertEquals("user2000", cache.get(2000L));
+    }
+    
+    @Test
+    void testExpiresEntries() throws InterruptedException {
+        // 准备数据
+        cache.put(1L, "short", Duration.ofMillis(50));
+        cache.put(2L, "default", null);
+        
+        // 执行测试
+        Thread.sleep(100);
+        cache.cleanUp();
+        
+        // 验证结果
+        assertNull(cache.get(1L));
+        assertEquals("default", cache.get(2L));
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    void testHottestReturnsDecimalKeys() {
+        // 准备数据
+        for (long id = 1; id <= 10; id++) {
+            cache.put(id, "user" + id, null);
+        }
+        
+        // 执行测试
+        cache.get(3L);
+        
+        // 验证结果
+        assertEquals("3", cache.hottest(1).get(0).getKey());
+        assertEquals(10, cache.hottest(100).size());
+    }
+    
+    @Test
+    void testManagerReadsLongKeyRegionWithoutStringLookup() throws NoSuchMethodException {
+        // 准备数据
+        @SuppressWarnings("unchecked")
+        RemoteCache<String, Object> remoteCache = mock(RemoteCache.class);
+        TieredCacheProperties tieredProperties = new TieredCacheProperties();
+        TieredCacheProperties.RegionProperties region = new TieredCacheProperties.RegionProperties();
+        region.setLongKeys(true);
+        tieredProperties.getRegions().put("users", region);
+        TieredCacheManager manager = new TieredCacheManager(new CaffeineLocalCache(properties), remoteCache, tieredProperties);
+        manager.put("users", "7", "user7", CacheStrategy.LOCAL_ONLY, null);
+        when(remoteCache.get("users:8")).thenReturn("user8");
+        
+        // 执行测试
+        String hit = manager.get("users", 7L, String.class, CacheStrategy.LOCAL_FIRST);
+        String miss = manager.get("users", 8L, String.class, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果：本地命中不访问远程，未命中按字符串键走常规路径
+        assertTrue(manager.getRegion("users").getLocalCache() instanceof LongKeyLocalCache);
+        assertEquals("user7", hit);
+        assertEquals("user8", miss);
+        verify(remoteCache, never()).get("users:7");
+        verify(remoteCache).get(anyString());
+        
+        // 验证结果：整数键表达式生成Long，其余生成字符串
+        CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+        Method method = String.class.getMethod("valueOf", int.class);
+        assertEquals(5L, keyGenerator.generateKey("#p0", "", method, new Object[]{5}, null));
+        assertEquals("user:5", keyGenerator.generateKey("'user:' + #p0", "", method, new Object[]{5}, null));
+        assertEquals("5", keyGenerator.generate("#p0", "", method, new Object[]{5}, null));
+    }
+}
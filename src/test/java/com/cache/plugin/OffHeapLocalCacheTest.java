@@ -0,0 +1,305 @@
+package com.cache.plugin;
+
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.local.impl.HybridLocalCache;
+import com.cache.plugin.local.impl.OffHeapLocalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 堆外本地缓存测试
+ */
+public class OffHeapLocalCacheTest {
+    
+    private OffHeapLocalCache cache;
+    private TieredCacheProperties.LocalCacheProperties properties;
+    private FakeTicker ticker;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new TieredCacheProperties.LocalCacheProperties();
+        properties.setProvider("off-heap");
+        properties.setExpireAfterWrite(Duration.ofSeconds(10));
+        properties.setExpireAfterAccess(Duration.ofSeconds(20));
+        properties.getOffHeap().setMaxMemory(DataSize.ofMegabytes(4));
+        properties.getOffHeap().setSlabSize(DataSize.ofKilobytes(64));
+        properties.getOffHeap().setSegments(4);
+        ticker = new FakeTicker();
+        
+        cache = new OffHeapLocalCache("off-heap", properties);
+    }
+    
+    @Test
+    void testPutAndGetCopiesValue() {
+        // 准备数据
+        HashMap<String, Integer> value = new HashMap<>();
+        value.put("count", 1);
+        
+        // 执行测试
+        cache.put("key", value);
+        value.put("count", 2);
+        Object result = cache.get("key");
+        
+        // 验证结果：读取的是写入时序列化的副本
+        assertEquals(1, ((Map<?, ?>) result).get("count"));
+        assertNotSame(value, result);
+        assertTrue(cache.containsKey("key"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+    
+    @Test
+    void testOverwriteEvictAndClear() {
+        // 准备数据
+        cache.put("key", "short");
+        cache.put("key", "a much longer value that moves to another size class");
+        cache.put("other", "value");
+        
+        // 执行测试与验证结果
+        assertEquals("a much longer value that moves to another size class", cache.get("key"));
+        assertEquals(2, cache.size());
+        
+        cache.evict("key");
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.get("other"));
+        
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("other"));
+        assertEquals(0, cache.getAllocatedBytes());
+    }
+    
+    @Test
+    void testMultiOperations() {
+        // 准备数据
+        Map<String, Object> keyValues = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            keyValues.put("key" + i, "value" + i);
+        }
+        
+        // 执行测试
+        cache.multiPut(keyValues);
+        Set<String> keys = new HashSet<>(keyValues.keySet());
+        keys.add("missing");
+        Map<String, Object> result = cache.multiGet(keys);
+        cache.multiEvict(new HashSet<>(Arrays.asList("key1", "key2")));
+        
+        // 验证结果
+        assertEquals(keyValues, result);
+        assertEquals(498, cache.size());
+        assertNull(cache.get("key1"));
+        assertEquals("value3", cache.get("key3"));
+    }
+    
+    @Test
+    void testEvictsWithinByteBudget() {
+        // 准备数据：预算4MB，写入约16MB
+        byte[] payload = new byte[1000];
+        
+        // 执行测试
+        for (int i = 0; i < 16000; i++) {
+            cache.put("key" + i, payload);
+        }
+        
+        // 验证结果：分配的直接内存不超过预算，最近写入的条目仍在缓存中
+        assertTrue(cache.getAllocatedBytes() <= 4 * 1024 * 1024);
+        assertTrue(cache.size() < 16000);
+        assertTrue(cache.getStats().getEvictionCount() > 0);
+        assertArrayEquals(payload, (byte[]) cache.get("key15999"));
+    }
+    
+    @Test
+    void testClockKeepsRecentlyReadEntries() {
+        // 准备数据：单个分段、单个slab
+        properties.getOffHeap().setMaxMemory(DataSize.ofKilobytes(64));
+        cache = new OffHeapLocalCache("clock", properties);
+        byte[] payload = new byte[900];
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, payload);
+        }
+        
+        // 执行测试：读取一个条目后继续写入
+        assertNotNull(cache.get("key0"));
+        for (int i = 50; i < 90; i++) {
+            cache.put("key" + i, payload);
+        }
+        
+        // 验证结果：被读取过的条目得到第二次机会
+        assertNotNull(cache.get("key0"));
+        assertNull(cache.get("key1"));
+    }
+    
+    @Test
+    void testPerEntryTtlAndExpireAfterWrite() {
+        // 准备数据
+        cache = new OffHeapLocalCache("ttl", properties, new CacheCodecRegistry(), ticker);
+        cache.put("short-key", "short-value", Duration.ofMillis(100));
+        cache.put("default-key", "default-value");
+        
+        // 执行测试
+        assertEquals("short-value", cache.get("short-key"));
+        ticker.advance(Duration.ofMillis(200));
+        
+        // 验证结果
+        assertNull(cache.get("short-key"));
+        assertEquals("default-value", cache.get("default-key"));
+        
+        // 执行测试：调整默认过期时间对已有条目生效
+        cache.setExpireAfterWrite(Duration.ofMillis(50));
+        ticker.advance(Duration.ofMillis(100));
+        cache.cleanUp();
+        
+        // 验证结果
+        assertNull(cache.get("default-key"));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void testPinnedEntrySurvivesEvictionAndExpiry() {
+        // 准备数据
+        properties.setExpireAfterWrite(Duration.ofMillis(100));
+        properties.setExpireAfterAccess(null);
+        properties.getOffHeap().setMaxMemory(DataSize.ofKilobytes(64));
+        cache = new OffHeapLocalCache("pinned", properties, new CacheCodecRegistry(), ticker);
+        byte[] payload = new byte[900];
+        cache.put("hot", payload);
+        cache.pin("hot");
+        
+        // 执行测试
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + i, payload);
+        }
+        ticker.advance(Duration.ofMillis(200));
+        
+        // 验证结果
+        assertNotNull(cache.get("hot"));
+        
+        // 执行测试：取消固定后恢复原有的过期策略
+        cache.unpin("hot");
+        
+        // 验证结果
+        assertFalse(cache.isPinned("hot"));
+        assertNull(cache.get("hot"));
+    }
+    
+    @Test
+    void testSetMaxSizeReleasesSlabs() {
+        // 准备数据
+        byte[] payload = new byte[1000];
+        for (int i = 0; i < 4000; i++) {
+            cache.put("key" + i, payload);
+        }
+        
+        // 执行测试
+        cache.setMaxSize(DataSize.ofMegabytes(1).toBytes());
+        
+        // 验证结果
+        assertEquals(1024 * 1024, cache.getMaxSize());
+        assertTrue(cache.getAllocatedBytes() <= 1024 * 1024);
+        assertTrue(cache.size() <= 1024 * 1024 / 1000);
+    }
+    
+    @Test
+    void testSkipsUnserializableAndOversizedValues() {
+        // 准备数据
+        cache.put("key", "old");
+        
+        // 执行测试
+        cache.put("key", new Unencodable());
+        cache.put("large", new byte[128 * 1024]);
+        
+        // 验证结果：无法存放的值不抛出异常，旧值被移除
+        assertNull(cache.get("key"));
+        assertNull(cache.get("large"));
+    }
+    
+    @Test
+    void testStoresNonSerializableValuesWithSharedCodec() {
+        // 准备数据：值类型没有实现Serializable，所在的包受信任
+        TieredCacheProperties.CodecProperties codec = new TieredCacheProperties.CodecProperties();
+        codec.setTrustedPackages(Collections.singletonList("com.cache.plugin"));
+        cache = new OffHeapLocalCache("codec", properties, new CacheCodecRegistry(codec));
+        Item item = new Item();
+        item.setName("book");
+        
+        // 执行测试
+        cache.put("key", item);
+        Object result = cache.get("key");
+        
+        // 验证结果
+        assertTrue(result instanceof Item);
+        assertEquals("book", ((Item) result).getName());
+    }
+    
+    @Test
+    void testHottestOrdersByRecentAccess() {
+        // 准备数据
+        cache = new OffHeapLocalCache("hottest", properties, new CacheCodecRegistry(), ticker);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        ticker.advance(Duration.ofMillis(5));
+        
+        // 执行测试
+        cache.get("key42");
+        List<HotEntry<String, Object>> hottest = cache.hottest(5);
+        
+        // 验证结果：最近读取的条目最热，带有剩余寿命
+        assertEquals(5, hottest.size());
+        assertEquals("key42", hottest.get(0).getKey());
+        assertEquals("value42", hottest.get(0).getValue());
+        assertNotNull(hottest.get(0).getRemainingTtl());
+        assertTrue(hottest.get(0).getRemainingTtl().compareTo(Duration.ofSeconds(10)) <= 0);
+    }
+    
+    @Test
+    void testHybridPromotesFromOffHeap() {
+        // 准备数据
+        properties.setMaxSize(10);
+        HybridLocalCache hybrid = new HybridLocalCache("hybrid", properties, null);
+        
+        // 执行测试
+        for (int i = 0; i < 100; i++) {
+            hybrid.put("key" + i, "value" + i);
+        }
+        hybrid.cleanUp();
+        
+        // 验证结果：L1只保留少量条目，其余从堆外读取
+        assertTrue(hybrid.getCurrentSize() <= 10);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, hybrid.get("key" + i));
+        }
+        assertEquals(100, hybrid.getOffHeapCache().size());
+        
+        hybrid.evict("key0");
+        assertNull(hybrid.get("key0"));
+    }
+    
+    public static class Item {
+        private String name;
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+    
+    public static class Unencodable {
+        public String getName() {
+            throw new IllegalStateException("not encodable");
+        }
+    }
+}
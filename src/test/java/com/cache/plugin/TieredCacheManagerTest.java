@@ -2,20 +2,47 @@ package com.cache.plugin;
 
 import com.cache.plugin.annotation.CacheStrategy;
 import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.AdaptiveReadPolicy;
+import com.cache.plugin.core.BloomFilter;
+import com.cache.plugin.core.CacheKey;
+import com.cache.plugin.core.CacheLoadOptions;
+import com.cache.plugin.core.CacheRegion;
 import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.core.ValueLoader;
+import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.exception.CacheLoadException;
 import com.cache.plugin.local.LocalCache;
 import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.remote.BloomFilterStore;
+import com.cache.plugin.remote.CircuitBreaker;
+import com.cache.plugin.remote.InvalidationListener;
+import com.cache.plugin.remote.MessageListener;
 import com.cache.plugin.remote.RemoteCache;
+import com.cache.plugin.sync.CacheSyncEvent;
+import com.cache.plugin.sync.CacheSyncManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -65,6 +92,25 @@ public class TieredCacheManagerTest {
         verify(remoteCache, never()).get(anyString());
     }
     
+    @Test
+    void testCompactKeyLocalHitSkipsRemote() {
+        // 准备数据
+        CacheKey hitKey = new CacheKey("UserService.find", new Object[]{7L});
+        CacheKey missKey = new CacheKey("UserService.find", new Object[]{8L});
+        cacheManager.put("users", hitKey.toString(), "user7", CacheStrategy.LOCAL_ONLY, null);
+        when(remoteCache.get("users:" + missKey)).thenReturn("user8");
+        
+        // 执行测试
+        String hit = cacheManager.get("users", hitKey, String.class, CacheStrategy.LOCAL_FIRST);
+        String miss = cacheManager.get("users", missKey, String.class, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果：本地以键对象命中，未命中按编码字符串走常规路径
+        assertEquals("user7", hit);
+        assertEquals("user8", miss);
+        verify(remoteCache, never()).get("users:" + hitKey);
+        verify(remoteCache, times(1)).get(anyString());
+    }
+    
     @Test
     void testLocalFirstStrategy_RemoteHit() {
         // 准备数据
@@ -170,8 +216,9 @@ public class TieredCacheManagerTest {
         
         // 验证结果
         assertEquals(value, localCache.get(key));
-        // 远程缓存应该被异步调用，这里验证可能需要等待
-        verify(remoteCache, timeout(1000)).put(key, value, ttl);
+        // 远程写入进入写回队列，由定时刷新以管道方式批量写入
+        verify(remoteCache, never()).put(key, value, ttl);
+        verify(remoteCache, timeout(3000)).multiPut(Collections.singletonMap(key, value), ttl);
     }
     
     @Test
@@ -238,6 +285,55 @@ public class TieredCacheManagerTest {
         // 注意：这里的实现可能需要根据实际的multiGet逻辑调整
     }
     
+    @Test
+    void testMultiGet_LocalFirstFetchesOnlyMissesFromRemote() {
+        // 准备数据
+        localCache.put("key1", "value1");
+        Set<String> keys = new HashSet<>();
+        keys.add("key1");
+        keys.add("key2");
+        keys.add("key3");
+        Set<String> expectedRemoteKeys = new HashSet<>();
+        expectedRemoteKeys.add("key2");
+        expectedRemoteKeys.add("key3");
+        Map<String, Object> remoteValues = new HashMap<>();
+        remoteValues.put("key2", "value2");
+        when(remoteCache.multiGet(expectedRemoteKeys)).thenReturn(remoteValues);
+        
+        // 执行测试
+        Map<String, Object> result = cacheManager.multiGet(keys, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果
+        assertEquals(2, result.size());
+        assertEquals("value1", result.get("key1"));
+        assertEquals("value2", result.get("key2"));
+        verify(remoteCache, times(1)).multiGet(expectedRemoteKeys);
+        verify(remoteCache, never()).get(anyString());
+        // 远程命中的条目异步回写到本地缓存
+        long deadline = System.currentTimeMillis() + 1000;
+        while (localCache.get("key2") == null && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertEquals("value2", localCache.get("key2"));
+    }
+    
+    @Test
+    void testMultiGet_AllLocalHitsSkipRemote() {
+        // 准备数据
+        localCache.put("key1", "value1");
+        localCache.put("key2", "value2");
+        Set<String> keys = new HashSet<>();
+        keys.add("key1");
+        keys.add("key2");
+        
+        // 执行测试
+        Map<String, Object> result = cacheManager.multiGet(keys, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果
+        assertEquals(2, result.size());
+        verify(remoteCache, never()).multiGet(any());
+    }
+    
     @Test
     void testMultiPut() {
         // 准备数据
@@ -254,4 +350,812 @@ public class TieredCacheManagerTest {
         assertEquals("value2", localCache.get("key2"));
         verify(remoteCache).multiPut(keyValues);
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testGetWithLoader_ConcurrentMissLoadsOnce() throws Exception {
+        // 准备数据
+        String key = "hot-key";
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        // 执行测试：第一个调用方开始加载后，其余调用方都已等待该次加载时才放行
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, () -> {
+                    loadCount.incrementAndGet();
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "loaded-value";
+                });
+            }));
+        }
+        start.countDown();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CacheRegion region = cacheManager.getRegion(TieredCacheManager.DEFAULT_REGION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (region.getCoalescedLoads() < 7 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(7, region.getCoalescedLoads());
+        assertEquals(1, cacheManager.getInFlightLoadCount());
+        release.countDown();
+        
+        // 验证结果：只加载一次，其余调用方得到同一次加载的结果
+        for (Future<String> future : futures) {
+            assertEquals("loaded-value", future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loadCount.get());
+        assertEquals("loaded-value", localCache.get(key));
+    }
+    
+    @Test
+    void testGetWithLoader_LoaderFailurePropagates() {
+        // 准备数据
+        String key = "failing-key";
+        IllegalStateException failure = new IllegalStateException("db down");
+        
+        // 执行测试
+        CacheLoadException exception = assertThrows(CacheLoadException.class, () ->
+                cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, () -> {
+                    throw failure;
+                }));
+        
+        // 验证结果
+        assertSame(failure, exception.getCause());
+        assertNull(localCache.get(key));
+    }
+    
+    @Test
+    void testGetWithLoader_StaleEntryServedAndRefreshedInBackground() throws Exception {
+        // 准备数据
+        FakeTicker ticker = useFakeTicker();
+        String key = "refresh-key";
+        AtomicInteger loadCount = new AtomicInteger();
+        CacheLoadOptions options = new CacheLoadOptions(null, Duration.ofMillis(100));
+        ValueLoader<String> loader = () -> "value-" + loadCount.incrementAndGet();
+        assertEquals("value-1", cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, options, loader));
+        
+        // 软过期前命中不触发刷新
+        assertEquals("value-1", cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, options, loader));
+        assertEquals(1, loadCount.get());
+        
+        // 执行测试：超过软过期后立即返回旧值
+        ticker.advance(Duration.ofMillis(150));
+        assertEquals("value-1", cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, options, loader));
+        
+        // 验证结果：后台刷新写入新值
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals("value-2", localCache.get(key));
+        assertEquals(2, loadCount.get());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetWithLoader_RejectedRefreshLetsWaitersLoad() throws Exception {
+        // 准备数据：后台刷新登记后、被执行器拒绝前，另一个调用方未命中并等待该次刷新
+        LocalCache<String, Object> local = mock(LocalCache.class);
+        when(local.get("stale")).thenReturn("old").thenReturn(null);
+        when(local.getAge("stale")).thenReturn(Duration.ofMinutes(5));
+        TieredCacheManager manager = new TieredCacheManager(local, remoteCache, properties);
+        manager.getTaskExecutor().shutdown();
+        CacheLoadOptions options = new CacheLoadOptions(null, Duration.ofMinutes(1));
+        AtomicReference<Object> waited = new AtomicReference<>();
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        manager.setTicker(() -> {
+            if (manager.getInFlightLoadCount() == 1 && waiter.get() == null) {
+                Thread thread = new Thread(() -> waited.set(
+                        manager.get("stale", String.class, CacheStrategy.LOCAL_ONLY, options, () -> "fresh")));
+                waiter.set(thread);
+                thread.start();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (thread.getState() != Thread.State.WAITING && thread.isAlive() && System.nanoTime() < deadline) {
+                    Thread.yield();
+                }
+            }
+            return System.nanoTime();
+        });
+        
+        // 执行测试
+        Object stale = manager.get("stale", String.class, CacheStrategy.LOCAL_ONLY, options, () -> "refreshed");
+        waiter.get().join(5000);
+        
+        // 验证结果：调用方仍得到旧值，等待者自行加载而不是得到null
+        assertEquals("old", stale);
+        assertEquals("fresh", waited.get());
+        assertEquals(0, manager.getInFlightLoadCount());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetWithLoader_SoftExpiryDerivedFromLocalWriteTime() throws Exception {
+        // 准备数据：其他节点写入后回填到本地的条目，本地记录的写入时间已超过软过期
+        LocalCache<String, Object> local = mock(LocalCache.class);
+        when(local.get("stale")).thenReturn("old");
+        when(local.getAge("stale")).thenReturn(Duration.ofMinutes(5));
+        when(local.get("fresh")).thenReturn("current");
+        when(local.getAge("fresh")).thenReturn(Duration.ofSeconds(1));
+        TieredCacheManager manager = new TieredCacheManager(local, remoteCache, properties);
+        CacheLoadOptions options = new CacheLoadOptions(null, Duration.ofMinutes(1));
+        CountDownLatch refreshed = new CountDownLatch(1);
+        ValueLoader<String> loader = () -> {
+            refreshed.countDown();
+            return "new";
+        };
+        
+        // 执行测试
+        assertEquals("old", manager.get("stale", String.class, CacheStrategy.LOCAL_FIRST, options, loader));
+        assertEquals("current", manager.get("fresh", String.class, CacheStrategy.LOCAL_FIRST, options, () -> "unexpected"));
+        
+        // 验证结果：过期的条目在后台刷新，判断软过期不访问远程缓存
+        assertTrue(refreshed.await(1, TimeUnit.SECONDS));
+        verify(remoteCache, never()).getExpire(anyString());
+        manager.shutdown();
+    }
+    
+    @Test
+    void testGetWithLoader_NullResultCachedWhenEnabled() throws Exception {
+        // 准备数据
+        String key = "null-key";
+        AtomicInteger loadCount = new AtomicInteger();
+        CacheLoadOptions options = new CacheLoadOptions();
+        options.setCacheNullValues(true);
+        ValueLoader<String> loader = () -> {
+            loadCount.incrementAndGet();
+            return null;
+        };
+        
+        // 执行测试
+        assertNull(cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, options, loader));
+        assertNull(cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, options, loader));
+        
+        // 验证结果：空值标记命中，加载器只调用一次，普通读取和批量读取不暴露标记
+        assertEquals(1, loadCount.get());
+        assertNull(cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY));
+        assertTrue(cacheManager.multiGet(Collections.singleton(key), CacheStrategy.LOCAL_ONLY).isEmpty());
+    }
+    
+    @Test
+    void testGetWithLoader_NullResultNotCachedByDefault() throws Exception {
+        // 准备数据
+        String key = "null-key";
+        AtomicInteger loadCount = new AtomicInteger();
+        ValueLoader<String> loader = () -> {
+            loadCount.incrementAndGet();
+            return null;
+        };
+        
+        // 执行测试
+        cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, new CacheLoadOptions(), loader);
+        cacheManager.get(key, String.class, CacheStrategy.LOCAL_ONLY, new CacheLoadOptions(), loader);
+        
+        // 验证结果
+        assertEquals(2, loadCount.get());
+        assertNull(localCache.get(key));
+    }
+    
+    @Test
+    void testRegion_ConfiguredLimitsAndNamespace() {
+        // 准备数据
+        TieredCacheProperties.RegionProperties hotConfig = new TieredCacheProperties.RegionProperties();
+        hotConfig.setMaxSize(50L);
+        hotConfig.setTtl(Duration.ofMinutes(30));
+        properties.getRegions().put("hot-config", hotConfig);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        
+        // 执行测试
+        cacheManager.put("hot-config", "flag", "on", CacheStrategy.WRITE_THROUGH, null);
+        
+        // 验证结果：区域使用独立的本地缓存、远程命名空间和TTL
+        CacheRegion region = cacheManager.getRegion("hot-config");
+        assertEquals(50, region.getLocalCache().getMaxSize());
+        assertNotSame(localCache, region.getLocalCache());
+        assertEquals("on", region.getLocalCache().get("flag"));
+        assertNull(localCache.get("flag"));
+        verify(remoteCache).put("hot-config:flag", "on", Duration.ofMinutes(30));
+    }
+    
+    @Test
+    void testRegion_ConfigurationOverridesAnnotationDefaults() {
+        // 准备数据
+        TieredCacheProperties.RegionProperties configured = new TieredCacheProperties.RegionProperties();
+        configured.setMaxSize(20L);
+        properties.getRegions().put("catalog", configured);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        
+        TieredCacheProperties.RegionProperties annotationDefaults = new TieredCacheProperties.RegionProperties();
+        annotationDefaults.setMaxSize(5000L);
+        annotationDefaults.setNamespace("products");
+        
+        // 执行测试
+        CacheRegion catalog = cacheManager.getRegion("catalog", annotationDefaults);
+        CacheRegion reports = cacheManager.getRegion("reports", annotationDefaults);
+        
+        // 验证结果
+        assertEquals(20, catalog.getLocalCache().getMaxSize());
+        assertEquals(5000, reports.getLocalCache().getMaxSize());
+        assertEquals("products:1", reports.remoteKey("1"));
+        assertEquals("1", cacheManager.getRegion(TieredCacheManager.DEFAULT_REGION).remoteKey("1"));
+    }
+    
+    @Test
+    void testRegion_StatsAreTrackedPerRegion() {
+        // 准备数据
+        cacheManager.put("users", "u1", "alice", CacheStrategy.LOCAL_ONLY, null);
+        
+        // 执行测试
+        cacheManager.get("users", "u1", String.class, CacheStrategy.LOCAL_ONLY);
+        cacheManager.get("users", "u2", String.class, CacheStrategy.LOCAL_ONLY);
+        cacheManager.get("u1", String.class, CacheStrategy.LOCAL_ONLY);
+        
+        // 验证结果
+        CacheRegion users = cacheManager.getRegion("users");
+        assertEquals(1, users.getLocalHits());
+        assertEquals(1, users.getMisses());
+        assertEquals(1, cacheManager.getRegion(TieredCacheManager.DEFAULT_REGION).getMisses());
+    }
+    
+    @Test
+    void testRegion_ReconfigureAndReloadAtRuntime() {
+        // 准备数据
+        TieredCacheProperties.RegionProperties reports = new TieredCacheProperties.RegionProperties();
+        reports.setMaxSize(1000L);
+        properties.getRegions().put("reports", reports);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        CacheRegion region = cacheManager.getRegion("reports");
+        
+        // 执行测试：通过管理接口缩容
+        cacheManager.reconfigureRegion("reports", 200L, Duration.ofSeconds(30), null);
+        
+        // 验证结果
+        assertEquals(200, region.getLocalCache().getMaxSize());
+        assertEquals(Duration.ofSeconds(30), region.getLocalCache().getExpireAfterWrite());
+        
+        // 执行测试：配置变更后重新加载
+        reports.setMaxSize(50L);
+        properties.getLocal().setMaxSize(60);
+        cacheManager.reloadLocalSettings();
+        
+        // 验证结果
+        assertEquals(50, region.getLocalCache().getMaxSize());
+        assertEquals(60, localCache.getMaxSize());
+        assertThrows(CacheException.class, () -> cacheManager.reconfigureRegion("missing", 1L, null, null));
+    }
+    
+    @Test
+    void testBloomFilter_KnownAbsentKeySkipsRemote() throws Exception {
+        // 准备数据
+        TieredCacheProperties.RegionProperties users = new TieredCacheProperties.RegionProperties();
+        users.getBloomFilter().setEnabled(true);
+        users.getBloomFilter().setExpectedInsertions(1000);
+        properties.getRegions().put("users", users);
+        BloomFilterStore store = mock(BloomFilterStore.class);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        cacheManager.setBloomFilterStore(store);
+        cacheManager.put("users", "u1", "alice", CacheStrategy.REMOTE_ONLY, null);
+        when(remoteCache.get("users:u1")).thenReturn("alice");
+        
+        // 执行测试
+        AtomicInteger loadCount = new AtomicInteger();
+        String absent = cacheManager.get("users", "u2", String.class, CacheStrategy.LOCAL_FIRST, new CacheLoadOptions(), () -> {
+            loadCount.incrementAndGet();
+            return null;
+        });
+        String present = cacheManager.get("users", "u1", String.class, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果：过滤器未记录的键直接交给加载器，已写入的键照常查询远程缓存
+        assertNull(absent);
+        assertEquals(1, loadCount.get());
+        assertEquals("alice", present);
+        verify(remoteCache, never()).get("users:u2");
+        verify(store, timeout(1000)).setBits(eq(TieredCacheManager.BLOOM_FILTER_KEY_PREFIX + "users"), any(long[].class));
+        assertEquals(1, cacheManager.getRegion("users").getBloomFilterRejects());
+    }
+    
+    @Test
+    void testBloomFilter_MirrorsSharedBitmapAndRebuildsFromScan() {
+        // 准备数据：其他节点写入的键只存在于共享位图中
+        TieredCacheProperties.RegionProperties users = new TieredCacheProperties.RegionProperties();
+        users.getBloomFilter().setEnabled(true);
+        users.getBloomFilter().setExpectedInsertions(1000);
+        properties.getRegions().put("users", users);
+        BloomFilter remote = new BloomFilter(1000, 0.01);
+        remote.put("users:u9");
+        BloomFilterStore store = mock(BloomFilterStore.class);
+        when(store.getBits(TieredCacheManager.BLOOM_FILTER_KEY_PREFIX + "users")).thenReturn(remote.toByteArray());
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("users:u1");
+            consumer.accept("users:u2");
+            return null;
+        }).when(store).scan(eq("users:*"), any());
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        
+        // 执行测试
+        cacheManager.setBloomFilterStore(store);
+        CacheRegion region = cacheManager.getRegion("users");
+        boolean mirrored = region.mightContain("users:u9");
+        long rebuilt = cacheManager.rebuildBloomFilter("users");
+        
+        // 验证结果
+        assertTrue(mirrored);
+        assertEquals(2, rebuilt);
+        assertTrue(region.mightContain("users:u1"));
+        assertTrue(region.mightContain("users:u2"));
+        verify(store).replace(eq(TieredCacheManager.BLOOM_FILTER_KEY_PREFIX + "users"), any(byte[].class));
+        assertThrows(CacheException.class, () -> cacheManager.rebuildBloomFilter(TieredCacheManager.DEFAULT_REGION));
+    }
+    
+    @Test
+    void testBloomFilter_SyncRunsAfterRegionIsPublished() {
+        // 准备数据：区域在启动后才加入配置，首次同步位图时访问同一区域
+        BloomFilterStore store = mock(BloomFilterStore.class);
+        cacheManager.setBloomFilterStore(store);
+        TieredCacheProperties.RegionProperties users = new TieredCacheProperties.RegionProperties();
+        users.getBloomFilter().setEnabled(true);
+        properties.getRegions().put("users", users);
+        AtomicReference<CacheRegion> seenDuringSync = new AtomicReference<>();
+        when(store.getBits(TieredCacheManager.BLOOM_FILTER_KEY_PREFIX + "users")).thenAnswer(invocation -> {
+            seenDuringSync.set(cacheManager.getRegion("users"));
+            return null;
+        });
+        
+        // 执行测试
+        CacheRegion region = cacheManager.getRegion("users");
+        
+        // 验证结果：远程调用发生在区域放入映射之后，不在创建区域的compute中
+        assertSame(region, seenDuringSync.get());
+        assertSame(region, cacheManager.getRegion("users"));
+        verify(store, times(1)).getBits(TieredCacheManager.BLOOM_FILTER_KEY_PREFIX + "users");
+    }
+    
+    @Test
+    void testHotKey_PinnedLocallyAndAnnounced() {
+        // 准备数据
+        properties.getSync().getHotKey().setEnabled(true);
+        properties.getSync().getHotKey().setThreshold(4);
+        properties.getSync().getHotKey().setDecayInterval(Duration.ofHours(1));
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        localCache.put("home", "products");
+        
+        // 执行测试
+        for (int i = 0; i < 4; i++) {
+            cacheManager.get("home", String.class, CacheStrategy.LOCAL_FIRST);
+        }
+        
+        // 验证结果
+        assertTrue(localCache.isPinned("home"));
+        assertEquals(Collections.singleton("home"), cacheManager.getHotKeyReplicator().getHotKeys());
+        verify(remoteCache).publish(eq("cache-sync:hot-keys"), contains("\"HOT\""));
+        
+        // 执行测试：不再读取后热度逐步衰减
+        for (int i = 0; i < 5; i++) {
+            cacheManager.getHotKeyReplicator().decay();
+        }
+        
+        // 验证结果
+        assertFalse(localCache.isPinned("home"));
+        assertTrue(cacheManager.getHotKeyReplicator().getHotKeys().isEmpty());
+    }
+    
+    @Test
+    void testHotKey_AnnouncementFromOtherNodePrefetchesAndPins() throws Exception {
+        // 准备数据
+        properties.getSync().getHotKey().setEnabled(true);
+        properties.getSync().getHotKey().setDecayInterval(Duration.ofHours(1));
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        verify(remoteCache).subscribe(eq("cache-sync:hot-keys"), listener.capture());
+        when(remoteCache.multiGet(Collections.singleton("config:global"))).thenReturn(Collections.singletonMap("config:global", "v1"));
+        
+        // 执行测试
+        listener.getValue().onMessage("cache-sync:hot-keys",
+                new CacheSyncEvent(CacheSyncEvent.Type.HOT, "global", null, System.currentTimeMillis(), "other-node", "config"));
+        
+        // 验证结果
+        LocalCache<String, Object> configLocal = cacheManager.getRegion("config").getLocalCache();
+        assertTrue(configLocal.isPinned("global"));
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        verify(remoteCache).multiGet(Collections.singleton("config:global"));
+        assertEquals("v1", cacheManager.get("config", "global", String.class, CacheStrategy.LOCAL_FIRST));
+        verify(remoteCache, never()).get("config:global");
+    }
+    
+    @Test
+    void testAdaptiveStrategy_SwitchesWithInvalidationRate() {
+        // 准备数据：本地条目寿命（10s）超过默认的陈旧上限（5s）
+        properties.getStrategy().getAdaptive().setEvaluationInterval(Duration.ZERO);
+        properties.getStrategy().getAdaptive().setMinSamples(10);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        localCache.put("k", "v");
+        for (int i = 0; i < 10; i++) {
+            cacheManager.get("k", String.class, CacheStrategy.ADAPTIVE);
+        }
+        AdaptiveReadPolicy policy = cacheManager.getRegion(TieredCacheManager.DEFAULT_REGION).getAdaptivePolicy();
+        assertEquals(CacheStrategy.LOCAL_FIRST, policy.getStrategy());
+        verify(remoteCache, never()).get("k");
+        
+        // 执行测试：频繁更新
+        for (int i = 0; i < 5; i++) {
+            cacheManager.put("k", "v" + i, CacheStrategy.ADAPTIVE, null);
+        }
+        for (int i = 0; i < 10; i++) {
+            cacheManager.get("k", String.class, CacheStrategy.ADAPTIVE);
+        }
+        
+        // 验证结果：改为远程优先
+        assertEquals(CacheStrategy.REMOTE_FIRST, policy.getStrategy());
+        assertTrue(policy.getInvalidationRatio() > 0.05);
+        verify(remoteCache, atLeastOnce()).get("k");
+        
+        // 执行测试：更新停止后（经过一个不含更新的完整评估周期）切回本地优先
+        for (int i = 0; i < 21; i++) {
+            cacheManager.get("k", String.class, CacheStrategy.ADAPTIVE);
+        }
+        
+        // 验证结果
+        assertEquals(CacheStrategy.LOCAL_FIRST, policy.getStrategy());
+        assertEquals(2, policy.getSwitchCount());
+    }
+    
+    @Test
+    void testAdaptiveStrategy_FillsAfterMissAreNotInvalidations() {
+        // 准备数据
+        properties.getStrategy().getAdaptive().setEvaluationInterval(Duration.ZERO);
+        properties.getStrategy().getAdaptive().setMinSamples(10);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        
+        // 执行测试：每个键未命中后写入一次，单个和批量写入
+        for (int i = 0; i < 10; i++) {
+            cacheManager.get("k" + i, String.class, CacheStrategy.ADAPTIVE);
+            cacheManager.put("k" + i, "v" + i, CacheStrategy.ADAPTIVE, null);
+        }
+        Map<String, Object> batch = new HashMap<>();
+        for (int i = 10; i < 20; i++) {
+            batch.put("k" + i, "v" + i);
+        }
+        cacheManager.multiPut(batch, CacheStrategy.ADAPTIVE, null);
+        for (int i = 0; i < 20; i++) {
+            cacheManager.get("k" + i, String.class, CacheStrategy.ADAPTIVE);
+        }
+        
+        // 验证结果：回填不计为失效，保持本地优先
+        AdaptiveReadPolicy policy = cacheManager.getRegion(TieredCacheManager.DEFAULT_REGION).getAdaptivePolicy();
+        assertEquals(0.0, policy.getInvalidationRatio());
+        assertEquals(CacheStrategy.LOCAL_FIRST, policy.getStrategy());
+    }
+    
+    @Test
+    void testCircuitOpen_ServesLocalOnlyAndSkipsRemoteWrites() {
+        // 准备数据
+        CircuitBreaker circuitBreaker = new CircuitBreaker("redis", properties.getRemote().getCircuitBreaker());
+        when(remoteCache.getCircuitBreaker()).thenReturn(circuitBreaker);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        localCache.put("cached", "local-value");
+        circuitBreaker.forceOpen();
+        
+        // 执行测试
+        String cached = cacheManager.get("cached", String.class, CacheStrategy.REMOTE_FIRST);
+        String missing = cacheManager.get("missing", String.class, CacheStrategy.LOCAL_FIRST);
+        cacheManager.put("written", "value", CacheStrategy.WRITE_THROUGH, null);
+        
+        // 验证结果
+        assertEquals("local-value", cached);
+        assertNull(missing);
+        assertEquals("value", localCache.get("written"));
+        verify(remoteCache, never()).get(anyString());
+        verify(remoteCache, never()).put(anyString(), any(), any(Duration.class));
+        verify(remoteCache, never()).put(anyString(), any());
+        
+        // 执行测试：恢复后重新使用远程缓存
+        circuitBreaker.reset();
+        cacheManager.get("missing", String.class, CacheStrategy.LOCAL_FIRST);
+        
+        // 验证结果
+        verify(remoteCache).get("missing");
+    }
+    
+    @Test
+    void testTtlJitter_SpreadsExpiryOfBatchWrites() {
+        // 准备数据
+        TieredCacheProperties.RegionProperties batch = new TieredCacheProperties.RegionProperties();
+        batch.setTtl(Duration.ofSeconds(100));
+        batch.getExpiration().setTtlJitter(0.5);
+        properties.getRegions().put("batch", batch);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        Map<String, Object> keyValues = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            keyValues.put("k" + i, "v" + i);
+        }
+        
+        // 执行测试
+        cacheManager.multiPut("batch", keyValues, CacheStrategy.WRITE_THROUGH, null);
+        cacheManager.put("batch", "single", "value", CacheStrategy.WRITE_THROUGH, null);
+        
+        // 验证结果：按组以不同的TTL写入，TTL在 [50s, 100s] 之间
+        ArgumentCaptor<Duration> ttls = ArgumentCaptor.forClass(Duration.class);
+        verify(remoteCache, atLeast(2)).multiPut(anyMap(), ttls.capture());
+        verify(remoteCache, never()).multiPut(anyMap());
+        assertTrue(new HashSet<>(ttls.getAllValues()).size() > 1);
+        ArgumentCaptor<Duration> singleTtl = ArgumentCaptor.forClass(Duration.class);
+        verify(remoteCache).put(eq("batch:single"), eq("value"), singleTtl.capture());
+        ttls.getAllValues().add(singleTtl.getValue());
+        for (Duration ttl : ttls.getAllValues()) {
+            assertTrue(ttl.compareTo(Duration.ofSeconds(50)) >= 0 && ttl.compareTo(Duration.ofSeconds(100)) <= 0,
+                       "ttl: " + ttl);
+        }
+        assertEquals(201, cacheManager.getRegion("batch").getLocalCache().size());
+    }
+    
+    @Test
+    void testEarlyRefresh_ReloadsBeforeExpiry() throws Exception {
+        // 准备数据
+        TieredCacheProperties.RegionProperties eager = new TieredCacheProperties.RegionProperties();
+        eager.getExpiration().setEarlyRefresh(true);
+        eager.getExpiration().setEarlyRefreshBeta(1000000);
+        properties.getRegions().put("eager", eager);
+        properties.getRegions().put("plain", new TieredCacheProperties.RegionProperties());
+        FakeTicker ticker = useFakeTicker();
+        AtomicInteger eagerLoads = new AtomicInteger();
+        AtomicInteger plainLoads = new AtomicInteger();
+        ValueLoader<String> eagerLoader = () -> "v" + eagerLoads.incrementAndGet();
+        ValueLoader<String> plainLoader = () -> "v" + plainLoads.incrementAndGet();
+        CacheLoadOptions options = new CacheLoadOptions(Duration.ofSeconds(1));
+        cacheManager.get("eager", "k", String.class, CacheStrategy.LOCAL_FIRST, options, eagerLoader);
+        cacheManager.get("plain", "k", String.class, CacheStrategy.LOCAL_FIRST, options, plainLoader);
+        
+        // 执行测试：离过期只剩1纳秒，任何非零的加载耗时都会触发提前刷新
+        ticker.advance(Duration.ofSeconds(1).minusNanos(1));
+        String eagerValue = cacheManager.get("eager", "k", String.class, CacheStrategy.LOCAL_FIRST, options, eagerLoader);
+        String plainValue = cacheManager.get("plain", "k", String.class, CacheStrategy.LOCAL_FIRST, options, plainLoader);
+        
+        // 验证结果：命中立即返回旧值，提前刷新在后台执行
+        assertEquals("v1", eagerValue);
+        assertEquals("v1", plainValue);
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(2, eagerLoads.get());
+        assertEquals(1, plainLoads.get());
+        assertTrue(cacheManager.getRegion("eager").getAverageLoadNanos() > 0);
+    }
+    
+    @Test
+    void testEarlyRefresh_EstimatesFromLocalExpiryOnceLoadTimeIsKnown() throws Exception {
+        // 准备数据：其他节点写入的条目，区域还没有加载耗时
+        TieredCacheProperties.RegionProperties eager = new TieredCacheProperties.RegionProperties();
+        eager.getExpiration().setEarlyRefresh(true);
+        eager.getExpiration().setEarlyRefreshBeta(1000000);
+        properties.getRegions().put("eager", eager);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        cacheManager.getRegion("eager").getLocalCache().put("k", "v0", Duration.ofSeconds(1));
+        AtomicInteger loads = new AtomicInteger();
+        ValueLoader<String> loader = () -> "v" + loads.incrementAndGet();
+        CacheLoadOptions options = new CacheLoadOptions(Duration.ofSeconds(1));
+        
+        // 执行测试：没有加载耗时时不提前刷新，也不记住无法估算的结果
+        assertEquals("v0", cacheManager.get("eager", "k", String.class, CacheStrategy.LOCAL_FIRST, options, loader));
+        assertEquals(0, loads.get());
+        cacheManager.getRegion("eager").recordLoadTime(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals("v0", cacheManager.get("eager", "k", String.class, CacheStrategy.LOCAL_FIRST, options, loader));
+        
+        // 验证结果：加载耗时已知后按本地条目的剩余寿命提前刷新，不访问远程缓存的TTL
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        verify(remoteCache, never()).getExpire(anyString());
+    }
+    
+    @Test
+    void testClientTracking_InvalidatesLocalEntriesByRemoteKey() {
+        // 准备数据
+        List<InvalidationListener> listeners = new ArrayList<>();
+        when(remoteCache.addInvalidationListener(any())).thenAnswer(invocation -> {
+            listeners.add(invocation.getArgument(0));
+            return true;
+        });
+        TieredCacheProperties.RegionProperties orders = new TieredCacheProperties.RegionProperties();
+        orders.setNamespace("ord");
+        properties.getRegions().put("orders", orders);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        cacheManager.put("a", "1", CacheStrategy.LOCAL_ONLY, null);
+        cacheManager.put("c", "3", CacheStrategy.LOCAL_ONLY, null);
+        cacheManager.put("orders", "b", "2", CacheStrategy.LOCAL_ONLY, null);
+        LocalCache<String, Object> ordersLocal = cacheManager.getRegion("orders").getLocalCache();
+        
+        // 执行测试
+        assertEquals(1, listeners.size());
+        listeners.get(0).onInvalidate(Arrays.asList("a", "ord:b"));
+        
+        // 验证结果
+        assertTrue(cacheManager.isClientTrackingEnabled());
+        assertNull(localCache.get("a"));
+        assertNull(ordersLocal.get("b"));
+        assertEquals("3", localCache.get("c"));
+        
+        // 执行测试：服务端清空数据库时通知所有键失效
+        listeners.get(0).onInvalidate(null);
+        
+        // 验证结果
+        assertNull(localCache.get("c"));
+    }
+    
+    @Test
+    void testClientTracking_SkipsBackfillInvalidatedDuringRead() throws Exception {
+        // 准备数据：远程读取返回后、回写本地前收到该键的失效通知
+        List<InvalidationListener> listeners = new ArrayList<>();
+        when(remoteCache.addInvalidationListener(any())).thenAnswer(invocation -> {
+            listeners.add(invocation.getArgument(0));
+            return true;
+        });
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties);
+        when(remoteCache.get("stale")).thenAnswer(invocation -> {
+            listeners.get(0).onInvalidate(Collections.singletonList("stale"));
+            return "old-value";
+        });
+        when(remoteCache.get("fresh")).thenReturn("value");
+        
+        // 执行测试
+        String stale = cacheManager.get("stale", String.class, CacheStrategy.LOCAL_FIRST);
+        String fresh = cacheManager.get("fresh", String.class, CacheStrategy.LOCAL_FIRST);
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        
+        // 验证结果：读取结果照常返回，但失效的值不回写本地
+        assertEquals("old-value", stale);
+        assertEquals("value", fresh);
+        assertNull(localCache.get("stale"));
+        assertEquals("value", localCache.get("fresh"));
+    }
+    
+    @Test
+    void testClientTracking_SyncChannelPublishesUnlessAllKeysTracked() {
+        // 准备数据
+        TieredCacheProperties.SyncProperties syncProperties = new TieredCacheProperties.SyncProperties();
+        syncProperties.setEnabled(true);
+        CacheSyncManager syncManager = new CacheSyncManager(localCache, remoteCache, syncProperties);
+        
+        try {
+            // 执行测试：DEFAULT模式或限定前缀时服务端不通知所有键
+            when(remoteCache.isTrackingAllKeys()).thenReturn(false);
+            syncManager.publishCacheUpdate("k", "v");
+            
+            // 验证结果：仍经同步频道广播
+            verify(remoteCache, times(1)).publish(eq(syncProperties.getChannel()), any());
+            
+            // 执行测试：BCAST模式且未限定前缀
+            when(remoteCache.isTrackingAllKeys()).thenReturn(true);
+            syncManager.publishCacheUpdate("k", "v");
+            
+            // 验证结果：不再广播
+            verify(remoteCache, times(1)).publish(eq(syncProperties.getChannel()), any());
+        } finally {
+            syncManager.destroy();
+        }
+    }
+    
+    @Test
+    void testBackfill_DroppedWhenKeyChangesDuringRemoteRead() throws Exception {
+        // 准备数据：远程读取返回前，本节点清除了一个键、写入了另一个键
+        when(remoteCache.get("evicted")).thenAnswer(invocation -> {
+            cacheManager.evict("evicted", CacheStrategy.LOCAL_ONLY);
+            return "old-value";
+        });
+        when(remoteCache.get("rewritten")).thenAnswer(invocation -> {
+            cacheManager.put("rewritten", "new-value", CacheStrategy.LOCAL_ONLY, null);
+            return "old-value";
+        });
+        when(remoteCache.multiGet(anySet())).thenAnswer(invocation -> {
+            cacheManager.evict("batch-evicted", CacheStrategy.LOCAL_ONLY);
+            Map<String, Object> values = new HashMap<>();
+            values.put("batch-evicted", "old-value");
+            values.put("batch-kept", "value");
+            return values;
+        });
+        
+        // 执行测试
+        cacheManager.get("evicted", String.class, CacheStrategy.LOCAL_FIRST);
+        cacheManager.get("rewritten", String.class, CacheStrategy.LOCAL_FIRST);
+        Map<String, Object> batch = cacheManager.multiGet(new HashSet<>(Arrays.asList("batch-evicted", "batch-kept")),
+                                                           CacheStrategy.LOCAL_FIRST);
+        cacheManager.getTaskExecutor().shutdown();
+        assertTrue(cacheManager.getTaskExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        
+        // 验证结果：读取结果照常返回，过时的值不回写本地
+        assertEquals(2, batch.size());
+        assertNull(localCache.get("evicted"));
+        assertEquals("new-value", localCache.get("rewritten"));
+        assertNull(localCache.get("batch-evicted"));
+        assertEquals("value", localCache.get("batch-kept"));
+    }
+    
+    @Test
+    void testApplySyncPut_DropsWritesOlderThanLocalEvict() {
+        // 准备数据
+        long before = System.currentTimeMillis() - 1000;
+        cacheManager.evict("key", CacheStrategy.LOCAL_ONLY);
+        
+        // 执行测试
+        boolean outdated = cacheManager.applySyncPut("key", "old-value", before);
+        
+        // 验证结果
+        assertFalse(outdated);
+        assertNull(localCache.get("key"));
+        
+        // 执行测试
+        boolean applied = cacheManager.applySyncPut("key", "new-value", System.currentTimeMillis() + 1);
+        
+        // 验证结果
+        assertTrue(applied);
+        assertEquals("new-value", localCache.get("key"));
+    }
+    
+    @Test
+    void testSyncPut_NotDroppedByWritesToOtherKeys() {
+        // 准备数据：事件发出后本节点写入了大量其他键，覆盖了几乎所有分段
+        long before = System.currentTimeMillis() - 1;
+        for (int i = 0; i < 20000; i++) {
+            cacheManager.put("other-" + i, "v", CacheStrategy.LOCAL_ONLY, null);
+        }
+        
+        // 执行测试
+        boolean applied = cacheManager.applySyncPut("key", "remote-value", before);
+        
+        // 验证结果：按键比较，其他键的写入不会使事件被丢弃
+        assertTrue(applied);
+        assertEquals("remote-value", localCache.get("key"));
+    }
+    
+    /**
+     * 本地缓存、区域缓存和管理器改用手动推进的计时器
+     */
+    private FakeTicker useFakeTicker() {
+        FakeTicker ticker = new FakeTicker();
+        TieredCacheProperties.LocalCacheProperties localProps = new TieredCacheProperties.LocalCacheProperties();
+        localProps.setMaxSize(100);
+        localProps.setExpireAfterWrite(Duration.ofSeconds(10));
+        localCache = new CaffeineLocalCache("caffeine-local-cache", localProps, null, ticker);
+        cacheManager = new TieredCacheManager(localCache, remoteCache, properties,
+                (name, local) -> new CaffeineLocalCache(name, local, null, ticker));
+        cacheManager.setTicker(ticker);
+        return ticker;
+    }
+    
+    @Test
+    void testConcurrentRegionCreationClosesLosingLocalCache() throws Exception {
+        // 准备数据：两个线程的区域本地缓存都创建后才继续，必有一个落选
+        CountDownLatch bothCreated = new CountDownLatch(2);
+        List<LocalCache<String, Object>> created = Collections.synchronizedList(new ArrayList<>());
+        TieredCacheManager manager = new TieredCacheManager(localCache, remoteCache, properties, (name, props) -> {
+            LocalCache<String, Object> cache = spy(new CaffeineLocalCache(name, props));
+            created.add(cache);
+            bothCreated.countDown();
+            try {
+                bothCreated.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return cache;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        // 执行测试
+        Future<CacheRegion> first = executor.submit(() -> manager.getRegion("orders"));
+        Future<CacheRegion> second = executor.submit(() -> manager.getRegion("orders"));
+        CacheRegion region = first.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        
+        // 验证结果：两个线程得到同一个区域，只有落选的本地缓存被关闭
+        assertSame(region, second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, created.size());
+        for (LocalCache<String, Object> cache : created) {
+            verify(cache, times(cache == region.getLocalCache() ? 0 : 1)).close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.cache.plugin;
+
+import com.cache.plugin.local.impl.ReflectiveSizeEstimator;
+import com.cache.plugin.local.impl.SerializedSizeEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存值大小估算器测试
+ */
+public class ValueSizeEstimatorTest {
+    
+    private final ReflectiveSizeEstimator reflective = new ReflectiveSizeEstimator();
+    private final SerializedSizeEstimator serialized = new SerializedSizeEstimator();
+    
+    @Test
+    void testReflectiveEstimateGrowsWithContent() {
+        // 准备数据
+        Order small = new Order("o-1", 1);
+        Order large = new Order("o-2", 500);
+        
+        // 执行测试
+        long smallSize = reflective.estimate(small);
+        long largeSize = reflective.estimate(large);
+        
+        // 验证结果
+        assertTrue(smallSize > 0);
+        assertTrue(largeSize > smallSize * 50);
+        assertTrue(reflective.estimate(Boolean.TRUE) < smallSize);
+    }
+    
+    @Test
+    void testReflectiveEstimateCountsSharedObjectsOnce() {
+        // 准备数据
+        byte[] payload = new byte[10000];
+        List<Object> list = new ArrayList<>();
+        list.add(payload);
+        list.add(payload);
+        
+        // 执行测试
+        long size = reflective.estimate(list);
+        
+        // 验证结果
+        assertTrue(size >= 10000 && size < 20000);
+    }
+    
+    @Test
+    void testReflectiveEstimateHandlesCycles() {
+        // 准备数据
+        Map<String, Object> map = new HashMap<>();
+        map.put("self", map);
+        
+        // 执行测试 & 验证结果
+        assertTrue(reflective.estimate(map) > 0);
+    }
+    
+    @Test
+    void testSerializedEstimate() {
+        // 准备数据
+        Order order = new Order("o-1", 100);
+        
+        // 执行测试
+        long size = serialized.estimate(order);
+        
+        // 验证结果：不可序列化的值退化为反射估算
+        assertTrue(size > 100 * 4);
+        assertEquals(reflective.estimate(new Object()), serialized.estimate(new Object()));
+    }
+    
+    /**
+     * 测试用订单
+     */
+    static class Order implements Serializable {
+        private final String id;
+        private final List<Item> items = new ArrayList<>();
+        
+        Order(String id, int itemCount) {
+            this.id = id;
+            for (int i = 0; i < itemCount; i++) {
+                items.add(new Item("sku-" + i, i));
+            }
+        }
+    }
+    
+    /**
+     * 测试用订单项
+     */
+    static class Item implements Serializable {
+        private final String sku;
+        private final int quantity;
+        
+        Item(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.cache.plugin;
+
+import com.cache.plugin.annotation.CacheStrategy;
+import com.cache.plugin.codec.CacheCodecRegistry;
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.TieredCacheManager;
+import com.cache.plugin.core.WarmRestartManager;
+import com.cache.plugin.local.HotEntry;
+import com.cache.plugin.local.impl.CaffeineLocalCache;
+import com.cache.plugin.remote.RemoteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+/**
+ * 预热快照测试
+ */
+public class WarmRestartManagerTest {
+    
+    @TempDir
+    Path directory;
+    
+    private RemoteCache<String, Object> remoteCache;
+    private TieredCacheProperties properties;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remoteCache = mock(RemoteCache.class);
+        properties = new TieredCacheProperties();
+        properties.getWarmRestart().setEnabled(true);
+        properties.getWarmRestart().setPath(directory.resolve("warm-restart.snapshot").toString());
+        properties.getWarmRestart().setInterval(null);
+    }
+    
+    @Test
+    void testRestoresSnapshotIntoNewManager() throws Exception {
+        // 准备数据：保存前本地时间不流逝，短TTL的条目一定在快照中
+        TieredCacheManager before = newManager(new FakeTicker());
+        before.put("key1", "value1", CacheStrategy.LOCAL_ONLY, null);
+        before.getRegion(null).getLocalCache().put("key2", "value2", Duration.ofMillis(100));
+        before.put("products", "p1", "product1", CacheStrategy.LOCAL_ONLY, null);
+        WarmRestartManager saver = new WarmRestartManager(before, properties.getWarmRestart());
+        assertEquals(3, saver.save());
+        
+        // 执行测试：在200毫秒之后加载
+        TieredCacheManager after = newManager();
+        int restored = new WarmRestartManager(after, properties.getWarmRestart(), new CacheCodecRegistry(),
+                Clock.offset(Clock.systemUTC(), Duration.ofMillis(200))).load();
+        
+        // 验证结果：已过期的条目不恢复，未创建的区域在首次创建时写入
+        assertEquals(1, restored);
+        assertEquals("value1", after.getRegion(null).getLocalCache().get("key1"));
+        assertNull(after.getRegion(null).getLocalCache().get("key2"));
+        assertFalse(after.hasRegion("products"));
+        assertEquals("product1", after.getRegion("products").getLocalCache().get("p1"));
+        verify(remoteCache, never()).multiGet(anySet());
+    }
+    
+    @Test
+    void testRestoresNonSerializableValues() throws Exception {
+        // 准备数据：值类型没有实现Serializable，所在的包受信任
+        TieredCacheProperties.CodecProperties codec = new TieredCacheProperties.CodecProperties();
+        codec.setTrustedPackages(Collections.singletonList("com.cache.plugin"));
+        CacheCodecRegistry codecs = new CacheCodecRegistry(codec);
+        TieredCacheManager before = newManager();
+        Item item = new Item();
+        item.setName("book");
+        before.put("key1", item, CacheStrategy.LOCAL_ONLY, null);
+        assertEquals(1, new WarmRestartManager(before, properties.getWarmRestart(), codecs).save());
+        
+        // 执行测试
+        TieredCacheManager after = newManager();
+        int restored = new WarmRestartManager(after, properties.getWarmRestart(), codecs).load();
+        
+        // 验证结果
+        assertEquals(1, restored);
+        Object result = after.getRegion(null).getLocalCache().get("key1");
+        assertTrue(result instanceof Item);
+        assertEquals("book", ((Item) result).getName());
+    }
+    
+    @Test
+    void testRefillsFromRemoteByKeyList() throws Exception {
+        // 准备数据
+        properties.getWarmRestart().setSource("remote");
+        TieredCacheManager before = newManager();
+        before.put("key1", "old-value", CacheStrategy.LOCAL_ONLY, null);
+        new WarmRestartManager(before, properties.getWarmRestart()).save();
+        Map<String, Object> remoteValues = new HashMap<>();
+        remoteValues.put("key1", "new-value");
+        when(remoteCache.multiGet(Collections.singleton("key1"))).thenReturn(remoteValues);
+        
+        // 执行测试
+        TieredCacheManager after = newManager();
+        int restored = new WarmRestartManager(after, properties.getWarmRestart()).load();
+        
+        // 验证结果：值来自远程缓存而不是快照
+        assertEquals(1, restored);
+        assertEquals("new-value", after.getRegion(null).getLocalCache().get("key1"));
+    }
+    
+    @Test
+    void testDoesNotOverwriteNewerWrites() throws Exception {
+        // 准备数据
+        TieredCacheManager before = newManager();
+        before.put("key1", "old-value", CacheStrategy.LOCAL_ONLY, null);
+        before.put("key2", "old-value", CacheStrategy.LOCAL_ONLY, null);
+        new WarmRestartManager(before, properties.getWarmRestart()).save();
+        
+        // 执行测试：加载开始后有新的写入和删除
+        TieredCacheManager after = newManager();
+        long since = System.currentTimeMillis();
+        after.put("key1", "new-value", CacheStrategy.LOCAL_ONLY, null);
+        after.evict("key2", CacheStrategy.LOCAL_ONLY);
+        int restored = after.restoreLocal(null, Arrays.asList(
+                new HotEntry<>("key1", "old-value", null), new HotEntry<>("key2", "old-value", null)), since);
+        
+        // 验证结果
+        assertEquals(0, restored);
+        assertEquals("new-value", after.getRegion(null).getLocalCache().get("key1"));
+        assertNull(after.getRegion(null).getLocalCache().get("key2"));
+    }
+    
+    @Test
+    void testIgnoresSnapshotOlderThanMaxAge() throws Exception {
+        // 准备数据
+        TieredCacheManager before = newManager();
+        before.put("key1", "value1", CacheStrategy.LOCAL_ONLY, null);
+        new WarmRestartManager(before, properties.getWarmRestart()).save();
+        properties.getWarmRestart().setMaxAge(Duration.ofMillis(50));
+        
+        // 执行测试：在100毫秒之后加载
+        TieredCacheManager after = newManager();
+        int restored = new WarmRestartManager(after, properties.getWarmRestart(), new CacheCodecRegistry(),
+                Clock.offset(Clock.systemUTC(), Duration.ofMillis(100))).load();
+        
+        // 验证结果
+        assertEquals(0, restored);
+        assertNull(after.getRegion(null).getLocalCache().get("key1"));
+    }
+    
+    @Test
+    void testSkipsCorruptSnapshot() throws Exception {
+        // 准备数据：格式正确但长度字段损坏的快照
+        Path snapshot = directory.resolve("warm-restart.snapshot");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(snapshot)))) {
+            out.writeInt(0x54435752);
+            out.writeInt(2);
+            out.writeLong(System.currentTimeMillis());
+            out.writeBoolean(false);
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+            out.write(new byte[16]);
+        }
+        
+        // 执行测试
+        TieredCacheManager after = newManager();
+        int restored = new WarmRestartManager(after, properties.getWarmRestart()).load();
+        
+        // 验证结果：快照被跳过，不抛出异常
+        assertEquals(0, restored);
+    }
+    
+    @Test
+    void testStopSavesSnapshot() {
+        // 准备数据
+        TieredCacheManager manager = newManager();
+        WarmRestartManager warmRestart = new WarmRestartManager(manager, properties.getWarmRestart());
+        warmRestart.start();
+        manager.put("key1", "value1", CacheStrategy.LOCAL_ONLY, null);
+        
+        // 执行测试
+        warmRestart.stop();
+        
+        // 验证结果
+        assertFalse(warmRestart.isRunning());
+        assertTrue(Files.exists(directory.resolve("warm-restart.snapshot")));
+    }
+    
+    @Test
+    void testHottestReturnsRecentlyReadEntries() {
+        // 准备数据
+        TieredCacheProperties.LocalCacheProperties localProps = new TieredCacheProperties.LocalCacheProperties();
+        localProps.setMaxSize(100);
+        CaffeineLocalCache cache = new CaffeineLocalCache(localProps);
+        for (int i = 0; i < 80; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cache.pin("key5");
+        
+        // 执行测试
+        for (int i = 0; i < 20; i++) {
+            cache.get("key7");
+        }
+        cache.cleanUp();
+        List<HotEntry<String, Object>> hottest = cache.hottest(10);
+        
+        // 验证结果：固定的条目恢复时使用默认过期时间
+        assertEquals(10, hottest.size());
+        assertTrue(hottest.stream().anyMatch(entry -> entry.getKey().equals("key7")));
+        assertTrue(cache.hottest(200).stream()
+                .filter(entry -> entry.getKey().equals("key5"))
+                .allMatch(entry -> entry.getRemainingTtl() == null));
+    }
+    
+    private TieredCacheManager newManager() {
+        return newManager(null);
+    }
+    
+    private TieredCacheManager newManager(FakeTicker ticker) {
+        TieredCacheProperties.LocalCacheProperties localProps = new TieredCacheProperties.LocalCacheProperties();
+        localProps.setMaxSize(100);
+        return new TieredCacheManager(new CaffeineLocalCache("caffeine-local-cache", localProps, null, ticker),
+                remoteCache, properties);
+    }
+    
+    public static class Item {
+        private String name;
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+}
@@ -0,0 +1,151 @@
+package com.cache.plugin;
+
+import com.cache.plugin.config.TieredCacheProperties;
+import com.cache.plugin.core.WriteBehindQueue;
+import com.cache.plugin.exception.CacheException;
+import com.cache.plugin.remote.RemoteCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 写回队列测试
+ */
+public class WriteBehindQueueTest {
+    
+    @Mock
+    private RemoteCache<String, Object> remoteCache;
+    
+    private TieredCacheProperties.SyncProperties syncProperties;
+    private WriteBehindQueue queue;
+    
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        
+        syncProperties = new TieredCacheProperties.SyncProperties();
+        syncProperties.setBatchSize(10);
+        // 使用较长的刷新间隔，由测试显式触发刷新
+        syncProperties.setFlushInterval(Duration.ofMinutes(10));
+        syncProperties.getWriteBehind().setCapacity(2);
+        syncProperties.getWriteBehind().setMaxBlockTime(Duration.ofMillis(10));
+        syncProperties.getWriteBehind().setMaxRetries(1);
+        syncProperties.getWriteBehind().setRetryBackoff(Duration.ZERO);
+        
+        queue = new WriteBehindQueue(remoteCache, syncProperties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+    
+    @Test
+    void testCoalescesWritesToSameKey() {
+        Duration ttl = Duration.ofMinutes(5);
+        for (int i = 0; i < 100; i++) {
+            queue.enqueue("key", "value-" + i, ttl);
+        }
+        
+        queue.flush();
+        
+        verify(remoteCache, times(1)).multiPut(Collections.singletonMap("key", "value-99"), ttl);
+        assertEquals(99, queue.getCoalescedCount());
+        assertEquals(1, queue.getFlushedCount());
+        assertEquals(0, queue.getPendingCount());
+    }
+    
+    @Test
+    void testRemoveCancelsPendingWrite() {
+        queue.enqueue("key", "value", Duration.ofMinutes(5));
+        
+        queue.remove("key");
+        queue.flush();
+        
+        verify(remoteCache, never()).multiPut(any(), any());
+    }
+    
+    @Test
+    void testFullQueueFallsBackToDirectWrite() {
+        Duration ttl = Duration.ofMinutes(5);
+        queue.enqueue("key1", "value1", ttl);
+        queue.enqueue("key2", "value2", ttl);
+        
+        // 队列已满，第三次写入直接同步写入远程缓存
+        queue.enqueue("key3", "value3", ttl);
+        
+        verify(remoteCache).put("key3", "value3", ttl);
+        assertEquals(1, queue.getDirectWriteCount());
+        assertEquals(2, queue.getPendingCount());
+    }
+    
+    @Test
+    void testFailedFlushIsRetriedThenDropped() {
+        Duration ttl = Duration.ofMinutes(5);
+        doThrow(new CacheException("redis down")).when(remoteCache).multiPut(anyMap(), any(Duration.class));
+        queue.enqueue("key", "value", ttl);
+        
+        queue.flush();
+        assertEquals(1, queue.getPendingCount());
+        assertEquals(1, queue.getRetriedCount());
+        
+        queue.flush();
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(1, queue.getDroppedCount());
+        verify(remoteCache, times(2)).multiPut(Collections.singletonMap("key", "value"), ttl);
+    }
+    
+    @Test
+    void testRemoveDuringFlushWaitsForWriteAndIsNotRequeued() throws Exception {
+        // 准备数据：批次写入远程缓存时阻塞，放行后写入失败
+        Duration ttl = Duration.ofMinutes(5);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new CacheException("redis down");
+        }).when(remoteCache).multiPut(anyMap(), any(Duration.class));
+        queue.enqueue("key", "value", ttl);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> flush = executor.submit(queue::flush);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        
+        // 执行测试：批次已取出、正在写入时移除该键
+        Future<?> remove = executor.submit(() -> queue.remove("key"));
+        
+        // 验证结果：移除等待进行中的写入结束，之后的远程清除不会被旧值覆盖；作废的条目不重新入队
+        assertThrows(TimeoutException.class, () -> remove.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        remove.get(5, TimeUnit.SECONDS);
+        flush.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(0, queue.getRetriedCount());
+    }
+    
+    @Test
+    void testShutdownFlushesPendingWrites() {
+        Duration ttl = Duration.ofMinutes(5);
+        queue.enqueue("key", "value", ttl);
+        
+        queue.shutdown();
+        
+        verify(remoteCache).multiPut(Collections.singletonMap("key", "value"), ttl);
+    }
+}